@@ -0,0 +1,27 @@
+package bogdanpc.linearsync.cli.boundary;
+
+import bogdanpc.linearsync.synchronization.entity.ResultSink;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import io.quarkus.logging.Log;
+
+/**
+ * Logs issue results while the sync runs: conflicts and failures right away, every result with {@code --verbose}.
+ */
+class ConsoleResultSink implements ResultSink {
+
+    @Override
+    public void issueResult(SyncResult.IssueResult result) {
+        if ("conflict".equals(result.action)) {
+            Log.warnf("Conflict, the Linear status was kept - %s / %s: %s", result.linearIdentifier, result.jiraIssueKey, result.message);
+        } else if (!result.success) {
+            Log.errorf("Failed - %s: %s", result.linearIdentifier, result.message);
+        } else {
+            Log.debug("  " + result);
+        }
+    }
+
+    @Override
+    public void error(String message) {
+        Log.error("Error - " + message);
+    }
+}
@@ -1,11 +1,24 @@
 package bogdanpc.linearsync.cli.boundary;
 
 import bogdanpc.linearsync.configuration.entity.ConfigurationException;
-import bogdanpc.linearsync.configuration.control.SyncConfiguration;
+import bogdanpc.linearsync.configuration.entity.SyncConfiguration;
 import bogdanpc.linearsync.jira.boundary.Jira;
 import bogdanpc.linearsync.linear.control.IssueOperations;
 import bogdanpc.linearsync.linear.entity.LinearStateType;
+import bogdanpc.linearsync.monitoring.boundary.MetricsServer;
+import bogdanpc.linearsync.monitoring.control.Tracer;
+import bogdanpc.linearsync.synchronization.control.DriftAuditor;
+import bogdanpc.linearsync.synchronization.control.RunHistory;
+import bogdanpc.linearsync.synchronization.control.ShardLease;
+import bogdanpc.linearsync.synchronization.control.ShardLeases;
+import bogdanpc.linearsync.synchronization.control.SyncDaemon;
+import bogdanpc.linearsync.synchronization.control.SyncPlanner;
+import bogdanpc.linearsync.synchronization.control.SyncStateRebuilder;
+import bogdanpc.linearsync.synchronization.control.SyncStateRepository;
 import bogdanpc.linearsync.synchronization.control.Synchronizer;
+import bogdanpc.linearsync.synchronization.entity.AuditReport;
+import bogdanpc.linearsync.synchronization.entity.RunRecord;
+import bogdanpc.linearsync.synchronization.entity.SyncPlan;
 import bogdanpc.linearsync.synchronization.entity.SyncResult;
 import io.quarkus.logging.Log;
 import io.quarkus.picocli.runtime.annotations.TopCommand;
@@ -14,15 +27,25 @@ import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 @TopCommand
 @Command(name = "linear-jira-sync", description = "Synchronize Linear issues to Jira", mixinStandardHelpOptions = true, version = "1.0.0", subcommands = {ListLinearIssuesCommand.class, ReadLinearIssueCommand.class})
 public class LinearJiraSyncCommand implements Callable<Integer> {
 
     public static final String FAILED = "✗ FAILED";
+    private static final int STATUS_RUNS = 10;
+    // Throughput below this share of the usual is reported as a regression
+    private static final double REGRESSION_RATIO = 0.8;
 
     @Inject
     SyncConfiguration config;
@@ -30,16 +53,43 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
     @Inject
     Synchronizer synchronizer;
 
+    @Inject
+    SyncStateRebuilder stateRebuilder;
+
+    @Inject
+    DriftAuditor driftAuditor;
+
+    @Inject
+    SyncDaemon syncDaemon;
+
+    @Inject
+    SyncStateRepository stateRepository;
+
+    @Inject
+    ShardLeases shardLeases;
+
+    @Inject
+    SyncPlanner syncPlanner;
+
     @Inject
     Jira jiraService;
 
     @Inject
     IssueOperations linearService;
 
-    @Parameters(index = "0", description = "Action to perform: sync, status, reset, test-connection", defaultValue = "")
+    @Inject
+    MetricsServer metricsServer;
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    RunHistory runHistory;
+
+    @Parameters(index = "0", description = "Action to perform: sync, daemon, status, reset, rebuild-state, restore, audit, test-connection", defaultValue = "")
     String action;
 
-    @Option(names = {"-t", "--team"}, description = "Linear team key to sync (e.g., 'ENG')")
+    @Option(names = {"-t", "--team"}, description = "Linear team key to sync (e.g., 'ENG'); the daemon accepts several, comma-separated")
     String teamKey;
 
     @Option(names = {"-s", "--state"}, description = "Filter by Linear issue state type (e.g., 'started', 'completed')")
@@ -54,6 +104,9 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
     @Option(names = {"-f", "--force-full-sync"}, description = "Force full synchronization, ignoring last sync time")
     boolean forceFullSync = false;
 
+    @Option(names = {"--resume"}, description = "Continue the last interrupted sync from its checkpoint")
+    boolean resume = false;
+
     @Option(names = {"-d", "--dry-run"}, description = "Show what would be done without making actual changes")
     boolean dryRun = false;
 
@@ -63,6 +116,42 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
     @Option(names = {"-q", "--quiet"}, description = "Suppress non-error output")
     boolean quiet = false;
 
+    @Option(names = {"-p", "--parallelism"}, description = "Number of issues processed concurrently (default: sync.parallelism, 1)")
+    Integer parallelism;
+
+    @Option(names = {"--deadline"}, description = "Time budget of the sync, e.g. '90s', '5m' or 'PT1H'; the most valuable changes go first and the rest is left for the next run")
+    String deadline;
+
+    @Option(names = {"--plan"}, description = "Write the Jira operations the sync would perform, with an estimate of their cost, to this file instead of performing them")
+    String planFile;
+
+    @Option(names = {"--apply"}, description = "Perform the operations of a plan written by --plan, creating new issues in bulk")
+    String applyFile;
+
+    @Option(names = {"--partitioned"}, description = "Claim a free shard of sync.partition.shards and sync only its issues, with its own state")
+    boolean partitioned = false;
+
+    @Option(names = {"--bidirectional"}, description = "Also sync status changes and comments made in Jira back to Linear, before syncing Linear to Jira")
+    boolean bidirectional = false;
+
+    @Option(names = {"--report"}, description = "Append every issue result, error and run summary to this file as one JSON line each, while the sync runs")
+    String report;
+
+    @Option(names = {"--metrics"}, description = "Write the metrics of API calls, pipeline stages and state persistence to this file in the Prometheus text format at the end of every run")
+    String metricsFile;
+
+    @Option(names = {"--metrics-port"}, description = "Serve the metrics in the Prometheus text format on http://localhost:PORT/metrics while the daemon runs")
+    Integer metricsPort;
+
+    @Option(names = {"--trace"}, description = "Append a trace span for every synced issue and API call to this file in the OTLP JSON format")
+    String traceFile;
+
+    @Option(names = {"--interval"}, description = "Fixed seconds between two daemon polls of a team (default: adapt to the team's activity)")
+    Integer interval;
+
+    @Option(names = {"--backup"}, description = "Backup to restore, by name or timestamp (default: the latest)")
+    String backup;
+
     @Option(names = {"--state-dir"}, description = "Custom directory for state file storage (overrides LINEARSYNC_STORAGE_LOCATION)")
     String stateDirectory;
 
@@ -74,7 +163,7 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
             return 1;
         }
 
-        LoggingConfig.configure(quiet, verbose);
+        LoggingConfigurer.configure(quiet, verbose);
 
         // Apply state directory override if provided
         if (stateDirectory != null && !stateDirectory.isBlank()) {
@@ -84,8 +173,12 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
         try {
             int exitCode = switch (action.toLowerCase()) {
                 case "sync" -> performSync();
+                case "daemon" -> runDaemon();
                 case "status" -> showStatus();
                 case "reset" -> resetState();
+                case "rebuild-state" -> rebuildState();
+                case "restore" -> restoreState();
+                case "audit" -> audit();
                 case "test-connection" -> testConnection();
                 case "list-issue-types" -> listIssueTypes();
                 default -> unknownAction();
@@ -93,6 +186,7 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
 
             return exitCode;
         } finally {
+            tracer.stop();
             // Schedule async exit to allow logs to flush
             new Thread(() -> {
                 try {
@@ -112,20 +206,108 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
             return configValid;
         }
 
+        if (metricsPort != null) {
+            Log.error("Error: --metrics-port serves the metrics of the daemon, use --metrics to write those of a sync to a file");
+            return 1;
+        }
+
+        if (resume && (issueIdentifier != null || teamKey != null || stateType != null || updatedAfter != null || forceFullSync)) {
+            Log.error("Error: --resume continues the interrupted sync with its original filters and cannot be combined with --issue, --team, --state, --updated-after or --force-full-sync");
+            return 1;
+        }
+
         var updatedAfterInstant = parseUpdatedAfterTimestamp();
         if (updatedAfterInstant == null && updatedAfter != null && !updatedAfter.isEmpty()) {
             return 1;
         }
 
+        var deadlineDuration = parseDeadline();
+        if (deadlineDuration == null && deadline != null) {
+            return 1;
+        }
+
+        if (partitioned && (issueIdentifier != null || teamKey != null)) {
+            Log.error("Error: --partitioned syncs the issues of the claimed shard and cannot be combined with --issue or --team");
+            return 1;
+        }
+
+        if (bidirectional && (issueIdentifier != null || resume || partitioned || planFile != null || applyFile != null)) {
+            Log.error("Error: --bidirectional cannot be combined with --issue, --resume, --partitioned, --plan or --apply");
+            return 1;
+        }
+
+        if (planFile != null || applyFile != null) {
+            return planOrApply(updatedAfterInstant, deadlineDuration);
+        }
+
         printSyncHeader(updatedAfterInstant);
 
+        ShardLease lease = null;
         try {
+            if (partitioned) {
+                lease = shardLeases.claim().orElse(null);
+                if (lease == null) {
+                    Log.infof("All %d shards are leased by other workers, nothing to do", shardLeases.shards().size());
+                    return 0;
+                }
+                usePartition(lease);
+            }
             synchronizer.setDryRun(dryRun);
+            synchronizer.setParallelism(parallelism);
+            synchronizer.setDeadline(deadlineDuration);
+            synchronizer.setBidirectional(bidirectional);
+            streamResults();
+
+            SyncResult result;
+            if (issueIdentifier != null) {
+                result = synchronizer.synchronizeSingleIssue(issueIdentifier);
+            } else if (resume) {
+                result = synchronizer.resume();
+            } else {
+                result = synchronizer.synchronize(teamKey, stateType != null ? stateType.getValue() : null, updatedAfterInstant, forceFullSync);
+            }
+
+            printSyncResults(result);
+            return result.success ? 0 : 1;
+
+        } catch (Exception e) {
+            Log.error("Error: Synchronization failed - " + e.getMessage());
+            Log.debug("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+            return 1;
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    private Integer planOrApply(Instant updatedAfterInstant, Duration deadlineDuration) {
+        if (planFile != null && applyFile != null) {
+            Log.error("Error: Cannot use both --plan and --apply options");
+            return 1;
+        }
+        if (issueIdentifier != null || resume || partitioned || deadlineDuration != null) {
+            Log.error("Error: --plan and --apply cannot be combined with --issue, --resume, --partitioned or --deadline");
+            return 1;
+        }
+        if (applyFile != null && (dryRun || teamKey != null || stateType != null || updatedAfter != null || forceFullSync)) {
+            Log.error("Error: --apply performs the plan with the filters it was made with and cannot be combined with --dry-run, --team, --state, --updated-after or --force-full-sync");
+            return 1;
+        }
 
-            var result = issueIdentifier != null
-                    ? synchronizer.synchronizeSingleIssue(issueIdentifier)
-                    : synchronizer.synchronize(teamKey, stateType != null ? stateType.getValue() : null, updatedAfterInstant, forceFullSync);
+        try {
+            synchronizer.setParallelism(parallelism);
+            streamResults();
 
+            if (planFile != null) {
+                Log.info("Linear → Jira Sync plan");
+                var plan = syncPlanner.plan(teamKey, stateType != null ? stateType.getValue() : null, updatedAfterInstant, forceFullSync, Path.of(planFile));
+                printPlan(plan);
+                return 0;
+            }
+
+            Log.infof("Linear → Jira Sync applying %s", applyFile);
+            var result = syncPlanner.apply(Path.of(applyFile));
             printSyncResults(result);
             return result.success ? 0 : 1;
 
@@ -136,6 +318,101 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
         }
     }
 
+    private void printPlan(SyncPlan plan) {
+        for (var step : plan.steps) {
+            Log.debugf("  %s %s%s %s", step.action(), step.linearIdentifier(),
+                    step.jiraIssueKey() != null ? " → " + step.jiraIssueKey() : "", step.changedFields().isEmpty() ? "" : step.changedFields());
+        }
+        var estimate = plan.estimate;
+        Log.infof("Plan - %d to create, %d to update, %d unchanged", plan.count(SyncPlan.Action.CREATE), plan.count(SyncPlan.Action.UPDATE), plan.unchangedCount);
+        Log.infof("Estimate - %d Jira calls %s, %s of payloads, about %s", estimate.apiCalls(), estimate.callsByOperation(),
+                formatBytes(estimate.payloadBytes()), formatDuration(Duration.ofMillis(estimate.expectedMillis())));
+        Log.infof("Written to %s, run 'sync --apply %s' to perform it", planFile, planFile);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return "%.1f KB".formatted(bytes / 1024.0);
+        return "%.1f MB".formatted(bytes / (1024.0 * 1024));
+    }
+
+    private static String formatDuration(Duration duration) {
+        if (duration.toMinutes() > 0) return "%dm %ds".formatted(duration.toMinutes(), duration.toSecondsPart());
+        return "%ds".formatted(duration.toSeconds());
+    }
+
+    /**
+     * Keeps the sync state in the shard's own directory and limits the sync to the shard's issues.
+     */
+    private void usePartition(ShardLease lease) {
+        synchronizer.setShard(lease);
+        Log.infof("Syncing shard %s", lease.shard().name());
+    }
+
+    private Integer runDaemon() {
+        var configValid = validateConfiguration();
+        if (configValid != null) {
+            return configValid;
+        }
+
+        if (issueIdentifier != null || resume || updatedAfter != null || forceFullSync || deadline != null) {
+            Log.error("Error: daemon syncs the issues updated since its previous cycle and cannot be combined with --issue, --resume, --updated-after, --force-full-sync or --deadline");
+            return 1;
+        }
+
+        if (partitioned && teamKey != null) {
+            Log.error("Error: --partitioned syncs the issues of the claimed shard and cannot be combined with --team");
+            return 1;
+        }
+
+        if (partitioned && bidirectional) {
+            Log.error("Error: --bidirectional cannot be combined with --partitioned");
+            return 1;
+        }
+
+        var direction = bidirectional ? "Linear ⇄ Jira" : "Linear → Jira";
+        Log.info(dryRun ? direction + " Sync daemon (dry-run)" : direction + " Sync daemon");
+
+        ShardLease lease = null;
+        try {
+            var teamKeys = teamKey != null
+                    ? Arrays.stream(teamKey.split(",")).map(String::trim).filter(key -> !key.isEmpty()).toList()
+                    : List.<String>of();
+            if (partitioned) {
+                // Stands by until a shard is free, e.g. when the worker holding it stops
+                lease = shardLeases.awaitClaim();
+                if (lease == null) {
+                    return 0;
+                }
+                usePartition(lease);
+                lease.onLost(syncDaemon::stop);
+                teamKeys = lease.shard().teamKey() != null ? List.of(lease.shard().teamKey()) : List.of();
+            }
+            synchronizer.setDryRun(dryRun);
+            synchronizer.setParallelism(parallelism);
+            synchronizer.setBidirectional(bidirectional);
+            streamResults();
+            if (metricsPort != null) {
+                metricsServer.start(metricsPort);
+            }
+            syncDaemon.run(teamKeys, stateType != null ? stateType.getValue() : null, interval);
+            if (lease != null && lease.isLost()) {
+                Log.error("Error: Sync daemon stopped after losing its shard to another worker");
+                return 1;
+            }
+            return 0;
+        } catch (Exception e) {
+            Log.error("Error: Sync daemon failed - " + e.getMessage());
+            Log.debug("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+            return 1;
+        } finally {
+            metricsServer.stop();
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
     private Integer validateConfiguration() {
         try {
             config.validate();
@@ -164,11 +441,44 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
         }
     }
 
+    /**
+     * Accepts seconds, minutes or hours such as '90s', '5m' or '1h', and ISO-8601 durations such as 'PT1M30S'.
+     */
+    private Duration parseDeadline() {
+        if (deadline == null) {
+            return null;
+        }
+
+        var value = deadline.trim().toLowerCase();
+        try {
+            Duration duration;
+            if (value.matches("\\d+[smh]?")) {
+                var amount = Long.parseLong(value.replaceAll("[smh]", ""));
+                duration = switch (value.charAt(value.length() - 1)) {
+                    case 'm' -> Duration.ofMinutes(amount);
+                    case 'h' -> Duration.ofHours(amount);
+                    default -> Duration.ofSeconds(amount);
+                };
+            } else {
+                duration = Duration.parse(value.toUpperCase());
+            }
+            if (duration.isNegative() || duration.isZero()) {
+                Log.error("Error: --deadline must be positive");
+                return null;
+            }
+            return duration;
+        } catch (DateTimeParseException | ArithmeticException _) {
+            Log.error("Error: Invalid duration for --deadline. Use seconds, minutes or hours like '90s', '5m' or '1h'");
+            return null;
+        }
+    }
+
     private void printSyncHeader(Instant updatedAfterInstant) {
+        var direction = bidirectional ? "Linear ⇄ Jira" : "Linear → Jira";
         if (dryRun) {
-            Log.info("Linear → Jira Sync (dry-run)");
+            Log.info(direction + " Sync (dry-run)");
         } else {
-            Log.info("Linear → Jira Sync");
+            Log.info(direction + " Sync");
         }
 
         if (issueIdentifier != null) {
@@ -197,27 +507,27 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
     private void printSyncResults(SyncResult result) {
         Log.debug(result.getSummary());
 
-        if (!result.issueResults.isEmpty()) {
-            Log.debug("");
-            Log.debug("Detailed Results:");
-            for (var issueResult : result.issueResults) {
-                Log.debug("  " + issueResult);
-            }
-        }
-
         var summary = new StringBuilder();
-        if (result.createdCount > 0) summary.append(result.createdCount).append(" created");
-        if (result.updatedCount > 0) {
+        if (result.createdCount() > 0) summary.append(result.createdCount()).append(" created");
+        if (result.updatedCount() > 0) {
+            if (!summary.isEmpty()) summary.append(", ");
+            summary.append(result.updatedCount()).append(" updated");
+        }
+        if (result.skippedCount() > 0) {
+            if (!summary.isEmpty()) summary.append(", ");
+            summary.append(result.skippedCount()).append(" skipped");
+        }
+        if (result.pulledCount() > 0) {
             if (!summary.isEmpty()) summary.append(", ");
-            summary.append(result.updatedCount).append(" updated");
+            summary.append(result.pulledCount()).append(" pulled from Jira");
         }
-        if (result.skippedCount > 0) {
+        if (result.conflictCount() > 0) {
             if (!summary.isEmpty()) summary.append(", ");
-            summary.append(result.skippedCount).append(" skipped");
+            summary.append(result.conflictCount()).append(" conflicts");
         }
-        if (!result.errors.isEmpty()) {
+        if (result.errorCount() > 0) {
             if (!summary.isEmpty()) summary.append(", ");
-            summary.append(result.errors.size()).append(" errors");
+            summary.append(result.errorCount()).append(" errors");
         }
 
         if (summary.isEmpty()) {
@@ -226,17 +536,102 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
             Log.infof("Done - %s", summary);
         }
 
-        if (!result.errors.isEmpty()) {
-            Log.error("Errors:");
-            for (var error : result.errors) {
-                Log.error("  " + error);
-            }
+        if (result.deadlineReached) {
+            Log.infof("Stopped at the deadline - %d fetched issues and any further pages are left for the next run", result.leftCount);
+        }
+
+        if (report != null) {
+            Log.infof("Report written to %s", report);
         }
     }
 
+    /**
+     * Conflicts and failures are logged as they happen and, with {@code --report}, every result is appended to the
+     * report file, so nothing is listed at the end of the run. With {@code --metrics} the metrics file is rewritten
+     * at the end of every run, and with {@code --trace} the spans of every issue are appended to the trace file.
+     */
+    private void streamResults() {
+        synchronizer.addResultSink(new ConsoleResultSink());
+        synchronizer.setReportFile(report != null ? Path.of(report) : null);
+        synchronizer.setMetricsFile(metricsFile != null ? Path.of(metricsFile) : null);
+        if (traceFile != null) {
+            tracer.start(Path.of(traceFile));
+        }
+    }
+
+    /**
+     * Reports the latest runs from the end of the run history, without loading the sync state.
+     */
     private Integer showStatus() {
-        Log.info("Sync status functionality not yet implemented");
-        return 0;
+        List<RunRecord> runs;
+        try {
+            runs = runHistory.recent(STATUS_RUNS);
+        } catch (RuntimeException e) {
+            Log.error("Error: Failed to read the run history - " + e.getMessage());
+            return 1;
+        }
+        if (runs.isEmpty()) {
+            Log.infof("No sync runs recorded yet in %s", runHistory.getFile());
+            return 0;
+        }
+
+        var last = runs.getLast();
+        Log.infof("Last run: %s, %s in %s%s", formatTimestamp(last.start()), last.success() ? "succeeded" : FAILED,
+                formatMillis(last.durationMillis()), last.dryRun() ? " (dry-run)" : "");
+        if (last.syncedIssues() >= 0) {
+            Log.infof("  Synced issues: %d", last.syncedIssues());
+        }
+        var issues = last.issues().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> entry.getValue() + " " + entry.getKey())
+                .collect(Collectors.joining(", "));
+        Log.infof("  Issues: %s", issues.isEmpty() ? "none" : issues);
+        if (last.deadlineReached()) {
+            Log.info("  Stopped at the deadline");
+        }
+        if (last.errorCount() > 0) {
+            Log.warnf("  Errors: %d", last.errorCount());
+            last.errors().forEach(error -> Log.warn("    " + error));
+            if (last.errorCount() > last.errors().size()) {
+                Log.warnf("    ... and %d more", last.errorCount() - last.errors().size());
+            }
+        }
+        if (!last.slowestIssues().isEmpty()) {
+            Log.info("  Slowest issues:");
+            last.slowestIssues().forEach(issue -> Log.infof("    %-12s %-8s %s", issue.linearIdentifier(), issue.action(), formatMillis(issue.durationMillis())));
+        }
+        if (!last.apiCalls().isEmpty()) {
+            Log.infof("  API calls: %d", last.totalApiCalls());
+            last.apiCalls().entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(RunRecord.ApiCalls::calls).reversed()))
+                    .forEach(entry -> Log.infof("    %-28s %6d calls, %d failed, %s sent, %s received", entry.getKey(), entry.getValue().calls(),
+                            entry.getValue().failed(), formatBytes(entry.getValue().requestBytes()), formatBytes(entry.getValue().responseBytes())));
+        }
+
+        Log.info("");
+        Log.infof("Recent runs (%s):", runHistory.getFile());
+        Log.infof("  %-14s %9s %7s %9s %9s %6s", "Started", "Duration", "Issues", "Issues/s", "API calls", "Errors");
+        for (var run : runs.reversed()) {
+            Log.infof("  %-14s %9s %7d %9.1f %9d %6d%s", formatTimestamp(run.start()), formatMillis(run.durationMillis()), run.processedIssues(),
+                    run.issuesPerSecond(), run.totalApiCalls(), run.errorCount(), run.dryRun() ? "  dry-run" : "");
+        }
+
+        var trend = RunHistory.throughputTrend(runs);
+        if (trend.isPresent()) {
+            var percent = Math.round(trend.getAsDouble() * 100);
+            if (trend.getAsDouble() < REGRESSION_RATIO) {
+                Log.warnf("Throughput regression: the latest run synced %d%% of the issues per second of the median recent run", percent);
+            } else {
+                Log.infof("Throughput: %d%% of the median recent run", percent);
+            }
+        }
+        return last.success() ? 0 : 1;
+    }
+
+    private static String formatMillis(long millis) {
+        if (millis < 1000) return millis + "ms";
+        if (millis < 60_000) return String.format("%.1fs", millis / 1000.0);
+        return String.format("%dm %02ds", millis / 60_000, millis / 1000 % 60);
     }
 
     private Integer resetState() {
@@ -244,6 +639,94 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
         return 0;
     }
 
+    private Integer rebuildState() {
+        var configValid = validateConfiguration();
+        if (configValid != null) {
+            return configValid;
+        }
+
+        Log.info(dryRun ? "Rebuilding sync state from Jira (dry-run)" : "Rebuilding sync state from Jira");
+
+        try {
+            synchronizer.setDryRun(dryRun);
+            var result = stateRebuilder.rebuild(teamKey);
+
+            Log.infof("Done - %d Linear issues: %d already tracked, %d restored, %d not in Jira (%dms)",
+                    result.linearIssues(), result.alreadyTracked(), result.restored(), result.notInJira(), result.durationMillis());
+            if (result.restored() > 0 && !dryRun) {
+                Log.info("The next sync will refresh all restored issues");
+            }
+            return 0;
+        } catch (Exception e) {
+            Log.error("Error: Rebuilding sync state failed - " + e.getMessage());
+            Log.debug("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+            return 1;
+        }
+    }
+
+    private Integer restoreState() {
+        try {
+            var restored = stateRepository.restoreBackup(backup);
+            Log.infof("Done - sync state restored from %s", restored);
+            return 0;
+        } catch (IllegalArgumentException e) {
+            Log.error("Error: " + e.getMessage());
+            var backups = stateRepository.listBackups();
+            if (!backups.isEmpty()) {
+                Log.info("Available backups:");
+                backups.forEach(name -> Log.info("  " + name));
+            }
+            return 1;
+        } catch (Exception e) {
+            Log.error("Error: Restoring sync state failed - " + e.getMessage());
+            Log.debug("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+            return 1;
+        }
+    }
+
+    private Integer audit() {
+        var configValid = validateConfiguration();
+        if (configValid != null) {
+            return configValid;
+        }
+
+        Log.info(dryRun ? "Auditing Jira against Linear (dry-run)" : "Auditing Jira against Linear");
+
+        try {
+            synchronizer.setDryRun(dryRun);
+            var report = driftAuditor.audit();
+
+            Log.infof("Compared %d Linear and %d Jira issues in %d requests - %d of %d buckets differ (%dms)",
+                    report.linearIssues(), report.jiraIssues(), report.requests(), report.mismatchedBuckets(), report.buckets(), report.durationMillis());
+            if (report.isConsistent()) {
+                Log.info("✓ Jira matches Linear");
+                return 0;
+            }
+
+            Log.warnf("✗ %d issues drifted:", report.drifts().size());
+            for (var drift : report.drifts()) {
+                Log.warn("  " + describe(drift));
+            }
+            if (!dryRun) {
+                Log.info("Run 'sync --issue <identifier>' for single issues or 'sync --force-full-sync' to rewrite the drifted fields");
+            }
+            return 1;
+        } catch (Exception e) {
+            Log.error("Error: Audit failed - " + e.getMessage());
+            Log.debug("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+            return 1;
+        }
+    }
+
+    private static String describe(AuditReport.Drift drift) {
+        return switch (drift.kind()) {
+            case MISSING_IN_JIRA -> String.format("[%s] %s: missing in Jira (was %s)", drift.bucket(), drift.linearIdentifier(), drift.jiraIssueKey());
+            case MISSING_IN_LINEAR -> String.format("[%s] %s: Linear issue %s not found", drift.bucket(), drift.jiraIssueKey(), drift.linearIssueId());
+            case FIELDS_DIFFER -> String.format("[%s] %s -> %s: %s differs", drift.bucket(), drift.linearIdentifier(), drift.jiraIssueKey(),
+                    drift.fields().stream().map(field -> field.name().toLowerCase()).collect(Collectors.joining(", ")));
+        };
+    }
+
     private Integer testConnection() {
         Log.info("Testing API connections...");
 
@@ -347,7 +830,7 @@ public class LinearJiraSyncCommand implements Callable<Integer> {
     }
 
     private Integer unknownAction() {
-        Log.error("Error: Unknown action '" + action + "'. Use: sync, status, reset, test-connection, or list-issue-types");
+        Log.error("Error: Unknown action '" + action + "'. Use: sync, daemon, status, reset, rebuild-state, restore, audit, test-connection, or list-issue-types");
         return 1;
     }
 }
@@ -1,6 +1,6 @@
 package bogdanpc.linearsync.cli.boundary;
 
-import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.control.IssueMirror;
 import bogdanpc.linearsync.linear.entity.LinearIssue;
 import bogdanpc.linearsync.linear.entity.LinearStateType;
 import io.quarkus.logging.Log;
@@ -8,6 +8,7 @@ import jakarta.inject.Inject;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
@@ -18,7 +19,7 @@ import java.util.concurrent.Callable;
 public class ListLinearIssuesCommand implements Callable<Integer> {
 
     @Inject
-    IssueOperations linearService;
+    IssueMirror issueMirror;
 
     @Option(names = {"-t", "--team"}, description = "Linear team key to filter by (e.g., 'ENG')")
     String teamKey;
@@ -38,6 +39,9 @@ public class ListLinearIssuesCommand implements Callable<Integer> {
     @Option(names = {"-a", "--all"}, description = "Show all issues (default is to show only issues assigned to you)")
     boolean showAll = false;
 
+    @Option(names = {"--max-age"}, description = "Serve from the local mirror when it was refreshed within this many seconds, 0 to always refresh it (default: linear.mirror.max-age-seconds, 300)")
+    Integer maxAge;
+
     @Override
     public Integer call() {
         if (quiet && verbose) {
@@ -49,7 +53,7 @@ public class ListLinearIssuesCommand implements Callable<Integer> {
 
         try {
             var updatedAfterInstant = getUpdatedAfterInstant();
-            if (updatedAfterInstant == null) return 1;
+            if (updatedAfterInstant == null && updatedAfter != null && !updatedAfter.isEmpty()) return 1;
 
             Log.info("Fetching Linear issues...");
             Log.debug("Configuration:");
@@ -91,12 +95,12 @@ public class ListLinearIssuesCommand implements Callable<Integer> {
     }
 
     private List<LinearIssue> getLinearIssues(Instant updatedAfterInstant) {
-        return showAll ? linearService.getIssues(teamKey, stateType.getValue(), updatedAfterInstant) :
-                linearService.getMyIssues(teamKey, stateType.getValue(), updatedAfterInstant);
+        var freshness = maxAge != null ? Duration.ofSeconds(Math.max(0, maxAge)) : issueMirror.maxAge();
+        return issueMirror.issues(teamKey, stateType != null ? stateType.getValue() : null, updatedAfterInstant, !showAll, freshness);
     }
 
     private Instant getUpdatedAfterInstant() {
-        if (updatedAfter == null || !updatedAfter.isEmpty()) {
+        if (updatedAfter == null || updatedAfter.isEmpty()) {
             return null;
         }
         try {
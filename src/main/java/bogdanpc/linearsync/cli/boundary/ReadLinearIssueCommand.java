@@ -1,6 +1,6 @@
 package bogdanpc.linearsync.cli.boundary;
 
-import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.control.IssueMirror;
 import bogdanpc.linearsync.linear.entity.LinearIssue;
 import io.quarkus.logging.Log;
 import jakarta.inject.Inject;
@@ -8,6 +8,7 @@ import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
 
@@ -15,7 +16,7 @@ import java.util.concurrent.Callable;
 public class ReadLinearIssueCommand implements Callable<Integer> {
 
     @Inject
-    IssueOperations linearService;
+    IssueMirror issueMirror;
 
     @Parameters(index = "0", description = "Linear issue identifier (e.g., 'ENG-123')")
     String issueIdentifier;
@@ -32,6 +33,9 @@ public class ReadLinearIssueCommand implements Callable<Integer> {
     @Option(names = {"--attachments-only"}, description = "Show only attachments (no comments)")
     boolean attachmentsOnly = false;
 
+    @Option(names = {"--max-age"}, description = "Serve from the local mirror when the issue was refreshed within this many seconds, 0 to always read it from Linear (default: linear.mirror.max-age-seconds, 300)")
+    Integer maxAge;
+
     @Override
     public Integer call() {
         if (quiet && verbose) {
@@ -48,7 +52,8 @@ public class ReadLinearIssueCommand implements Callable<Integer> {
         Log.info("Fetching Linear issue: " + issueIdentifier);
 
         try {
-            return linearService.getIssueByIdentifier(issueIdentifier)
+            var freshness = maxAge != null ? Duration.ofSeconds(Math.max(0, maxAge)) : issueMirror.maxAge();
+            return issueMirror.issue(issueIdentifier, freshness)
                     .map(this::displayIssue)
                     .orElseGet(() -> {
                         Log.error("Error: Issue not found: " + issueIdentifier);
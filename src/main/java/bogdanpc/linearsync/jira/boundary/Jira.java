@@ -1,13 +1,24 @@
 package bogdanpc.linearsync.jira.boundary;
 
 import bogdanpc.linearsync.jira.control.*;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraBulkCreateResponse;
 import bogdanpc.linearsync.jira.entity.JiraIssue;
+import bogdanpc.linearsync.jira.entity.JiraIssueChange;
 import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import bogdanpc.linearsync.jira.entity.JiraIssueReference;
+import bogdanpc.linearsync.jira.entity.JiraIssueSnapshot;
+import bogdanpc.linearsync.jira.entity.JiraIssueUpdate;
 import bogdanpc.linearsync.jira.entity.JiraProject;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class Jira {
@@ -17,13 +28,19 @@ public class Jira {
     private final CommentOperations commentOperations;
     private final AttachmentOperations attachmentOperations;
     private final TransitionOperations transitionOperations;
+    private final IssueFieldHasher issueFieldHasher;
+    private final ChangeFeedOperations changeFeedOperations;
+    private final AuditOperations auditOperations;
 
-    public Jira(IssueOperations issueOperations, SearchOperations searchOperations, CommentOperations commentOperations, AttachmentOperations attachmentOperations, TransitionOperations transitionOperations) {
+    public Jira(IssueOperations issueOperations, SearchOperations searchOperations, CommentOperations commentOperations, AttachmentOperations attachmentOperations, TransitionOperations transitionOperations, IssueFieldHasher issueFieldHasher, ChangeFeedOperations changeFeedOperations, AuditOperations auditOperations) {
         this.issueOperations = issueOperations;
         this.searchOperations = searchOperations;
         this.commentOperations = commentOperations;
         this.attachmentOperations = attachmentOperations;
         this.transitionOperations = transitionOperations;
+        this.issueFieldHasher = issueFieldHasher;
+        this.changeFeedOperations = changeFeedOperations;
+        this.auditOperations = auditOperations;
     }
 
 
@@ -32,10 +49,46 @@ public class Jira {
     }
 
 
+    public JiraBulkCreateResponse createIssues(List<JiraIssueInput> issueInputs) {
+        return issueOperations.createIssues(issueInputs);
+    }
+
     public void updateIssue(String jiraIssueKey, JiraIssueInput issueInput) {
         issueOperations.updateIssue(jiraIssueKey, issueInput);
     }
 
+    public void updateIssue(String jiraIssueKey, JiraIssueInput issueInput, Set<IssueField> changedFields) {
+        issueOperations.updateIssue(jiraIssueKey, issueInput, changedFields);
+    }
+
+    public Map<IssueField, String> fieldHashes(JiraIssueInput issueInput) {
+        return issueFieldHasher.hash(issueInput);
+    }
+
+    public String statusHash(String status) {
+        return issueFieldHasher.statusHash(status);
+    }
+
+    public String jiraStatusFor(String linearStateType) {
+        return transitionOperations.statusFor(linearStateType);
+    }
+
+    public void scanUpdatedIssues(Instant since, Consumer<List<JiraIssueUpdate>> pageConsumer) {
+        changeFeedOperations.scan(since, pageConsumer);
+    }
+
+    public JiraIssueChange readChanges(String jiraIssueKey, Instant since) {
+        return changeFeedOperations.read(jiraIssueKey, since);
+    }
+
+    public void scanIssueSnapshots(Consumer<List<JiraIssueSnapshot>> pageConsumer) {
+        auditOperations.scan(pageConsumer);
+    }
+
+    public Map<IssueField, String> auditHashes(JiraIssueInput issueInput) {
+        return auditOperations.hashes(issueInput);
+    }
+
     public Optional<JiraIssue> findIssueBySourceId(String sourceIssueId) {
         return searchOperations.findIssueBySourceId(sourceIssueId);
     }
@@ -44,6 +97,10 @@ public class Jira {
         return searchOperations.findIssueByIdentifierInSummary(sourceIdentifier);
     }
 
+    public Map<String, JiraIssueReference> findIssuesBySourceIds(Collection<String> sourceIssueIds) {
+        return searchOperations.findIssuesBySourceIds(sourceIssueIds);
+    }
+
     public List<JiraIssue> getAllIssuesInProject() {
         return searchOperations.getAllIssuesInProject();
     }
@@ -52,8 +109,8 @@ public class Jira {
         return issueOperations.testConnection();
     }
 
-    public void syncComments(String jiraIssueKey, JiraIssueInput issueInput) {
-        commentOperations.syncComments(jiraIssueKey, issueInput);
+    public boolean syncComments(String jiraIssueKey, JiraIssueInput issueInput) {
+        return commentOperations.syncComments(jiraIssueKey, issueInput);
     }
 
     public void syncAttachments(String jiraIssueKey, JiraIssueInput issueInput) {
@@ -64,8 +121,8 @@ public class Jira {
         return searchOperations.getProjectIssueTypes();
     }
 
-    public void transitionIssueStatus(String jiraIssueKey, String linearStateType) {
-        transitionOperations.transitionIfNeeded(jiraIssueKey, linearStateType);
+    public boolean transitionIssueStatus(String jiraIssueKey, String linearStateType) {
+        return transitionOperations.transitionIfNeeded(jiraIssueKey, linearStateType);
     }
 
 }
\ No newline at end of file
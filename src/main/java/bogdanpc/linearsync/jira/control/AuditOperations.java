@@ -0,0 +1,97 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import bogdanpc.linearsync.jira.entity.JiraIssueReference;
+import bogdanpc.linearsync.jira.entity.JiraIssueSnapshot;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the synced fields of every issue of the project for an audit, with nothing else projected, and hashes
+ * them the way {@link #hashes(JiraIssueInput)} hashes the values a Linear issue would be synced with.
+ * <p>
+ * Summary, labels and, when status sync is enabled, the status are audited. Descriptions and comments are
+ * stored in Jira's document format and cannot be compared without reading every issue in full.
+ */
+@ApplicationScoped
+public class AuditOperations {
+
+    private static final int SCAN_PAGE_SIZE = 100;
+
+    private final JiraClient jiraClient;
+    private final JiraConfig config;
+    private final IssueFieldHasher issueFieldHasher;
+
+    AuditOperations(@RestClient JiraClient jiraClient, JiraConfig config, IssueFieldHasher issueFieldHasher) {
+        this.jiraClient = jiraClient;
+        this.config = config;
+        this.issueFieldHasher = issueFieldHasher;
+    }
+
+    /**
+     * Hands the issues of the project to the consumer page by page.
+     */
+    public void scan(Consumer<List<JiraIssueSnapshot>> pageConsumer) {
+        var projectKey = config.projectKey().orElseThrow(() -> new IllegalStateException("Jira project key not configured"));
+        var jql = String.format("project = %s ORDER BY key ASC", projectKey);
+        var linearIdField = config.hasLinearIdField() ? config.linearIdFieldName() : null;
+        var fields = linearIdField != null ? "summary,status,labels," + linearIdField : "summary,status,labels";
+
+        var scanned = 0;
+        String nextPageToken = null;
+        do {
+            var response = jiraClient.searchIssueReferences(jql, nextPageToken, SCAN_PAGE_SIZE, fields);
+
+            if (response.issues() != null && !response.issues().isEmpty()) {
+                var page = new ArrayList<JiraIssueSnapshot>(response.issues().size());
+                for (var issue : response.issues()) {
+                    page.add(new JiraIssueSnapshot(issue.key(),
+                            linearIdField != null ? issue.fieldValue(linearIdField) : null,
+                            hashes(issue)));
+                }
+                pageConsumer.accept(page);
+                scanned += page.size();
+            }
+
+            nextPageToken = response.nextPageToken();
+        } while (nextPageToken != null && !nextPageToken.isEmpty());
+
+        Log.debugf("Scanned %d Jira issues for the audit", scanned);
+    }
+
+    /**
+     * Hashes of the audited fields as the sync writes them to Jira.
+     */
+    public Map<IssueField, String> hashes(JiraIssueInput issueInput) {
+        var status = config.statusSyncEnabled() && issueInput.stateType() != null
+                ? TransitionOperations.mapLinearStatusToJira(issueInput.stateType())
+                : null;
+        var labels = issueInput.labels() != null
+                ? issueInput.labels().stream().map(JiraIssueInput.LabelInput::name).toList()
+                : List.<String>of();
+        return issueFieldHasher.hashStored(IssueFieldHasher.formatSummary(issueInput), status, labels);
+    }
+
+    Map<IssueField, String> hashes(JiraIssueReference issue) {
+        var fields = issue.fields() != null ? issue.fields() : Map.<String, Object>of();
+        var status = config.statusSyncEnabled() && fields.get("status") instanceof Map<?, ?> statusField
+                ? stringOrNull(statusField.get("name"))
+                : null;
+        var labels = new ArrayList<String>();
+        if (fields.get("labels") instanceof List<?> values) {
+            values.forEach(value -> labels.add(stringOrNull(value)));
+        }
+        return issueFieldHasher.hashStored(stringOrNull(fields.get("summary")), status, labels);
+    }
+
+    private static String stringOrNull(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
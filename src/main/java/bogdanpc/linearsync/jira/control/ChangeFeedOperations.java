@@ -0,0 +1,173 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.jira.entity.JiraComment;
+import bogdanpc.linearsync.jira.entity.JiraIssueChange;
+import bogdanpc.linearsync.jira.entity.JiraIssueHistory;
+import bogdanpc.linearsync.jira.entity.JiraIssueUpdate;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads what changed in Jira since a point in time, in two steps so that unchanged issues cost next to nothing:
+ * {@link #scan} pages through the issues of the project updated since then with only their {@code updated}
+ * time and Linear ID projected, and {@link #read} fetches the status, comments and changelog of a single issue
+ * the caller found changed.
+ * <p>
+ * JQL compares dates in the time zone of the user's profile with minute precision, so the scan starts a minute
+ * before the given time in that zone. Issues seen twice are told apart by their {@code updated} time.
+ */
+@ApplicationScoped
+public class ChangeFeedOperations {
+
+    private static final DateTimeFormatter JIRA_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final DateTimeFormatter JQL_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+    private static final Duration SCAN_OVERLAP = Duration.ofMinutes(1);
+    private static final int SCAN_PAGE_SIZE = 100;
+    private static final String STATUS_FIELD = "status";
+    private static final String DETAIL_FIELDS = "updated,status,comment";
+
+    private final JiraClient jiraClient;
+    private final JiraConfig config;
+
+    private volatile JiraUserInfo syncUser;
+
+    ChangeFeedOperations(@RestClient JiraClient jiraClient, JiraConfig config) {
+        this.jiraClient = jiraClient;
+        this.config = config;
+    }
+
+    /**
+     * Hands the issues of the project updated since {@code since} to the consumer page by page, least recently
+     * updated first.
+     */
+    public void scan(Instant since, Consumer<List<JiraIssueUpdate>> pageConsumer) {
+        var jql = buildScanQuery(since, zone());
+        var linearIdField = config.hasLinearIdField() ? config.linearIdFieldName() : null;
+        var fields = linearIdField != null ? "updated," + linearIdField : "updated";
+        Log.debugf("Scanning Jira for changes: %s", jql);
+
+        var scanned = 0;
+        String nextPageToken = null;
+        do {
+            var response = jiraClient.searchIssueReferences(jql, nextPageToken, SCAN_PAGE_SIZE, fields);
+
+            if (response.issues() != null && !response.issues().isEmpty()) {
+                var page = new ArrayList<JiraIssueUpdate>(response.issues().size());
+                for (var issue : response.issues()) {
+                    page.add(new JiraIssueUpdate(issue.id(), issue.key(),
+                            linearIdField != null ? issue.fieldValue(linearIdField) : null,
+                            parseTimestamp(issue.fieldValue("updated"))));
+                }
+                pageConsumer.accept(page);
+                scanned += page.size();
+            }
+
+            nextPageToken = response.nextPageToken();
+        } while (nextPageToken != null && !nextPageToken.isEmpty());
+
+        Log.debugf("Scanned %d Jira issues updated since %s", scanned, since);
+    }
+
+    String buildScanQuery(Instant since, ZoneId zone) {
+        var projectKey = config.projectKey().orElseThrow(() -> new IllegalStateException("Jira project key not configured"));
+        var from = JQL_DATE.format(since.minus(SCAN_OVERLAP).atZone(zone));
+        return String.format("project = %s AND updated >= \"%s\" ORDER BY updated ASC", projectKey, from);
+    }
+
+    /**
+     * Reads the issue with its changelog and keeps what others changed: the latest status change and the
+     * comments added after {@code since}.
+     */
+    public JiraIssueChange read(String jiraIssueKey, Instant since) {
+        var history = jiraClient.getIssueHistory(jiraIssueKey, DETAIL_FIELDS, "changelog");
+        return toChange(history, since, syncUser().accountId());
+    }
+
+    static JiraIssueChange toChange(JiraIssueHistory history, Instant since, String syncAccountId) {
+        var fields = history.fields();
+        var status = fields != null ? fields.status() : null;
+        var statusName = status != null ? status.name() : null;
+        var categoryName = status != null && status.statusCategory() != null ? status.statusCategory().name() : null;
+
+        Instant statusChangedAt = null;
+        var statusChangedBySync = false;
+        if (history.changelog() != null && history.changelog().histories() != null) {
+            for (var entry : history.changelog().histories()) {
+                var changesStatus = entry.items() != null && entry.items().stream().anyMatch(item -> STATUS_FIELD.equals(item.field()));
+                var created = parseTimestamp(entry.created());
+                if (changesStatus && created != null && (statusChangedAt == null || created.isAfter(statusChangedAt))) {
+                    statusChangedAt = created;
+                    statusChangedBySync = entry.author() != null && syncAccountId != null && syncAccountId.equals(entry.author().accountId());
+                }
+            }
+        }
+
+        var comments = new ArrayList<JiraIssueChange.Comment>();
+        if (fields != null && fields.comment() != null && fields.comment().comments() != null) {
+            for (var comment : fields.comment().comments()) {
+                var created = parseTimestamp(comment.created());
+                if (created == null || since != null && !created.isAfter(since) || isBy(comment, syncAccountId)) {
+                    continue;
+                }
+                var author = comment.author() != null ? comment.author().displayName() : null;
+                comments.add(new JiraIssueChange.Comment(comment.id(), author, created, comment.extractPlainText()));
+            }
+            comments.sort(Comparator.comparing(JiraIssueChange.Comment::created));
+        }
+
+        return new JiraIssueChange(history.key(), parseTimestamp(fields != null ? fields.updated() : null), statusName,
+                TransitionOperations.mapJiraStatusToLinear(statusName, categoryName),
+                statusChangedAt, statusChangedBySync, comments);
+    }
+
+    private static boolean isBy(JiraComment comment, String accountId) {
+        return comment.author() != null && accountId != null && accountId.equals(comment.author().accountId());
+    }
+
+    private JiraUserInfo syncUser() {
+        var user = syncUser;
+        if (user == null) {
+            user = jiraClient.getCurrentUser();
+            syncUser = user;
+        }
+        return user;
+    }
+
+    private ZoneId zone() {
+        var timeZone = syncUser().timeZone();
+        if (timeZone == null || timeZone.isBlank()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            Log.warnf("Unknown time zone '%s' of the Jira user, scanning for changes in UTC", timeZone);
+            return ZoneOffset.UTC;
+        }
+    }
+
+    static Instant parseTimestamp(String timestamp) {
+        if (timestamp == null || timestamp.isBlank()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp, JIRA_TIMESTAMP).toInstant();
+        } catch (DateTimeException e) {
+            Log.debugf("Unparseable Jira timestamp: %s", timestamp);
+            return null;
+        }
+    }
+}
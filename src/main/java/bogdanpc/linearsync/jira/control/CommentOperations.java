@@ -1,5 +1,6 @@
 package bogdanpc.linearsync.jira.control;
 
+import bogdanpc.linearsync.jira.entity.AdfNode;
 import bogdanpc.linearsync.jira.entity.JiraComment;
 import bogdanpc.linearsync.jira.entity.JiraIssueInput;
 import io.quarkus.logging.Log;
@@ -17,19 +18,25 @@ public class CommentOperations {
     private final SearchOperations searchOperations;
     private final MarkupFormatter markupFormatter;
     private final IssueOperations issueOperations;
+    private final MarkdownConverter markdownConverter;
 
-    CommentOperations(@RestClient JiraClient jiraClient, SearchOperations searchOperations, MarkupFormatter markupFormatter, IssueOperations issueOperations) {
+    CommentOperations(@RestClient JiraClient jiraClient, SearchOperations searchOperations, MarkupFormatter markupFormatter, IssueOperations issueOperations, MarkdownConverter markdownConverter) {
         this.jiraClient = jiraClient;
         this.searchOperations = searchOperations;
         this.markupFormatter = markupFormatter;
         this.issueOperations = issueOperations;
+        this.markdownConverter = markdownConverter;
     }
 
-    JiraComment addComment(String jiraIssueKey, String commentText, JiraComment.JiraUser author) {
+    JiraComment addComment(String jiraIssueKey, String commentMarkdown, JiraComment.JiraUser author) {
+        return addComment(jiraIssueKey, markdownConverter.toDocument(commentMarkdown), author);
+    }
+
+    private JiraComment addComment(String jiraIssueKey, AdfNode commentBody, JiraComment.JiraUser author) {
         Log.infof("Adding comment to Jira issue: %s", jiraIssueKey);
 
         try {
-            var comment = JiraComment.createFromText(commentText, author);
+            var comment = JiraComment.createFromDocument(commentBody, author);
             var createdComment = jiraClient.addComment(jiraIssueKey, comment);
             Log.debugf("Successfully added comment to Jira issue: %s", jiraIssueKey);
             return createdComment;
@@ -39,10 +46,13 @@ public class CommentOperations {
         }
     }
 
-    public void syncComments(String jiraIssueKey, JiraIssueInput issueInput) {
+    /**
+     * @return false when a comment could not be added, so the comments are worth syncing again
+     */
+    public boolean syncComments(String jiraIssueKey, JiraIssueInput issueInput) {
         if (issueInput.comments() == null || issueInput.comments().isEmpty()) {
             Log.debugf("No comments to sync for source issue: %s", issueInput.sourceIdentifier());
-            return;
+            return true;
         }
 
         Log.infof("Syncing %d comments from source issue %s to Jira issue %s", issueInput.comments().size(), issueInput.sourceIdentifier(), jiraIssueKey);
@@ -50,23 +60,28 @@ public class CommentOperations {
         var existingComments = searchOperations.getComments(jiraIssueKey);
         var existingCommentTexts = extractExistingCommentTexts(existingComments);
         var currentUser = issueOperations.getCurrentUserInfo();
+        var allAdded = true;
 
         for (var commentInput : issueInput.comments()) {
             try {
-                var commentText = markupFormatter.formatCommentForJira(commentInput);
+                var commentBody = markdownConverter.toDocument(markupFormatter.formatCommentForJira(commentInput));
+                var commentText = normalize(commentBody.plainText());
 
-                if (isCommentAlreadyExists(commentText, existingCommentTexts)) {
+                if (existingCommentTexts.contains(commentText)
+                        || existingCommentTexts.contains(normalize(markupFormatter.formatLegacyCommentForJira(commentInput)))) {
                     Log.debugf("Comment already exists, skipping: %s", commentInput.id());
                     continue;
                 }
 
-                addComment(jiraIssueKey, commentText, currentUser);
-                existingCommentTexts.add(commentText.trim());
+                addComment(jiraIssueKey, commentBody, currentUser);
+                existingCommentTexts.add(commentText);
 
             } catch (Exception e) {
                 Log.errorf(e, "Failed to sync comment %s from source issue %s", commentInput.id(), issueInput.sourceIdentifier());
+                allAdded = false;
             }
         }
+        return allAdded;
     }
 
     private HashSet<String> extractExistingCommentTexts(List<JiraComment> existingComments) {
@@ -75,14 +90,24 @@ public class CommentOperations {
         for (var existingComment : existingComments) {
             var plainText = existingComment.extractPlainText();
             if (!plainText.isEmpty()) {
-                existingCommentTexts.add(plainText.trim());
+                existingCommentTexts.add(normalize(plainText));
             }
         }
 
         return existingCommentTexts;
     }
 
-    private boolean isCommentAlreadyExists(String commentText, HashSet<String> existingCommentTexts) {
-        return existingCommentTexts.contains(commentText.trim());
+    /**
+     * Drops all whitespace, so comments compare equal regardless of how Jira joined their blocks.
+     */
+    private static String normalize(String text) {
+        var normalized = new StringBuilder(text.length());
+        for (var i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Computes per-field content hashes of the values pushed to Jira, so that an issue whose
+ * {@code updatedAt} moved without a visible change can be skipped and a real change can be
+ * narrowed down to the fields that differ.
+ * <p>
+ * Hashes are the first 8 bytes of SHA-256 in hex: stable across JVMs and runs, and short
+ * enough to keep per issue in the sync state.
+ */
+@ApplicationScoped
+public class IssueFieldHasher {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final char SEPARATOR = '\u001F';
+
+    public Map<IssueField, String> hash(JiraIssueInput issueInput) {
+        var hashes = new EnumMap<IssueField, String>(IssueField.class);
+        hashes.put(IssueField.SUMMARY, hash(formatSummary(issueInput)));
+        hashes.put(IssueField.DESCRIPTION, hash(issueInput.description()));
+        hashes.put(IssueField.LABELS, hash(joinLabels(issueInput.labels())));
+        hashes.put(IssueField.PRIORITY, hash(issueInput.priority() != null ? issueInput.priority().toString() : null));
+        hashes.put(IssueField.STATUS, statusHash(issueInput.stateType()));
+        hashes.put(IssueField.COMMENTS, hash(joinComments(issueInput.comments())));
+        return hashes;
+    }
+
+    /**
+     * Hash of a status as stored for {@link IssueField#STATUS}. Works for the Linear state type pushed to Jira
+     * as well as for a Jira status name read back.
+     */
+    public String statusHash(String status) {
+        return hash(status);
+    }
+
+    /**
+     * Hashes of the fields as Jira stores them, for comparing an issue read from Jira with the Linear issue it was
+     * synced from. Statuses are compared by name ignoring case, labels as a set.
+     */
+    public Map<IssueField, String> hashStored(String summary, String status, List<String> labels) {
+        var hashes = new EnumMap<IssueField, String>(IssueField.class);
+        hashes.put(IssueField.SUMMARY, hash(summary));
+        hashes.put(IssueField.STATUS, hash(status != null ? status.toLowerCase(Locale.ROOT) : null));
+        hashes.put(IssueField.LABELS, hash(joinLabelNames(labels)));
+        return hashes;
+    }
+
+    static String formatSummary(JiraIssueInput issueInput) {
+        return String.format("[%s] %s", issueInput.sourceIdentifier(), issueInput.title());
+    }
+
+    private static String joinLabels(List<JiraIssueInput.LabelInput> labels) {
+        if (labels == null || labels.isEmpty()) {
+            return "";
+        }
+        return joinLabelNames(labels.stream().map(JiraIssueInput.LabelInput::name).toList());
+    }
+
+    private static String joinLabelNames(List<String> labels) {
+        if (labels == null || labels.isEmpty()) {
+            return "";
+        }
+        // Jira stores labels as a set, so ordering must not count as a change
+        var joined = new StringBuilder();
+        labels.stream()
+                .filter(Objects::nonNull)
+                .sorted()
+                .forEach(name -> joined.append(name).append(SEPARATOR));
+        return joined.toString();
+    }
+
+    private static String joinComments(List<JiraIssueInput.CommentInput> comments) {
+        if (comments == null || comments.isEmpty()) {
+            return "";
+        }
+        var joined = new StringBuilder();
+        comments.stream()
+                .sorted(Comparator.comparing(JiraIssueInput.CommentInput::id, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(comment -> joined.append(comment.id()).append(SEPARATOR)
+                        .append(comment.updatedAt()).append(SEPARATOR)
+                        .append(comment.body()).append(SEPARATOR));
+        return joined.toString();
+    }
+
+    private static String hash(String value) {
+        if (value == null) {
+            return "";
+        }
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HEX.formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
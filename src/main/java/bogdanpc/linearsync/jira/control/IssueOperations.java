@@ -1,5 +1,8 @@
 package bogdanpc.linearsync.jira.control;
 
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraBulkCreateRequest;
+import bogdanpc.linearsync.jira.entity.JiraBulkCreateResponse;
 import bogdanpc.linearsync.jira.entity.JiraComment;
 import bogdanpc.linearsync.jira.entity.JiraCreateRequest;
 import bogdanpc.linearsync.jira.entity.JiraIssue;
@@ -9,19 +12,24 @@ import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
+import java.util.List;
+import java.util.Set;
+
 @ApplicationScoped
 public class IssueOperations {
 
     private final JiraClient jiraClient;
     private final IssueFieldMapper issueFieldMapper;
     private final JiraConfig config;
+    private final MarkdownConverter markdownConverter;
 
     private String cachedSubtaskType;
 
-    IssueOperations(@RestClient JiraClient jiraClient, IssueFieldMapper issueFieldMapper, JiraConfig config) {
+    IssueOperations(@RestClient JiraClient jiraClient, IssueFieldMapper issueFieldMapper, JiraConfig config, MarkdownConverter markdownConverter) {
         this.jiraClient = jiraClient;
         this.issueFieldMapper = issueFieldMapper;
         this.config = config;
+        this.markdownConverter = markdownConverter;
     }
 
     public JiraIssue createIssue(JiraIssueInput issueInput) {
@@ -39,6 +47,25 @@ public class IssueOperations {
         }
     }
 
+    /**
+     * Creates up to 50 issues in one request. Elements Jira rejects are reported in the response
+     * while the others are still created.
+     */
+    public JiraBulkCreateResponse createIssues(List<JiraIssueInput> issueInputs) {
+        Log.infof("Creating %d Jira issues in bulk", issueInputs.size());
+
+        var request = new JiraBulkCreateRequest(issueInputs.stream().map(this::buildCreateRequest).toList());
+
+        try {
+            var response = jiraClient.createIssues(request);
+            Log.infof("Created %d of %d Jira issues in bulk", response.issues() != null ? response.issues().size() : 0, issueInputs.size());
+            return response;
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to create %d Jira issues in bulk", issueInputs.size());
+            throw new RuntimeException("Failed to create Jira issues in bulk", e);
+        }
+    }
+
     public void updateIssue(String jiraIssueKey, JiraIssueInput issueInput) {
         Log.infof("Updating Jira issue: %s", jiraIssueKey);
 
@@ -53,6 +80,29 @@ public class IssueOperations {
         }
     }
 
+    /**
+     * Sends only the given fields. Status and comments are not issue fields and are ignored here;
+     * nothing is sent when no editable field is left.
+     */
+    public void updateIssue(String jiraIssueKey, JiraIssueInput issueInput, Set<IssueField> changedFields) {
+        if (changedFields.stream().noneMatch(IssueField::isEditableField)) {
+            Log.debugf("No editable fields changed for Jira issue %s, skipping update", jiraIssueKey);
+            return;
+        }
+
+        Log.infof("Updating Jira issue %s, fields: %s", jiraIssueKey, changedFields);
+
+        var request = buildPartialUpdateRequest(issueInput, changedFields);
+
+        try {
+            jiraClient.updateIssue(jiraIssueKey, request);
+            Log.infof("Updated Jira issue: %s", jiraIssueKey);
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to update Jira issue: %s", jiraIssueKey);
+            throw new RuntimeException("Failed to update Jira issue", e);
+        }
+    }
+
     public boolean testConnection() {
         try {
             var userInfo = jiraClient.getCurrentUser();
@@ -81,8 +131,8 @@ public class IssueOperations {
         var request = new JiraCreateRequest();
         request.fields = new JiraCreateRequest.Fields();
         request.fields.project = new JiraCreateRequest.Project(projectKey);
-        request.fields.summary = String.format("[%s] %s", issueInput.sourceIdentifier(), issueInput.title());
-        request.fields.description = new JiraCreateRequest.Description(issueInput.description());
+        request.fields.summary = IssueFieldHasher.formatSummary(issueInput);
+        request.fields.description = markdownConverter.toDocument(issueInput.description());
 
         // Determine issue type based on whether this is a subtask
         var isSubtask = issueInput.parentJiraKey() != null && !issueInput.parentJiraKey().isEmpty();
@@ -126,12 +176,36 @@ public class IssueOperations {
     private JiraCreateRequest buildUpdateRequest(JiraIssueInput issueInput) {
         var request = new JiraCreateRequest();
         request.fields = new JiraCreateRequest.Fields();
-        request.fields.summary = String.format("[%s] %s", issueInput.sourceIdentifier(), issueInput.title());
-        request.fields.description = new JiraCreateRequest.Description(issueInput.description());
+        request.fields.summary = IssueFieldHasher.formatSummary(issueInput);
+        request.fields.description = markdownConverter.toDocument(issueInput.description());
 
         issueFieldMapper.mapPriorityIfEnabled(issueInput, request);
         issueFieldMapper.mapLabels(issueInput, request);
 
         return request;
     }
+
+    private JiraCreateRequest buildPartialUpdateRequest(JiraIssueInput issueInput, Set<IssueField> changedFields) {
+        var request = new JiraCreateRequest();
+        request.fields = new JiraCreateRequest.Fields();
+
+        if (changedFields.contains(IssueField.SUMMARY)) {
+            request.fields.summary = IssueFieldHasher.formatSummary(issueInput);
+        }
+        if (changedFields.contains(IssueField.DESCRIPTION)) {
+            request.fields.description = markdownConverter.toDocument(issueInput.description());
+        }
+        if (changedFields.contains(IssueField.PRIORITY)) {
+            issueFieldMapper.mapPriorityIfEnabled(issueInput, request);
+        }
+        if (changedFields.contains(IssueField.LABELS)) {
+            issueFieldMapper.mapLabels(issueInput, request);
+            if (request.fields.labels == null) {
+                // All labels were removed in the source; an empty list clears them in Jira
+                request.fields.labels = List.of();
+            }
+        }
+
+        return request;
+    }
 }
@@ -2,13 +2,19 @@ package bogdanpc.linearsync.jira.control;
 
 import bogdanpc.linearsync.jira.entity.JiraAttachment;
 import bogdanpc.linearsync.jira.entity.JiraAttachmentsResponse;
+import bogdanpc.linearsync.jira.entity.JiraBulkCreateRequest;
+import bogdanpc.linearsync.jira.entity.JiraBulkCreateResponse;
 import bogdanpc.linearsync.jira.entity.JiraComment;
 import bogdanpc.linearsync.jira.entity.JiraCommentsResponse;
 import bogdanpc.linearsync.jira.entity.JiraCreateRequest;
 import bogdanpc.linearsync.jira.entity.JiraIssue;
+import bogdanpc.linearsync.jira.entity.JiraIssueHistory;
 import bogdanpc.linearsync.jira.entity.JiraProject;
+import bogdanpc.linearsync.jira.entity.JiraReferenceSearchResponse;
 import bogdanpc.linearsync.jira.entity.JiraSearchResponse;
 import bogdanpc.linearsync.jira.entity.JiraTransition;
+import bogdanpc.linearsync.monitoring.control.ApiCallFilter;
+import bogdanpc.linearsync.monitoring.control.RecordedApiCalls;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -23,12 +29,18 @@ import java.util.List;
 @ApplicationScoped
 @ClientHeaderParam(name = "Authorization", value = "{bogdanpc.linearsync.jira.control.JiraAuthHeaderProvider.getAuthHeader}")
 @RegisterProvider(JiraResponseErrorHandler.class)
+@RegisterProvider(ApiCallFilter.class)
+@RecordedApiCalls
 public interface JiraClient {
 
     @POST
     @Path("/rest/api/3/issue")
     JiraIssue createIssue(JiraCreateRequest request);
 
+    @POST
+    @Path("/rest/api/3/issue/bulk")
+    JiraBulkCreateResponse createIssues(JiraBulkCreateRequest request);
+
     @PUT
     @Path("/rest/api/3/issue/{issueIdOrKey}")
     void updateIssue(@PathParam("issueIdOrKey") String issueIdOrKey, JiraCreateRequest request);
@@ -37,6 +49,10 @@ public interface JiraClient {
     @Path("/rest/api/3/search/jql")
     JiraSearchResponse searchIssues(@QueryParam("jql") String jql, @QueryParam("nextPageToken") String nextPageToken, @QueryParam("maxResults") Integer maxResults);
 
+    @GET
+    @Path("/rest/api/3/search/jql")
+    JiraReferenceSearchResponse searchIssueReferences(@QueryParam("jql") String jql, @QueryParam("nextPageToken") String nextPageToken, @QueryParam("maxResults") Integer maxResults, @QueryParam("fields") String fields);
+
     @GET
     @Path("/rest/api/3/myself")
     JiraUserInfo getCurrentUser();
@@ -67,6 +83,10 @@ public interface JiraClient {
     @Path("/rest/api/3/issue/{issueIdOrKey}")
     JiraIssue getIssue(@PathParam("issueIdOrKey") String issueIdOrKey);
 
+    @GET
+    @Path("/rest/api/3/issue/{issueIdOrKey}")
+    JiraIssueHistory getIssueHistory(@PathParam("issueIdOrKey") String issueIdOrKey, @QueryParam("fields") String fields, @QueryParam("expand") String expand);
+
     @GET
     @Path("/rest/api/3/issue/{issueIdOrKey}/transitions")
     JiraTransition.TransitionsResponse getTransitions(@PathParam("issueIdOrKey") String issueIdOrKey);
@@ -4,7 +4,9 @@ import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Centralized configuration for Jira integration.
@@ -41,6 +43,20 @@ public interface JiraConfig {
     @WithDefault("true")
     boolean statusSyncEnabled();
 
+    /**
+     * Number of Linear IDs resolved per JQL {@code cf[...] in (...)} query.
+     */
+    @WithName("search.batch-size")
+    @WithDefault("50")
+    int searchBatchSize();
+
+    /**
+     * Number of batched JQL searches allowed in flight at the same time.
+     */
+    @WithName("search.concurrency")
+    @WithDefault("8")
+    int searchConcurrency();
+
     /**
      * Checks if the Linear ID custom field is configured.
      */
@@ -74,4 +90,14 @@ public interface JiraConfig {
     default String jqlByLinearId(String linearId) {
         return String.format("cf[%s] = \"%s\"", linearIdFieldNumericId(), linearId);
     }
+
+    /**
+     * Builds a JQL clause matching any of the given Linear issue IDs.
+     */
+    default String jqlByLinearIds(Collection<String> linearIds) {
+        var values = linearIds.stream()
+                .map(linearId -> "\"" + linearId + "\"")
+                .collect(Collectors.joining(", "));
+        return String.format("cf[%s] in (%s)", linearIdFieldNumericId(), values);
+    }
 }
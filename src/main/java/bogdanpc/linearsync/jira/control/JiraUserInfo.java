@@ -1,3 +1,6 @@
 package bogdanpc.linearsync.jira.control;
 
-public record JiraUserInfo(String accountId, String displayName, String emailAddress) {}
+/**
+ * @param timeZone zone of the user's profile, in which Jira reads the dates of their JQL queries
+ */
+public record JiraUserInfo(String accountId, String displayName, String emailAddress, String timeZone) {}
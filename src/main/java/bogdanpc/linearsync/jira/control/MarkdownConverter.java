@@ -0,0 +1,665 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.jira.entity.AdfNode;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the Markdown used by Linear descriptions and comments into Atlassian Document Format.
+ * <p>
+ * Block structure is recognised in a single pass over the lines without splitting the input:
+ * ATX headings, paragraphs, fenced code blocks, block quotes, horizontal rules and nested
+ * bullet/ordered lists. Inline content supports bold, italic, strikethrough, inline code, links,
+ * images (rendered as links), autolinks, bare URLs and backslash escapes. Linear user mentions
+ * carry no Jira account id, so they become bold {@code @name} text instead of ADF mention nodes.
+ * Anything unrecognised is kept as literal text.
+ */
+@ApplicationScoped
+public class MarkdownConverter {
+
+    private static final int LIST_NESTING_INDENT = 2;
+
+    public AdfNode toDocument(String markdown) {
+        if (markdown == null || markdown.isBlank()) {
+            return AdfNode.doc(List.of());
+        }
+        return AdfNode.doc(parseBlocks(markdown));
+    }
+
+    private List<AdfNode> parseBlocks(String markdown) {
+        var parser = new BlockParser();
+        var length = markdown.length();
+        var lineStart = 0;
+        while (lineStart <= length) {
+            var lineEnd = markdown.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            var contentEnd = lineEnd > lineStart && markdown.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            parser.line(markdown, lineStart, contentEnd);
+            lineStart = lineEnd + 1;
+        }
+        return parser.finish();
+    }
+
+    private final class BlockParser {
+
+        private final List<AdfNode> blocks = new ArrayList<>();
+        private final List<ListFrame> lists = new ArrayList<>();
+        private final StringBuilder paragraph = new StringBuilder();
+        private final StringBuilder quote = new StringBuilder();
+        private boolean inQuote;
+
+        private StringBuilder code;
+        private String codeLanguage;
+        private char fenceChar;
+        private int fenceLength;
+        private List<AdfNode> codeTarget;
+
+        private boolean afterBlank;
+
+        void line(String source, int start, int end) {
+            if (code != null) {
+                codeLine(source, start, end);
+                return;
+            }
+
+            var indent = 0;
+            var position = start;
+            while (position < end && (source.charAt(position) == ' ' || source.charAt(position) == '\t')) {
+                indent += source.charAt(position) == '\t' ? 4 : 1;
+                position++;
+            }
+
+            if (inQuote && (position == end || source.charAt(position) != '>')) {
+                flushQuote();
+            }
+
+            if (position == end) {
+                flushParagraph();
+                flushListItemText();
+                afterBlank = true;
+                return;
+            }
+
+            if (!lists.isEmpty() && !isListItem(source, position, end)) {
+                var top = lists.getLast();
+                var continuesItem = indent >= top.indent + LIST_NESTING_INDENT || !afterBlank;
+                if (!continuesItem || isBlockStart(source, position, end) && indent < top.indent + LIST_NESTING_INDENT) {
+                    closeLists(-1);
+                } else if (isFence(source, position, end)) {
+                    top.flushText();
+                    openFence(source, position, end, top.itemContent);
+                    afterBlank = false;
+                    return;
+                } else {
+                    top.appendText(source, position, end);
+                    afterBlank = false;
+                    return;
+                }
+            }
+            afterBlank = false;
+
+            var c = source.charAt(position);
+            if (c == '>') {
+                flushParagraph();
+                var contentStart = position + 1;
+                if (contentStart < end && source.charAt(contentStart) == ' ') {
+                    contentStart++;
+                }
+                if (inQuote) {
+                    quote.append('\n');
+                }
+                quote.append(source, contentStart, end);
+                inQuote = true;
+                return;
+            }
+
+            if (c == '#') {
+                var level = 0;
+                while (position + level < end && source.charAt(position + level) == '#') {
+                    level++;
+                }
+                var afterMarker = position + level;
+                if (level <= 6 && (afterMarker == end || source.charAt(afterMarker) == ' ')) {
+                    flushParagraph();
+                    blocks.add(heading(level, source, afterMarker, end));
+                    return;
+                }
+            }
+
+            if (isFence(source, position, end)) {
+                flushParagraph();
+                openFence(source, position, end, blocks);
+                return;
+            }
+
+            if (isRule(source, position, end)) {
+                flushParagraph();
+                blocks.add(AdfNode.block("rule", null, null));
+                return;
+            }
+
+            if (isListItem(source, position, end)) {
+                flushParagraph();
+                listItem(source, position, end, indent);
+                return;
+            }
+
+            if (!paragraph.isEmpty()) {
+                paragraph.append('\n');
+            }
+            paragraph.append(source, position, end);
+        }
+
+        List<AdfNode> finish() {
+            if (code != null) {
+                closeFence();
+            }
+            flushQuote();
+            flushParagraph();
+            closeLists(-1);
+            return blocks;
+        }
+
+        private boolean isBlockStart(String source, int position, int end) {
+            var c = source.charAt(position);
+            return c == '#' || c == '>' || isFence(source, position, end) || isRule(source, position, end);
+        }
+
+        private void listItem(String source, int position, int end, int indent) {
+            var ordered = Character.isDigit(source.charAt(position));
+            var markerEnd = position;
+            var order = 1;
+            if (ordered) {
+                order = 0;
+                while (Character.isDigit(source.charAt(markerEnd))) {
+                    order = order * 10 + (source.charAt(markerEnd) - '0');
+                    markerEnd++;
+                }
+            }
+            markerEnd++;
+            var textStart = Math.min(markerEnd + 1, end);
+
+            closeLists(indent);
+            var top = lists.isEmpty() ? null : lists.getLast();
+            if (top != null && indent < top.indent + LIST_NESTING_INDENT && top.ordered != ordered) {
+                closeLists(top.indent - 1);
+                top = lists.isEmpty() ? null : lists.getLast();
+            }
+
+            if (top == null || indent >= top.indent + LIST_NESTING_INDENT) {
+                var target = top == null ? blocks : top.itemContent;
+                if (top != null) {
+                    top.flushText();
+                }
+                top = new ListFrame(indent, ordered);
+                var attrs = ordered ? Map.<String, Object>of("order", order) : null;
+                target.add(AdfNode.block(ordered ? "orderedList" : "bulletList", attrs, top.items));
+                lists.add(top);
+            }
+
+            top.startItem();
+            top.appendText(source, textStart, end);
+        }
+
+        /**
+         * Closes every open list indented deeper than the given column; -1 closes them all.
+         */
+        private void closeLists(int indent) {
+            while (!lists.isEmpty() && lists.getLast().indent > indent) {
+                lists.removeLast().flushText();
+            }
+        }
+
+        private void flushListItemText() {
+            if (!lists.isEmpty()) {
+                lists.getLast().flushText();
+            }
+        }
+
+        private void openFence(String source, int position, int end, List<AdfNode> target) {
+            fenceChar = source.charAt(position);
+            fenceLength = 0;
+            while (position + fenceLength < end && source.charAt(position + fenceLength) == fenceChar) {
+                fenceLength++;
+            }
+            var language = source.substring(position + fenceLength, end).strip();
+            var space = language.indexOf(' ');
+            codeLanguage = space > 0 ? language.substring(0, space) : language;
+            code = new StringBuilder();
+            codeTarget = target;
+        }
+
+        private void codeLine(String source, int start, int end) {
+            var position = start;
+            while (position < end && position - start < 4 && source.charAt(position) == ' ') {
+                position++;
+            }
+            var run = 0;
+            while (position + run < end && source.charAt(position + run) == fenceChar) {
+                run++;
+            }
+            if (run >= fenceLength && source.substring(position + run, end).isBlank()) {
+                closeFence();
+                return;
+            }
+            if (!code.isEmpty()) {
+                code.append('\n');
+            }
+            code.append(source, start, end);
+        }
+
+        private void closeFence() {
+            var attrs = codeLanguage.isEmpty() ? null : Map.<String, Object>of("language", codeLanguage);
+            var content = code.isEmpty() ? List.<AdfNode>of() : List.of(AdfNode.text(code.toString(), null));
+            codeTarget.add(AdfNode.block("codeBlock", attrs, content));
+            code = null;
+            codeTarget = null;
+        }
+
+        private void flushParagraph() {
+            if (paragraph.isEmpty()) {
+                return;
+            }
+            blocks.add(paragraphNode(paragraph));
+            paragraph.setLength(0);
+        }
+
+        private void flushQuote() {
+            if (!inQuote) {
+                return;
+            }
+            inQuote = false;
+            var quoted = quote.toString();
+            quote.setLength(0);
+            if (!quoted.isBlank()) {
+                blocks.add(AdfNode.block("blockquote", null, parseBlocks(quoted)));
+            }
+        }
+    }
+
+    /**
+     * An open list: its items, and the content and pending text of the item being filled.
+     */
+    private static final class ListFrame {
+
+        final int indent;
+        final boolean ordered;
+        final List<AdfNode> items = new ArrayList<>();
+        final StringBuilder itemText = new StringBuilder();
+        List<AdfNode> itemContent;
+
+        ListFrame(int indent, boolean ordered) {
+            this.indent = indent;
+            this.ordered = ordered;
+        }
+
+        void startItem() {
+            flushText();
+            itemContent = new ArrayList<>();
+            items.add(AdfNode.block("listItem", null, itemContent));
+        }
+
+        void appendText(String source, int start, int end) {
+            if (!itemText.isEmpty()) {
+                itemText.append('\n');
+            }
+            itemText.append(source, start, end);
+        }
+
+        void flushText() {
+            if (itemContent == null) {
+                return;
+            }
+            if (!itemText.isEmpty()) {
+                itemContent.add(paragraphNode(itemText));
+                itemText.setLength(0);
+            } else if (itemContent.isEmpty()) {
+                // ADF list items must start with a block node
+                itemContent.add(AdfNode.block("paragraph", null, List.of()));
+            }
+        }
+    }
+
+    private static boolean isFence(String source, int position, int end) {
+        if (end - position < 3) {
+            return false;
+        }
+        var c = source.charAt(position);
+        return (c == '`' || c == '~') && source.charAt(position + 1) == c && source.charAt(position + 2) == c;
+    }
+
+    private static boolean isRule(String source, int position, int end) {
+        var c = source.charAt(position);
+        if (c != '-' && c != '*' && c != '_') {
+            return false;
+        }
+        var count = 0;
+        for (var i = position; i < end; i++) {
+            var current = source.charAt(i);
+            if (current == c) {
+                count++;
+            } else if (current != ' ') {
+                return false;
+            }
+        }
+        return count >= 3;
+    }
+
+    private static boolean isListItem(String source, int position, int end) {
+        var c = source.charAt(position);
+        if (c == '-' || c == '*' || c == '+') {
+            return position + 1 < end && source.charAt(position + 1) == ' ' && !isRule(source, position, end);
+        }
+        var digits = position;
+        while (digits < end && digits - position < 9 && Character.isDigit(source.charAt(digits))) {
+            digits++;
+        }
+        return digits > position
+                && digits + 1 < end
+                && (source.charAt(digits) == '.' || source.charAt(digits) == ')')
+                && source.charAt(digits + 1) == ' ';
+    }
+
+    private static AdfNode heading(int level, String source, int start, int end) {
+        while (start < end && source.charAt(start) == ' ') {
+            start++;
+        }
+        var textEnd = end;
+        while (textEnd > start && (source.charAt(textEnd - 1) == '#' || source.charAt(textEnd - 1) == ' ')) {
+            textEnd--;
+        }
+        var content = new ArrayList<AdfNode>();
+        InlineParser.parse(source, start, textEnd, List.of(), content);
+        return AdfNode.block("heading", Map.of("level", level), content);
+    }
+
+    private static AdfNode paragraphNode(CharSequence text) {
+        var source = text.toString().strip();
+        var content = new ArrayList<AdfNode>();
+        InlineParser.parse(source, 0, source.length(), List.of(), content);
+        return AdfNode.block("paragraph", null, content);
+    }
+
+    /**
+     * Recursive-descent parser for inline spans. Text between markers is buffered and
+     * emitted as one node per run of identical marks.
+     */
+    private static final class InlineParser {
+
+        private final String source;
+        private final List<AdfNode.Mark> marks;
+        private final List<AdfNode> out;
+        private final StringBuilder buffer = new StringBuilder();
+
+        private InlineParser(String source, List<AdfNode.Mark> marks, List<AdfNode> out) {
+            this.source = source;
+            this.marks = marks;
+            this.out = out;
+        }
+
+        static void parse(String source, int start, int end, List<AdfNode.Mark> marks, List<AdfNode> out) {
+            new InlineParser(source, marks, out).run(start, end);
+        }
+
+        private void run(int start, int end) {
+            var i = start;
+            while (i < end) {
+                var c = source.charAt(i);
+                var next = switch (c) {
+                    case '\\' -> escape(i, end);
+                    case '\n' -> lineBreak(i);
+                    case '`' -> codeSpan(i, end);
+                    case '*', '_' -> emphasis(i, end, c);
+                    case '~' -> delimited(i, end, "~~", AdfNode.Mark.of("strike"));
+                    case '!' -> i + 1 < end && source.charAt(i + 1) == '[' ? link(i + 1, end) : -1;
+                    case '[' -> link(i, end);
+                    case '<' -> autolink(i, end);
+                    case 'h' -> bareUrl(i, end);
+                    case '@' -> mention(i, end);
+                    default -> -1;
+                };
+                if (next < 0) {
+                    buffer.append(c);
+                    i++;
+                } else {
+                    i = next;
+                }
+            }
+            flush();
+        }
+
+        private void flush() {
+            if (!buffer.isEmpty()) {
+                out.add(AdfNode.text(buffer.toString(), marks));
+                buffer.setLength(0);
+            }
+        }
+
+        private int escape(int i, int end) {
+            if (i + 1 < end && isAsciiPunctuation(source.charAt(i + 1))) {
+                buffer.append(source.charAt(i + 1));
+                return i + 2;
+            }
+            return -1;
+        }
+
+        private int lineBreak(int i) {
+            flush();
+            out.add(AdfNode.hardBreak());
+            return i + 1;
+        }
+
+        private int codeSpan(int i, int end) {
+            var run = 1;
+            while (i + run < end && source.charAt(i + run) == '`') {
+                run++;
+            }
+            var close = i + run;
+            while (true) {
+                close = source.indexOf('`', close);
+                if (close < 0 || close >= end) {
+                    buffer.append(source, i, i + run);
+                    return i + run;
+                }
+                var closeRun = 1;
+                while (close + closeRun < end && source.charAt(close + closeRun) == '`') {
+                    closeRun++;
+                }
+                if (closeRun == run) {
+                    break;
+                }
+                close += closeRun;
+            }
+            var text = source.substring(i + run, close).strip();
+            if (!text.isEmpty()) {
+                flush();
+                // The code mark may only be combined with a link
+                var codeMarks = new ArrayList<AdfNode.Mark>(2);
+                for (var mark : marks) {
+                    if ("link".equals(mark.type())) {
+                        codeMarks.add(mark);
+                    }
+                }
+                codeMarks.add(AdfNode.Mark.of("code"));
+                out.add(AdfNode.text(text, codeMarks));
+            }
+            return close + run;
+        }
+
+        private int emphasis(int i, int end, char c) {
+            var strong = i + 1 < end && source.charAt(i + 1) == c;
+            // Intra-word underscores (snake_case) are not emphasis
+            if (c == '_' && i > 0 && Character.isLetterOrDigit(source.charAt(i - 1))) {
+                return -1;
+            }
+            if (strong) {
+                return delimited(i, end, c == '*' ? "**" : "__", AdfNode.Mark.of("strong"));
+            }
+            return delimited(i, end, c == '*' ? "*" : "_", AdfNode.Mark.of("em"));
+        }
+
+        private int delimited(int i, int end, String delimiter, AdfNode.Mark mark) {
+            var length = delimiter.length();
+            var contentStart = i + length;
+            if (!source.startsWith(delimiter, i) || contentStart >= end || Character.isWhitespace(source.charAt(contentStart))) {
+                return -1;
+            }
+            var close = findCloser(delimiter, contentStart, end);
+            if (close < 0) {
+                return -1;
+            }
+            flush();
+            parse(source, contentStart, close, withMark(mark), out);
+            return close + length;
+        }
+
+        private int findCloser(String delimiter, int from, int end) {
+            var length = delimiter.length();
+            var candidate = source.indexOf(delimiter, from + 1);
+            while (candidate >= 0 && candidate + length <= end) {
+                var after = candidate + length;
+                var doubled = length == 1 && (after < end && source.charAt(after) == delimiter.charAt(0)
+                        || source.charAt(candidate - 1) == delimiter.charAt(0));
+                var wordFollows = delimiter.charAt(0) == '_' && after < end && Character.isLetterOrDigit(source.charAt(after));
+                if (!Character.isWhitespace(source.charAt(candidate - 1)) && !doubled && !wordFollows) {
+                    return candidate;
+                }
+                candidate = source.indexOf(delimiter, doubled ? after + 1 : candidate + 1);
+            }
+            return -1;
+        }
+
+        private int link(int open, int end) {
+            var depth = 0;
+            var closeLabel = -1;
+            for (var j = open; j < end; j++) {
+                var current = source.charAt(j);
+                if (current == '\\') {
+                    j++;
+                } else if (current == '[') {
+                    depth++;
+                } else if (current == ']' && --depth == 0) {
+                    closeLabel = j;
+                    break;
+                }
+            }
+            if (closeLabel < 0 || closeLabel + 1 >= end || source.charAt(closeLabel + 1) != '(') {
+                return -1;
+            }
+            var closeUrl = source.indexOf(')', closeLabel + 2);
+            if (closeUrl < 0 || closeUrl >= end) {
+                return -1;
+            }
+            var target = source.substring(closeLabel + 2, closeUrl).strip();
+            var titleStart = target.indexOf(' ');
+            var href = titleStart > 0 ? target.substring(0, titleStart) : target;
+            if (href.startsWith("<") && href.endsWith(">")) {
+                href = href.substring(1, href.length() - 1);
+            }
+            if (href.isEmpty()) {
+                return -1;
+            }
+
+            flush();
+            var linkMarks = withMark(AdfNode.Mark.link(href));
+            if (closeLabel > open + 1) {
+                parse(source, open + 1, closeLabel, linkMarks, out);
+            } else {
+                out.add(AdfNode.text(href, linkMarks));
+            }
+            return closeUrl + 1;
+        }
+
+        private int autolink(int i, int end) {
+            var close = source.indexOf('>', i + 1);
+            if (close < 0 || close >= end) {
+                return -1;
+            }
+            var href = source.substring(i + 1, close);
+            if (!isUrl(href, 0) && !href.startsWith("mailto:") || href.indexOf(' ') >= 0) {
+                return -1;
+            }
+            flush();
+            out.add(AdfNode.text(href, withMark(AdfNode.Mark.link(href))));
+            return close + 1;
+        }
+
+        private int bareUrl(int i, int end) {
+            if (hasLink() || !isUrl(source, i) || i > 0 && Character.isLetterOrDigit(source.charAt(i - 1))) {
+                return -1;
+            }
+            var urlEnd = i;
+            while (urlEnd < end && !Character.isWhitespace(source.charAt(urlEnd)) && source.charAt(urlEnd) != '<') {
+                urlEnd++;
+            }
+            while (urlEnd > i && isTrailingPunctuation(source.charAt(urlEnd - 1))) {
+                urlEnd--;
+            }
+            var href = source.substring(i, urlEnd);
+            flush();
+            out.add(AdfNode.text(href, withMark(AdfNode.Mark.link(href))));
+            return urlEnd;
+        }
+
+        private int mention(int i, int end) {
+            if (i > 0 && Character.isLetterOrDigit(source.charAt(i - 1))) {
+                return -1;
+            }
+            var nameEnd = i + 1;
+            while (nameEnd < end && isMentionChar(source.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            while (nameEnd > i + 1 && source.charAt(nameEnd - 1) == '.') {
+                nameEnd--;
+            }
+            if (nameEnd == i + 1) {
+                return -1;
+            }
+            flush();
+            out.add(AdfNode.text(source.substring(i, nameEnd), withMark(AdfNode.Mark.of("strong"))));
+            return nameEnd;
+        }
+
+        private boolean hasLink() {
+            for (var mark : marks) {
+                if ("link".equals(mark.type())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private List<AdfNode.Mark> withMark(AdfNode.Mark mark) {
+            for (var existing : marks) {
+                if (existing.type().equals(mark.type())) {
+                    return marks;
+                }
+            }
+            var combined = new ArrayList<AdfNode.Mark>(marks.size() + 1);
+            combined.addAll(marks);
+            combined.add(mark);
+            return combined;
+        }
+
+        private static boolean isUrl(String value, int offset) {
+            return value.startsWith("https://", offset) || value.startsWith("http://", offset);
+        }
+
+        private static boolean isMentionChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_';
+        }
+
+        private static boolean isTrailingPunctuation(char c) {
+            return c == '.' || c == ',' || c == ';' || c == ':' || c == '!' || c == '?' || c == ')' || c == '\'' || c == '"';
+        }
+
+        private static boolean isAsciiPunctuation(char c) {
+            return c >= '!' && c <= '/' || c >= ':' && c <= '@' || c >= '[' && c <= '`' || c >= '{' && c <= '~';
+        }
+    }
+}
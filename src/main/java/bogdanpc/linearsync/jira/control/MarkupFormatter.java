@@ -3,21 +3,32 @@ package bogdanpc.linearsync.jira.control;
 import bogdanpc.linearsync.jira.entity.JiraIssueInput;
 import jakarta.enterprise.context.ApplicationScoped;
 
+/**
+ * Formats synced comments and attachment notes as Markdown, converted to ADF by {@link MarkdownConverter}.
+ */
 @ApplicationScoped
 class MarkupFormatter {
 
     String formatCommentForJira(JiraIssueInput.CommentInput commentInput) {
         var formattedComment = new StringBuilder();
-        formattedComment.append("h4. Comment from Source\n\n");
+        formattedComment.append("#### Comment from Source\n\n");
+        appendCommentHeader(commentInput, formattedComment);
 
-        if (commentInput.authorDisplayName() != null || commentInput.authorName() != null) {
-            var userName = commentInput.authorDisplayName() != null ? commentInput.authorDisplayName() : commentInput.authorName();
-            formattedComment.append("Author: ").append(userName).append("\n");
+        if (commentInput.body() != null && !commentInput.body().isEmpty()) {
+            formattedComment.append(commentInput.body());
         }
 
-        if (commentInput.createdAt() != null) {
-            formattedComment.append("Created: ").append(commentInput.createdAt()).append("\n\n");
-        }
+        return formattedComment.toString();
+    }
+
+    /**
+     * Comment text as posted before comments were converted to ADF, when it was sent as a single
+     * wiki-markup text node. Used to recognise those comments as already synced.
+     */
+    String formatLegacyCommentForJira(JiraIssueInput.CommentInput commentInput) {
+        var formattedComment = new StringBuilder();
+        formattedComment.append("h4. Comment from Source\n\n");
+        appendCommentHeader(commentInput, formattedComment);
 
         if (commentInput.body() != null && !commentInput.body().isEmpty()) {
             formattedComment.append(commentInput.body());
@@ -28,14 +39,14 @@ class MarkupFormatter {
 
     String formatAttachmentForJira(JiraIssueInput.AttachmentInput attachmentInput) {
         var attachmentInfo = new StringBuilder();
-        attachmentInfo.append("h4. Attachment from Source\n\n");
+        attachmentInfo.append("#### Attachment from Source\n\n");
 
         if (attachmentInput.title() != null) {
             attachmentInfo.append("Title: ").append(attachmentInput.title()).append("\n");
         }
 
         if (attachmentInput.url() != null) {
-            attachmentInfo.append("URL: [").append(attachmentInput.url()).append("|").append(attachmentInput.url()).append("]\n");
+            attachmentInfo.append("URL: <").append(attachmentInput.url()).append(">\n");
         }
 
         if (attachmentInput.sourceType() != null) {
@@ -53,4 +64,15 @@ class MarkupFormatter {
 
         return attachmentInfo.toString();
     }
-}
\ No newline at end of file
+
+    private void appendCommentHeader(JiraIssueInput.CommentInput commentInput, StringBuilder formattedComment) {
+        if (commentInput.authorDisplayName() != null || commentInput.authorName() != null) {
+            var userName = commentInput.authorDisplayName() != null ? commentInput.authorDisplayName() : commentInput.authorName();
+            formattedComment.append("Author: ").append(userName).append("\n");
+        }
+
+        if (commentInput.createdAt() != null) {
+            formattedComment.append("Created: ").append(commentInput.createdAt()).append("\n\n");
+        }
+    }
+}
@@ -2,14 +2,20 @@ package bogdanpc.linearsync.jira.control;
 
 import bogdanpc.linearsync.jira.entity.JiraComment;
 import bogdanpc.linearsync.jira.entity.JiraIssue;
+import bogdanpc.linearsync.jira.entity.JiraIssueReference;
 import bogdanpc.linearsync.jira.entity.JiraProject;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 @ApplicationScoped
 public class SearchOperations {
@@ -67,6 +73,77 @@ public class SearchOperations {
         }
     }
 
+    /**
+     * Resolves many source IDs at once using batched {@code cf[...] in (...)} queries that run concurrently.
+     * Unlike the single-issue lookups, a failed batch fails the whole call: a silently missing
+     * mapping would turn into a duplicate issue on the next sync.
+     *
+     * @return found issues keyed by source ID; IDs without a Jira issue are absent
+     */
+    public Map<String, JiraIssueReference> findIssuesBySourceIds(Collection<String> sourceIssueIds) {
+        if (!config.hasLinearIdField()) {
+            throw new IllegalStateException("Cannot search by Linear ID - jira.custom-field.linear-id not configured");
+        }
+
+        var batches = partition(List.copyOf(sourceIssueIds), Math.max(1, config.searchBatchSize()));
+        var concurrency = Math.max(1, config.searchConcurrency());
+        Log.infof("Resolving %d source IDs in Jira using %d batched searches (concurrency: %d)",
+                sourceIssueIds.size(), batches.size(), concurrency);
+
+        var found = new ConcurrentHashMap<String, JiraIssueReference>();
+        try (var executor = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().name("jira-search-", 0).factory())) {
+            var futures = batches.stream()
+                    .map(batch -> executor.submit(() -> searchBatch(batch, found)))
+                    .toList();
+
+            for (var future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to resolve source IDs in Jira", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while resolving source IDs in Jira", e);
+        }
+
+        Log.infof("Resolved %d of %d source IDs to Jira issues", found.size(), sourceIssueIds.size());
+        return found;
+    }
+
+    private void searchBatch(List<String> sourceIssueIds, Map<String, JiraIssueReference> found) {
+        var fieldName = config.linearIdFieldName();
+        var jql = config.jqlByLinearIds(sourceIssueIds);
+        String nextPageToken = null;
+
+        do {
+            var response = jiraClient.searchIssueReferences(jql, nextPageToken, sourceIssueIds.size(), fieldName);
+
+            if (response.issues() != null) {
+                for (var issue : response.issues()) {
+                    var sourceId = issue.fieldValue(fieldName);
+                    if (sourceId == null) {
+                        continue;
+                    }
+                    var existing = found.putIfAbsent(sourceId, issue);
+                    if (existing != null) {
+                        Log.warnf("Source ID %s is linked to multiple Jira issues (%s, %s), keeping %s",
+                                sourceId, existing.key(), issue.key(), existing.key());
+                    }
+                }
+            }
+
+            nextPageToken = response.nextPageToken();
+        } while (nextPageToken != null && !nextPageToken.isEmpty());
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int batchSize) {
+        var batches = new ArrayList<List<T>>();
+        for (int i = 0; i < items.size(); i += batchSize) {
+            batches.add(items.subList(i, Math.min(i + batchSize, items.size())));
+        }
+        return batches;
+    }
+
     public List<JiraIssue> getAllIssuesInProject() {
         var jql = buildProjectQuery();
         return executePagedIssueSearch(jql);
@@ -28,6 +28,16 @@ public class TransitionOperations {
             "canceled", DONE
     );
 
+    /**
+     * Maps Jira status names, or the names of their status categories, back to Linear state types.
+     * Both Linear types mapped to "Done" come back as completed.
+     */
+    private static final Map<String, String> REVERSE_STATUS_MAPPING = Map.of(
+            TO_DO.toLowerCase(), "unstarted",
+            IN_PROGRESS.toLowerCase(), "started",
+            DONE.toLowerCase(), "completed"
+    );
+
     private final JiraClient jiraClient;
     private final JiraConfig config;
 
@@ -36,21 +46,24 @@ public class TransitionOperations {
         this.config = config;
     }
 
-    public void transitionIfNeeded(String jiraIssueKey, String linearStateType) {
+    /**
+     * @return false when Jira failed to read or transition the issue, so the transition is worth retrying
+     */
+    public boolean transitionIfNeeded(String jiraIssueKey, String linearStateType) {
         if (!config.statusSyncEnabled()) {
             Log.debugf("Status sync disabled, skipping transition for %s", jiraIssueKey);
-            return;
+            return true;
         }
 
         if (linearStateType == null || linearStateType.isBlank()) {
             Log.debugf("No Linear state type provided for %s, skipping transition", jiraIssueKey);
-            return;
+            return true;
         }
 
         var targetStatus = mapLinearStatusToJira(linearStateType);
         if (targetStatus == null) {
             Log.warnf("Unknown Linear state type '%s' for %s, skipping transition", linearStateType, jiraIssueKey);
-            return;
+            return true;
         }
 
         try {
@@ -61,7 +74,7 @@ public class TransitionOperations {
 
             if (targetStatus.equalsIgnoreCase(currentStatus)) {
                 Log.debugf("Issue %s already in status '%s', no transition needed", jiraIssueKey, currentStatus);
-                return;
+                return true;
             }
 
             var transitionId = findTransitionToStatus(jiraIssueKey, targetStatus);
@@ -70,15 +83,38 @@ public class TransitionOperations {
             } else {
                 Log.warnf("No transition found to move %s from '%s' to '%s'", jiraIssueKey, currentStatus, targetStatus);
             }
+            return true;
         } catch (Exception e) {
             Log.errorf(e, "Failed to transition issue %s to status '%s'", jiraIssueKey, targetStatus);
+            return false;
         }
     }
 
-    private String mapLinearStatusToJira(String linearStateType) {
+    static String mapLinearStatusToJira(String linearStateType) {
         return STATUS_MAPPING.get(linearStateType.toLowerCase());
     }
 
+    /**
+     * The Jira status a Linear state type is synced to, null for an unknown or missing type.
+     */
+    public String statusFor(String linearStateType) {
+        return linearStateType != null ? mapLinearStatusToJira(linearStateType) : null;
+    }
+
+    /**
+     * Maps a Jira status to a Linear state type by its name, falling back to its status category for
+     * statuses of custom workflows.
+     *
+     * @return null when neither maps to a Linear state type
+     */
+    static String mapJiraStatusToLinear(String statusName, String categoryName) {
+        var stateType = statusName != null ? REVERSE_STATUS_MAPPING.get(statusName.toLowerCase()) : null;
+        if (stateType == null && categoryName != null) {
+            stateType = REVERSE_STATUS_MAPPING.get(categoryName.toLowerCase());
+        }
+        return stateType;
+    }
+
     private Optional<String> findTransitionToStatus(String jiraIssueKey, String targetStatus) {
         var transitionsResponse = jiraClient.getTransitions(jiraIssueKey);
         if (transitionsResponse.transitions() == null) {
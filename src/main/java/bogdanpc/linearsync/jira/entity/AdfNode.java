@@ -0,0 +1,82 @@
+package bogdanpc.linearsync.jira.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node of the Atlassian Document Format used by Jira API v3 for rich text fields.
+ * The same type models the document root, block nodes and inline text nodes; absent parts are omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AdfNode(
+        @JsonProperty("type") String type,
+        @JsonProperty("version") Integer version,
+        @JsonProperty("attrs") Map<String, Object> attrs,
+        @JsonProperty("content") List<AdfNode> content,
+        @JsonProperty("text") String text,
+        @JsonProperty("marks") List<Mark> marks
+) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Mark(
+            @JsonProperty("type") String type,
+            @JsonProperty("attrs") Map<String, Object> attrs
+    ) {
+        public static Mark of(String type) {
+            return new Mark(type, null);
+        }
+
+        public static Mark link(String href) {
+            return new Mark("link", Map.of("href", href));
+        }
+    }
+
+    public static AdfNode doc(List<AdfNode> content) {
+        return new AdfNode("doc", 1, null, content, null, null);
+    }
+
+    public static AdfNode block(String type, Map<String, Object> attrs, List<AdfNode> content) {
+        return new AdfNode(type, null, attrs, content, null, null);
+    }
+
+    public static AdfNode text(String text, List<Mark> marks) {
+        return new AdfNode("text", null, null, null, text, marks == null || marks.isEmpty() ? null : marks);
+    }
+
+    public static AdfNode hardBreak() {
+        return new AdfNode("hardBreak", null, null, null, null, null);
+    }
+
+    /**
+     * Flattens the node to plain text: inline text is concatenated, hard breaks and
+     * block boundaries become newlines.
+     */
+    public String plainText() {
+        var builder = new StringBuilder();
+        appendPlainText(builder);
+        return builder.toString().trim();
+    }
+
+    private void appendPlainText(StringBuilder builder) {
+        if (text != null) {
+            builder.append(text);
+        }
+        if ("hardBreak".equals(type)) {
+            builder.append('\n');
+        }
+        if (content != null) {
+            for (var child : content) {
+                child.appendPlainText(builder);
+            }
+            if (!"text".equals(type) && !"doc".equals(type)) {
+                builder.append('\n');
+            }
+        }
+    }
+}
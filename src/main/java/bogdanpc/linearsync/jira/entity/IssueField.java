@@ -0,0 +1,19 @@
+package bogdanpc.linearsync.jira.entity;
+
+/**
+ * Parts of a Jira issue that are pushed from the source issue and tracked for changes.
+ * Only the first four are issue fields in the Jira sense; status is applied through a
+ * workflow transition and comments through the comment endpoints.
+ */
+public enum IssueField {
+    SUMMARY,
+    DESCRIPTION,
+    LABELS,
+    PRIORITY,
+    STATUS,
+    COMMENTS;
+
+    public boolean isEditableField() {
+        return this == SUMMARY || this == DESCRIPTION || this == LABELS || this == PRIORITY;
+    }
+}
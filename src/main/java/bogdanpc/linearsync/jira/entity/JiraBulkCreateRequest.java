@@ -0,0 +1,7 @@
+package bogdanpc.linearsync.jira.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record JiraBulkCreateRequest(@JsonProperty("issueUpdates") List<JiraCreateRequest> issueUpdates) {}
@@ -0,0 +1,69 @@
+package bogdanpc.linearsync.jira.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk create. Jira lists the created issues in request order, skipping the elements it
+ * rejected, and reports those by their position in the request.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record JiraBulkCreateResponse(
+        @JsonProperty("issues") List<JiraIssue> issues,
+        @JsonProperty("errors") List<ElementError> errors
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ElementError(
+            @JsonProperty("failedElementNumber") int failedElementNumber,
+            @JsonProperty("status") int status,
+            @JsonProperty("elementErrors") ErrorCollection elementErrors
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ErrorCollection(
+            @JsonProperty("errorMessages") List<String> errorMessages,
+            @JsonProperty("errors") Map<String, String> errors
+    ) {}
+
+    /**
+     * The created issue for each of the {@code requested} elements, null where the element was rejected.
+     */
+    public List<JiraIssue> createdInRequestOrder(int requested) {
+        var created = new ArrayList<JiraIssue>(requested);
+        var next = 0;
+        for (int element = 0; element < requested; element++) {
+            var issue = error(element) == null && issues != null && next < issues.size() ? issues.get(next++) : null;
+            created.add(issue);
+        }
+        return created;
+    }
+
+    /**
+     * Why the element at the given position was rejected, null when it was created.
+     */
+    public String error(int element) {
+        if (errors == null) {
+            return null;
+        }
+        for (var error : errors) {
+            if (error.failedElementNumber() == element) {
+                var details = new ArrayList<String>();
+                if (error.elementErrors() != null) {
+                    if (error.elementErrors().errorMessages() != null) {
+                        details.addAll(error.elementErrors().errorMessages());
+                    }
+                    if (error.elementErrors().errors() != null) {
+                        error.elementErrors().errors().forEach((field, message) -> details.add(field + ": " + message));
+                    }
+                }
+                return details.isEmpty() ? "HTTP " + error.status() : String.join("; ", details);
+            }
+        }
+        return null;
+    }
+}
@@ -37,6 +37,9 @@ public class JiraCreateRequest {
         @JsonProperty("labels")
         public List<String> labels;
 
+        @JsonProperty("parent")
+        public Parent parent;
+
         // Dynamic fields for custom properties
         public Map<String, Object> customFields = new HashMap<>();
 
@@ -58,6 +61,8 @@ public class JiraCreateRequest {
 
     public record Priority(@JsonProperty("name") String name) {}
 
+    public record Parent(@JsonProperty("key") String key) {}
+
     public record Assignee(@JsonProperty("accountId") String accountId) {}
 
 
@@ -0,0 +1,30 @@
+package bogdanpc.linearsync.jira.entity;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What changed on a Jira issue that the sync did not write itself, as read by the change feed.
+ *
+ * @param linearStateType     Linear state type the Jira status maps to, null when it maps to none
+ * @param statusChangedAt     time of the latest status change in the changelog, null when there is none
+ * @param statusChangedBySync whether that status change was made by the Jira user the sync runs as
+ * @param comments            comments added since the given time by anyone but the sync's user, oldest first
+ */
+public record JiraIssueChange(
+        String key,
+        Instant updated,
+        String status,
+        String linearStateType,
+        Instant statusChangedAt,
+        boolean statusChangedBySync,
+        List<Comment> comments
+) {
+
+    public record Comment(
+            String id,
+            String author,
+            Instant created,
+            String text
+    ) {}
+}
@@ -0,0 +1,51 @@
+package bogdanpc.linearsync.jira.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * A Jira issue read with {@code expand=changelog} and only the fields the change feed looks at.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record JiraIssueHistory(
+        @JsonProperty("id") String id,
+        @JsonProperty("key") String key,
+        @JsonProperty("fields") Fields fields,
+        @JsonProperty("changelog") Changelog changelog
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Fields(
+            @JsonProperty("updated") String updated,
+            @JsonProperty("status") JiraIssue.JiraStatus status,
+            @JsonProperty("comment") Comments comment
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Comments(
+            @JsonProperty("comments") List<JiraComment> comments,
+            @JsonProperty("total") int total
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Changelog(
+            @JsonProperty("histories") List<History> histories
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record History(
+            @JsonProperty("id") String id,
+            @JsonProperty("author") JiraComment.JiraUser author,
+            @JsonProperty("created") String created,
+            @JsonProperty("items") List<Item> items
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(
+            @JsonProperty("field") String field,
+            @JsonProperty("fromString") String from,
+            @JsonProperty("toString") String to
+    ) {}
+}
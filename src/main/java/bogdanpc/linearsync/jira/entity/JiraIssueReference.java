@@ -0,0 +1,26 @@
+package bogdanpc.linearsync.jira.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Slim search result carrying only the issue key, ID and the explicitly requested fields.
+ * Used when the field set is only known at runtime (e.g. the configured Linear ID custom field).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record JiraIssueReference(
+        @JsonProperty("id") String id,
+        @JsonProperty("key") String key,
+        @JsonProperty("fields") Map<String, Object> fields
+) {
+
+    public String fieldValue(String fieldName) {
+        if (fields == null) {
+            return null;
+        }
+        var value = fields.get(fieldName);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,15 @@
+package bogdanpc.linearsync.jira.entity;
+
+import java.util.Map;
+
+/**
+ * The synced fields of a Jira issue as read by an audit, reduced to their hashes.
+ *
+ * @param linearIssueId value of the Linear ID custom field, null when the field is not configured or empty
+ * @param fieldHashes   hashes of the audited fields, comparable with those of the Linear issue it was synced from
+ */
+public record JiraIssueSnapshot(
+        String key,
+        String linearIssueId,
+        Map<IssueField, String> fieldHashes
+) {}
@@ -0,0 +1,15 @@
+package bogdanpc.linearsync.jira.entity;
+
+import java.time.Instant;
+
+/**
+ * A Jira issue found by the change feed scan, with only what tells whether it changed since it was last read.
+ *
+ * @param linearIssueId value of the Linear ID custom field, null when the field is not configured or empty
+ */
+public record JiraIssueUpdate(
+        String id,
+        String key,
+        String linearIssueId,
+        Instant updated
+) {}
@@ -0,0 +1,8 @@
+package bogdanpc.linearsync.jira.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record JiraReferenceSearchResponse(List<JiraIssueReference> issues, String nextPageToken) {}
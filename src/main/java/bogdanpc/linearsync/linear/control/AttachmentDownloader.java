@@ -1,5 +1,6 @@
 package bogdanpc.linearsync.linear.control;
 
+import bogdanpc.linearsync.monitoring.control.Metrics;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -29,11 +30,17 @@ public class AttachmentDownloader {
     long maxFileSizeBytes;
 
     private final HttpClient httpClient;
+    private final Metrics metrics;
+    private final Metrics.Timer downloadTimer;
+    private final Metrics.Counter downloadedBytes;
 
-    public AttachmentDownloader() {
+    public AttachmentDownloader(Metrics metrics) {
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(30))
                 .build();
+        this.metrics = metrics;
+        this.downloadTimer = metrics.timer("attachment_download_duration_seconds", "Time to download a Linear attachment");
+        this.downloadedBytes = metrics.counter("attachment_download_bytes_total", "Bytes of the Linear attachments downloaded");
     }
 
     public Optional<File> downloadAttachment(String attachmentId, String attachmentUrl, String filename) {
@@ -52,6 +59,8 @@ public class AttachmentDownloader {
             return Optional.empty();
         }
 
+        var start = System.nanoTime();
+        var outcome = "failed";
         try {
             Log.debugf("Downloading attachment %s from %s", attachmentId, attachmentUrl);
 
@@ -67,12 +76,15 @@ public class AttachmentDownloader {
             if (contentLength.isPresent() && contentLength.getAsLong() > maxFileSizeBytes) {
                 Log.warnf("Attachment %s is too large (%d bytes). Max allowed: %d bytes",
                          attachmentId, contentLength.getAsLong(), maxFileSizeBytes);
+                outcome = "too-large";
                 return Optional.empty();
             }
 
             var tempFile = createTempFile(filename);
             if (writeToFile(response.body(), tempFile, attachmentId)) {
                 Log.debugf("Successfully downloaded attachment %s to %s", attachmentId, tempFile.getAbsolutePath());
+                outcome = "downloaded";
+                downloadedBytes.add(tempFile.length());
                 return Optional.of(tempFile);
             } else {
                 return Optional.empty();
@@ -81,6 +93,9 @@ public class AttachmentDownloader {
         } catch (Exception e) {
             Log.errorf(e, "Failed to download attachment %s from %s", attachmentId, attachmentUrl);
             return Optional.empty();
+        } finally {
+            downloadTimer.record(System.nanoTime() - start);
+            metrics.counter("attachment_downloads_total", "Linear attachment downloads by outcome", "outcome", outcome).increment();
         }
     }
 
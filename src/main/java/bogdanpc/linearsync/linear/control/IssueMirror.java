@@ -0,0 +1,283 @@
+package bogdanpc.linearsync.linear.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearMirror;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A local copy of the Linear issues fetched so far, which {@code list} and {@code read} serve from while it is
+ * fresh enough and a sync keeps up to date with the issues it fetches anyway.
+ * <p>
+ * A stale mirror is refreshed incrementally: only the issues updated since the last refresh of the team are
+ * fetched, without state or assignee filter so an issue moving between states is seen, and the filters are applied
+ * locally. Every issue is stored with a hash of its content without {@code updatedAt}, which tells real changes
+ * from touches; the issue file is only rewritten when an issue was added or updated.
+ * Issues deleted in Linear or moved to a team that is not refreshed stay until the mirror file is removed.
+ */
+@ApplicationScoped
+public class IssueMirror {
+
+    static final String ALL_TEAMS = "*";
+    static final String ISSUES_FILE = "linear-mirror.json";
+    static final String META_FILE = "linear-mirror.meta.json";
+    // Refreshes fetch a little before the last one started, so clock skew with Linear loses no update
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final IssueOperations linearService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper hashMapper;
+    private final Path directory;
+    private final Duration maxAge;
+
+    private LinearMirror mirror;
+    private LinearMirror.Meta meta;
+    private Map<String, String> idsByIdentifier;
+    private boolean issuesChanged;
+    private boolean metaChanged;
+
+    @Inject
+    public IssueMirror(IssueOperations linearService,
+                       @ConfigProperty(name = "sync.storage.location") String storageLocation,
+                       @ConfigProperty(name = "linear.mirror.max-age-seconds", defaultValue = "300") long maxAgeSeconds) {
+        this(linearService, storageLocation == null || storageLocation.isBlank()
+                ? Paths.get(System.getProperty("user.home"), ".linear-jira-sync")
+                : Paths.get(storageLocation), Duration.ofSeconds(Math.max(0, maxAgeSeconds)));
+    }
+
+    IssueMirror(IssueOperations linearService, Path directory, Duration maxAge) {
+        this.linearService = linearService;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.hashMapper = new ObjectMapper();
+        this.hashMapper.registerModule(new JavaTimeModule());
+        this.hashMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.directory = directory;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * How old the mirror of a team may be before {@code list} and {@code read} refresh it.
+     */
+    public Duration maxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Lists the mirrored issues matching the filters, oldest update first, after refreshing the team's issues
+     * when their last refresh is older than {@code maxAge}.
+     *
+     * @param mine only the issues assigned to the Linear user of the API token
+     */
+    public synchronized List<LinearIssue> issues(String teamKey, String stateType, Instant updatedAfter, boolean mine, Duration maxAge) {
+        load();
+        if (!isFresh(teamKey, maxAge)) {
+            refresh(teamKey);
+        }
+        var viewerEmail = mine ? viewerEmail() : null;
+
+        return mirror.issues.values().stream()
+                .map(LinearMirror.MirroredIssue::issue)
+                .filter(issue -> teamKey == null || issue.team() != null && teamKey.equals(issue.team().key()))
+                .filter(issue -> stateType == null || issue.state() != null && stateType.equals(issue.state().type()))
+                .filter(issue -> updatedAfter == null || issue.updatedAt() != null && issue.updatedAt().isAfter(updatedAfter))
+                .filter(issue -> viewerEmail == null || issue.assignee() != null && viewerEmail.equalsIgnoreCase(issue.assignee().email()))
+                .sorted(Comparator.comparing(LinearIssue::updatedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Returns the mirrored issue while it or its team was refreshed within {@code maxAge}, and reads it from Linear
+     * into the mirror otherwise.
+     */
+    public synchronized Optional<LinearIssue> issue(String identifier, Duration maxAge) {
+        load();
+        var id = idsByIdentifier.get(identifier);
+        var mirrored = id != null ? mirror.issues.get(id) : null;
+        if (mirrored != null) {
+            var team = mirrored.issue().team();
+            if (isRecent(meta.checkedAt.get(id), maxAge) || isFresh(team != null ? team.key() : null, maxAge)) {
+                Log.debugf("Serving %s from the Linear mirror", identifier);
+                return Optional.of(mirrored.issue());
+            }
+        }
+
+        var fetched = linearService.getIssueByIdentifier(identifier);
+        fetched.ifPresent(issue -> {
+            record(List.of(issue));
+            meta.checkedAt.put(issue.id(), Instant.now());
+            metaChanged = true;
+            save();
+        });
+        return fetched;
+    }
+
+    /**
+     * Stores issues fetched elsewhere, e.g. by a sync, without counting as a refresh of their team.
+     */
+    public synchronized void record(Collection<LinearIssue> issues) {
+        load();
+        var changed = 0;
+        for (var issue : issues) {
+            var contentHash = contentHash(issue);
+            var mirrored = mirror.issues.get(issue.id());
+            var sameContent = mirrored != null && mirrored.contentHash().equals(contentHash);
+            if (!sameContent) {
+                changed++;
+            }
+            if (!sameContent || !Objects.equals(mirrored.issue().updatedAt(), issue.updatedAt())) {
+                mirror.issues.put(issue.id(), new LinearMirror.MirroredIssue(contentHash, issue));
+                idsByIdentifier.put(issue.identifier(), issue.id());
+                issuesChanged = true;
+            }
+        }
+        if (changed > 0) {
+            Log.debugf("Mirrored %d new or changed Linear issues", changed);
+        }
+    }
+
+    /**
+     * Records that every issue of the team updated after {@code updatedAfter} was fetched by a fetch started at
+     * {@code startedAt}, without state filter. When this covers everything since the team's last refresh, the
+     * fetch counts as a refresh.
+     *
+     * @param updatedAfter null when all issues were fetched
+     */
+    public synchronized void fetched(String teamKey, Instant updatedAfter, Instant startedAt) {
+        load();
+        var refreshedAt = refreshedAt(teamKey);
+        if (updatedAfter == null || refreshedAt != null && !updatedAfter.isAfter(refreshedAt.minus(REFRESH_OVERLAP))) {
+            meta.refreshedAt.put(teamKey != null ? teamKey : ALL_TEAMS, startedAt);
+            metaChanged = true;
+        }
+    }
+
+    private void refresh(String teamKey) {
+        var since = refreshedAt(teamKey);
+        var startedAt = Instant.now();
+        Log.debugf("Refreshing the Linear mirror of team %s, updated after %s", teamKey != null ? teamKey : "all", since);
+
+        linearService.streamIssues(teamKey, null, since != null ? since.minus(REFRESH_OVERLAP) : null, null, (page, _) -> record(page));
+        meta.refreshedAt.put(teamKey != null ? teamKey : ALL_TEAMS, startedAt);
+        metaChanged = true;
+        save();
+    }
+
+    private String viewerEmail() {
+        if (meta.viewerEmail == null) {
+            meta.viewerEmail = linearService.getCurrentUserEmail();
+            metaChanged = true;
+            save();
+        }
+        return meta.viewerEmail;
+    }
+
+    /**
+     * The last refresh covering the team: its own or the one of all teams, whichever is later.
+     */
+    private Instant refreshedAt(String teamKey) {
+        var all = meta.refreshedAt.get(ALL_TEAMS);
+        var team = teamKey != null ? meta.refreshedAt.get(teamKey) : null;
+        if (all == null || team != null && team.isAfter(all)) {
+            return team;
+        }
+        return all;
+    }
+
+    private boolean isFresh(String teamKey, Duration maxAge) {
+        return isRecent(refreshedAt(teamKey), maxAge);
+    }
+
+    private static boolean isRecent(Instant time, Duration maxAge) {
+        return time != null && time.plus(maxAge).isAfter(Instant.now());
+    }
+
+    String contentHash(LinearIssue issue) {
+        var untouched = new LinearIssue(issue.id(), issue.identifier(), issue.title(), issue.description(), issue.priority(),
+                issue.state(), issue.assignee(), issue.creator(), issue.team(), issue.labels(),
+                issue.comments(), issue.attachments(), issue.parent(), issue.children(),
+                issue.createdAt(), null, issue.url());
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(hashMapper.writeValueAsBytes(untouched));
+            return HEX.formatHex(digest, 0, 8);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash Linear issue " + issue.identifier(), e);
+        }
+    }
+
+    private void load() {
+        if (mirror != null) {
+            return;
+        }
+        mirror = read(directory.resolve(ISSUES_FILE), LinearMirror.class, new LinearMirror());
+        meta = read(directory.resolve(META_FILE), LinearMirror.Meta.class, new LinearMirror.Meta());
+        idsByIdentifier = new HashMap<>(mirror.issues.size() * 2);
+        mirror.issues.forEach((id, mirrored) -> idsByIdentifier.put(mirrored.issue().identifier(), id));
+        Log.debugf("Loaded Linear mirror with %d issues", mirror.issues.size());
+    }
+
+    private <T> T read(Path path, Class<T> type, T empty) {
+        if (!Files.exists(path)) {
+            return empty;
+        }
+        try {
+            return objectMapper.readValue(path.toFile(), type);
+        } catch (IOException e) {
+            Log.warnf(e, "Unreadable Linear mirror file %s, starting over", path);
+            return empty;
+        }
+    }
+
+    /**
+     * Writes what changed since the last save.
+     */
+    public synchronized void save() {
+        if (mirror == null) {
+            return;
+        }
+        if (issuesChanged) {
+            write(directory.resolve(ISSUES_FILE), mirror);
+            issuesChanged = false;
+        }
+        if (metaChanged) {
+            write(directory.resolve(META_FILE), meta);
+            metaChanged = false;
+        }
+    }
+
+    private void write(Path path, Object value) {
+        try {
+            Files.createDirectories(directory);
+            var temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temporary.toFile(), value);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write Linear mirror file: " + path, e);
+        }
+    }
+}
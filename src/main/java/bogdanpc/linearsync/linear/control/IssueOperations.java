@@ -1,7 +1,9 @@
 package bogdanpc.linearsync.linear.control;
 
 import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearMutationResponse;
 import bogdanpc.linearsync.linear.entity.LinearUser;
+import bogdanpc.linearsync.linear.entity.LinearWorkflowState;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
@@ -9,13 +11,15 @@ import org.eclipse.microprofile.rest.client.inject.RestClient;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class IssueOperations {
 
     private static final String ISSUES_QUERY = """
             query GetIssues($first: Int, $after: String, $filter: IssueFilter) {
-              issues(first: $first, after: $after, filter: $filter) {
+              issues(first: $first, after: $after, filter: $filter, orderBy: updatedAt) {
                 nodes {
                   id
                   identifier
@@ -113,6 +117,105 @@ public class IssueOperations {
               }
             }
             """;
+
+    /**
+     * Slim projection used when only the identity of issues is needed (e.g. rebuilding sync state).
+     */
+    private static final String ISSUE_REFERENCES_QUERY = """
+            query GetIssueReferences($first: Int, $after: String, $filter: IssueFilter) {
+              issues(first: $first, after: $after, filter: $filter) {
+                nodes {
+                  id
+                  identifier
+                  updatedAt
+                }
+                pageInfo {
+                  hasNextPage
+                  endCursor
+                }
+              }
+            }
+            """;
+
+    /**
+     * Projection of the fields an audit compares with Jira, plus what places an issue in the audit's hash tree.
+     */
+    private static final String AUDIT_QUERY = """
+            query GetAuditIssues($first: Int, $after: String, $filter: IssueFilter) {
+              issues(first: $first, after: $after, filter: $filter) {
+                nodes {
+                  id
+                  identifier
+                  title
+                  createdAt
+                  state {
+                    id
+                    name
+                    type
+                  }
+                  team {
+                    id
+                    name
+                    key
+                  }
+                  labels(first: 25) {
+                    nodes {
+                      id
+                      name
+                      color
+                    }
+                  }
+                }
+                pageInfo {
+                  hasNextPage
+                  endCursor
+                }
+              }
+            }
+            """;
+
+    private static final String WORKFLOW_STATES_QUERY = """
+            query GetWorkflowStates($filter: WorkflowStateFilter) {
+              workflowStates(first: 100, filter: $filter) {
+                nodes {
+                  id
+                  name
+                  type
+                  position
+                }
+              }
+            }
+            """;
+
+    private static final String UPDATE_STATE_MUTATION = """
+            mutation UpdateIssueState($id: String!, $stateId: String!) {
+              issueUpdate(id: $id, input: { stateId: $stateId }) {
+                success
+                issue {
+                  id
+                  identifier
+                  state {
+                    id
+                    name
+                    type
+                  }
+                  updatedAt
+                }
+              }
+            }
+            """;
+
+    private static final String CREATE_COMMENT_MUTATION = """
+            mutation CreateComment($issueId: String!, $body: String!) {
+              commentCreate(input: { issueId: $issueId, body: $body }) {
+                success
+              }
+            }
+            """;
+
+    private static final int ISSUES_PAGE_SIZE = 50;
+    private static final int REFERENCES_PAGE_SIZE = 250;
+
     private final LinearClient linearClient;
 
     public IssueOperations(@RestClient LinearClient linearClient) {
@@ -120,43 +223,138 @@ public class IssueOperations {
     }
 
     public List<LinearIssue> getIssues(String teamKey, String stateType, Instant updatedAfter) {
-        return fetchIssues(teamKey, stateType, updatedAfter, null);
+        return fetchIssues(ISSUES_QUERY, ISSUES_PAGE_SIZE, teamKey, stateType, updatedAfter, null);
     }
 
     public List<LinearIssue> getMyIssues(String teamKey, String stateType, Instant updatedAfter) {
         String userEmail = getCurrentUserEmail();
-        return fetchIssues(teamKey, stateType, updatedAfter, userEmail);
+        return fetchIssues(ISSUES_QUERY, ISSUES_PAGE_SIZE, teamKey, stateType, updatedAfter, userEmail);
     }
 
-    private List<LinearIssue> fetchIssues(String teamKey, String stateType, Instant updatedAfter, String assigneeEmail) {
-        Log.debugf("Fetching issues - team: %s, state: %s, assignee: %s", teamKey, stateType, assigneeEmail);
+    /**
+     * Fetches only {@code id}, {@code identifier} and {@code updatedAt} of all matching issues,
+     * using the largest page size Linear allows. All other fields of the returned issues are null.
+     */
+    public List<LinearIssue> getIssueReferences(String teamKey) {
+        return fetchIssues(ISSUE_REFERENCES_QUERY, REFERENCES_PAGE_SIZE, teamKey, null, null, null);
+    }
 
+    /**
+     * Fetches matching issues ordered by {@code updatedAt}, page by page, handing each page and its end cursor
+     * to the consumer as soon as it arrives. The next page is only requested once the consumer has accepted
+     * the current one, so a blocking consumer throttles fetching.
+     *
+     * @param afterCursor end cursor of a page returned by an earlier call with the same filters, to continue
+     *                    after it; null starts from the first page
+     */
+    public void streamIssues(String teamKey, String stateType, Instant updatedAfter, String afterCursor,
+                             BiConsumer<List<LinearIssue>, String> pageConsumer) {
+        fetchIssues(ISSUES_QUERY, ISSUES_PAGE_SIZE, buildFilter(teamKey, stateType, updatedAfter, null), afterCursor, pageConsumer);
+    }
+
+    /**
+     * Fetches the title, state, team, labels and creation time of all issues page by page, using the largest page
+     * size Linear allows. All other fields of the returned issues are null.
+     */
+    public void streamAuditIssues(Consumer<List<LinearIssue>> pageConsumer) {
+        fetchIssues(AUDIT_QUERY, REFERENCES_PAGE_SIZE, buildFilter(null, null, null, null), null, (nodes, _) -> pageConsumer.accept(nodes));
+    }
+
+    /**
+     * Fetches the issues with the given Linear IDs, a page of IDs per request. IDs without an issue are left out.
+     */
+    public List<LinearIssue> getIssuesByIds(Collection<String> ids) {
+        var allIssues = new ArrayList<LinearIssue>(ids.size());
+        var idList = List.copyOf(ids);
+        for (int from = 0; from < idList.size(); from += ISSUES_PAGE_SIZE) {
+            var batch = idList.subList(from, Math.min(from + ISSUES_PAGE_SIZE, idList.size()));
+            fetchIssues(ISSUES_QUERY, ISSUES_PAGE_SIZE, Map.of("id", Map.of("in", batch)), null, (nodes, _) -> allIssues.addAll(nodes));
+        }
+        return allIssues;
+    }
+
+    private List<LinearIssue> fetchIssues(String issuesQuery, int pageSize, String teamKey, String stateType, Instant updatedAfter, String assigneeEmail) {
         var allIssues = new ArrayList<LinearIssue>();
-        String cursor = null;
+        fetchIssues(issuesQuery, pageSize, buildFilter(teamKey, stateType, updatedAfter, assigneeEmail), null, (nodes, _) -> allIssues.addAll(nodes));
+        return allIssues;
+    }
+
+    private void fetchIssues(String issuesQuery, int pageSize, Map<String, Object> filter,
+                             String afterCursor, BiConsumer<List<LinearIssue>, String> pageConsumer) {
+        Log.debugf("Fetching issues - filter: %s, after: %s", filter, afterCursor);
+
+        var fetched = 0;
+        var cursor = afterCursor;
         var hasNextPage = true;
 
         while (hasNextPage) {
             var variables = new HashMap<String, Object>();
-            variables.put("first", 50);
+            variables.put("first", pageSize);
             if (cursor != null) {
                 variables.put("after", cursor);
             }
-            variables.put("filter", buildFilter(teamKey, stateType, updatedAfter, assigneeEmail));
+            variables.put("filter", filter);
 
-            var query = new GraphQLQuery(ISSUES_QUERY, variables);
+            var query = new GraphQLQuery(issuesQuery, variables);
 
             var response = linearClient.getIssues(query);
 
             if (response.data() == null || response.data().issues() == null) {
                 break;
             }
-            allIssues.addAll(response.data().issues().nodes());
+            var nodes = response.data().issues().nodes();
             hasNextPage = response.data().issues().pageInfo().hasNextPage();
             cursor = response.data().issues().pageInfo().endCursor();
+            pageConsumer.accept(nodes, cursor);
+            fetched += nodes.size();
         }
 
-        Log.debugf("Fetched %d issues from Linear", allIssues.size());
-        return allIssues;
+        Log.debugf("Fetched %d issues from Linear", fetched);
+    }
+
+    /**
+     * Lists the workflow states of a team, in no particular order.
+     */
+    public List<LinearWorkflowState> getWorkflowStates(String teamId) {
+        var variables = Map.<String, Object>of("filter", Map.of("team", Map.of("id", Map.of("eq", teamId))));
+        var response = linearClient.getWorkflowStates(new GraphQLQuery(WORKFLOW_STATES_QUERY, variables));
+
+        if (response.data() == null || response.data().workflowStates() == null || response.data().workflowStates().nodes() == null) {
+            return List.of();
+        }
+        return response.data().workflowStates().nodes();
+    }
+
+    /**
+     * Moves the issue to another workflow state.
+     *
+     * @return the issue with only its ID, identifier, state and {@code updatedAt} set
+     */
+    public LinearIssue updateIssueState(String issueId, String stateId) {
+        Log.debugf("Moving Linear issue %s to state %s", issueId, stateId);
+        var payload = mutate(UPDATE_STATE_MUTATION, "issueUpdate", Map.of("id", issueId, "stateId", stateId));
+        return payload.issue();
+    }
+
+    /**
+     * Adds a comment with the given Markdown body to the issue.
+     */
+    public void createComment(String issueId, String body) {
+        Log.debugf("Adding comment to Linear issue %s", issueId);
+        mutate(CREATE_COMMENT_MUTATION, "commentCreate", Map.of("issueId", issueId, "body", body));
+    }
+
+    private LinearMutationResponse.Payload mutate(String mutation, String name, Map<String, Object> variables) {
+        var response = linearClient.mutate(new GraphQLQuery(mutation, variables));
+        var payload = response.payload(name);
+
+        if (payload == null || !payload.success()) {
+            var reason = response.errors() != null && !response.errors().isEmpty()
+                    ? response.errors().getFirst().message()
+                    : "no success reported";
+            throw new RuntimeException("Linear " + name + " failed: " + reason);
+        }
+        return payload;
     }
 
     public boolean testConnection() {
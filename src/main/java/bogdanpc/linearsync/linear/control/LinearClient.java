@@ -1,9 +1,13 @@
 package bogdanpc.linearsync.linear.control;
 
 import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearMutationResponse;
 import bogdanpc.linearsync.linear.entity.LinearResponse;
 import bogdanpc.linearsync.linear.entity.LinearUserResponse;
 import bogdanpc.linearsync.linear.entity.LinearIssueResponse;
+import bogdanpc.linearsync.linear.entity.LinearWorkflowStatesResponse;
+import bogdanpc.linearsync.monitoring.control.ApiCallFilter;
+import bogdanpc.linearsync.monitoring.control.RecordedApiCalls;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -13,6 +17,8 @@ import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 @RegisterRestClient(configKey = "linear-api")
 @RegisterProvider(LinearResponseExceptionMapper.class)
+@RegisterProvider(ApiCallFilter.class)
+@RecordedApiCalls
 @ApplicationScoped
 @ClientHeaderParam(name = "Authorization", value = "${linear.api.token}")
 public interface LinearClient {
@@ -28,4 +34,12 @@ public interface LinearClient {
     @POST
     @Path("/")
     LinearIssueResponse getIssue(GraphQLQuery query);
+
+    @POST
+    @Path("/")
+    LinearWorkflowStatesResponse getWorkflowStates(GraphQLQuery query);
+
+    @POST
+    @Path("/")
+    LinearMutationResponse mutate(GraphQLQuery query);
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ public record LinearIssue(
     @JsonProperty("labels") @JsonDeserialize(using = LinearLabelsDeserializer.class) LinearLabels labels,
     @JsonProperty("comments") LinearComments comments,
     @JsonProperty("attachments") LinearAttachments attachments,
+    @JsonProperty("parent") LinearIssueRef parent,
+    @JsonProperty("children") LinearChildren children,
     @JsonProperty("createdAt") Instant createdAt,
     @JsonProperty("updatedAt") Instant updatedAt,
     @JsonProperty("url") String url
@@ -102,6 +104,18 @@ public record LinearIssue(
         @JsonProperty("createdAt") Instant createdAt
     ) {}
 
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record LinearIssueRef(
+        @JsonProperty("id") String id,
+        @JsonProperty("identifier") String identifier,
+        @JsonProperty("title") String title
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record LinearChildren(
+        @JsonProperty("nodes") List<LinearIssueRef> nodes
+    ) {}
+
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record LinearPageInfo(
         @JsonProperty("hasNextPage") boolean hasNextPage,
@@ -0,0 +1,45 @@
+package bogdanpc.linearsync.linear.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Linear issues kept on disk so they can be listed and read without calling Linear.
+ * <p>
+ * The issues are stored apart from the freshness data in {@link Meta}, so a refresh that finds no changed
+ * content only rewrites the small meta file.
+ */
+public class LinearMirror {
+
+    /**
+     * @param contentHash hash of the issue without its {@code updatedAt}, so a touch that changes nothing is not a change
+     */
+    public record MirroredIssue(
+            @JsonProperty("contentHash") String contentHash,
+            @JsonProperty("issue") LinearIssue issue
+    ) {}
+
+    public static class Meta {
+
+        /**
+         * When the issues of a team, or of all teams under {@code "*"}, were last brought up to date.
+         */
+        @JsonProperty("refreshedAt")
+        public Map<String, Instant> refreshedAt = new HashMap<>();
+
+        /**
+         * When single issues were last read from Linear, by Linear ID.
+         */
+        @JsonProperty("checkedAt")
+        public Map<String, Instant> checkedAt = new HashMap<>();
+
+        @JsonProperty("viewerEmail")
+        public String viewerEmail;
+    }
+
+    @JsonProperty("issues")
+    public Map<String, MirroredIssue> issues = new HashMap<>();
+}
@@ -0,0 +1,33 @@
+package bogdanpc.linearsync.linear.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a GraphQL mutation. {@code data} holds the payload under the name of the mutation,
+ * e.g. {@code issueUpdate}; a rejected mutation comes back with {@code errors} instead.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LinearMutationResponse(
+    @JsonProperty("data") Map<String, Payload> data,
+    @JsonProperty("errors") List<Error> errors
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Payload(
+        @JsonProperty("success") boolean success,
+        @JsonProperty("issue") LinearIssue issue
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Error(
+        @JsonProperty("message") String message
+    ) {}
+
+    public Payload payload(String mutation) {
+        return data != null ? data.get(mutation) : null;
+    }
+}
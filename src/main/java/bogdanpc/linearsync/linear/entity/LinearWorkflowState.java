@@ -0,0 +1,15 @@
+package bogdanpc.linearsync.linear.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A workflow state of a Linear team. States of the same type are ordered by {@code position}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LinearWorkflowState(
+    @JsonProperty("id") String id,
+    @JsonProperty("name") String name,
+    @JsonProperty("type") String type,
+    @JsonProperty("position") Double position
+) {}
@@ -0,0 +1,22 @@
+package bogdanpc.linearsync.linear.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LinearWorkflowStatesResponse(
+    @JsonProperty("data") Data data
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Data(
+        @JsonProperty("workflowStates") WorkflowStates workflowStates
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record WorkflowStates(
+        @JsonProperty("nodes") List<LinearWorkflowState> nodes
+    ) {}
+}
@@ -0,0 +1,73 @@
+package bogdanpc.linearsync.monitoring.boundary;
+
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the metrics in the Prometheus text format on {@code GET /metrics} while a long-running action such as
+ * {@code daemon} runs. Uses the HTTP server of the JDK on a virtual thread per request, so the CLI needs no HTTP
+ * server extension.
+ */
+@ApplicationScoped
+public class MetricsServer {
+
+    static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Metrics metrics;
+    private HttpServer server;
+
+    public MetricsServer(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param port 0 for any free port
+     * @return the port the metrics are served on
+     */
+    public synchronized int start(int port) {
+        if (server != null) {
+            throw new IllegalStateException("Metrics server already running on port " + server.getAddress().getPort());
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serve metrics on port " + port, e);
+        }
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(PATH, this::handle);
+        server.start();
+        var boundPort = server.getAddress().getPort();
+        Log.infof("Serving metrics on http://localhost:%d%s", boundPort, PATH);
+        return boundPort;
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            var body = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+}
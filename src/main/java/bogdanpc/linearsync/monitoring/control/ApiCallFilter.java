@@ -0,0 +1,262 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import jakarta.enterprise.inject.spi.CDI;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records every call of the REST clients it is registered on, tagged with the client and the client interface
+ * method as endpoint: requests by status code, latency until the response headers arrive, and the bytes of the
+ * request and response bodies as they are written and read. A call that fails without a response, e.g. on a timeout,
+ * a reset connection or an unknown host, is counted with status {@code error} by {@link ApiCallInterceptor}, since
+ * the response filter never runs for it.
+ * <p>
+ * While tracing is on, each call is also a client span, child of the span of the thread making the call, e.g. the
+ * issue being processed. It ends when the response headers arrive and carries the response size when announced, or
+ * as failed when the call fails without a response.
+ */
+public class ApiCallFilter implements ClientRequestFilter, ClientResponseFilter, WriterInterceptor, ReaderInterceptor {
+
+    // Counters tagged with client and endpoint; the requests are also tagged with the status code
+    public static final String REQUESTS = "api_requests_total";
+    public static final String REQUEST_BYTES = "api_request_bytes_total";
+    public static final String RESPONSE_BYTES = "api_response_bytes_total";
+    public static final String ERROR_STATUS = "error";
+
+    static final String INVOKED_METHOD = "org.eclipse.microprofile.rest.client.invokedMethod";
+    private static final String CALL = ApiCallFilter.class.getName() + ".call";
+
+    // The call ApiCallInterceptor opened on the calling thread, where the request filter runs
+    private static final ThreadLocal<Call> OPENED = new ThreadLocal<>();
+
+    private volatile Metrics metrics;
+    private volatile Tracer tracer;
+
+    public ApiCallFilter() {
+    }
+
+    ApiCallFilter(Metrics metrics, Tracer tracer) {
+        this.metrics = metrics;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        var call = OPENED.get();
+        if (call == null) {
+            call = new Call();
+        }
+        call.tags = tags(requestContext.getProperty(INVOKED_METHOD));
+        call.started = System.nanoTime();
+        requestContext.setProperty(CALL, call);
+        call.span = tracer().clientSpan(spanName(requestContext.getProperty(INVOKED_METHOD)));
+        call.span.attribute("http.request.method", requestContext.getMethod());
+        call.span.attribute("url.full", String.valueOf(requestContext.getUri()));
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        if (!(requestContext.getProperty(CALL) instanceof Call call) || !call.end()) {
+            return;
+        }
+        var status = responseContext.getStatus();
+        record(metrics(), call, Integer.toString(status));
+        call.span.attribute("http.response.status_code", status);
+        if (responseContext.getLength() >= 0) {
+            call.span.attribute("http.response.body.size", responseContext.getLength());
+        }
+        if (status >= 400) {
+            call.span.error("HTTP " + status);
+        }
+        call.span.close();
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        var counting = new CountingOutputStream(context.getOutputStream());
+        context.setOutputStream(counting);
+        try {
+            context.proceed();
+        } finally {
+            metrics().counter(REQUEST_BYTES, "Request body bytes sent to the Linear and Jira APIs",
+                    tags(context.getProperty(INVOKED_METHOD))).add(counting.count);
+            if (context.getProperty(CALL) instanceof Call call) {
+                call.span.attribute("http.request.body.size", counting.count);
+            }
+        }
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        var counting = new CountingInputStream(context.getInputStream());
+        context.setInputStream(counting);
+        try {
+            return context.proceed();
+        } finally {
+            metrics().counter(RESPONSE_BYTES, "Response body bytes received from the Linear and Jira APIs",
+                    tags(context.getProperty(INVOKED_METHOD))).add(counting.count);
+        }
+    }
+
+    /**
+     * Opens a call on the current thread, to be taken over by the request filter of the REST client method invoked
+     * next.
+     */
+    static Call open() {
+        var call = new Call();
+        OPENED.set(call);
+        return call;
+    }
+
+    /**
+     * Records a call that failed without a response with status {@code error} and ends its span as failed. Nothing
+     * is recorded for a call that was never sent, or whose response was recorded already, e.g. an error status
+     * turned into an exception.
+     */
+    static void failed(Metrics metrics, Call call, Exception failure) {
+        if (call.tags != null && call.end()) {
+            record(metrics, call, ERROR_STATUS);
+            call.span.attribute("error.type", failure.getClass().getName());
+            call.span.error(failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName());
+            call.span.close();
+        }
+    }
+
+    static void close(Call call) {
+        if (OPENED.get() == call) {
+            OPENED.remove();
+        }
+    }
+
+    private static void record(Metrics metrics, Call call, String status) {
+        metrics.counter(REQUESTS, "Calls to the Linear and Jira APIs by status code",
+                "client", call.tags[1], "endpoint", call.tags[3], "status", status).increment();
+        metrics.timer("api_request_duration_seconds", "Latency of the calls to the Linear and Jira APIs", call.tags)
+                .record(System.nanoTime() - call.started);
+    }
+
+    /**
+     * {@code client} and {@code endpoint} tags of a call, e.g. {@code jira} and {@code createIssue} for
+     * {@code JiraClient.createIssue}.
+     */
+    static String[] tags(Object invokedMethod) {
+        if (!(invokedMethod instanceof Method method)) {
+            return new String[]{"client", "unknown", "endpoint", "unknown"};
+        }
+        var client = method.getDeclaringClass().getSimpleName().replaceFirst("Client$", "").toLowerCase();
+        return new String[]{"client", client, "endpoint", method.getName()};
+    }
+
+    /**
+     * {@code jira createIssue} for {@code JiraClient.createIssue}.
+     */
+    static String spanName(Object invokedMethod) {
+        var tags = tags(invokedMethod);
+        return tags[1] + " " + tags[3];
+    }
+
+    // Providers are created by the REST client, not by CDI
+
+    private Metrics metrics() {
+        var current = metrics;
+        if (current == null) {
+            current = CDI.current().select(Metrics.class).get();
+            metrics = current;
+        }
+        return current;
+    }
+
+    private Tracer tracer() {
+        var current = tracer;
+        if (current == null) {
+            current = CDI.current().select(Tracer.class).get();
+            tracer = current;
+        }
+        return current;
+    }
+
+    /**
+     * One call from its request to its response or failure, recorded by whichever comes first: a response may still
+     * arrive on the event loop after the call has timed out.
+     */
+    static final class Call {
+
+        String[] tags;
+        long started;
+        Span span = Span.NOOP;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        boolean end() {
+            return ended.compareAndSet(false, true);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var read = in.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            var skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Wraps each REST client call made on the calling thread, to record the calls that fail without a response and end
+ * their spans: those throw before the response filter of {@link ApiCallFilter} runs.
+ */
+@RecordedApiCalls
+@Interceptor
+@Priority(Interceptor.Priority.LIBRARY_BEFORE)
+public class ApiCallInterceptor {
+
+    private final Metrics metrics;
+
+    @Inject
+    public ApiCallInterceptor(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @AroundInvoke
+    Object record(InvocationContext context) throws Exception {
+        var call = ApiCallFilter.open();
+        try {
+            return context.proceed();
+        } catch (Exception e) {
+            ApiCallFilter.failed(metrics, call, e);
+            throw e;
+        } finally {
+            ApiCallFilter.close(call);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the counters, timers and gauges of the process, identified by name and tags in the style of
+ * Micrometer and exported in the Prometheus text format. Meters are created on first use and updated without
+ * locking, so they can be recorded from any thread; callers on hot paths keep the meter instead of looking it up
+ * for every update.
+ * <p>
+ * Tags are given as name/value pairs. Counter names end with {@code _total}, timers are exported as histograms in
+ * seconds.
+ */
+@ApplicationScoped
+public class Metrics {
+
+    // Upper bounds in seconds, from a fast API call to a large attachment transfer
+    static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String help, String... tags) {
+        return (Counter) family(name, help, Type.COUNTER).series.computeIfAbsent(labels(tags), _ -> new Counter(tagMap(tags)));
+    }
+
+    /**
+     * The current value of every series of the counter with its tags, empty while it has none.
+     */
+    public List<Sample> samples(String name) {
+        var family = families.get(name);
+        if (family == null) {
+            return List.of();
+        }
+        if (family.type != Type.COUNTER) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + Type.COUNTER);
+        }
+        var samples = new ArrayList<Sample>(family.series.size());
+        for (var series : family.series.values()) {
+            var counter = (Counter) series;
+            samples.add(new Sample(counter.tags, counter.value()));
+        }
+        return samples;
+    }
+
+    public Timer timer(String name, String help, String... tags) {
+        return (Timer) family(name, help, Type.HISTOGRAM).series.computeIfAbsent(labels(tags), _ -> new Timer());
+    }
+
+    /**
+     * Reports the current value of {@code value} whenever the metrics are exported. A gauge registered again
+     * with the same name and tags replaces the earlier one, e.g. the queue of the previous run.
+     */
+    public void gauge(String name, String help, LongSupplier value, String... tags) {
+        family(name, help, Type.GAUGE).series.put(labels(tags), value);
+    }
+
+    private Family family(String name, String help, Type type) {
+        var family = families.computeIfAbsent(name, _ -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    /**
+     * The current value of every metric in the Prometheus text exposition format, sorted by name and tags.
+     */
+    public String scrape() {
+        var out = new StringBuilder();
+        for (var entry : new TreeMap<>(families).entrySet()) {
+            var name = entry.getKey();
+            var family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type.exposed).append('\n');
+            for (var series : new TreeMap<>(family.series).entrySet()) {
+                var labels = series.getKey();
+                switch (series.getValue()) {
+                    case Counter counter -> sample(out, name, labels, counter.value());
+                    case LongSupplier gauge -> sample(out, name, labels, gauge.getAsLong());
+                    case Timer timer -> timer.export(out, name, labels);
+                    default -> throw new IllegalStateException("Unknown meter of " + name);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Replaces the file with the current metrics, so a reader never sees a partly written file.
+     */
+    public void writeTo(Path file) {
+        try {
+            var directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            var temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.writeString(temporary, scrape(), StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write metrics file: " + file, e);
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static Map<String, String> tagMap(String... tags) {
+        var map = new TreeMap<String, String>();
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            map.put(tags[i], tags[i + 1] != null ? tags[i + 1] : "");
+        }
+        return Map.copyOf(map);
+    }
+
+    static String labels(String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be name/value pairs");
+        }
+        var sorted = new TreeMap<String, String>();
+        for (int i = 0; i < tags.length; i += 2) {
+            sorted.put(tags[i], tags[i + 1] != null ? tags[i + 1] : "");
+        }
+        var labels = new StringBuilder();
+        sorted.forEach((name, value) -> {
+            if (!labels.isEmpty()) {
+                labels.append(',');
+            }
+            labels.append(name).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        });
+        return labels.toString();
+    }
+
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram");
+
+        final String exposed;
+
+        Type(String exposed) {
+            this.exposed = exposed;
+        }
+    }
+
+    private record Family(String help, Type type, Map<String, Object> series) {
+        Family(String help, Type type) {
+            this(help, type, new ConcurrentHashMap<>());
+        }
+    }
+
+    public record Sample(Map<String, String> tags, double value) {}
+
+    public static final class Counter {
+
+        private final Map<String, String> tags;
+        private final DoubleAdder value = new DoubleAdder();
+
+        Counter(Map<String, String> tags) {
+            this.tags = tags;
+        }
+
+        public void increment() {
+            value.add(1);
+        }
+
+        public void add(double amount) {
+            value.add(amount);
+        }
+
+        public double value() {
+            return value.sum();
+        }
+    }
+
+    public static final class Timer {
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        Timer() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            var seconds = nanos / 1e9;
+            var bucket = 0;
+            while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        public <T> T time(Supplier<T> work) {
+            var start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        public void time(Runnable work) {
+            var start = System.nanoTime();
+            try {
+                work.run();
+            } finally {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+        }
+
+        private void export(StringBuilder out, String name, String labels) {
+            var separator = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                cumulative += buckets[i].sum();
+                sample(out, name + "_bucket", separator + "le=\"" + BUCKETS[i] + "\"", cumulative);
+            }
+            // Read after the buckets, so +Inf is never below the last bound while records come in
+            var total = Math.max(count.sum(), cumulative + buckets[BUCKETS.length].sum());
+            sample(out, name + "_bucket", separator + "le=\"+Inf\"", total);
+            sample(out, name + "_sum", labels, totalNanos.sum() / 1e9);
+            sample(out, name + "_count", labels, total);
+        }
+    }
+}
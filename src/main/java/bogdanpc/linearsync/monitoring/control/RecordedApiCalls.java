@@ -0,0 +1,17 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds {@link ApiCallInterceptor} to the methods of a REST client, next to the {@link ApiCallFilter} it registers.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RecordedApiCalls {
+}
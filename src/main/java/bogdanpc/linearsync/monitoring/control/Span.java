@@ -0,0 +1,114 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed operation of a trace, started by {@link Tracer} and ended by {@link #close()}. While tracing is off every
+ * span is {@link #NOOP}, which records nothing.
+ * <p>
+ * A span may be ended from another thread than the one that started it, e.g. an API call finishing on the event
+ * loop; attributes are set by one thread at a time.
+ */
+public final class Span implements AutoCloseable {
+
+    public static final Span NOOP = new Span(null, null, null, null, null, Kind.INTERNAL, 0);
+
+    enum Kind {
+        INTERNAL(1), CLIENT(3);
+
+        final int otlp;
+
+        Kind(int otlp) {
+            this.otlp = otlp;
+        }
+    }
+
+    final String traceId;
+    final String spanId;
+    final String parentSpanId;
+    final String name;
+    final Kind kind;
+    final long startEpochNanos;
+    final Map<String, Object> attributes = new LinkedHashMap<>();
+    long endEpochNanos;
+    String errorMessage;
+    boolean error;
+
+    private final Tracer tracer;
+    private final long startNanos;
+    private Span previous;
+    private boolean ended;
+
+    Span(Tracer tracer, String traceId, String spanId, String parentSpanId, String name, Kind kind, long startEpochNanos) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startEpochNanos = startEpochNanos;
+        this.startNanos = System.nanoTime();
+    }
+
+    public boolean isRecording() {
+        return tracer != null;
+    }
+
+    public Span attribute(String key, String value) {
+        if (tracer != null && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span attribute(String key, long value) {
+        if (tracer != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span attribute(String key, boolean value) {
+        if (tracer != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Marks the operation failed.
+     */
+    public Span error(String message) {
+        if (tracer != null) {
+            error = true;
+            errorMessage = message;
+        }
+        return this;
+    }
+
+    /**
+     * Makes this span the parent of the spans the current thread starts until it is closed.
+     */
+    Span makeCurrent(Span previous) {
+        this.previous = previous;
+        return this;
+    }
+
+    Span previous() {
+        return previous;
+    }
+
+    /**
+     * Ends the span and hands it to the export. Only the first call counts.
+     */
+    @Override
+    public void close() {
+        if (tracer == null || ended) {
+            return;
+        }
+        ended = true;
+        endEpochNanos = startEpochNanos + (System.nanoTime() - startNanos);
+        tracer.end(this);
+    }
+}
@@ -0,0 +1,187 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records spans in the OpenTelemetry model and exports them to a local file in the OTLP JSON format, one
+ * {@code ExportTraceServiceRequest} per line as written by the file exporter of the OpenTelemetry Collector, which
+ * trace viewers such as Jaeger load.
+ * <p>
+ * Off until {@link #start} is called; then every span is {@link Span#NOOP} and starting one costs a volatile
+ * read. Ended spans are buffered and appended in batches of {@value #BATCH_SIZE}, at least every
+ * {@link #FLUSH_INTERVAL} while spans end, and by {@link #flush()}.
+ * <p>
+ * {@link #span} starts a span the current thread's next spans are children of until it is closed, which makes each
+ * issue one trace; {@link #clientSpan} starts the span of an outgoing call, which may end on another thread.
+ */
+@ApplicationScoped
+public class Tracer {
+
+    static final int BATCH_SIZE = 512;
+    static final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+    private static final String SERVICE_NAME = "linear-jira-sync";
+    private static final String SCOPE_NAME = "bogdanpc.linearsync";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final ConcurrentLinkedQueue<Span> ended = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Path file;
+    private volatile long lastFlushNanos;
+
+    /**
+     * Starts recording spans, appending them to the file.
+     */
+    public synchronized void start(Path file) {
+        this.file = file;
+        this.lastFlushNanos = System.nanoTime();
+        Log.infof("Tracing to %s", file);
+    }
+
+    /**
+     * Writes the spans ended so far and stops recording.
+     */
+    public synchronized void stop() {
+        flush();
+        file = null;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Starts a span that is the parent of the spans this thread starts until it is closed.
+     */
+    public Span span(String name) {
+        if (file == null) {
+            return Span.NOOP;
+        }
+        var parent = current.get();
+        var span = create(name, Span.Kind.INTERNAL, parent);
+        current.set(span.makeCurrent(parent));
+        return span;
+    }
+
+    /**
+     * Starts the span of a call to another service, child of the current span of this thread.
+     */
+    public Span clientSpan(String name) {
+        if (file == null) {
+            return Span.NOOP;
+        }
+        return create(name, Span.Kind.CLIENT, current.get());
+    }
+
+    private Span create(String name, Span.Kind kind, Span parent) {
+        var random = ThreadLocalRandom.current();
+        var traceId = parent != null ? parent.traceId : HEX.toHexDigits(random.nextLong()) + HEX.toHexDigits(random.nextLong());
+        var now = Instant.now();
+        return new Span(this, traceId, HEX.toHexDigits(random.nextLong()), parent != null ? parent.spanId : null,
+                name, kind, now.getEpochSecond() * 1_000_000_000L + now.getNano());
+    }
+
+    void end(Span span) {
+        if (span.kind == Span.Kind.INTERNAL && current.get() == span) {
+            var previous = span.previous();
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+        ended.add(span);
+        if (pending.incrementAndGet() >= BATCH_SIZE || System.nanoTime() - lastFlushNanos > FLUSH_INTERVAL.toNanos()) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends the spans ended since the last flush to the file.
+     */
+    public synchronized void flush() {
+        lastFlushNanos = System.nanoTime();
+        var target = file;
+        if (target == null || ended.isEmpty()) {
+            return;
+        }
+        var spans = new ArrayList<Span>();
+        for (var span = ended.poll(); span != null; span = ended.poll()) {
+            spans.add(span);
+        }
+        pending.addAndGet(-spans.size());
+        try {
+            var line = objectMapper.writeValueAsString(request(spans)) + "\n";
+            var parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(target, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            Log.warnf(e, "Dropping %d spans that could not be serialized", spans.size());
+        } catch (IOException e) {
+            Log.warnf(e, "Failed to write %d spans to %s", spans.size(), target);
+        }
+    }
+
+    static Map<String, Object> request(List<Span> spans) {
+        var otlpSpans = new ArrayList<Map<String, Object>>(spans.size());
+        for (var span : spans) {
+            var otlpSpan = new LinkedHashMap<String, Object>();
+            otlpSpan.put("traceId", span.traceId);
+            otlpSpan.put("spanId", span.spanId);
+            if (span.parentSpanId != null) {
+                otlpSpan.put("parentSpanId", span.parentSpanId);
+            }
+            otlpSpan.put("name", span.name);
+            otlpSpan.put("kind", span.kind.otlp);
+            otlpSpan.put("startTimeUnixNano", Long.toString(span.startEpochNanos));
+            otlpSpan.put("endTimeUnixNano", Long.toString(span.endEpochNanos));
+            otlpSpan.put("attributes", attributes(span.attributes));
+            if (span.error) {
+                var status = new LinkedHashMap<String, Object>();
+                status.put("code", 2);
+                if (span.errorMessage != null) {
+                    status.put("message", span.errorMessage);
+                }
+                otlpSpan.put("status", status);
+            }
+            otlpSpans.add(otlpSpan);
+        }
+        var resource = Map.of("attributes", attributes(Map.of("service.name", SERVICE_NAME)));
+        var scopeSpans = Map.of("scope", Map.of("name", SCOPE_NAME), "spans", otlpSpans);
+        return Map.of("resourceSpans", List.of(Map.of("resource", resource, "scopeSpans", List.of(scopeSpans))));
+    }
+
+    private static List<Map<String, Object>> attributes(Map<String, Object> attributes) {
+        var otlp = new ArrayList<Map<String, Object>>(attributes.size());
+        attributes.forEach((key, value) -> otlp.add(Map.of("key", key, "value", switch (value) {
+            // OTLP JSON encodes 64-bit integers as strings
+            case Long number -> Map.of("intValue", Long.toString(number));
+            case Boolean flag -> Map.of("boolValue", flag);
+            default -> Map.of("stringValue", value.toString());
+        })));
+        return otlp;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Monitoring Business Component
+ *
+ * This package collects the metrics of the tool: calls to the Linear and Jira APIs, the stages of the sync
+ * pipeline, sync state persistence and attachment transfers. Every other component may record into it; it
+ * depends on none of them.
+ *
+ * Architecture follows BCE pattern:
+ * - Boundary: HTTP endpoint serving the metrics of a long-running process
+ * - Control: Metrics registry and the REST client filter recording API calls
+ *
+ * Design Decisions:
+ * - A small in-process registry in the style of Micrometer: counters, timers with histogram buckets and gauges
+ *   identified by name and tags, updated lock-free from any thread
+ * - Exported in the Prometheus text format, to a file at the end of a run or over HTTP
+ * - No metrics library or HTTP server extension, so the CLI stays a plain command-line application
+ */
+package bogdanpc.linearsync.monitoring;
@@ -14,6 +14,7 @@
  * - linear: Integration with Linear GraphQL API
  * - jira: Integration with Jira REST API
  * - synchronization: Core sync orchestration and state management
+ * - monitoring: Metrics of API calls, pipeline stages and state persistence
  *
  * Key Features:
  * - Incremental synchronization based on timestamps
@@ -16,10 +16,13 @@ public class AttachmentSyncCoordinator {
         this.jira = jira;
     }
 
-    public void syncAttachments(String jiraIssueKey, JiraIssueInput issueInput, LinearIssue linearIssue, SyncState state) {
+    /**
+     * @return false when the new attachments could not be synced; they stay unmarked in the state
+     */
+    public boolean syncAttachments(String jiraIssueKey, JiraIssueInput issueInput, LinearIssue linearIssue, SyncState state) {
         if (issueInput.attachments() == null || issueInput.attachments().isEmpty()) {
             Log.debugf("No attachments to sync for Linear issue: %s", linearIssue.identifier());
-            return;
+            return true;
         }
 
         Log.debugf("Filtering %d attachments for Linear issue %s based on sync state",
@@ -31,7 +34,7 @@ public class AttachmentSyncCoordinator {
 
         if (unsyncedAttachments.isEmpty()) {
             Log.debugf("All attachments already synced for Linear issue: %s", linearIssue.identifier());
-            return;
+            return true;
         }
 
         Log.infof("Syncing %d new attachments for Linear issue %s to Jira issue %s",
@@ -68,10 +71,12 @@ public class AttachmentSyncCoordinator {
                 Log.debugf("Marked attachment %s as synced for Linear issue %s",
                           attachment.id(), linearIssue.identifier());
             }
+            return true;
 
         } catch (Exception e) {
             Log.errorf(e, "Failed to sync attachments for Linear issue %s to Jira issue %s",
                       linearIssue.identifier(), jiraIssueKey);
+            return false;
         }
     }
 }
\ No newline at end of file
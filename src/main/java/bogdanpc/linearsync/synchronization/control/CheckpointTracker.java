@@ -0,0 +1,171 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Follows the progress of one sync run and hands a {@link SyncCheckpoint} to the saver every N completed
+ * issues or T seconds. Issues complete out of order, so the checkpoint cursor only moves past a page once
+ * every issue on it is done; the issues already done on later pages are listed individually. Issues outside the
+ * run's scope, such as those of another shard, are passed over.
+ */
+class CheckpointTracker {
+
+    private final SyncCheckpoint origin;
+    private final SyncResult result;
+    private final Consumer<SyncCheckpoint> saver;
+    private final int intervalIssues;
+    private final long intervalNanos;
+    private final Predicate<LinearIssue> scope;
+
+    private final Deque<Page> pages = new ArrayDeque<>();
+    private final Map<String, List<Page>> pendingPages = new HashMap<>();
+    private final Set<String> completed;
+    private String cursor;
+    private Instant watermark;
+
+    private final ReentrantLock saving = new ReentrantLock();
+    private int completedSinceSave;
+    private long lastSaveNanos = System.nanoTime();
+    private int saves;
+
+    /**
+     * @param origin checkpoint of the run being resumed, or a fresh one holding the run's filters
+     */
+    CheckpointTracker(SyncCheckpoint origin, SyncResult result, Consumer<SyncCheckpoint> saver, int intervalIssues, int intervalSeconds) {
+        this(origin, result, saver, intervalIssues, intervalSeconds, _ -> true);
+    }
+
+    CheckpointTracker(SyncCheckpoint origin, SyncResult result, Consumer<SyncCheckpoint> saver, int intervalIssues, int intervalSeconds,
+                      Predicate<LinearIssue> scope) {
+        this.origin = origin;
+        this.result = result;
+        this.saver = saver;
+        this.intervalIssues = Math.max(1, intervalIssues);
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, intervalSeconds));
+        this.scope = scope;
+        this.completed = new HashSet<>(origin.completedIssueIds);
+        this.cursor = origin.cursor;
+        this.watermark = origin.watermark;
+    }
+
+    synchronized String cursor() {
+        return cursor;
+    }
+
+    /**
+     * Registers a fetched page and returns the issues on it that still need processing.
+     */
+    synchronized List<LinearIssue> pageFetched(List<LinearIssue> issues, String endCursor) {
+        var page = new Page(endCursor);
+        var remaining = new ArrayList<LinearIssue>(issues.size());
+        for (var issue : issues) {
+            page.issueIds.add(issue.id());
+            if (issue.updatedAt() != null && (page.newest == null || issue.updatedAt().isAfter(page.newest))) {
+                page.newest = issue.updatedAt();
+            }
+            if (!completed.contains(issue.id()) && scope.test(issue)) {
+                page.pending.add(issue.id());
+                pendingPages.computeIfAbsent(issue.id(), _ -> new ArrayList<>(1)).add(page);
+                remaining.add(issue);
+            }
+        }
+        pages.add(page);
+        advance();
+        return remaining;
+    }
+
+    /**
+     * Marks an issue as processed, whatever its outcome, and saves a checkpoint when one is due.
+     */
+    void issueCompleted(String linearIssueId) {
+        boolean due;
+        synchronized (this) {
+            var issuePages = pendingPages.remove(linearIssueId);
+            if (issuePages != null) {
+                issuePages.forEach(page -> page.pending.remove(linearIssueId));
+                completed.add(linearIssueId);
+                advance();
+            }
+            due = ++completedSinceSave >= intervalIssues || System.nanoTime() - lastSaveNanos >= intervalNanos;
+        }
+        if (due) {
+            save();
+        }
+    }
+
+    /**
+     * Saves the current progress, unless another thread is saving it already.
+     */
+    void save() {
+        if (!saving.tryLock()) {
+            return;
+        }
+        try {
+            saver.accept(snapshot());
+            synchronized (this) {
+                saves++;
+            }
+        } finally {
+            saving.unlock();
+        }
+    }
+
+    synchronized boolean hasSaved() {
+        return saves > 0;
+    }
+
+    private synchronized SyncCheckpoint snapshot() {
+        completedSinceSave = 0;
+        lastSaveNanos = System.nanoTime();
+
+        var checkpoint = new SyncCheckpoint(origin.teamKey, origin.stateType, origin.updatedAfter);
+        checkpoint.startedAt = origin.startedAt;
+        checkpoint.savedAt = Instant.now();
+        checkpoint.cursor = cursor;
+        checkpoint.watermark = watermark;
+        checkpoint.completedIssueIds = new HashSet<>(completed);
+        checkpoint.createdCount = result.createdCount();
+        checkpoint.updatedCount = result.updatedCount();
+        checkpoint.skippedCount = result.skippedCount();
+        checkpoint.errorCount = origin.errorCount + result.errorCount();
+        return checkpoint;
+    }
+
+    private void advance() {
+        while (!pages.isEmpty() && pages.peekFirst().pending.isEmpty()) {
+            var page = pages.pollFirst();
+            cursor = page.endCursor;
+            if (page.newest != null && (watermark == null || page.newest.isAfter(watermark))) {
+                watermark = page.newest;
+            }
+            page.issueIds.forEach(completed::remove);
+        }
+    }
+
+    private static final class Page {
+        final String endCursor;
+        final List<String> issueIds = new ArrayList<>();
+        final Set<String> pending = new HashSet<>();
+        Instant newest;
+
+        Page(String endCursor) {
+            this.endCursor = endCursor;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.Jira;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueSnapshot;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.synchronization.entity.AuditReport;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies that Jira still matches Linear for the issues tracked in the sync state, without syncing anything.
+ * <p>
+ * Neither API hashes issues for us, so each side is read once through its slimmest projection, Linear 250 and
+ * Jira 100 issues per request, and hashed into a {@link HashTree} bucketed by the team and creation month of the
+ * Linear issue. The trees are compared from the root down and only the issues of the buckets whose hashes differ
+ * are compared one by one, so a consistent tree costs the reads and nothing more.
+ * <p>
+ * The sync only writes fields whose hash differs from the stored one, so drifted fields would never be written
+ * again. Unless it is a dry run, the audit forgets their stored hashes and the issue's {@code linearUpdatedAt},
+ * and the next sync that fetches the issue rewrites them. Issues missing on one side are only reported.
+ */
+@ApplicationScoped
+public class DriftAuditor {
+
+    static final String UNKNOWN = "unknown";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    private final IssueOperations linearService;
+    private final Jira jira;
+    private final IssueDataTransfer dataTransfer;
+    private final SyncCoordinator syncCoordinator;
+
+    public DriftAuditor(IssueOperations linearService, Jira jira, IssueDataTransfer dataTransfer, SyncCoordinator syncCoordinator) {
+        this.linearService = linearService;
+        this.jira = jira;
+        this.dataTransfer = dataTransfer;
+        this.syncCoordinator = syncCoordinator;
+    }
+
+    private record Leaf(String name, Map<IssueField, String> fieldHashes) {}
+
+    public AuditReport audit() {
+        var startTime = System.currentTimeMillis();
+        var state = syncCoordinator.readState();
+
+        var jiraKeys = new HashMap<String, String>();
+        var linearIds = new HashMap<String, String>();
+        for (var syncedIssue : state.allSyncedIssues()) {
+            if (syncedIssue.jiraIssueKey != null) {
+                jiraKeys.put(syncedIssue.linearIssueId, syncedIssue.jiraIssueKey);
+                linearIds.put(syncedIssue.jiraIssueKey, syncedIssue.linearIssueId);
+            }
+        }
+        Log.infof("Auditing %d synced issues", jiraKeys.size());
+
+        var requests = new AtomicInteger();
+        var buckets = new HashMap<String, HashTree.Bucket>();
+        var linearLeaves = new HashMap<String, Leaf>();
+        var linearTree = new HashTree();
+        linearService.streamAuditIssues(page -> {
+            requests.incrementAndGet();
+            for (var issue : page) {
+                if (!jiraKeys.containsKey(issue.id())) {
+                    continue;
+                }
+                var bucket = bucketOf(issue);
+                var leaf = new Leaf(issue.identifier(), jira.auditHashes(dataTransfer.mapToJiraIssueInput(issue)));
+                buckets.put(issue.id(), bucket);
+                linearLeaves.put(issue.id(), leaf);
+                linearTree.add(bucket.team(), bucket.month(), issue.id(), leafHash(leaf));
+            }
+        });
+
+        var jiraLeaves = new HashMap<String, Leaf>();
+        var jiraTree = new HashTree();
+        jira.scanIssueSnapshots(page -> {
+            requests.incrementAndGet();
+            for (var snapshot : page) {
+                var linearIssueId = linearIdOf(snapshot, linearIds, jiraKeys);
+                if (linearIssueId == null) {
+                    continue;
+                }
+                var leaf = new Leaf(snapshot.key(), snapshot.fieldHashes());
+                var previous = jiraLeaves.putIfAbsent(linearIssueId, leaf);
+                if (previous != null) {
+                    Log.warnf("Linear issue %s is linked to Jira issues %s and %s, auditing %s", linearIssueId, previous.name(), snapshot.key(), previous.name());
+                    continue;
+                }
+                var bucket = buckets.getOrDefault(linearIssueId, new HashTree.Bucket(UNKNOWN, UNKNOWN));
+                jiraTree.add(bucket.team(), bucket.month(), linearIssueId, leafHash(leaf));
+            }
+        });
+
+        var mismatched = HashTree.mismatchedBuckets(linearTree, jiraTree);
+        var drifts = new ArrayList<AuditReport.Drift>();
+        for (var bucket : mismatched) {
+            Log.debugf("Bucket %s differs, comparing its issues", bucket);
+            drifts.addAll(compare(bucket, linearTree, jiraTree, linearLeaves, jiraLeaves, jiraKeys));
+        }
+
+        markForResync(state, drifts);
+
+        var allBuckets = new HashSet<>(linearTree.buckets());
+        allBuckets.addAll(jiraTree.buckets());
+        Log.infof("Audit done - %d of %d buckets differ, %d drifted issues, %d requests",
+                mismatched.size(), allBuckets.size(), drifts.size(), requests.get());
+
+        return new AuditReport(linearLeaves.size(), jiraLeaves.size(), allBuckets.size(), mismatched.size(),
+                requests.get(), drifts, System.currentTimeMillis() - startTime);
+    }
+
+    private void markForResync(SyncState state, List<AuditReport.Drift> drifts) {
+        if (syncCoordinator.isDryRun()) {
+            return;
+        }
+        var marked = 0;
+        for (var drift : drifts) {
+            var syncedIssue = drift.kind() == AuditReport.DriftKind.FIELDS_DIFFER ? state.getSyncedIssue(drift.linearIssueId()) : null;
+            if (syncedIssue == null) {
+                continue;
+            }
+            drift.fields().forEach(field -> syncedIssue.fieldHashes.remove(field.name()));
+            syncedIssue.linearUpdatedAt = null;
+            state.markChanged(drift.linearIssueId());
+            marked++;
+        }
+        if (marked > 0) {
+            syncCoordinator.completeAudit(state);
+            Log.infof("Marked %d drifted issues to be written again by the next sync", marked);
+        }
+    }
+
+    /**
+     * The tracked Linear issue a Jira issue belongs to: by its key, or by the Linear ID custom field when the key
+     * changed since, e.g. after the issue moved to another project. Null for issues the sync does not track.
+     */
+    static String linearIdOf(JiraIssueSnapshot snapshot, Map<String, String> linearIds, Map<String, String> jiraKeys) {
+        var linearIssueId = linearIds.get(snapshot.key());
+        if (linearIssueId != null) {
+            return linearIssueId;
+        }
+        if (snapshot.linearIssueId() != null && jiraKeys.containsKey(snapshot.linearIssueId())) {
+            return snapshot.linearIssueId();
+        }
+        return null;
+    }
+
+    private static List<AuditReport.Drift> compare(HashTree.Bucket bucket, HashTree linearTree, HashTree jiraTree,
+                                                   Map<String, Leaf> linearLeaves, Map<String, Leaf> jiraLeaves,
+                                                   Map<String, String> jiraKeys) {
+        var linearBucket = linearTree.leaves(bucket);
+        var jiraBucket = jiraTree.leaves(bucket);
+        var drifts = new ArrayList<AuditReport.Drift>();
+
+        for (var entry : linearBucket.entrySet()) {
+            var linearIssueId = entry.getKey();
+            var linearLeaf = linearLeaves.get(linearIssueId);
+            var jiraHash = jiraBucket.get(linearIssueId);
+            if (jiraHash == null) {
+                drifts.add(new AuditReport.Drift(bucket.toString(), linearIssueId, linearLeaf.name(), jiraKeys.get(linearIssueId),
+                        AuditReport.DriftKind.MISSING_IN_JIRA, EnumSet.noneOf(IssueField.class)));
+            } else if (!jiraHash.equals(entry.getValue())) {
+                var jiraLeaf = jiraLeaves.get(linearIssueId);
+                drifts.add(new AuditReport.Drift(bucket.toString(), linearIssueId, linearLeaf.name(), jiraLeaf.name(),
+                        AuditReport.DriftKind.FIELDS_DIFFER, differingFields(linearLeaf, jiraLeaf)));
+            }
+        }
+        for (var linearIssueId : jiraBucket.keySet()) {
+            if (!linearBucket.containsKey(linearIssueId)) {
+                drifts.add(new AuditReport.Drift(bucket.toString(), linearIssueId, null, jiraLeaves.get(linearIssueId).name(),
+                        AuditReport.DriftKind.MISSING_IN_LINEAR, EnumSet.noneOf(IssueField.class)));
+            }
+        }
+        return drifts;
+    }
+
+    private static EnumSet<IssueField> differingFields(Leaf linearLeaf, Leaf jiraLeaf) {
+        var fields = EnumSet.noneOf(IssueField.class);
+        for (var field : linearLeaf.fieldHashes().keySet()) {
+            if (!Objects.equals(linearLeaf.fieldHashes().get(field), jiraLeaf.fieldHashes().get(field))) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static String leafHash(Leaf leaf) {
+        // Field hashes in IssueField order, so both sides hash the same fields alike
+        var hashes = new ArrayList<String>();
+        for (var field : IssueField.values()) {
+            var hash = leaf.fieldHashes().get(field);
+            if (hash != null) {
+                hashes.add(field.name() + "=" + hash);
+            }
+        }
+        return HashTree.leafHash(hashes);
+    }
+
+    static HashTree.Bucket bucketOf(LinearIssue issue) {
+        var team = issue.team() != null && issue.team().key() != null ? issue.team().key() : UNKNOWN;
+        var month = issue.createdAt() != null ? MONTH.format(issue.createdAt()) : UNKNOWN;
+        return new HashTree.Bucket(team, month);
+    }
+}
@@ -0,0 +1,135 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A hash tree of issues with two levels of buckets, team and month, so that two trees built from both sides of
+ * the sync can be compared from the root down, descending only into the buckets whose hashes differ.
+ * <p>
+ * Leaves are keyed by Linear ID and hold a hash of the issue's synced fields. Every inner hash covers the keys and
+ * hashes below it in key order, so it does not depend on the order issues were added in.
+ */
+final class HashTree {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final char SEPARATOR = '\u001F';
+
+    private final SortedMap<String, SortedMap<String, SortedMap<String, String>>> teams = new TreeMap<>();
+
+    record Bucket(String team, String month) {
+
+        @Override
+        public String toString() {
+            return team + "/" + month;
+        }
+    }
+
+    void add(String team, String month, String id, String leafHash) {
+        teams.computeIfAbsent(team, _ -> new TreeMap<>())
+                .computeIfAbsent(month, _ -> new TreeMap<>())
+                .put(id, leafHash);
+    }
+
+    Set<Bucket> buckets() {
+        var buckets = new HashSet<Bucket>();
+        teams.forEach((team, months) -> months.keySet().forEach(month -> buckets.add(new Bucket(team, month))));
+        return buckets;
+    }
+
+    String root() {
+        var digest = digest();
+        teams.forEach((team, _) -> update(digest, team, teamHash(team)));
+        return finish(digest);
+    }
+
+    String teamHash(String team) {
+        var months = teams.get(team);
+        if (months == null) {
+            return null;
+        }
+        var digest = digest();
+        months.forEach((month, _) -> update(digest, month, bucketHash(new Bucket(team, month))));
+        return finish(digest);
+    }
+
+    String bucketHash(Bucket bucket) {
+        var leaves = leaves(bucket);
+        if (leaves.isEmpty()) {
+            return null;
+        }
+        var digest = digest();
+        leaves.forEach((id, leafHash) -> update(digest, id, leafHash));
+        return finish(digest);
+    }
+
+    /**
+     * The leaves of a bucket by Linear ID, empty when the tree has no such bucket.
+     */
+    SortedMap<String, String> leaves(Bucket bucket) {
+        var months = teams.get(bucket.team());
+        var leaves = months != null ? months.get(bucket.month()) : null;
+        return leaves != null ? leaves : new TreeMap<>();
+    }
+
+    /**
+     * The buckets whose hashes differ between the trees, found by descending from the roots through the teams
+     * whose hashes differ. Buckets present in only one tree are included.
+     */
+    static List<Bucket> mismatchedBuckets(HashTree left, HashTree right) {
+        var mismatched = new ArrayList<Bucket>();
+        if (left.root().equals(right.root())) {
+            return mismatched;
+        }
+
+        var teams = new TreeSet<>(left.teams.keySet());
+        teams.addAll(right.teams.keySet());
+        for (var team : teams) {
+            if (Objects.equals(left.teamHash(team), right.teamHash(team))) {
+                continue;
+            }
+            var months = new TreeSet<String>();
+            months.addAll(left.teams.getOrDefault(team, new TreeMap<>()).keySet());
+            months.addAll(right.teams.getOrDefault(team, new TreeMap<>()).keySet());
+            for (var month : months) {
+                var bucket = new Bucket(team, month);
+                if (!Objects.equals(left.bucketHash(bucket), right.bucketHash(bucket))) {
+                    mismatched.add(bucket);
+                }
+            }
+        }
+        return mismatched;
+    }
+
+    static String leafHash(List<String> fieldHashes) {
+        var digest = digest();
+        fieldHashes.forEach(fieldHash -> update(digest, fieldHash, ""));
+        return finish(digest);
+    }
+
+    private static void update(MessageDigest digest, String key, String hash) {
+        digest.update((key + SEPARATOR + hash + SEPARATOR).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String finish(MessageDigest digest) {
+        return HEX.formatHex(digest.digest(), 0, 8);
+    }
+}
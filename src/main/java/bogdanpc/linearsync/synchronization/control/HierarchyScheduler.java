@@ -0,0 +1,84 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders a fetched batch by the Linear parent/child graph. Level 0 holds the issues whose parent is not
+ * part of the batch; every further level holds the children of the previous one. Issues within a level
+ * never depend on each other and can be processed concurrently, while each level needs the previous
+ * one completed so the parents' Jira keys are known.
+ */
+@ApplicationScoped
+public class HierarchyScheduler {
+
+    public List<List<LinearIssue>> levels(List<LinearIssue> linearIssues) {
+        var byId = new HashMap<String, LinearIssue>(linearIssues.size() * 2);
+        for (var linearIssue : linearIssues) {
+            byId.putIfAbsent(linearIssue.id(), linearIssue);
+        }
+
+        var depths = new HashMap<String, Integer>(byId.size() * 2);
+        var levels = new ArrayList<List<LinearIssue>>();
+        for (var linearIssue : byId.values()) {
+            var depth = depth(linearIssue, byId, depths);
+            while (levels.size() <= depth) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(depth).add(linearIssue);
+        }
+
+        // Keep fetch order within each level
+        var fetchOrder = new HashMap<String, Integer>(byId.size() * 2);
+        for (int i = 0; i < linearIssues.size(); i++) {
+            fetchOrder.putIfAbsent(linearIssues.get(i).id(), i);
+        }
+        levels.forEach(level -> level.sort((a, b) -> Integer.compare(fetchOrder.get(a.id()), fetchOrder.get(b.id()))));
+
+        if (levels.size() > 1) {
+            Log.debugf("Scheduled %d issues in %d hierarchy levels", byId.size(), levels.size());
+        }
+        return levels;
+    }
+
+    /**
+     * Walks up the parent chain inside the batch, memoizing every depth on the way.
+     * A cycle, which Linear does not allow, is cut by treating the repeated issue as a root.
+     */
+    private int depth(LinearIssue linearIssue, Map<String, LinearIssue> byId, Map<String, Integer> depths) {
+        var known = depths.get(linearIssue.id());
+        if (known != null) {
+            return known;
+        }
+
+        var chain = new ArrayList<LinearIssue>();
+        var visited = new HashSet<String>();
+        var current = linearIssue;
+        var baseDepth = -1;
+        while (current != null) {
+            var currentDepth = depths.get(current.id());
+            if (currentDepth != null) {
+                baseDepth = currentDepth;
+                break;
+            }
+            if (!visited.add(current.id())) {
+                Log.warnf("Parent cycle detected at Linear issue %s", current.identifier());
+                break;
+            }
+            chain.add(current);
+            current = current.parent() != null ? byId.get(current.parent().id()) : null;
+        }
+
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            depths.put(chain.get(i).id(), ++baseDepth);
+        }
+        return depths.get(linearIssue.id());
+    }
+}
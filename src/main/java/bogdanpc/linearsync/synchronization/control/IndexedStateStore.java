@@ -0,0 +1,405 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Synced issues kept in a data file of length-prefixed JSON records, located through a memory-mapped
+ * open-addressing hash index by Linear ID and a second one by Jira key. A lookup touches a few index slots
+ * and reads one record, so opening the store and syncing a handful of issues costs the same whatever the
+ * number of issues stored.
+ * <p>
+ * Records are only appended; an update points the index at the new record. The index names the generation
+ * of the data file it belongs to, so a rebuild, which grows the tables and drops outdated records, writes a
+ * new data file and commits by moving the new index into place.
+ */
+class IndexedStateStore implements SyncState.IssueSource, Closeable {
+
+    private static final int MAGIC = 0x53594958;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.7;
+    private static final long COMPACT_MIN_BYTES = 1 << 20;
+
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+
+    private static final int BY_LINEAR_ID = 0;
+    private static final int BY_JIRA_KEY = 1;
+
+    private record Record(SyncState.SyncedIssue issue, int length) {}
+
+    private record Slot(int index, Record record) {}
+
+    private final Path indexPath;
+    private final ObjectMapper objectMapper;
+
+    private MappedByteBuffer index;
+    private FileChannel data;
+    private int capacity;
+    private int generation;
+    private int size;
+    private final int[] used = new int[2];
+    private long liveBytes;
+    private long dataSize;
+
+    private IndexedStateStore(Path indexPath, ObjectMapper objectMapper) {
+        this.indexPath = indexPath;
+        this.objectMapper = objectMapper;
+    }
+
+    static IndexedStateStore open(Path indexPath, ObjectMapper objectMapper) throws IOException {
+        var store = new IndexedStateStore(indexPath, objectMapper);
+        if (Files.exists(indexPath)) {
+            store.load();
+        } else {
+            store.rebuild(INITIAL_CAPACITY, List.of());
+        }
+        return store;
+    }
+
+    static boolean exists(Path indexPath) {
+        return Files.exists(indexPath);
+    }
+
+    /**
+     * Deletes the index and every data file generation next to it.
+     */
+    static void delete(Path indexPath) throws IOException {
+        var prefix = indexPath.getFileName() + ".data.";
+        try (var files = Files.list(indexPath.getParent())) {
+            for (var file : files.filter(path -> path.getFileName().toString().startsWith(prefix)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(indexPath);
+    }
+
+    Path dataPath() {
+        return dataPath(generation);
+    }
+
+    @Override
+    public synchronized SyncState.SyncedIssue find(String linearIssueId) {
+        var slot = locate(BY_LINEAR_ID, linearIssueId, true);
+        return slot != null ? slot.record().issue() : null;
+    }
+
+    @Override
+    public synchronized SyncState.SyncedIssue findByJiraKey(String jiraIssueKey) {
+        var slot = locate(BY_JIRA_KEY, jiraIssueKey, true);
+        return slot != null ? slot.record().issue() : null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * All stored issues, read record by record.
+     */
+    synchronized List<SyncState.SyncedIssue> issues() {
+        var issues = new ArrayList<SyncState.SyncedIssue>(size);
+        for (int i = 0; i < capacity; i++) {
+            var ref = ref(BY_LINEAR_ID, i);
+            if (ref != EMPTY && ref != DELETED) {
+                issues.add(read(ref).issue());
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Stores the issues. Their records are forced to disk before the index points at them, so a crash leaves
+     * every issue either at its previous or at its new value.
+     */
+    synchronized void putAll(Collection<SyncState.SyncedIssue> issues) throws IOException {
+        if (issues.isEmpty()) {
+            return;
+        }
+        if (Math.max(used[BY_LINEAR_ID], used[BY_JIRA_KEY]) + issues.size() > capacity * MAX_LOAD) {
+            rebuild(capacityFor(size + issues.size()), issues());
+        }
+
+        var refs = new long[issues.size()];
+        var lengths = new int[issues.size()];
+        var i = 0;
+        for (var issue : issues) {
+            var bytes = objectMapper.writeValueAsBytes(issue);
+            refs[i] = append(bytes);
+            lengths[i++] = bytes.length + Integer.BYTES;
+        }
+        data.force(false);
+
+        i = 0;
+        for (var issue : issues) {
+            index(issue, refs[i], lengths[i]);
+            i++;
+        }
+        writeHeader();
+        index.force();
+
+        if (dataSize > COMPACT_MIN_BYTES && dataSize > 2 * liveBytes) {
+            rebuild(capacity, issues());
+        }
+    }
+
+    synchronized void remove(String linearIssueId) {
+        var slot = locate(BY_LINEAR_ID, linearIssueId, true);
+        if (slot != null) {
+            setRef(BY_LINEAR_ID, slot.index(), DELETED);
+            size--;
+            liveBytes -= slot.record().length();
+            writeHeader();
+        }
+    }
+
+    /**
+     * Replaces the whole content with the given issues.
+     *
+     * @param count number of issues, to size the tables
+     */
+    synchronized void replaceAll(Iterable<SyncState.SyncedIssue> issues, int count) throws IOException {
+        rebuild(capacityFor(count), issues);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (data != null) {
+            data.close();
+            data = null;
+        }
+        index = null;
+    }
+
+    private void load() throws IOException {
+        try (var channel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            index = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (index.getInt(0) != MAGIC || index.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a sync state index: " + indexPath);
+        }
+        capacity = index.getInt(8);
+        size = index.getInt(12);
+        used[BY_LINEAR_ID] = index.getInt(16);
+        used[BY_JIRA_KEY] = index.getInt(20);
+        generation = index.getInt(24);
+        liveBytes = index.getLong(32);
+        data = FileChannel.open(dataPath(generation), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataSize = data.size();
+    }
+
+    /**
+     * Writes the issues into a new data file generation with freshly sized tables, then moves the new index
+     * over the old one. Until that move the previous index and data file stay valid.
+     */
+    private void rebuild(int newCapacity, Iterable<SyncState.SyncedIssue> issues) throws IOException {
+        var previousData = data;
+        var previousDataPath = previousData != null ? dataPath(generation) : null;
+        var newGeneration = generation + 1;
+        var temporaryIndex = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+
+        var newData = FileChannel.open(dataPath(newGeneration), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (var channel = FileChannel.open(temporaryIndex, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            index = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + 2L * newCapacity * SLOT_BYTES);
+        }
+        data = newData;
+        capacity = newCapacity;
+        generation = newGeneration;
+        size = 0;
+        used[BY_LINEAR_ID] = 0;
+        used[BY_JIRA_KEY] = 0;
+        liveBytes = 0;
+        dataSize = 0;
+
+        for (var issue : issues) {
+            var bytes = objectMapper.writeValueAsBytes(issue);
+            index(issue, append(bytes), bytes.length + Integer.BYTES);
+        }
+        data.force(true);
+        writeHeader();
+        index.force();
+
+        Files.move(temporaryIndex, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (previousData != null) {
+            previousData.close();
+            Files.deleteIfExists(previousDataPath);
+        }
+    }
+
+    private void index(SyncState.SyncedIssue issue, long ref, int length) {
+        var previous = upsert(BY_LINEAR_ID, issue.linearIssueId, ref);
+        if (previous != null) {
+            liveBytes -= previous.length();
+        } else {
+            size++;
+        }
+        liveBytes += length;
+
+        if (issue.jiraIssueKey != null) {
+            upsert(BY_JIRA_KEY, issue.jiraIssueKey, ref);
+        }
+    }
+
+    /**
+     * Points the slot of the key at the record, taking a free slot if the key has none yet.
+     *
+     * @return the record the key pointed at before, if any
+     */
+    private Record upsert(int table, String key, long ref) {
+        var existing = locate(table, key, false);
+        if (existing != null) {
+            setRef(table, existing.index(), ref);
+            return existing.record();
+        }
+
+        var hash = hash(key);
+        var mask = capacity - 1;
+        var slot = (int) (hash & mask);
+        var firstDeleted = -1;
+        while (ref(table, slot) != EMPTY) {
+            if (firstDeleted < 0 && ref(table, slot) == DELETED) {
+                firstDeleted = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (firstDeleted >= 0) {
+            slot = firstDeleted;
+        } else {
+            used[table]++;
+        }
+        index.putLong(slotPosition(table, slot), hash);
+        setRef(table, slot, ref);
+        return null;
+    }
+
+    /**
+     * Finds the slot holding the key. Hash matches are confirmed against the record. With {@code currentOnly},
+     * a Jira key slot only matches while its record is still the current one of its Linear issue, since a slot
+     * left behind by a changed or removed issue is not cleared.
+     */
+    private Slot locate(int table, String key, boolean currentOnly) {
+        var hash = hash(key);
+        var mask = capacity - 1;
+        for (int slot = (int) (hash & mask), probes = 0; probes < capacity; slot = (slot + 1) & mask, probes++) {
+            var ref = ref(table, slot);
+            if (ref == EMPTY) {
+                return null;
+            }
+            if (ref == DELETED || index.getLong(slotPosition(table, slot)) != hash) {
+                continue;
+            }
+            var record = read(ref);
+            var issue = record.issue();
+            if (!key.equals(table == BY_LINEAR_ID ? issue.linearIssueId : issue.jiraIssueKey)) {
+                continue;
+            }
+            if (table == BY_JIRA_KEY && currentOnly) {
+                var current = locate(BY_LINEAR_ID, issue.linearIssueId, true);
+                if (current == null || ref(BY_LINEAR_ID, current.index()) != ref) {
+                    continue;
+                }
+            }
+            return new Slot(slot, record);
+        }
+        return null;
+    }
+
+    private long append(byte[] bytes) throws IOException {
+        var position = dataSize;
+        var buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip();
+        while (buffer.hasRemaining()) {
+            data.write(buffer, position + buffer.position());
+        }
+        dataSize += buffer.limit();
+        return position + 1;
+    }
+
+    private Record read(long ref) {
+        try {
+            var position = ref - 1;
+            var lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+            readFully(lengthBuffer, position);
+            var length = lengthBuffer.flip().getInt();
+            var bytes = ByteBuffer.allocate(length);
+            readFully(bytes, position + Integer.BYTES);
+            return new Record(objectMapper.readValue(bytes.array(), SyncState.SyncedIssue.class), length + Integer.BYTES);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read sync state record from " + dataPath(generation), e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (data.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Sync state record truncated at " + position);
+            }
+        }
+    }
+
+    private void writeHeader() {
+        index.putInt(0, MAGIC);
+        index.putInt(4, FORMAT_VERSION);
+        index.putInt(8, capacity);
+        index.putInt(12, size);
+        index.putInt(16, used[BY_LINEAR_ID]);
+        index.putInt(20, used[BY_JIRA_KEY]);
+        index.putInt(24, generation);
+        index.putLong(32, liveBytes);
+    }
+
+    private long ref(int table, int slot) {
+        return index.getLong(slotPosition(table, slot) + Long.BYTES);
+    }
+
+    private void setRef(int table, int slot, long ref) {
+        index.putLong(slotPosition(table, slot) + Long.BYTES, ref);
+    }
+
+    private int slotPosition(int table, int slot) {
+        return HEADER_BYTES + (table * capacity + slot) * SLOT_BYTES;
+    }
+
+    private Path dataPath(int dataGeneration) {
+        return indexPath.resolveSibling(indexPath.getFileName() + ".data." + dataGeneration);
+    }
+
+    private static int capacityFor(int issues) {
+        var capacity = INITIAL_CAPACITY;
+        while (issues > capacity * MAX_LOAD / 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the key.
+     */
+    private static long hash(String key) {
+        var hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
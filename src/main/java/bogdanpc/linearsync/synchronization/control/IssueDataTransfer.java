@@ -15,6 +15,13 @@ import java.util.List;
 public class IssueDataTransfer {
 
     public JiraIssueInput mapToJiraIssueInput(LinearIssue linearIssue) {
+        return mapToJiraIssueInput(linearIssue, null);
+    }
+
+    /**
+     * @param parentJiraKey key of the Jira issue the result is created under as a subtask, or null
+     */
+    public JiraIssueInput mapToJiraIssueInput(LinearIssue linearIssue, String parentJiraKey) {
         if (linearIssue == null) {
             return null;
         }
@@ -26,6 +33,7 @@ public class IssueDataTransfer {
             linearIssue.description(),
             linearIssue.priority(),
             linearIssue.state() != null ? linearIssue.state().name() : null,
+            linearIssue.state() != null ? linearIssue.state().type() : null,
             linearIssue.assignee() != null ? linearIssue.assignee().email() : null,
             linearIssue.assignee() != null ? linearIssue.assignee().displayName() : null,
             linearIssue.creator() != null ? linearIssue.creator().email() : null,
@@ -37,7 +45,8 @@ public class IssueDataTransfer {
             mapAttachments(linearIssue),
             linearIssue.createdAt(),
             linearIssue.updatedAt(),
-            linearIssue.url()
+            linearIssue.url(),
+            parentJiraKey
         );
     }
 
@@ -59,7 +68,9 @@ public class IssueDataTransfer {
             return List.of();
         }
 
+        // Comments read back from Jira are already there
         return linearIssue.comments().nodes().stream()
+            .filter(comment -> !JiraChangeFeed.isFromJira(comment.body()))
             .map(comment -> new JiraIssueInput.CommentInput(
                 comment.id(),
                 comment.body(),
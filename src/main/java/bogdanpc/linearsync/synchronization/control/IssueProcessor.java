@@ -1,46 +1,135 @@
 package bogdanpc.linearsync.synchronization.control;
 
-import bogdanpc.linearsync.jira.control.JiraOperations;
+import bogdanpc.linearsync.jira.boundary.Jira;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraBulkCreateResponse;
+import bogdanpc.linearsync.jira.entity.JiraIssue;
 import bogdanpc.linearsync.jira.entity.JiraIssueInput;
 import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.monitoring.control.Span;
+import bogdanpc.linearsync.monitoring.control.Tracer;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncPlan;
 import bogdanpc.linearsync.synchronization.entity.SyncResult;
 import bogdanpc.linearsync.synchronization.entity.SyncState;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class IssueProcessor {
 
-    private final JiraOperations jiraService;
+    // Reading the issue and its transitions, then transitioning it
+    private static final int TRANSITION_CALLS = 3;
+
+    private final Jira jiraService;
     private final IssueDataTransfer issueDataTransfer;
     private final AttachmentSyncCoordinator attachmentSyncCoordinator;
+    private final Tracer tracer;
+
+    private volatile boolean findExistingIssues;
 
-    public IssueProcessor(JiraOperations jiraService, IssueDataTransfer issueDataTransfer, AttachmentSyncCoordinator attachmentSyncCoordinator) {
+    public IssueProcessor(Jira jiraService, IssueDataTransfer issueDataTransfer, AttachmentSyncCoordinator attachmentSyncCoordinator,
+                          Tracer tracer) {
         this.jiraService = jiraService;
         this.issueDataTransfer = issueDataTransfer;
         this.attachmentSyncCoordinator = attachmentSyncCoordinator;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Makes {@link #processIssue} look an issue missing from the state up in Jira by its Linear ID before creating
+     * it, and update the issue found instead. Costs a search per new issue, so it is meant for states that may lack
+     * issues synced elsewhere, such as a shard's.
+     */
+    public void setFindExistingIssues(boolean findExistingIssues) {
+        this.findExistingIssues = findExistingIssues;
+    }
+
+    /**
+     * Maps the issue and hashes its fields. Pure computation, safe to run ahead of and apart from processing.
+     */
+    public PreparedIssue prepare(LinearIssue linearIssue) {
+        var jiraIssueInput = issueDataTransfer.mapToJiraIssueInput(linearIssue);
+        return new PreparedIssue(linearIssue, jiraIssueInput, jiraService.fieldHashes(jiraIssueInput));
     }
 
     public SyncResult.IssueResult processIssue(LinearIssue linearIssue, SyncState state, boolean dryRun) {
+        return processIssue(prepare(linearIssue), state, dryRun);
+    }
+
+    /**
+     * Syncs the issue within a trace span, which the Jira calls made for it are children of, and records how long
+     * it took.
+     */
+    public SyncResult.IssueResult processIssue(PreparedIssue preparedIssue, SyncState state, boolean dryRun) {
+        var linearIssue = preparedIssue.linearIssue();
         Log.debugf("Processing Linear issue: %s", linearIssue.identifier());
 
-        var syncedIssue = state.getSyncedIssue(linearIssue.id());
+        var started = System.nanoTime();
+        try (var span = tracer.span("processIssue")) {
+            span.attribute("linear.issue.id", linearIssue.id())
+                    .attribute("linear.issue.identifier", linearIssue.identifier())
+                    .attribute("sync.dry_run", dryRun);
+            // Serializes work on the same issue, e.g. when a page shift returns it twice in one run
+            state.lockIssue(linearIssue.id());
+            try {
+                var syncedIssue = state.getSyncedIssue(linearIssue.id());
+
+                var result = syncedIssue != null
+                        ? handleExistingIssue(preparedIssue, syncedIssue, state, dryRun)
+                        : handleNewIssue(preparedIssue, state, dryRun);
+                result.durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                return traced(span, result);
+            } finally {
+                if (!dryRun) {
+                    state.markChanged(linearIssue.id());
+                }
+                state.unlockIssue(linearIssue.id());
+            }
+        }
+    }
 
-        if (syncedIssue != null) {
-            return handleExistingIssue(linearIssue, syncedIssue, state, dryRun);
-        } else {
-            return handleNewIssue(linearIssue, state, dryRun);
+    private static SyncResult.IssueResult traced(Span span, SyncResult.IssueResult result) {
+        span.attribute("sync.action", result.action)
+                .attribute("jira.issue.key", result.jiraIssueKey)
+                .attribute("sync.success", result.success);
+        if (!result.success) {
+            span.error(result.message);
         }
+        return result;
     }
 
-    private SyncResult.IssueResult handleNewIssue(LinearIssue linearIssue, SyncState state, boolean dryRun) {
+    private SyncResult.IssueResult handleNewIssue(PreparedIssue preparedIssue, SyncState state, boolean dryRun) {
+        var linearIssue = preparedIssue.linearIssue();
         var result = new SyncResult.IssueResult();
         result.linearIssueId = linearIssue.id();
         result.linearIdentifier = linearIssue.identifier();
         result.action = "create";
 
+        if (findExistingIssues) {
+            try {
+                var syncedIssue = findExistingIssue(linearIssue, state, dryRun);
+                if (syncedIssue != null) {
+                    return handleExistingIssue(preparedIssue, syncedIssue, state, dryRun);
+                }
+            } catch (Exception e) {
+                result.success = false;
+                result.message = "Failed to look up existing Jira issue: " + e.getMessage();
+                Log.errorf(e, "Failed to look up an existing Jira issue for Linear issue: %s", linearIssue.identifier());
+                return result;
+            }
+        }
+
         Log.infof("Creating new Jira issue for Linear issue: %s", linearIssue.identifier());
 
         if (dryRun) {
@@ -51,21 +140,13 @@ public class IssueProcessor {
         }
 
         try {
-            var jiraIssueInput = issueDataTransfer.mapToJiraIssueInput(linearIssue);
+            var parentJiraKey = resolveParentJiraKey(linearIssue, state);
+            var jiraIssueInput = parentJiraKey != null
+                    ? issueDataTransfer.mapToJiraIssueInput(linearIssue, parentJiraKey)
+                    : preparedIssue.jiraIssueInput();
             var createdIssue = jiraService.createIssue(jiraIssueInput);
 
-            syncCommentsAndAttachments(createdIssue.key(), jiraIssueInput, linearIssue, state);
-
-            state.addSyncedIssue(linearIssue.id(), createdIssue.key(), createdIssue.id());
-            var syncedIssue = state.getSyncedIssue(linearIssue.id());
-            syncedIssue.linearUpdatedAt = linearIssue.updatedAt();
-
-            result.success = true;
-            result.jiraIssueKey = createdIssue.key();
-            result.message = "Created Jira issue: " + createdIssue.key();
-
-            Log.infof("Successfully created Jira issue %s for Linear issue %s",
-                    createdIssue.key(), linearIssue.identifier());
+            recordCreated(preparedIssue, createdIssue, parentJiraKey, jiraIssueInput, state, result);
 
         } catch (Exception e) {
             result.success = false;
@@ -76,7 +157,199 @@ public class IssueProcessor {
         return result;
     }
 
-    private SyncResult.IssueResult handleExistingIssue(LinearIssue linearIssue, SyncState.SyncedIssue syncedIssue, SyncState state, boolean dryRun) {
+    /**
+     * @return the entry of the Jira issue carrying the Linear ID, added to the state unless in a dry run, or null
+     */
+    private SyncState.SyncedIssue findExistingIssue(LinearIssue linearIssue, SyncState state, boolean dryRun) {
+        var found = jiraService.findIssuesBySourceIds(List.of(linearIssue.id())).get(linearIssue.id());
+        if (found == null) {
+            return null;
+        }
+        Log.infof("Linear issue %s is already synced to Jira issue %s, updating it", linearIssue.identifier(), found.key());
+        if (dryRun) {
+            return new SyncState.SyncedIssue(linearIssue.id(), found.key(), found.id());
+        }
+        state.addSyncedIssue(linearIssue.id(), found.key(), found.id());
+        return state.getSyncedIssue(linearIssue.id());
+    }
+
+    /**
+     * Creates the Jira issues for new Linear issues in bulk requests of up to {@code batchSize} issues. The
+     * issues must not depend on each other, e.g. one hierarchy level, so every parent is synced before.
+     * Issues that got synced since they were found new go through {@link #processIssue} instead.
+     */
+    public List<SyncResult.IssueResult> createIssues(List<PreparedIssue> preparedIssues, SyncState state, int batchSize) {
+        var results = new ArrayList<SyncResult.IssueResult>(preparedIssues.size());
+        var newIssues = new ArrayList<PreparedIssue>();
+        for (var preparedIssue : preparedIssues) {
+            if (state.getSyncedIssue(preparedIssue.linearIssue().id()) != null) {
+                results.add(processIssue(preparedIssue, state, false));
+            } else {
+                newIssues.add(preparedIssue);
+            }
+        }
+
+        for (int from = 0; from < newIssues.size(); from += batchSize) {
+            results.addAll(createBatch(newIssues.subList(from, Math.min(from + batchSize, newIssues.size())), state));
+        }
+        return results;
+    }
+
+    private List<SyncResult.IssueResult> createBatch(List<PreparedIssue> batch, SyncState state) {
+        try (var span = tracer.span("createIssues")) {
+            span.attribute("sync.batch.size", batch.size());
+            var results = createTracedBatch(batch, state);
+            var failed = results.stream().filter(result -> !result.success).count();
+            span.attribute("sync.batch.failed", failed);
+            if (failed > 0) {
+                span.error(failed + " of " + batch.size() + " issues not created");
+            }
+            return results;
+        }
+    }
+
+    private List<SyncResult.IssueResult> createTracedBatch(List<PreparedIssue> batch, SyncState state) {
+        var parentJiraKeys = new ArrayList<String>(batch.size());
+        var jiraIssueInputs = new ArrayList<JiraIssueInput>(batch.size());
+        for (var preparedIssue : batch) {
+            var parentJiraKey = resolveParentJiraKey(preparedIssue.linearIssue(), state);
+            parentJiraKeys.add(parentJiraKey);
+            jiraIssueInputs.add(parentJiraKey != null
+                    ? issueDataTransfer.mapToJiraIssueInput(preparedIssue.linearIssue(), parentJiraKey)
+                    : preparedIssue.jiraIssueInput());
+        }
+
+        List<JiraIssue> createdIssues;
+        JiraBulkCreateResponse response;
+        var requestStarted = System.nanoTime();
+        try {
+            response = jiraService.createIssues(jiraIssueInputs);
+            createdIssues = response.createdInRequestOrder(batch.size());
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to create %d Jira issues in bulk", batch.size());
+            response = null;
+            createdIssues = null;
+        }
+        var requestShareNanos = (System.nanoTime() - requestStarted) / batch.size();
+
+        var results = new ArrayList<SyncResult.IssueResult>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            var started = System.nanoTime();
+            var linearIssue = batch.get(i).linearIssue();
+            var result = new SyncResult.IssueResult();
+            result.linearIssueId = linearIssue.id();
+            result.linearIdentifier = linearIssue.identifier();
+            result.action = "create";
+
+            var createdIssue = createdIssues != null ? createdIssues.get(i) : null;
+            if (createdIssue == null) {
+                result.success = false;
+                result.message = "Failed to create Jira issue: " + (response != null ? response.error(i) : "bulk request failed");
+                Log.errorf("Failed to create Jira issue for Linear issue %s: %s", linearIssue.identifier(), result.message);
+            } else {
+                state.lockIssue(linearIssue.id());
+                try {
+                    recordCreated(batch.get(i), createdIssue, parentJiraKeys.get(i), jiraIssueInputs.get(i), state, result);
+                } finally {
+                    state.markChanged(linearIssue.id());
+                    state.unlockIssue(linearIssue.id());
+                }
+            }
+            result.durationMillis = TimeUnit.NANOSECONDS.toMillis(requestShareNanos + System.nanoTime() - started);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void recordCreated(PreparedIssue preparedIssue, JiraIssue createdIssue, String parentJiraKey, JiraIssueInput jiraIssueInput,
+                               SyncState state, SyncResult.IssueResult result) {
+        var linearIssue = preparedIssue.linearIssue();
+        state.addSyncedIssue(linearIssue.id(), createdIssue.key(), createdIssue.id());
+        var syncedIssue = state.getSyncedIssue(linearIssue.id());
+        syncedIssue.jiraParentKey = parentJiraKey;
+
+        var statusSynced = transitionStatus(createdIssue.key(), jiraIssueInput);
+        var commentsSynced = syncComments(createdIssue.key(), jiraIssueInput);
+        var attachmentsSynced = attachmentSyncCoordinator.syncAttachments(createdIssue.key(), jiraIssueInput, linearIssue, state);
+
+        syncedIssue.fieldHashes = toStoredHashes(preparedIssue.fieldHashes(), Map.of(), statusSynced, commentsSynced);
+        if (statusSynced && commentsSynced && attachmentsSynced) {
+            syncedIssue.linearUpdatedAt = linearIssue.updatedAt();
+        }
+
+        result.success = true;
+        result.jiraIssueKey = createdIssue.key();
+        result.message = "Created Jira issue: " + createdIssue.key() + unsyncedSteps(statusSynced, commentsSynced, attachmentsSynced);
+
+        Log.infof("Successfully created Jira issue %s for Linear issue %s",
+                createdIssue.key(), linearIssue.identifier());
+    }
+
+    /**
+     * Works out the Jira calls {@link #processIssue} would make for the issue against the current state, without
+     * calling Jira. Comment calls count every comment of a new issue and one new comment on an update, since the
+     * comments already on the Jira issue are only known once they are fetched.
+     *
+     * @return the step, null when the issue's synced content did not change
+     */
+    public SyncPlan.Step plan(PreparedIssue preparedIssue, SyncState state) {
+        var linearIssue = preparedIssue.linearIssue();
+        var jiraIssueInput = preparedIssue.jiraIssueInput();
+        var syncedIssue = state.getSyncedIssue(linearIssue.id());
+        var calls = new LinkedHashMap<String, Integer>();
+
+        if (syncedIssue == null) {
+            calls.put("create", 1);
+            calls.put("transition", TRANSITION_CALLS);
+            putCommentCalls(calls, jiraIssueInput.comments() != null ? jiraIssueInput.comments().size() : 0);
+            putAttachmentCalls(calls, jiraIssueInput, linearIssue, state);
+            return new SyncPlan.Step(SyncPlan.Action.CREATE, linearIssue.identifier(), null, Set.of(), calls,
+                    jiraIssueInput, preparedIssue.fieldHashes(), linearIssue);
+        }
+
+        if (!needsUpdate(linearIssue, syncedIssue)) {
+            return null;
+        }
+        var changedFields = changedFields(preparedIssue.fieldHashes(), syncedIssue.fieldHashes);
+        if (changedFields.isEmpty()) {
+            return null;
+        }
+
+        if (changedFields.stream().anyMatch(IssueField::isEditableField)) {
+            calls.put("update", 1);
+        }
+        if (changedFields.contains(IssueField.STATUS)) {
+            calls.put("transition", TRANSITION_CALLS);
+        }
+        if (changedFields.contains(IssueField.COMMENTS)) {
+            putCommentCalls(calls, 1);
+        }
+        putAttachmentCalls(calls, jiraIssueInput, linearIssue, state);
+        return new SyncPlan.Step(SyncPlan.Action.UPDATE, linearIssue.identifier(), syncedIssue.jiraIssueKey, changedFields, calls,
+                jiraIssueInput, preparedIssue.fieldHashes(), linearIssue);
+    }
+
+    // Existing comments and the current user are fetched before any comment is added
+    private static void putCommentCalls(Map<String, Integer> calls, int newComments) {
+        if (newComments > 0) {
+            calls.put("comments", 2 + newComments);
+        }
+    }
+
+    private static void putAttachmentCalls(Map<String, Integer> calls, JiraIssueInput jiraIssueInput, LinearIssue linearIssue, SyncState state) {
+        if (jiraIssueInput.attachments() == null) {
+            return;
+        }
+        var unsynced = (int) jiraIssueInput.attachments().stream()
+                .filter(attachment -> !state.isAttachmentAlreadySynced(linearIssue.id(), attachment.id()))
+                .count();
+        if (unsynced > 0) {
+            calls.put("attachments", unsynced);
+        }
+    }
+
+    private SyncResult.IssueResult handleExistingIssue(PreparedIssue preparedIssue, SyncState.SyncedIssue syncedIssue, SyncState state, boolean dryRun) {
+        var linearIssue = preparedIssue.linearIssue();
         var result = new SyncResult.IssueResult();
         result.linearIssueId = linearIssue.id();
         result.linearIdentifier = linearIssue.identifier();
@@ -91,28 +364,53 @@ public class IssueProcessor {
             return result;
         }
 
-        Log.infof("Updating Jira issue %s for Linear issue: %s", syncedIssue.jiraIssueKey, linearIssue.identifier());
+        var jiraIssueInput = preparedIssue.jiraIssueInput();
+        var fieldHashes = preparedIssue.fieldHashes();
+        var changedFields = changedFields(fieldHashes, syncedIssue.fieldHashes);
+
+        if (changedFields.isEmpty()) {
+            result.action = "skip";
+            result.success = true;
+            result.message = "No content changes";
+            Log.debugf("Skipping Linear issue %s - updated but synced content is unchanged", linearIssue.identifier());
+            if (!dryRun) {
+                // Attachments are tracked per id in the state, so this only calls Jira for new ones
+                if (attachmentSyncCoordinator.syncAttachments(syncedIssue.jiraIssueKey, jiraIssueInput, linearIssue, state)) {
+                    syncedIssue.linearUpdatedAt = linearIssue.updatedAt();
+                }
+                // Not an update, but the new attachments and timestamp must be saved all the same
+                result.stateChanged = true;
+            }
+            return result;
+        }
+
+        Log.infof("Updating Jira issue %s for Linear issue: %s, changed: %s",
+                syncedIssue.jiraIssueKey, linearIssue.identifier(), changedFields);
 
         if (dryRun) {
             result.success = true;
-            result.message = "Would update Jira issue";
-            Log.infof("[DRY RUN] Would update Jira issue %s for Linear issue: %s",
-                    syncedIssue.jiraIssueKey, linearIssue.identifier());
+            result.message = "Would update Jira issue: " + changedFields;
+            Log.infof("[DRY RUN] Would update Jira issue %s for Linear issue: %s, changed: %s",
+                    syncedIssue.jiraIssueKey, linearIssue.identifier(), changedFields);
             return result;
         }
 
         try {
-            var jiraIssueInput = issueDataTransfer.mapToJiraIssueInput(linearIssue);
-            jiraService.updateIssue(syncedIssue.jiraIssueKey, jiraIssueInput);
+            jiraService.updateIssue(syncedIssue.jiraIssueKey, jiraIssueInput, changedFields);
 
-            syncCommentsAndAttachments(syncedIssue.jiraIssueKey, jiraIssueInput, linearIssue, state);
+            var statusSynced = !changedFields.contains(IssueField.STATUS) || transitionStatus(syncedIssue.jiraIssueKey, jiraIssueInput);
+            var commentsSynced = !changedFields.contains(IssueField.COMMENTS) || syncComments(syncedIssue.jiraIssueKey, jiraIssueInput);
+            var attachmentsSynced = attachmentSyncCoordinator.syncAttachments(syncedIssue.jiraIssueKey, jiraIssueInput, linearIssue, state);
 
-            syncedIssue.linearUpdatedAt = linearIssue.updatedAt();
+            if (statusSynced && commentsSynced && attachmentsSynced) {
+                syncedIssue.linearUpdatedAt = linearIssue.updatedAt();
+            }
             syncedIssue.lastSyncTime = Instant.now();
             syncedIssue.status = SyncState.SyncStatus.SYNCED;
+            syncedIssue.fieldHashes = toStoredHashes(fieldHashes, syncedIssue.fieldHashes, statusSynced, commentsSynced);
 
             result.success = true;
-            result.message = "Updated Jira issue: " + syncedIssue.jiraIssueKey;
+            result.message = "Updated Jira issue: " + syncedIssue.jiraIssueKey + unsyncedSteps(statusSynced, commentsSynced, attachmentsSynced);
 
             Log.infof("Successfully updated Jira issue %s for Linear issue %s",
                     syncedIssue.jiraIssueKey, linearIssue.identifier());
@@ -128,15 +426,91 @@ public class IssueProcessor {
         return result;
     }
 
-    private void syncCommentsAndAttachments(String jiraIssueKey, JiraIssueInput jiraIssueInput, LinearIssue linearIssue, SyncState state) {
+    /**
+     * Resolves the Jira issue a sub-issue is created under. The parent must already be synced, which the
+     * hierarchy scheduler ensures within a run. Jira has a single subtask level, so deeper Linear
+     * sub-issues are attached to the top-level ancestor instead.
+     */
+    private String resolveParentJiraKey(LinearIssue linearIssue, SyncState state) {
+        if (linearIssue.parent() == null) {
+            return null;
+        }
+
+        var parent = state.getSyncedIssue(linearIssue.parent().id());
+        if (parent == null) {
+            Log.warnf("Parent %s of Linear issue %s is not synced, creating it as a regular issue",
+                    linearIssue.parent().identifier(), linearIssue.identifier());
+            return null;
+        }
+
+        return parent.jiraParentKey != null ? parent.jiraParentKey : parent.jiraIssueKey;
+    }
+
+    private boolean syncComments(String jiraIssueKey, JiraIssueInput jiraIssueInput) {
+        try {
+            return jiraService.syncComments(jiraIssueKey, jiraIssueInput);
+        } catch (Exception e) {
+            Log.warnf(e, "Failed to sync comments for issue %s, but issue operation was successful", jiraIssueKey);
+            return false;
+        }
+    }
+
+    private boolean transitionStatus(String jiraIssueKey, JiraIssueInput jiraIssueInput) {
         try {
-            jiraService.syncComments(jiraIssueKey, jiraIssueInput);
-            attachmentSyncCoordinator.syncAttachments(jiraIssueKey, jiraIssueInput, linearIssue, state);
+            return jiraService.transitionIssueStatus(jiraIssueKey, jiraIssueInput.stateType());
         } catch (Exception e) {
-            Log.warnf(e, "Failed to sync comments/attachments for issue %s, but issue operation was successful", jiraIssueKey);
+            Log.warnf(e, "Failed to transition status for issue %s, but issue operation was successful", jiraIssueKey);
+            return false;
         }
     }
 
+    /**
+     * Notes the steps that failed after the issue itself was written. They are retried by the next run, which
+     * revisits the issue since its Linear update time is not stored.
+     */
+    private static String unsyncedSteps(boolean statusSynced, boolean commentsSynced, boolean attachmentsSynced) {
+        var failed = new ArrayList<String>();
+        if (!statusSynced) failed.add("status");
+        if (!commentsSynced) failed.add("comments");
+        if (!attachmentsSynced) failed.add("attachments");
+        return failed.isEmpty() ? "" : " (" + String.join(", ", failed) + " not synced, retried on the next run)";
+    }
+
+    /**
+     * Issues synced before hashes were tracked have no stored hashes; every field counts as changed
+     * for them so the first pass records a baseline.
+     */
+    private Set<IssueField> changedFields(Map<IssueField, String> currentHashes, Map<String, String> storedHashes) {
+        var changed = EnumSet.noneOf(IssueField.class);
+        currentHashes.forEach((field, hash) -> {
+            if (storedHashes == null || !hash.equals(storedHashes.get(field.name()))) {
+                changed.add(field);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * The hashes to store after a write. A status or comments step that failed keeps its previous hash, so the
+     * field still counts as changed on the next run.
+     */
+    private Map<String, String> toStoredHashes(Map<IssueField, String> fieldHashes, Map<String, String> previousHashes,
+                                               boolean statusSynced, boolean commentsSynced) {
+        var stored = new HashMap<String, String>();
+        fieldHashes.forEach((field, hash) -> {
+            var synced = switch (field) {
+                case STATUS -> statusSynced;
+                case COMMENTS -> commentsSynced;
+                default -> true;
+            };
+            var value = synced ? hash : previousHashes != null ? previousHashes.get(field.name()) : null;
+            if (value != null) {
+                stored.put(field.name(), value);
+            }
+        });
+        return stored;
+    }
+
     private boolean needsUpdate(LinearIssue linearIssue, SyncState.SyncedIssue syncedIssue) {
         if (linearIssue.updatedAt() != null && syncedIssue.linearUpdatedAt != null) {
             return linearIssue.updatedAt().isAfter(syncedIssue.linearUpdatedAt);
@@ -0,0 +1,346 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.Jira;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueChange;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearWorkflowState;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads the changes made in Jira since the last run back into Linear: status changes and new comments of synced
+ * issues. Runs before the Linear → Jira sync of {@code sync --bidirectional}.
+ * <p>
+ * Neither side is scanned in full. The Jira scan starts at the feed's watermark and projects only the
+ * {@code updated} time, which is compared with the one stored for the issue; only the issues that moved since
+ * are read with their changelog, and only those with something to push are fetched from Linear, by ID.
+ * <p>
+ * A status change is pushed when the Jira status differs from the hash stored as {@value #JIRA_STATUS} and the
+ * latest status change in the changelog was not made by the sync itself. If the Linear status changed as well
+ * since it was last synced, told by the stored {@link IssueField#STATUS} hash, the issue is reported as a
+ * conflict and left alone, so the Linear → Jira sync that follows applies Linear's status. Comments never
+ * conflict: those added in Jira by others are posted to Linear with a header naming the Jira comment, which
+ * keeps them from being posted twice or synced back to Jira.
+ */
+@ApplicationScoped
+public class JiraChangeFeed {
+
+    /**
+     * Key in {@link SyncState.SyncedIssue#fieldHashes} of the hash of the Jira status last read back.
+     */
+    static final String JIRA_STATUS = "JIRA_STATUS";
+    static final String COMMENT_HEADER = "**From Jira** ";
+
+    private final Jira jiraService;
+    private final IssueOperations linearService;
+    private final SyncCoordinator syncCoordinator;
+
+    public JiraChangeFeed(Jira jiraService, IssueOperations linearService, SyncCoordinator syncCoordinator) {
+        this.jiraService = jiraService;
+        this.linearService = linearService;
+        this.syncCoordinator = syncCoordinator;
+    }
+
+    private record Change(SyncState.SyncedIssue syncedIssue, JiraIssueChange change, boolean statusChanged) {}
+
+    /**
+     * Pushes the Jira changes since the feed's watermark to Linear and saves the state with the watermark moved.
+     * The first run only sets the watermark, since there is nothing to compare Jira's issues with yet.
+     */
+    public void pull(SyncState state, boolean dryRun, SyncResult result) {
+        var scannedFrom = Instant.now();
+        var since = state.jiraSyncTime;
+        if (since == null) {
+            Log.info("Starting the Jira change feed - changes made in Jira from now on are synced back to Linear");
+            syncCoordinator.completePull(state, scannedFrom);
+            return;
+        }
+
+        // Issues that failed are read again by the next run, which scans from the earliest of them
+        var failedAt = new ArrayList<Instant>();
+        var changes = readChanges(state, since, failedAt);
+        var linearIssues = fetchLinearIssues(changes);
+        var workflowStates = new HashMap<String, List<LinearWorkflowState>>();
+
+        for (var change : changes) {
+            var linearIssue = linearIssues.get(change.syncedIssue().linearIssueId);
+            state.lockIssue(change.syncedIssue().linearIssueId);
+            try {
+                var issueResult = apply(change, linearIssue, workflowStates, dryRun);
+                if (issueResult != null) {
+                    result.addIssueResult(issueResult);
+                    if (!issueResult.success) {
+                        failedAt.add(change.change().updated() != null ? change.change().updated() : since);
+                    }
+                }
+            } finally {
+                if (!dryRun) {
+                    state.markChanged(change.syncedIssue().linearIssueId);
+                }
+                state.unlockIssue(change.syncedIssue().linearIssueId);
+            }
+        }
+
+        var watermark = failedAt.stream().filter(Objects::nonNull).min(Comparator.naturalOrder())
+                .filter(earliest -> earliest.isBefore(scannedFrom))
+                .orElse(scannedFrom);
+        syncCoordinator.completePull(state, watermark);
+        Log.infof("Read back %d changed Jira issues - Pulled: %d, Conflicts: %d", changes.size(), result.pulledCount(), result.conflictCount());
+    }
+
+    /**
+     * Scans Jira from the watermark and reads the changelog of the synced issues updated since they were last read.
+     */
+    private List<Change> readChanges(SyncState state, Instant since, List<Instant> failedAt) {
+        var updated = new LinkedHashMap<String, SyncState.SyncedIssue>();
+        var updatedAt = new HashMap<String, Instant>();
+        jiraService.scanUpdatedIssues(since, page -> {
+            for (var update : page) {
+                var syncedIssue = update.linearIssueId() != null
+                        ? state.getSyncedIssue(update.linearIssueId())
+                        : state.findByJiraKey(update.key());
+                if (syncedIssue == null || !update.key().equals(syncedIssue.jiraIssueKey)) {
+                    continue;
+                }
+                if (syncedIssue.jiraUpdatedAt != null && update.updated() != null && !update.updated().isAfter(syncedIssue.jiraUpdatedAt)) {
+                    continue;
+                }
+                updated.put(update.key(), syncedIssue);
+                updatedAt.put(update.key(), update.updated());
+            }
+        });
+        Log.debugf("%d synced issues changed in Jira since %s", updated.size(), since);
+
+        var changes = new ArrayList<Change>(updated.size());
+        for (var entry : updated.entrySet()) {
+            var syncedIssue = entry.getValue();
+            var readSince = syncedIssue.jiraUpdatedAt != null ? syncedIssue.jiraUpdatedAt : syncedIssue.lastSyncTime;
+            try {
+                var change = jiraService.readChanges(entry.getKey(), readSince);
+                changes.add(new Change(syncedIssue, change, statusChanged(change, syncedIssue, readSince)));
+            } catch (Exception e) {
+                Log.warnf(e, "Failed to read the changes of Jira issue %s", entry.getKey());
+                failedAt.add(updatedAt.get(entry.getKey()) != null ? updatedAt.get(entry.getKey()) : since);
+            }
+        }
+        return changes;
+    }
+
+    private Map<String, LinearIssue> fetchLinearIssues(List<Change> changes) {
+        var ids = changes.stream()
+                .filter(change -> change.statusChanged() || !change.change().comments().isEmpty())
+                .map(change -> change.syncedIssue().linearIssueId)
+                .toList();
+        var issues = new HashMap<String, LinearIssue>();
+        if (!ids.isEmpty()) {
+            linearService.getIssuesByIds(ids).forEach(issue -> issues.put(issue.id(), issue));
+        }
+        return issues;
+    }
+
+    /**
+     * Whether someone other than the sync changed the Jira status since it was last read. Without a stored hash,
+     * e.g. for an issue never read back, the changelog tells whether the status changed since {@code since}.
+     */
+    boolean statusChanged(JiraIssueChange change, SyncState.SyncedIssue syncedIssue, Instant since) {
+        if (change.status() == null || change.statusChangedBySync()) {
+            return false;
+        }
+        var stored = syncedIssue.fieldHashes != null ? syncedIssue.fieldHashes.get(JIRA_STATUS) : null;
+        if (stored != null) {
+            return !stored.equals(jiraService.statusHash(change.status()));
+        }
+        return change.statusChangedAt() != null && (since == null || change.statusChangedAt().isAfter(since));
+    }
+
+    /**
+     * Whether the Linear status changed since it was last pushed to Jira.
+     */
+    boolean linearStatusChanged(LinearIssue linearIssue, SyncState.SyncedIssue syncedIssue) {
+        var stored = syncedIssue.fieldHashes != null ? syncedIssue.fieldHashes.get(IssueField.STATUS.name()) : null;
+        if (stored != null) {
+            var stateType = linearIssue.state() != null ? linearIssue.state().type() : null;
+            return !stored.equals(jiraService.statusHash(stateType));
+        }
+        return syncedIssue.linearUpdatedAt == null || linearIssue.updatedAt() != null && linearIssue.updatedAt().isAfter(syncedIssue.linearUpdatedAt);
+    }
+
+    private SyncResult.IssueResult apply(Change change, LinearIssue linearIssue, Map<String, List<LinearWorkflowState>> workflowStates, boolean dryRun) {
+        var syncedIssue = change.syncedIssue();
+        var jiraChange = change.change();
+        var result = new SyncResult.IssueResult();
+        result.linearIssueId = syncedIssue.linearIssueId;
+        result.jiraIssueKey = syncedIssue.jiraIssueKey;
+        result.action = "pull";
+
+        var jiraStatusHash = jiraChange.status() != null ? jiraService.statusHash(jiraChange.status()) : null;
+        var needsLinear = change.statusChanged() || !jiraChange.comments().isEmpty();
+        if (needsLinear && linearIssue == null) {
+            Log.warnf("Linear issue %s of Jira issue %s not found, skipping its Jira changes", syncedIssue.linearIssueId, syncedIssue.jiraIssueKey);
+            if (!dryRun) {
+                syncedIssue.jiraUpdatedAt = jiraChange.updated();
+            }
+            return null;
+        }
+        if (linearIssue != null) {
+            result.linearIdentifier = linearIssue.identifier();
+        }
+
+        String targetStateType = null;
+        var currentStateType = linearIssue != null && linearIssue.state() != null ? linearIssue.state().type() : null;
+        if (change.statusChanged() && jiraChange.linearStateType() != null
+                && !jiraChange.status().equalsIgnoreCase(jiraService.jiraStatusFor(currentStateType))) {
+            if (linearStatusChanged(linearIssue, syncedIssue)) {
+                Log.warnf("Status of %s changed in Linear (%s) and in Jira %s (%s), keeping Linear's",
+                        linearIssue.identifier(), currentStateType, syncedIssue.jiraIssueKey, jiraChange.status());
+                result.action = "conflict";
+                result.success = true;
+                result.message = "Status changed on both sides: Linear " + currentStateType + ", Jira " + jiraChange.status();
+                if (dryRun) {
+                    return result;
+                }
+                var failedComments = pushComments(jiraChange, linearIssue);
+                if (failedComments > 0) {
+                    // Read again by the next run, which posts the comments still missing
+                    result.success = false;
+                    result.message += ", failed to add " + failedComments + " Jira comments to Linear";
+                } else {
+                    // The Jira hash stays as it was, so the status still counts as changed if it survives the sync
+                    syncedIssue.jiraUpdatedAt = jiraChange.updated();
+                }
+                return result;
+            }
+            targetStateType = jiraChange.linearStateType();
+        }
+
+        var comments = newComments(jiraChange, linearIssue);
+        if (targetStateType == null && comments.isEmpty()) {
+            // Only the sync's own writes or changes that mean nothing to Linear
+            if (!dryRun) {
+                adopt(syncedIssue, jiraChange, jiraStatusHash);
+            }
+            return null;
+        }
+
+        var message = new StringBuilder();
+        if (targetStateType != null) {
+            message.append("status ").append(currentStateType).append(" → ").append(targetStateType);
+        }
+        if (!comments.isEmpty()) {
+            message.append(message.isEmpty() ? "" : ", ").append(comments.size()).append(" comments");
+        }
+
+        if (dryRun) {
+            result.success = true;
+            result.message = "Would pull from Jira: " + message;
+            Log.infof("[DRY RUN] Would pull from Jira %s to Linear %s: %s", syncedIssue.jiraIssueKey, linearIssue.identifier(), message);
+            return result;
+        }
+
+        try {
+            if (targetStateType != null) {
+                var state = workflowState(linearIssue, targetStateType, workflowStates);
+                if (state == null) {
+                    throw new IllegalStateException("No workflow state of type " + targetStateType + " in the team of " + linearIssue.identifier());
+                }
+                linearService.updateIssueState(linearIssue.id(), state.id());
+                // What the Linear → Jira sync would push now is what Jira already has
+                syncedIssue.fieldHashes.put(IssueField.STATUS.name(), jiraService.statusHash(targetStateType));
+            }
+            for (var comment : comments) {
+                linearService.createComment(linearIssue.id(), formatComment(syncedIssue.jiraIssueKey, comment));
+            }
+            adopt(syncedIssue, jiraChange, jiraStatusHash);
+
+            result.success = true;
+            result.message = "Pulled from Jira: " + message;
+            Log.infof("Pulled from Jira %s to Linear %s: %s", syncedIssue.jiraIssueKey, linearIssue.identifier(), message);
+
+        } catch (Exception e) {
+            result.success = false;
+            result.message = "Failed to pull Jira changes of " + syncedIssue.jiraIssueKey + ": " + e.getMessage();
+            Log.errorf(e, "Failed to pull the changes of Jira issue %s to Linear issue %s", syncedIssue.jiraIssueKey, linearIssue.identifier());
+        }
+        return result;
+    }
+
+    /**
+     * Posts the new Jira comments to Linear, each on its own so one failure does not hold back the others.
+     *
+     * @return the number of comments that could not be posted
+     */
+    private int pushComments(JiraIssueChange jiraChange, LinearIssue linearIssue) {
+        var failed = 0;
+        for (var comment : newComments(jiraChange, linearIssue)) {
+            try {
+                linearService.createComment(linearIssue.id(), formatComment(jiraChange.key(), comment));
+            } catch (Exception e) {
+                Log.warnf(e, "Failed to add Jira comment %s to Linear issue %s", comment.id(), linearIssue.identifier());
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static void adopt(SyncState.SyncedIssue syncedIssue, JiraIssueChange jiraChange, String jiraStatusHash) {
+        if (jiraStatusHash != null) {
+            syncedIssue.fieldHashes.put(JIRA_STATUS, jiraStatusHash);
+        }
+        syncedIssue.jiraUpdatedAt = jiraChange.updated();
+    }
+
+    /**
+     * The Jira comments not yet posted to the Linear issue, told by the header naming them.
+     */
+    static List<JiraIssueChange.Comment> newComments(JiraIssueChange change, LinearIssue linearIssue) {
+        if (change.comments().isEmpty() || linearIssue == null) {
+            return List.of();
+        }
+        var posted = linearIssue.comments() != null && linearIssue.comments().nodes() != null
+                ? linearIssue.comments().nodes().stream().map(LinearIssue.LinearComment::body).filter(Objects::nonNull).toList()
+                : List.<String>of();
+        return change.comments().stream()
+                .filter(comment -> posted.stream().noneMatch(body -> body.startsWith(commentReference(change.key(), comment.id()))))
+                .toList();
+    }
+
+    static String formatComment(String jiraIssueKey, JiraIssueChange.Comment comment) {
+        return commentReference(jiraIssueKey, comment.id()) + "by " + (comment.author() != null ? comment.author() : "Unknown")
+                + "\n\n" + (comment.text() != null ? comment.text() : "");
+    }
+
+    private static String commentReference(String jiraIssueKey, String commentId) {
+        return COMMENT_HEADER + jiraIssueKey + "#" + commentId + " ";
+    }
+
+    /**
+     * Tells comments posted by {@link #formatComment} apart, which are not synced back to Jira.
+     */
+    static boolean isFromJira(String commentBody) {
+        return commentBody != null && commentBody.startsWith(COMMENT_HEADER);
+    }
+
+    private LinearWorkflowState workflowState(LinearIssue linearIssue, String stateType, Map<String, List<LinearWorkflowState>> workflowStates) {
+        var teamId = linearIssue.team() != null ? linearIssue.team().id() : null;
+        if (teamId == null) {
+            return null;
+        }
+        return workflowStates.computeIfAbsent(teamId, linearService::getWorkflowStates).stream()
+                .filter(state -> stateType.equals(state.type()))
+                .min(Comparator.comparing(LinearWorkflowState::position, Comparator.nullsLast(Comparator.naturalOrder())))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,50 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import bogdanpc.linearsync.synchronization.entity.ResultSink;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import io.quarkus.logging.Log;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Counts the issue results and errors of every run into the metrics and, when a metrics file is set, writes all
+ * metrics to it at the end of the run.
+ */
+class MetricsResultSink implements ResultSink {
+
+    private final Metrics metrics;
+    private final Path metricsFile;
+    private final Metrics.Counter errors;
+
+    MetricsResultSink(Metrics metrics, Path metricsFile) {
+        this.metrics = metrics;
+        this.metricsFile = metricsFile;
+        this.errors = metrics.counter("sync_errors_total", "Errors of sync runs, including failed issues");
+    }
+
+    @Override
+    public void issueResult(SyncResult.IssueResult result) {
+        metrics.counter("sync_issues_total", "Issues handled by sync runs by action and outcome",
+                "action", result.action != null ? result.action : "unknown", "outcome", result.success ? "success" : "failure").increment();
+    }
+
+    @Override
+    public void error(String message) {
+        errors.increment();
+    }
+
+    @Override
+    public void completed(SyncResult result) {
+        metrics.counter("sync_runs_total", "Completed sync runs by outcome", "outcome", result.success ? "success" : "failure").increment();
+        metrics.timer("sync_run_duration_seconds", "Duration of sync runs").record(Duration.ofMillis(result.getDurationMillis()).toNanos());
+        if (metricsFile != null) {
+            try {
+                metrics.writeTo(metricsFile);
+            } catch (RuntimeException e) {
+                Log.warnf(e, "Failed to write metrics to %s", metricsFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.ResultSink;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.quarkus.logging.Log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends the results of a run to a file as newline-delimited JSON, one line per issue result or error and a
+ * summary line when the run completes. Every line is flushed when written, so the report can be followed while
+ * the run goes on and survives a crash; runs append to the same file, e.g. the cycles of {@code watch}.
+ * <p>
+ * A failed write is logged once and ends the report, the sync goes on.
+ */
+class NdjsonResultSink implements ResultSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private BufferedWriter writer;
+
+    NdjsonResultSink(Path file) {
+        this.file = file;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        try {
+            var parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open sync report: " + file, e);
+        }
+    }
+
+    @Override
+    public void issueResult(SyncResult.IssueResult result) {
+        var line = line("issue");
+        line.put("linearIssueId", result.linearIssueId);
+        line.put("linearIdentifier", result.linearIdentifier);
+        line.put("jiraIssueKey", result.jiraIssueKey);
+        line.put("action", result.action);
+        line.put("success", result.success);
+        line.put("message", result.message);
+        line.put("durationMillis", result.durationMillis);
+        write(line);
+    }
+
+    @Override
+    public void error(String message) {
+        var line = line("error");
+        line.put("message", message);
+        write(line);
+    }
+
+    @Override
+    public void completed(SyncResult result) {
+        var line = line("summary");
+        line.put("success", result.success);
+        line.put("startTime", result.startTime);
+        line.put("endTime", result.endTime);
+        line.put("durationMillis", result.getDurationMillis());
+        line.put("created", result.createdCount());
+        line.put("updated", result.updatedCount());
+        line.put("skipped", result.skippedCount());
+        line.put("pulled", result.pulledCount());
+        line.put("conflicts", result.conflictCount());
+        line.put("errors", result.errorCount());
+        line.put("deadlineReached", result.deadlineReached);
+        write(line);
+        close();
+    }
+
+    private static Map<String, Object> line(String type) {
+        var line = new LinkedHashMap<String, Object>();
+        line.put("type", type);
+        line.put("at", Instant.now());
+        return line;
+    }
+
+    private synchronized void write(Map<String, Object> line) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.newLine();
+            writer.flush();
+        } catch (JsonProcessingException e) {
+            Log.warnf(e, "Skipping unserializable %s line of the sync report", line.get("type"));
+        } catch (IOException e) {
+            Log.warnf(e, "Failed to write sync report %s, stopping the report", file);
+            close();
+        }
+    }
+
+    private synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Log.warnf(e, "Failed to close sync report %s", file);
+        }
+        writer = null;
+    }
+}
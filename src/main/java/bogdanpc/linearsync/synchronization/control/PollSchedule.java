@@ -0,0 +1,108 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Poll intervals per team that follow how often the team's issues change.
+ * <p>
+ * Each poll observes the issues changed since the team's previous poll. The change rate is smoothed over the
+ * recent polls and the next interval is the time in which one change is expected, within the bounds. A poll
+ * that finds changes brings the next one closer; every idle poll halves the rate and so doubles the interval,
+ * until it reaches the maximum. A team key of null stands for all teams.
+ */
+class PollSchedule {
+
+    // Weight of the latest poll in the smoothed change rate
+    private static final double SMOOTHING = 0.5;
+
+    record Due(String teamKey, Instant at) {}
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final List<Team> teams = new ArrayList<>();
+
+    /**
+     * All teams are due at {@code now} and start with {@code initialInterval}.
+     */
+    PollSchedule(Collection<String> teamKeys, Duration initialInterval, Duration minInterval, Duration maxInterval, Instant now) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval.compareTo(minInterval) < 0 ? minInterval : maxInterval;
+        var interval = clamp(initialInterval);
+        for (var teamKey : teamKeys) {
+            teams.add(new Team(teamKey, interval, now));
+        }
+    }
+
+    /**
+     * The team due first, the earlier listed one on a tie.
+     */
+    Due next() {
+        var next = teams.getFirst();
+        for (var team : teams) {
+            if (team.nextPoll.isBefore(next.nextPoll)) {
+                next = team;
+            }
+        }
+        return new Due(next.teamKey, next.nextPoll);
+    }
+
+    /**
+     * Records a poll of the team that started at {@code startedAt} and found {@code changedIssues}, and
+     * schedules the team's next poll one interval after that start.
+     *
+     * @return the team's new interval
+     */
+    Duration completed(String teamKey, int changedIssues, Instant startedAt) {
+        var team = team(teamKey);
+        if (team.lastPoll != null) {
+            // The first poll catches up on everything since the last run and says little about the current rate
+            var window = Math.max(1, Duration.between(team.lastPoll, startedAt).toMillis()) / 1000.0;
+            team.changesPerSecond = SMOOTHING * (changedIssues / window) + (1 - SMOOTHING) * team.changesPerSecond;
+            team.interval = team.changesPerSecond > 0
+                    ? clamp(Duration.ofMillis((long) Math.min(maxInterval.toMillis(), 1000 / team.changesPerSecond)))
+                    : maxInterval;
+        }
+        team.lastPoll = startedAt;
+        team.nextPoll = startedAt.plus(team.interval);
+        return team.interval;
+    }
+
+    Duration interval(String teamKey) {
+        return team(teamKey).interval;
+    }
+
+    private Team team(String teamKey) {
+        for (var team : teams) {
+            if (teamKey == null ? team.teamKey == null : teamKey.equals(team.teamKey)) {
+                return team;
+            }
+        }
+        throw new IllegalArgumentException("Team not scheduled: " + teamKey);
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+
+    private static final class Team {
+        final String teamKey;
+        Duration interval;
+        Instant nextPoll;
+        Instant lastPoll;
+        double changesPerSecond;
+
+        Team(String teamKey, Duration interval, Instant nextPoll) {
+            this.teamKey = teamKey;
+            this.interval = interval;
+            this.nextPoll = nextPoll;
+            this.changesPerSecond = 1000.0 / interval.toMillis();
+        }
+    }
+}
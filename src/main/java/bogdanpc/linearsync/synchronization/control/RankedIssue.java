@@ -0,0 +1,63 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * A prepared issue with the value of writing it, for runs with a deadline that may not get through all their work.
+ * Creates come first, then status changes, then other updates and last the issues whose synced content did not
+ * change. Within each kind the higher Linear priority goes first (urgent, high, medium, low, none), then the most
+ * recently updated issue.
+ */
+record RankedIssue(PreparedIssue preparedIssue, Change change) implements Comparable<RankedIssue> {
+
+    enum Change {CREATE, STATUS, UPDATE, UNCHANGED}
+
+    private static final Comparator<RankedIssue> ORDER = Comparator.comparing(RankedIssue::change)
+            .thenComparingInt(RankedIssue::urgency)
+            .thenComparing(ranked -> ranked.preparedIssue.linearIssue().updatedAt(), Comparator.nullsLast(Comparator.reverseOrder()));
+
+    /**
+     * Ranks the issue against what the state holds for it when it is queued.
+     */
+    static RankedIssue of(PreparedIssue preparedIssue, SyncState state) {
+        var linearIssue = preparedIssue.linearIssue();
+        var syncedIssue = state.getSyncedIssue(linearIssue.id());
+        if (syncedIssue == null) {
+            return new RankedIssue(preparedIssue, Change.CREATE);
+        }
+        if (syncedIssue.fieldHashes == null) {
+            return new RankedIssue(preparedIssue, Change.UPDATE);
+        }
+        if (linearIssue.updatedAt() != null && syncedIssue.linearUpdatedAt != null && !linearIssue.updatedAt().isAfter(syncedIssue.linearUpdatedAt)) {
+            return new RankedIssue(preparedIssue, Change.UNCHANGED);
+        }
+
+        var change = Change.UNCHANGED;
+        for (var field : preparedIssue.fieldHashes().entrySet()) {
+            if (!Objects.equals(field.getValue(), syncedIssue.fieldHashes.get(field.getKey().name()))) {
+                if (field.getKey() == IssueField.STATUS) {
+                    return new RankedIssue(preparedIssue, Change.STATUS);
+                }
+                change = Change.UPDATE;
+            }
+        }
+        return new RankedIssue(preparedIssue, change);
+    }
+
+    // Linear priorities: 1 urgent to 4 low, 0 for none
+    private int urgency() {
+        var priority = preparedIssue.linearIssue().priority();
+        return priority != null && priority > 0 ? priority : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int compareTo(RankedIssue other) {
+        return ORDER.compare(this, other);
+    }
+}
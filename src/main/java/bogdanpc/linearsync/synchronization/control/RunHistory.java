@@ -0,0 +1,167 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.RunRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * The record of every sync run, appended as one JSON line to {@code .synchistory.jsonl} next to the sync state.
+ * <p>
+ * Reading the recent runs only reads the end of the file, so {@code status} answers in the same time however long
+ * the history and however large the state. Once the file grows past {@value #MAX_FILE_BYTES} bytes the older half
+ * is dropped.
+ */
+@ApplicationScoped
+public class RunHistory {
+
+    static final String FILE_NAME = ".synchistory.jsonl";
+    static final long MAX_FILE_BYTES = 4L * 1024 * 1024;
+    // Runs a trend is compared against, besides the latest
+    static final int MIN_TREND_RUNS = 3;
+    private static final int TAIL_BYTES_PER_RUN = 2048;
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public RunHistory(SyncStateRepository stateRepository) {
+        this(stateRepository.getStateFilePath().resolveSibling(FILE_NAME));
+    }
+
+    RunHistory(Path file) {
+        this.file = file;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends the run. A failure is logged, the run it describes is over anyway.
+     */
+    public synchronized void append(RunRecord run) {
+        try {
+            var line = objectMapper.writeValueAsString(run) + "\n";
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (Files.size(file) > MAX_FILE_BYTES) {
+                trim();
+            }
+        } catch (IOException e) {
+            Log.warnf(e, "Failed to record the sync run in %s", file);
+        }
+    }
+
+    /**
+     * Keeps the newer half of the history.
+     */
+    private void trim() throws IOException {
+        List<String> kept;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            kept = tailLines(channel, MAX_FILE_BYTES / 2);
+        }
+        var temporary = Files.createTempFile(file.toAbsolutePath().getParent(), FILE_NAME, ".tmp");
+        Files.write(temporary, kept, StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Log.debugf("Trimmed the sync run history to its %d latest runs", kept.size());
+    }
+
+    /**
+     * The latest runs, oldest first.
+     */
+    public synchronized List<RunRecord> recent(int count) {
+        if (count <= 0 || !Files.exists(file)) {
+            return List.of();
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (long bytes = (long) count * TAIL_BYTES_PER_RUN; ; bytes *= 2) {
+                var runs = parseLatest(tailLines(channel, bytes), count);
+                if (runs.size() >= count || bytes >= channel.size()) {
+                    return runs;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read sync run history: " + file, e);
+        }
+    }
+
+    private List<RunRecord> parseLatest(List<String> lines, int count) {
+        var runs = new ArrayList<RunRecord>(Math.min(count, lines.size()));
+        for (var line = lines.listIterator(lines.size()); line.hasPrevious() && runs.size() < count; ) {
+            try {
+                runs.add(objectMapper.readValue(line.previous(), RunRecord.class));
+            } catch (JsonProcessingException e) {
+                Log.debugf("Skipping unreadable line of the sync run history: %s", e.getOriginalMessage());
+            }
+        }
+        return runs.reversed();
+    }
+
+    /**
+     * The complete lines within the last {@code bytes} bytes of the file.
+     */
+    private static List<String> tailLines(FileChannel channel, long bytes) throws IOException {
+        var size = channel.size();
+        var from = Math.max(0, size - bytes);
+        var buffer = ByteBuffer.allocate(Math.toIntExact(size - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) >= 0) {
+            // read until the buffer is full
+        }
+        var lines = new ArrayList<>(Arrays.asList(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).split("\n")));
+        if (from > 0 && !lines.isEmpty()) {
+            // Most likely cut, and the line is in the history still
+            lines.removeFirst();
+        }
+        lines.removeIf(String::isBlank);
+        return lines;
+    }
+
+    /**
+     * The throughput of the latest run that handled issues relative to the median throughput of the runs before it
+     * in the same mode, e.g. 0.5 when it synced half as many issues per second. Empty until there are
+     * {@value #MIN_TREND_RUNS} runs to compare against.
+     *
+     * @param runs oldest first, as returned by {@link #recent}
+     */
+    public static OptionalDouble throughputTrend(List<RunRecord> runs) {
+        var measured = runs.stream().filter(run -> run.processedIssues() > 0 && run.durationMillis() > 0).toList();
+        if (measured.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        var latest = measured.getLast();
+        var earlier = measured.subList(0, measured.size() - 1).stream()
+                .filter(run -> run.dryRun() == latest.dryRun())
+                .mapToDouble(RunRecord::issuesPerSecond)
+                .sorted()
+                .toArray();
+        if (earlier.length < MIN_TREND_RUNS) {
+            return OptionalDouble.empty();
+        }
+        var middle = earlier.length / 2;
+        var median = earlier.length % 2 == 1 ? earlier[middle] : (earlier[middle - 1] + earlier[middle]) / 2;
+        return OptionalDouble.of(latest.issuesPerSecond() / median);
+    }
+}
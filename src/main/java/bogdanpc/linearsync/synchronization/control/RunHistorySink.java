@@ -0,0 +1,149 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.monitoring.control.ApiCallFilter;
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import bogdanpc.linearsync.synchronization.entity.ResultSink;
+import bogdanpc.linearsync.synchronization.entity.RunRecord;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import io.quarkus.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends a {@link RunRecord} of the run to the {@link RunHistory} when it completes. Keeps only what the record
+ * holds: the slowest issues, the first errors and the API counters at the start of the run, whose growth are the
+ * calls of the run. Runs that neither handled an issue nor failed are not recorded, e.g. idle daemon polls.
+ */
+class RunHistorySink implements ResultSink {
+
+    static final int SLOWEST_ISSUES = 5;
+    static final int KEPT_ERRORS = 10;
+
+    private final RunHistory history;
+    private final Metrics metrics;
+    private final boolean dryRun;
+    private final Map<String, RunRecord.ApiCalls> apiCallsAtStart;
+    private final LongAdder failed = new LongAdder();
+    private final PriorityQueue<RunRecord.SlowIssue> slowest = new PriorityQueue<>(Comparator.comparingLong(RunRecord.SlowIssue::durationMillis));
+    private final List<String> errors = new ArrayList<>();
+
+    RunHistorySink(RunHistory history, Metrics metrics, boolean dryRun) {
+        this.history = history;
+        this.metrics = metrics;
+        this.dryRun = dryRun;
+        this.apiCallsAtStart = apiCalls(metrics);
+    }
+
+    @Override
+    public void issueResult(SyncResult.IssueResult result) {
+        if (!result.success && !"skip".equals(result.action) && !"conflict".equals(result.action)) {
+            failed.increment();
+        }
+        if (!result.success && result.message != null) {
+            keep(result.linearIdentifier + ": " + result.message);
+        }
+        synchronized (slowest) {
+            if (slowest.size() < SLOWEST_ISSUES || result.durationMillis > slowest.peek().durationMillis()) {
+                slowest.add(new RunRecord.SlowIssue(result.linearIdentifier, result.action, result.durationMillis));
+                if (slowest.size() > SLOWEST_ISSUES) {
+                    slowest.poll();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void error(String message) {
+        keep(message);
+    }
+
+    private void keep(String error) {
+        synchronized (errors) {
+            if (errors.size() < KEPT_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    @Override
+    public void completed(SyncResult result) {
+        var issues = new LinkedHashMap<String, Integer>();
+        issues.put("created", result.createdCount());
+        issues.put("updated", result.updatedCount());
+        issues.put("skipped", result.skippedCount());
+        issues.put("pulled", result.pulledCount());
+        issues.put("conflicts", result.conflictCount());
+        issues.put("failed", failed.intValue());
+        if (issues.values().stream().allMatch(count -> count == 0) && result.errorCount() == 0) {
+            Log.debug("Not recording a sync run that handled no issues");
+            return;
+        }
+
+        List<RunRecord.SlowIssue> slowestIssues;
+        synchronized (slowest) {
+            slowestIssues = slowest.stream().sorted(slowest.comparator().reversed()).toList();
+        }
+        List<String> keptErrors;
+        synchronized (errors) {
+            keptErrors = List.copyOf(errors);
+        }
+        history.append(new RunRecord(result.startTime, result.getDurationMillis(), result.success, dryRun, result.deadlineReached,
+                issues, result.errorCount(), keptErrors, callsSince(apiCallsAtStart, apiCalls(metrics)), slowestIssues, result.syncedIssues));
+    }
+
+    /**
+     * The API counters so far by client and endpoint, e.g. {@code jira createIssue}.
+     */
+    static Map<String, RunRecord.ApiCalls> apiCalls(Metrics metrics) {
+        var totals = new TreeMap<String, long[]>();
+        for (var sample : metrics.samples(ApiCallFilter.REQUESTS)) {
+            var total = totals.computeIfAbsent(endpoint(sample), _ -> new long[4]);
+            total[0] += (long) sample.value();
+            if (failed(sample.tags().getOrDefault("status", "0"))) {
+                total[1] += (long) sample.value();
+            }
+        }
+        for (var sample : metrics.samples(ApiCallFilter.REQUEST_BYTES)) {
+            totals.computeIfAbsent(endpoint(sample), _ -> new long[4])[2] += (long) sample.value();
+        }
+        for (var sample : metrics.samples(ApiCallFilter.RESPONSE_BYTES)) {
+            totals.computeIfAbsent(endpoint(sample), _ -> new long[4])[3] += (long) sample.value();
+        }
+        var calls = new TreeMap<String, RunRecord.ApiCalls>();
+        totals.forEach((endpoint, total) -> calls.put(endpoint, new RunRecord.ApiCalls(total[0], total[1], total[2], total[3])));
+        return calls;
+    }
+
+    // An error status, or no response at all
+    private static boolean failed(String status) {
+        return ApiCallFilter.ERROR_STATUS.equals(status) || Integer.parseInt(status) >= 400;
+    }
+
+    /**
+     * The calls made between the two readings of {@link #apiCalls}. Runs overlapping in one process, e.g. the
+     * teams of a daemon, count each other's calls.
+     */
+    static Map<String, RunRecord.ApiCalls> callsSince(Map<String, RunRecord.ApiCalls> start, Map<String, RunRecord.ApiCalls> end) {
+        var calls = new TreeMap<String, RunRecord.ApiCalls>();
+        end.forEach((endpoint, now) -> {
+            var before = start.getOrDefault(endpoint, new RunRecord.ApiCalls(0, 0, 0, 0));
+            var made = new RunRecord.ApiCalls(now.calls() - before.calls(), now.failed() - before.failed(),
+                    now.requestBytes() - before.requestBytes(), now.responseBytes() - before.responseBytes());
+            if (made.calls() > 0 || made.requestBytes() > 0 || made.responseBytes() > 0) {
+                calls.put(endpoint, made);
+            }
+        });
+        return calls;
+    }
+
+    private static String endpoint(Metrics.Sample sample) {
+        return sample.tags().getOrDefault("client", "unknown") + " " + sample.tags().getOrDefault("endpoint", "unknown");
+    }
+}
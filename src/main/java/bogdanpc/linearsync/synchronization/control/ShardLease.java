@@ -0,0 +1,113 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import io.quarkus.logging.Log;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A shard claimed from {@link ShardLeases}, renewed in the background until it is closed. Its state is kept in
+ * {@link #stateDirectory()} through {@link #stateRepository()}; saves check {@link #ensureHeld()} first, so a worker
+ * that lost the shard to another one does not overwrite that worker's state.
+ */
+public final class ShardLease implements AutoCloseable {
+
+    private final ShardLeases leases;
+    private final ShardLeases.Shard shard;
+    private final Path stateDirectory;
+    private final SyncStateRepository stateRepository;
+    private final ScheduledExecutorService renewer;
+    private volatile ShardLeases.Lease lease;
+    private volatile boolean lost;
+    private volatile boolean closed;
+    private volatile Runnable onLost = () -> {};
+
+    ShardLease(ShardLeases leases, ShardLeases.Shard shard, Path stateDirectory, SyncStateRepository stateRepository,
+               ShardLeases.Lease lease, Duration renewInterval) {
+        this.leases = leases;
+        this.shard = shard;
+        this.stateDirectory = stateDirectory;
+        this.stateRepository = stateRepository;
+        this.lease = lease;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("shard-lease-" + shard.name()).factory());
+        var millis = Math.max(1, renewInterval.toMillis());
+        renewer.scheduleWithFixedDelay(this::renew, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public ShardLeases.Shard shard() {
+        return shard;
+    }
+
+    public Path stateDirectory() {
+        return stateDirectory;
+    }
+
+    SyncStateRepository stateRepository() {
+        return stateRepository;
+    }
+
+    public boolean isLost() {
+        return lost;
+    }
+
+    /**
+     * Runs the action once the lease turns out to be lost.
+     */
+    public void onLost(Runnable action) {
+        this.onLost = action;
+    }
+
+    /**
+     * @throws IllegalStateException when the lease expired or was taken over
+     */
+    public void ensureHeld() {
+        if (lost || closed || !Instant.now().isBefore(lease.expiresAt())) {
+            throw new IllegalStateException("Lease on shard " + shard.name() + " is no longer held, not saving its state");
+        }
+    }
+
+    private void renew() {
+        try {
+            var renewed = leases.renew(shard, lease);
+            if (renewed != null) {
+                lease = renewed;
+                return;
+            }
+            Log.errorf("Lease on shard %s was taken over by another worker", shard.name());
+        } catch (RuntimeException e) {
+            if (Instant.now().isBefore(lease.expiresAt())) {
+                Log.warnf(e, "Failed to renew the lease on shard %s, retrying", shard.name());
+                return;
+            }
+            Log.errorf(e, "Lease on shard %s expired while it could not be renewed", shard.name());
+        }
+        lost = true;
+        stopRenewing();
+        onLost.run();
+    }
+
+    void stopRenewing() {
+        renewer.shutdownNow();
+    }
+
+    /**
+     * Stops renewing the lease and releases the shard, unless it was lost already, once the shard's state is no
+     * longer written.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        stopRenewing();
+        stateRepository.shutdown();
+        if (!lost) {
+            leases.release(this, lease);
+        }
+    }
+}
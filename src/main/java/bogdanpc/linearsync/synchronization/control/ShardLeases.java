@@ -0,0 +1,320 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Splits the sync into shards that several workers process side by side, each shard with its own sync state, and
+ * hands the shards out through leases kept in a directory all workers share.
+ * <p>
+ * {@code sync.partition.shards} either lists Linear team keys, one shard per team, or gives a number of shards the
+ * issues are spread over by a hash of their Linear ID. A sub-issue is hashed by its parent's ID, so the usual
+ * two-level hierarchies stay within one shard and get linked; partition by team to keep deeper ones together.
+ * <p>
+ * A shard without a state of its own yet, e.g. when first claimed or after the shards were configured differently,
+ * starts from the issues of the shared state and of the other shards' states. The state does not record an issue's
+ * team or parent, so it takes all of them; the entries of issues it does not own are only read when such an issue
+ * moves into the shard.
+ * <p>
+ * A lease is a small file next to the shard's state directory naming its owner and when it expires. It is only
+ * read and written while holding a lock on a companion lock file, so two workers never claim the same shard. The
+ * owner renews it every third of {@code sync.partition.lease-seconds}; when a worker crashes or hangs, its lease
+ * expires and another worker takes the shard over. The workers' clocks must agree to well within the lease time.
+ */
+@ApplicationScoped
+public class ShardLeases {
+
+    static final String DIRECTORY_NAME = "shards";
+    private static final String LEASE_SUFFIX = ".lease";
+    private static final String LOCK_SUFFIX = ".lock";
+    // File locks are held by the whole process, so its threads take turns through this monitor
+    private static final Object PROCESS_LOCK = new Object();
+
+    public record Shard(String name, String teamKey, int index, int count) {
+
+        /**
+         * Whether the issue is synced by this shard. Team shards fetch their team's issues only.
+         */
+        public boolean owns(LinearIssue linearIssue) {
+            if (teamKey != null) {
+                return linearIssue.team() == null || teamKey.equals(linearIssue.team().key());
+            }
+            var key = linearIssue.parent() != null ? linearIssue.parent().id() : linearIssue.id();
+            return Math.floorMod(key.hashCode(), count) == index;
+        }
+    }
+
+    record Lease(String owner, Instant expiresAt, long generation) {}
+
+    private final ObjectMapper objectMapper;
+    private final SyncStateRepository stateRepository;
+    private final Path directory;
+    private final List<Shard> shards;
+    private final Duration leaseTime;
+    private final String workerId;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final List<ShardLease> held = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public ShardLeases(SyncStateRepository stateRepository,
+                       @ConfigProperty(name = "sync.partition.shards") Optional<String> shards,
+                       @ConfigProperty(name = "sync.partition.lease-seconds", defaultValue = "300") int leaseSeconds,
+                       @ConfigProperty(name = "sync.partition.worker-id") Optional<String> workerId) {
+        this(stateRepository, stateRepository.getStateFilePath().resolveSibling(DIRECTORY_NAME), shards.orElse(""),
+                Duration.ofSeconds(Math.max(3, leaseSeconds)), workerId.filter(id -> !id.isBlank()).orElseGet(ShardLeases::defaultWorkerId));
+    }
+
+    ShardLeases(SyncStateRepository stateRepository, Path directory, String shards, Duration leaseTime, String workerId) {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.stateRepository = stateRepository;
+        this.directory = directory;
+        this.shards = parse(shards);
+        this.leaseTime = leaseTime;
+        this.workerId = workerId;
+    }
+
+    private static List<Shard> parse(String spec) {
+        var value = spec.trim();
+        var shards = new ArrayList<Shard>();
+        if (value.matches("\\d+")) {
+            var count = Integer.parseInt(value);
+            for (int i = 0; i < count; i++) {
+                shards.add(new Shard("hash-%d-of-%d".formatted(i, count), null, i, count));
+            }
+        } else if (!value.isEmpty()) {
+            for (var teamKey : value.split(",")) {
+                if (!teamKey.isBlank()) {
+                    shards.add(new Shard("team-" + teamKey.trim(), teamKey.trim(), shards.size(), 0));
+                }
+            }
+        }
+        return List.copyOf(shards);
+    }
+
+    private static String defaultWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException _) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public List<Shard> shards() {
+        return shards;
+    }
+
+    public String workerId() {
+        return workerId;
+    }
+
+    /**
+     * Claims the first shard that has no lease or whose lease expired. Workers start looking at different shards,
+     * so they rarely compete for the same one.
+     *
+     * @return the lease, empty when every shard is leased by another worker
+     */
+    public Optional<ShardLease> claim() {
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("No shards configured, set sync.partition.shards to team keys or a number of shards");
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create shard lease directory: " + directory, e);
+        }
+
+        var start = Math.floorMod(workerId.hashCode(), shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            var shard = shards.get((start + i) % shards.size());
+            var lease = acquire(shard);
+            if (lease != null) {
+                var stateDirectory = directory.resolve(shard.name());
+                var shardLease = new ShardLease(this, shard, stateDirectory, stateRepository.inDirectory(stateDirectory), lease, leaseTime.dividedBy(3));
+                held.add(shardLease);
+                Log.infof("Claimed shard %s as %s until %s", shard.name(), workerId, lease.expiresAt());
+                try {
+                    seed(shardLease);
+                } catch (RuntimeException e) {
+                    shardLease.close();
+                    throw e;
+                }
+                return Optional.of(shardLease);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Seeds the state of a shard that has none from the shared state and the states of the other shards, including
+     * those of shards no longer configured, so the issues synced before are not created again.
+     */
+    private void seed(ShardLease shardLease) {
+        var others = new ArrayList<SyncStateRepository>();
+        try (var paths = Files.list(directory)) {
+            for (var path : paths.filter(Files::isDirectory).filter(path -> !path.equals(shardLease.stateDirectory())).toList()) {
+                others.add(stateRepository.inDirectory(path));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list the shard states in " + directory, e);
+        }
+
+        try {
+            shardLease.stateRepository().seed(stateRepository, others);
+        } finally {
+            others.forEach(SyncStateRepository::shutdown);
+        }
+    }
+
+    /**
+     * Waits until a shard can be claimed, so a standby worker takes over the shard of a worker that stopped.
+     *
+     * @return the lease, null when stopped while waiting
+     */
+    public ShardLease awaitClaim() {
+        while (stopped.getCount() > 0) {
+            var lease = claim();
+            if (lease.isPresent()) {
+                return lease.get();
+            }
+            var retry = leaseTime.dividedBy(4);
+            Log.infof("All %d shards are leased, retrying in %ds", shards.size(), retry.toSeconds());
+            try {
+                if (stopped.await(retry.toMillis(), TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return null;
+    }
+
+    private Lease acquire(Shard shard) {
+        return locked(shard, current -> {
+            var now = Instant.now();
+            if (current != null && !current.owner().equals(workerId) && current.expiresAt().isAfter(now)) {
+                return null;
+            }
+            if (current != null && !current.owner().equals(workerId)) {
+                Log.warnf("Taking over shard %s from %s, whose lease expired at %s", shard.name(), current.owner(), current.expiresAt());
+            }
+            var lease = new Lease(workerId, now.plus(leaseTime), current != null ? current.generation() + 1 : 1);
+            write(shard, lease);
+            return lease;
+        });
+    }
+
+    /**
+     * @return the renewed lease, null when another worker has taken the shard over
+     */
+    Lease renew(Shard shard, Lease lease) {
+        return locked(shard, current -> {
+            if (current == null || !sameHolder(current, lease)) {
+                return null;
+            }
+            var renewed = new Lease(workerId, Instant.now().plus(leaseTime), lease.generation());
+            write(shard, renewed);
+            return renewed;
+        });
+    }
+
+    void release(ShardLease shardLease, Lease lease) {
+        held.remove(shardLease);
+        var shard = shardLease.shard();
+        locked(shard, current -> {
+            if (current != null && sameHolder(current, lease)) {
+                try {
+                    Files.deleteIfExists(leasePath(shard));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to release lease on shard " + shard.name(), e);
+                }
+                Log.infof("Released shard %s", shard.name());
+            }
+            return null;
+        });
+    }
+
+    private static boolean sameHolder(Lease current, Lease lease) {
+        return current.owner().equals(lease.owner()) && current.generation() == lease.generation();
+    }
+
+    /**
+     * Runs the action on the current lease of the shard while holding the shard's lock file.
+     */
+    private <T> T locked(Shard shard, Function<Lease, T> action) {
+        var lockPath = directory.resolve(shard.name() + LOCK_SUFFIX);
+        synchronized (PROCESS_LOCK) {
+            try (var channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 var _ = channel.lock()) {
+                return action.apply(read(shard));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to lock shard " + shard.name(), e);
+            }
+        }
+    }
+
+    private Lease read(Shard shard) {
+        var path = leasePath(shard);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(path.toFile(), Lease.class);
+        } catch (IOException e) {
+            Log.warnf(e, "Unreadable lease on shard %s, treating it as expired", shard.name());
+            return null;
+        }
+    }
+
+    private void write(Shard shard, Lease lease) {
+        var path = leasePath(shard);
+        try {
+            var temporary = Files.createTempFile(directory, shard.name(), LEASE_SUFFIX + ".tmp");
+            objectMapper.writeValue(temporary.toFile(), lease);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write lease on shard " + shard.name(), e);
+        }
+    }
+
+    private Path leasePath(Shard shard) {
+        return directory.resolve(shard.name() + LEASE_SUFFIX);
+    }
+
+    /**
+     * Stops waiting for a shard and releases the shards still held.
+     */
+    @PreDestroy
+    public void stop() {
+        stopped.countDown();
+        held.forEach(ShardLease::close);
+    }
+}
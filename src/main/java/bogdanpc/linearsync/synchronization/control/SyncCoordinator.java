@@ -1,5 +1,6 @@
 package bogdanpc.linearsync.synchronization.control;
 
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
 import bogdanpc.linearsync.synchronization.entity.SyncState;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -9,14 +10,17 @@ import java.time.Instant;
 @ApplicationScoped
 public class SyncCoordinator {
 
-    private final SyncStateRepository stateRepository;
+    private final SyncStateRepository sharedRepository;
+    private SyncStateRepository stateRepository;
 
     @ConfigProperty(name = "sync.dry-run", defaultValue = "false")
     boolean configDryRun;
 
     private boolean dryRun;
+    private ShardLease lease;
 
     public SyncCoordinator(SyncStateRepository stateRepository) {
+        this.sharedRepository = stateRepository;
         this.stateRepository = stateRepository;
     }
 
@@ -24,6 +28,15 @@ public class SyncCoordinator {
         this.dryRun = dryRun;
     }
 
+    /**
+     * Keeps the state in the leased shard's repository instead of the shared one and makes every save check that
+     * the shard is still leased to this worker.
+     */
+    public void setLease(ShardLease lease) {
+        this.lease = lease;
+        this.stateRepository = lease != null ? lease.stateRepository() : sharedRepository;
+    }
+
     public boolean isDryRun() {
         return dryRun || configDryRun;
     }
@@ -33,19 +46,131 @@ public class SyncCoordinator {
         stateRepository.validateState(state);
 
         if (!isDryRun()) {
+            ensureLease();
             stateRepository.backupState();
         }
 
+        state.compactIssues();
+        return state;
+    }
+
+    /**
+     * Loads the state for a run that only reads it, without taking a backup.
+     */
+    public SyncState readState() {
+        var state = stateRepository.loadState();
+        stateRepository.validateState(state);
         return state;
     }
 
-    public void completeSync(SyncState state, boolean hasChanges) {
-        if (!isDryRun() && hasChanges) {
-            stateRepository.saveState(state);
+    /**
+     * Persists the state and the run's progress so far, without moving {@code lastSyncTime}.
+     * Waits for the issues in flight, so the saved state holds no half-processed issue, and compacts the
+     * issues touched since the last checkpoint while nothing is processed.
+     */
+    public void checkpoint(SyncState state, SyncCheckpoint checkpoint) {
+        if (isDryRun()) {
+            return;
+        }
+
+        state.runExclusively(() -> {
+            ensureLease();
+            state.checkpoint = checkpoint;
+            stateRepository.saveState(state, false);
+            state.compactIssues();
+        });
+        Log.debugf("Checkpointed sync - cursor: %s, watermark: %s, completed after cursor: %d",
+                checkpoint.cursor, checkpoint.watermark, checkpoint.completedIssueIds.size());
+    }
+
+    /**
+     * Persists the issues synced so far without moving the sync times, e.g. after each batch of an applied plan.
+     * Waits for the issues in flight like {@link #checkpoint} and keeps the checkpoint of an interrupted sync.
+     */
+    public void saveProgress(SyncState state) {
+        if (isDryRun()) {
+            return;
+        }
+
+        state.runExclusively(() -> {
+            ensureLease();
+            stateRepository.saveState(state, false);
+            state.compactIssues();
+        });
+    }
+
+    /**
+     * Saves the state after a completed run. A run limited to one team only moves that team's sync time,
+     * since the issues of the other teams were not looked at. The sync time moves to {@code startedAt}, when the
+     * run first fetched from Linear, rather than to now: a resumed run does not fetch the pages before its cursor
+     * again, so issues updated there since are only picked up by the next run. It never moves back behind a later
+     * sync.
+     */
+    public void completeSync(SyncState state, String teamKey, Instant startedAt, boolean hasChanges) {
+        if (!isDryRun() && (hasChanges || state.checkpoint != null)) {
+            ensureLease();
+            state.checkpoint = null;
+            if (teamKey != null) {
+                state.teamSyncTimes.merge(teamKey, startedAt, (synced, started) -> started.isAfter(synced) ? started : synced);
+            } else if (state.lastSyncTime == null || startedAt.isAfter(state.lastSyncTime)) {
+                state.lastSyncTime = startedAt;
+            }
+            stateRepository.saveState(state, false);
+        }
+    }
+
+    /**
+     * Saves the state after applying a plan. The sync time moves to when the plan's issues were fetched rather
+     * than to now, so changes made in Linear between planning and applying are picked up by the next run. It stays
+     * as is when some steps failed, so the next run retries them, and never moves back behind a later sync.
+     */
+    public void completeAppliedPlan(SyncState state, String teamKey, Instant fetchedAt, boolean allApplied) {
+        if (isDryRun()) {
+            return;
+        }
+        ensureLease();
+        state.checkpoint = null;
+        if (!allApplied) {
+            Log.warn("Keeping the last sync time, the failed steps of the plan are retried by the next sync");
+        } else if (teamKey != null) {
+            state.teamSyncTimes.merge(teamKey, fetchedAt, (synced, applied) -> applied.isAfter(synced) ? applied : synced);
+        } else if (state.lastSyncTime == null || fetchedAt.isAfter(state.lastSyncTime)) {
+            state.lastSyncTime = fetchedAt;
+        }
+        stateRepository.saveState(state, false);
+    }
+
+    /**
+     * Saves the state after changes were read back from Jira, with the Jira change feed moved to
+     * {@code scannedFrom}, when the scan that read them started. The Linear sync time is kept.
+     */
+    public void completePull(SyncState state, Instant scannedFrom) {
+        if (isDryRun()) {
+            return;
+        }
+        ensureLease();
+        state.jiraSyncTime = scannedFrom;
+        stateRepository.saveState(state, false);
+    }
+
+    /**
+     * Saves the state after an audit marked drifted issues to be written again.
+     */
+    public void completeAudit(SyncState state) {
+        if (isDryRun()) {
+            return;
+        }
+        ensureLease();
+        stateRepository.saveState(state, false);
+    }
+
+    private void ensureLease() {
+        if (lease != null) {
+            lease.ensureHeld();
         }
     }
 
-    public Instant determineUpdatedAfter(SyncState state, Instant requestedUpdatedAfter, boolean forceFullSync) {
+    public Instant determineUpdatedAfter(SyncState state, String teamKey, Instant requestedUpdatedAfter, boolean forceFullSync) {
         if (forceFullSync) {
             Log.info("Force full sync requested - ignoring update time filters");
             return null;
@@ -56,9 +181,10 @@ public class SyncCoordinator {
             return requestedUpdatedAfter;
         }
 
-        if (state.lastSyncTime != null) {
-            Log.infof("Using last sync time as updated after: %s", state.lastSyncTime);
-            return state.lastSyncTime;
+        var lastSyncTime = state.lastSyncTime(teamKey);
+        if (lastSyncTime != null) {
+            Log.infof("Using last sync time as updated after: %s", lastSyncTime);
+            return lastSyncTime;
         }
 
         Log.info("No previous sync time found - performing full sync");
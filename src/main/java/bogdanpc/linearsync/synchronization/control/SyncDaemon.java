@@ -0,0 +1,112 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs incremental syncs on a schedule within one long-running process, so the REST connection pools,
+ * the cached Jira metadata, the JIT-compiled code and the loaded sync state carry over from one cycle to the
+ * next. Each cycle picks up the issues updated since the previous one and persists only what it changed.
+ * <p>
+ * Every team is polled on its own {@link PollSchedule}: more often while its issues change and less often
+ * while it is quiet, within {@code sync.daemon.min-interval-seconds} and {@code sync.daemon.max-interval-seconds}.
+ */
+@ApplicationScoped
+public class SyncDaemon {
+
+    private final Synchronizer synchronizer;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    @ConfigProperty(name = "sync.daemon.interval-seconds", defaultValue = "120")
+    int configIntervalSeconds;
+
+    @ConfigProperty(name = "sync.daemon.min-interval-seconds", defaultValue = "30")
+    int minIntervalSeconds;
+
+    @ConfigProperty(name = "sync.daemon.max-interval-seconds", defaultValue = "900")
+    int maxIntervalSeconds;
+
+    public SyncDaemon(Synchronizer synchronizer) {
+        this.synchronizer = synchronizer;
+    }
+
+    /**
+     * Syncs the issues of each team on the team's schedule until the application shuts down.
+     *
+     * @param teamKeys        teams polled separately, empty to poll all teams together
+     * @param intervalSeconds fixed seconds between the polls of a team, null to adapt them starting from
+     *                        {@code sync.daemon.interval-seconds}
+     */
+    public void run(List<String> teamKeys, String stateType, Integer intervalSeconds) {
+        var teams = teamKeys.isEmpty() ? Collections.<String>singletonList(null) : teamKeys;
+        PollSchedule schedule;
+        if (intervalSeconds != null) {
+            var interval = Duration.ofSeconds(Math.max(1, intervalSeconds));
+            schedule = new PollSchedule(teams, interval, interval, interval, Instant.now());
+        } else {
+            schedule = new PollSchedule(teams, Duration.ofSeconds(Math.max(1, configIntervalSeconds)),
+                    Duration.ofSeconds(Math.max(1, minIntervalSeconds)), Duration.ofSeconds(Math.max(1, maxIntervalSeconds)), Instant.now());
+        }
+        Log.infof("Sync daemon started - Teams: %s, State: %s, Interval: %s", teamKeys.isEmpty() ? "all" : String.join(", ", teamKeys), stateType,
+                intervalSeconds != null ? intervalSeconds + "s" : "%d-%ds, adaptive".formatted(minIntervalSeconds, maxIntervalSeconds));
+        run(teamKey -> synchronizer.synchronize(teamKey, stateType, null, false), schedule);
+    }
+
+    void run(Function<String, SyncResult> cycle, PollSchedule schedule) {
+        var cycles = 0;
+        while (!isStopped()) {
+            var due = schedule.next();
+            var wait = Duration.between(Instant.now(), due.at());
+            try {
+                if (wait.isPositive() && stopped.await(wait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException _) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            var started = Instant.now();
+            var team = due.teamKey() != null ? due.teamKey() : "all";
+            var changedIssues = 0;
+            cycles++;
+            try {
+                var result = cycle.apply(due.teamKey());
+                // Skipped and failed issues were fetched again without changing, they are no sign of activity
+                changedIssues = result.createdCount() + result.updatedCount();
+                var interval = schedule.completed(due.teamKey(), changedIssues, started);
+                Log.infof("Cycle %d (team %s) %s in %dms - Created: %d, Updated: %d, Skipped: %d, Errors: %d, next in %ds", cycles, team,
+                        result.success ? "done" : "failed", Duration.between(started, Instant.now()).toMillis(),
+                        result.createdCount(), result.updatedCount(), result.skippedCount(), result.errorCount(), interval.toSeconds());
+            } catch (RuntimeException e) {
+                // A failed cycle is retried on the team's next poll, the daemon keeps running
+                var interval = schedule.completed(due.teamKey(), changedIssues, started);
+                Log.errorf(e, "Sync cycle %d (team %s) failed, next in %ds", cycles, team, interval.toSeconds());
+            }
+        }
+        Log.infof("Sync daemon stopped after %d cycles", cycles);
+    }
+
+    private boolean isStopped() {
+        return stopped.getCount() == 0 || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Lets the running cycle finish and ends the daemon instead of waiting for the next one.
+     */
+    @PreDestroy
+    public void stop() {
+        stopped.countDown();
+    }
+}
@@ -0,0 +1,490 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.control.IssueMirror;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a sync as three stages connected by bounded queues:
+ * <ol>
+ *     <li>fetch - one virtual thread pages through Linear,</li>
+ *     <li>transform - platform threads map each issue to its Jira input and field hashes,</li>
+ *     <li>write - virtual threads apply the prepared issues to Jira and the sync state.</li>
+ * </ol>
+ * A full queue blocks the stage feeding it, so a slow Jira tenant holds back the Linear pagination
+ * instead of buffering the whole result set. Items handled, busy time and queue depth of every stage
+ * are logged periodically at debug level and summarized once the run completes.
+ * <p>
+ * New sub-issues whose parent has no Jira issue yet are held back until their parent is written, so they
+ * can be linked even when the parent arrives later in the stream.
+ * <p>
+ * A run with a deadline queues the prepared issues by {@link RankedIssue} value, so the writers always take the
+ * most valuable of the issues fetched ahead of them, up to the queue capacity. Once the
+ * deadline passes no further page is fetched and no further issue is written; the issues in flight are
+ * finished and the rest is left unprocessed for the next run.
+ * <p>
+ * With {@code linear.mirror.record-syncs} enabled each fetched page is also recorded in the {@link IssueMirror}, so
+ * {@code list} and {@code read} serve what the last sync saw without calling Linear. The mirror file is written once
+ * the pipeline has drained; it is read and rewritten as a whole, which is why recording is opt-in. A mirror failure
+ * is logged and does not fail the sync.
+ */
+@ApplicationScoped
+public class SyncPipeline {
+
+    private final IssueOperations linearService;
+    private final IssueMirror issueMirror;
+    private final IssueProcessor issueProcessor;
+    private final HierarchyScheduler hierarchyScheduler;
+    private final Metrics metrics;
+    private final int queueCapacity;
+    private final int transformThreads;
+    private final int reportIntervalSeconds;
+    private final boolean recordMirror;
+
+    public SyncPipeline(IssueOperations linearService, IssueMirror issueMirror, IssueProcessor issueProcessor, HierarchyScheduler hierarchyScheduler, Metrics metrics,
+                        @ConfigProperty(name = "sync.pipeline.queue-capacity", defaultValue = "100") int queueCapacity,
+                        @ConfigProperty(name = "sync.pipeline.transform-threads", defaultValue = "2") int transformThreads,
+                        @ConfigProperty(name = "sync.pipeline.report-interval", defaultValue = "10") int reportIntervalSeconds,
+                        @ConfigProperty(name = "linear.mirror.record-syncs", defaultValue = "false") boolean recordMirror) {
+        this.linearService = linearService;
+        this.issueMirror = issueMirror;
+        this.issueProcessor = issueProcessor;
+        this.hierarchyScheduler = hierarchyScheduler;
+        this.metrics = metrics;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.transformThreads = Math.max(1, transformThreads);
+        this.reportIntervalSeconds = reportIntervalSeconds;
+        this.recordMirror = recordMirror;
+    }
+
+    /**
+     * @param deadline when to stop taking on work, null to process every issue
+     */
+    void run(String teamKey, String stateType, Instant updatedAfter, SyncState state, boolean dryRun, int writers, Instant deadline,
+             SyncResult result, CheckpointTracker checkpoints) {
+        var budget = new Budget(deadline);
+        var fetched = new Stage<LinearIssue>("fetch", queueCapacity, null, metrics);
+        var prepared = new Stage<RankedIssue>("transform", queueCapacity, deadline != null ? Comparator.naturalOrder() : null, metrics);
+        var written = new Stage<Void>("write", 0, null, metrics);
+        var writer = new Writer(state, dryRun, result, written, checkpoints, budget);
+        var transformersLeft = new AtomicInteger(transformThreads);
+        var failure = new AtomicReference<Throwable>();
+        var fetchedAll = new AtomicBoolean();
+        var startedAt = Instant.now();
+
+        Log.debugf("Starting sync pipeline - queue capacity: %d, transform threads: %d, writers: %d", queueCapacity, transformThreads, writers);
+
+        try (var reporter = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("sync-pipeline-report").factory());
+             var fetcher = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("sync-fetch").factory());
+             var transformers = Executors.newFixedThreadPool(transformThreads, Thread.ofPlatform().name("sync-transform-", 0).daemon().factory());
+             var writerPool = Executors.newFixedThreadPool(writers, Thread.ofVirtual().name("sync-writer-", 0).factory())) {
+
+            if (reportIntervalSeconds > 0) {
+                reporter.scheduleAtFixedRate(() -> Log.debugf("Sync pipeline: %s | %s | %s", fetched, prepared, written),
+                        reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+            }
+
+            var stages = List.<ExecutorService>of(fetcher, transformers, writerPool);
+            var tasks = new ArrayList<CompletableFuture<Void>>();
+
+            tasks.add(CompletableFuture.runAsync(() -> {
+                var fromStart = checkpoints.cursor() == null;
+                try {
+                    linearService.streamIssues(teamKey, stateType, updatedAfter, checkpoints.cursor(), (issues, endCursor) -> {
+                        if (budget.exhausted()) {
+                            throw new DeadlineReached();
+                        }
+                        if (recordMirror) {
+                            mirror(() -> issueMirror.record(issues));
+                        }
+                        checkpoints.pageFetched(issues, endCursor).forEach(fetched::put);
+                    });
+                    fetchedAll.set(fromStart && stateType == null);
+                } catch (DeadlineReached _) {
+                    Log.debug("Deadline reached, no further pages are fetched");
+                }
+                fetched.close(transformThreads);
+            }, fetcher));
+
+            for (int i = 0; i < transformThreads; i++) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    for (var linearIssue = fetched.take(); linearIssue != null; linearIssue = fetched.take()) {
+                        if (budget.exhausted()) {
+                            budget.leave();
+                            continue;
+                        }
+                        var issue = linearIssue;
+                        PreparedIssue preparedIssue;
+                        try {
+                            preparedIssue = prepared.timed(() -> issueProcessor.prepare(issue));
+                        } catch (RuntimeException e) {
+                            Log.errorf(e, "Failed to prepare Linear issue %s", issue.identifier());
+                            result.addError("Failed to prepare " + issue.identifier() + ": " + e.getMessage());
+                            checkpoints.issueCompleted(issue.id());
+                            continue;
+                        }
+                        prepared.put(RankedIssue.of(preparedIssue, state));
+                    }
+                    if (transformersLeft.decrementAndGet() == 0) {
+                        prepared.close(writers);
+                    }
+                }, transformers));
+            }
+
+            for (int i = 0; i < writers; i++) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    for (var rankedIssue = prepared.take(); rankedIssue != null; rankedIssue = prepared.take()) {
+                        if (budget.exhausted()) {
+                            budget.leave();
+                        } else if (!writer.deferIfParentPending(rankedIssue.preparedIssue())) {
+                            writer.write(rankedIssue.preparedIssue());
+                        }
+                    }
+                }, writerPool));
+            }
+
+            // The first failing stage stops the others; blocked puts and takes are released by the interrupt
+            tasks.forEach(task -> task.whenComplete((_, e) -> {
+                if (e != null && failure.compareAndSet(null, e instanceof CompletionException ? e.getCause() : e)) {
+                    stages.forEach(ExecutorService::shutdownNow);
+                }
+            }));
+
+            for (var task : tasks) {
+                try {
+                    task.join();
+                } catch (CompletionException e) {
+                    // recorded above
+                }
+            }
+            reporter.shutdownNow();
+        }
+
+        if (recordMirror) {
+            mirror(() -> {
+                if (fetchedAll.get()) {
+                    issueMirror.fetched(teamKey, updatedAfter, startedAt);
+                }
+                issueMirror.save();
+            });
+        }
+
+        if (failure.get() != null) {
+            throw new RuntimeException("Sync pipeline failed", failure.get());
+        }
+
+        var deferred = writer.remainingDeferred();
+        if (!deferred.isEmpty()) {
+            writeDeferred(deferred, writers, writer);
+        }
+
+        Log.infof("Sync pipeline completed - %s | %s | %s", fetched.summary(), prepared.summary(), written.summary());
+        if (budget.reached.get()) {
+            result.deadlineReached = true;
+            result.leftCount = (int) budget.left.sum();
+            Log.infof("Deadline reached - %d fetched issues and any unfetched pages are left for the next run", result.leftCount);
+        }
+    }
+
+    private static void mirror(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            Log.warnf(e, "Failed to update the Linear mirror, continuing the sync");
+        }
+    }
+
+    /**
+     * Writes the sub-issues whose parent was never synced during the run, parents first.
+     */
+    private void writeDeferred(List<PreparedIssue> deferred, int writers, Writer writer) {
+        Log.debugf("Writing %d sub-issues whose parents were not synced during the run", deferred.size());
+
+        var byId = new HashMap<String, PreparedIssue>(deferred.size() * 2);
+        deferred.forEach(preparedIssue -> byId.put(preparedIssue.linearIssue().id(), preparedIssue));
+
+        for (var level : hierarchyScheduler.levels(deferred.stream().map(PreparedIssue::linearIssue).toList())) {
+            var workers = Math.min(writers, level.size());
+            try (var executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("sync-writer-", 0).factory())) {
+                var futures = level.stream()
+                        .map(linearIssue -> executor.submit(() -> writer.writeInBudget(byId.get(linearIssue.id()))))
+                        .toList();
+
+                for (var future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Issue processing failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while processing issues", e);
+            }
+        }
+    }
+
+    /**
+     * The write stage of one run. New sub-issues whose parent has no Jira issue yet are parked by parent
+     * and written right after their parent, so they neither fail to link nor hold back the checkpoint cursor
+     * for the rest of the run. Parking and releasing are serialized, so no child misses its parent.
+     */
+    private final class Writer {
+
+        private final SyncState state;
+        private final boolean dryRun;
+        private final SyncResult result;
+        private final Stage<Void> written;
+        private final CheckpointTracker checkpoints;
+        private final Budget budget;
+        private final Map<String, List<PreparedIssue>> deferredByParent = new HashMap<>();
+
+        Writer(SyncState state, boolean dryRun, SyncResult result, Stage<Void> written, CheckpointTracker checkpoints, Budget budget) {
+            this.state = state;
+            this.dryRun = dryRun;
+            this.result = result;
+            this.written = written;
+            this.checkpoints = checkpoints;
+            this.budget = budget;
+        }
+
+        synchronized boolean deferIfParentPending(PreparedIssue preparedIssue) {
+            var linearIssue = preparedIssue.linearIssue();
+            if (linearIssue.parent() == null
+                    || state.getSyncedIssue(linearIssue.id()) != null
+                    || state.getSyncedIssue(linearIssue.parent().id()) != null) {
+                return false;
+            }
+            deferredByParent.computeIfAbsent(linearIssue.parent().id(), _ -> new ArrayList<>()).add(preparedIssue);
+            return true;
+        }
+
+        void write(PreparedIssue preparedIssue) {
+            var linearIssueId = preparedIssue.linearIssue().id();
+            result.addIssueResult(written.timed(() -> issueProcessor.processIssue(preparedIssue, state, dryRun)));
+            checkpoints.issueCompleted(linearIssueId);
+
+            if (state.getSyncedIssue(linearIssueId) != null) {
+                releaseChildren(linearIssueId).forEach(this::writeInBudget);
+            }
+        }
+
+        void writeInBudget(PreparedIssue preparedIssue) {
+            if (budget.exhausted()) {
+                budget.leave();
+            } else {
+                write(preparedIssue);
+            }
+        }
+
+        private synchronized List<PreparedIssue> releaseChildren(String parentId) {
+            var children = deferredByParent.remove(parentId);
+            return children != null ? children : List.of();
+        }
+
+        synchronized List<PreparedIssue> remainingDeferred() {
+            var remaining = deferredByParent.values().stream().flatMap(List::stream).toList();
+            deferredByParent.clear();
+            return remaining;
+        }
+    }
+
+    /**
+     * The time a run may take on new work, and the issues it had to leave once that time was up.
+     */
+    private static final class Budget {
+
+        private final Instant deadline;
+        private final AtomicBoolean reached = new AtomicBoolean();
+        private final LongAdder left = new LongAdder();
+
+        Budget(Instant deadline) {
+            this.deadline = deadline;
+        }
+
+        boolean exhausted() {
+            if (deadline == null) {
+                return false;
+            }
+            if (reached.get()) {
+                return true;
+            }
+            if (Instant.now().isBefore(deadline)) {
+                return false;
+            }
+            reached.set(true);
+            return true;
+        }
+
+        void leave() {
+            left.increment();
+        }
+    }
+
+    /**
+     * Ends the pagination from within the page consumer once the deadline has passed.
+     */
+    private static final class DeadlineReached extends RuntimeException {
+        DeadlineReached() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A stage's output queue and counters. Poison pills, one per consumer, mark the end of the stream;
+     * {@link #take()} returns null once a consumer has received its pill. A stage with an order hands out its
+     * items by that order; its queue does not block by itself, so {@link #put} waits for one of the
+     * {@code capacity} permits instead. The pills take no permit and still come last.
+     * <p>
+     * Items and busy time also count towards the stage's metrics across runs, and the queue depth is a gauge of
+     * the running stage.
+     */
+    private static final class Stage<T> {
+
+        private static final Object END = new Object();
+
+        private final String name;
+        private final int capacity;
+        private final BlockingQueue<Object> queue;
+        private final Semaphore space;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private final long startNanos = System.nanoTime();
+        private final Metrics.Counter itemsMetric;
+        private final Metrics.Counter busyMetric;
+
+        @SuppressWarnings("unchecked")
+        Stage(String name, int capacity, Comparator<T> order, Metrics metrics) {
+            this.name = name;
+            this.capacity = capacity;
+            this.itemsMetric = metrics.counter("sync_stage_items_total", "Issues handed on by a sync pipeline stage", "stage", name);
+            this.busyMetric = metrics.counter("sync_stage_busy_seconds_total", "Time a sync pipeline stage spent working on issues", "stage", name);
+            if (order != null) {
+                this.queue = new PriorityBlockingQueue<>(Math.min(capacity, 64), (a, b) -> a == END || b == END
+                        ? Boolean.compare(a == END, b == END)
+                        : order.compare((T) a, (T) b));
+                this.space = new Semaphore(capacity);
+            } else {
+                this.queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : null;
+                this.space = null;
+            }
+            if (queue != null) {
+                metrics.gauge("sync_stage_queue_depth", "Issues waiting in the output queue of a sync pipeline stage", () -> Math.max(0, queue.size()), "stage", name);
+                metrics.gauge("sync_stage_queue_max_depth", "Deepest output queue of a sync pipeline stage in the last run", maxDepth::get, "stage", name);
+            }
+        }
+
+        void put(T item) {
+            items.increment();
+            itemsMetric.increment();
+            if (space != null) {
+                try {
+                    space.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while feeding the " + name + " stage", e);
+                }
+            }
+            enqueue(item);
+            maxDepth.accumulateAndGet(queue.size(), Math::max);
+        }
+
+        void close(int consumers) {
+            for (int i = 0; i < consumers; i++) {
+                enqueue(END);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T take() {
+            try {
+                var item = queue.take();
+                if (item == END) {
+                    return null;
+                }
+                if (space != null) {
+                    space.release();
+                }
+                return (T) item;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the " + name + " stage", e);
+            }
+        }
+
+        /**
+         * Runs work done on behalf of the items of this stage, counting it as busy time.
+         */
+        <R> R timed(Supplier<R> work) {
+            var start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                var nanos = System.nanoTime() - start;
+                busyNanos.add(nanos);
+                busyMetric.add(nanos / 1e9);
+                if (queue == null) {
+                    items.increment();
+                    itemsMetric.increment();
+                }
+            }
+        }
+
+        private void enqueue(Object item) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while feeding the " + name + " stage", e);
+            }
+        }
+
+        String summary() {
+            var seconds = Math.max(1, System.nanoTime() - startNanos) / 1e9;
+            var summary = String.format("%s: %d issues, %.1f/s", name, items.sum(), items.sum() / seconds);
+            if (busyNanos.sum() > 0) {
+                summary += String.format(", busy %d ms", TimeUnit.NANOSECONDS.toMillis(busyNanos.sum()));
+            }
+            return queue != null ? summary + String.format(", max queue %d%s", maxDepth.get(), bound()) : summary;
+        }
+
+        private String bound() {
+            return capacity > 0 ? "/" + capacity : "";
+        }
+
+        @Override
+        public String toString() {
+            return queue != null
+                    ? String.format("%s %d (queue %d%s)", name, items.sum(), queue.size(), bound())
+                    : String.format("%s %d", name, items.sum());
+        }
+    }
+}
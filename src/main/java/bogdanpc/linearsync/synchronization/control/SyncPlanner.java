@@ -0,0 +1,264 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncPlan;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Splits a sync into planning and applying. {@link #plan} fetches the issues from Linear and writes the Jira
+ * operations they need to a file, without calling Jira; {@link #apply} executes such a file later.
+ * <p>
+ * Applying checks every step against the state again, so issues synced in between are updated or skipped rather
+ * than created twice. New issues are created level by level of their hierarchy in bulk requests of up to
+ * {@code sync.plan.batch-size} issues, then the updates run on {@code sync.parallelism} threads. The state is saved
+ * after every bulk request and every {@code sync.checkpoint.interval-issues} updates, so a failed apply does not
+ * lose the issues it created.
+ */
+@ApplicationScoped
+public class SyncPlanner {
+
+    // Jira's limit for a bulk create
+    static final int MAX_BATCH_SIZE = 50;
+    private static final String CREATE_OPERATION = "create";
+
+    private final IssueOperations linearService;
+    private final SyncCoordinator syncCoordinator;
+    private final IssueProcessor issueProcessor;
+    private final HierarchyScheduler hierarchyScheduler;
+    private final Synchronizer synchronizer;
+    private final ObjectMapper objectMapper;
+    private final long callMillis;
+    private final int batchSize;
+    private final int checkpointIntervalIssues;
+
+    @Inject
+    public SyncPlanner(IssueOperations linearService, SyncCoordinator syncCoordinator, IssueProcessor issueProcessor,
+                       HierarchyScheduler hierarchyScheduler, Synchronizer synchronizer,
+                       @ConfigProperty(name = "sync.plan.call-millis", defaultValue = "250") long callMillis,
+                       @ConfigProperty(name = "sync.plan.batch-size", defaultValue = "50") int batchSize,
+                       @ConfigProperty(name = "sync.checkpoint.interval-issues", defaultValue = "100") int checkpointIntervalIssues) {
+        this.linearService = linearService;
+        this.syncCoordinator = syncCoordinator;
+        this.issueProcessor = issueProcessor;
+        this.hierarchyScheduler = hierarchyScheduler;
+        this.synchronizer = synchronizer;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.callMillis = Math.max(0, callMillis);
+        this.batchSize = Math.clamp(batchSize, 1, MAX_BATCH_SIZE);
+        this.checkpointIntervalIssues = Math.max(1, checkpointIntervalIssues);
+    }
+
+    /**
+     * Fetches the issues a sync with these filters would process and writes the plan for them to the file.
+     * Neither Jira nor the sync state is changed.
+     */
+    public SyncPlan plan(String teamKey, String stateType, Instant updatedAfter, boolean forceFullSync, Path planFile) {
+        var state = syncCoordinator.readState();
+        var effectiveUpdatedAfter = syncCoordinator.determineUpdatedAfter(state, teamKey, updatedAfter, forceFullSync);
+
+        var plan = new SyncPlan();
+        plan.createdAt = Instant.now();
+        plan.teamKey = teamKey;
+        plan.stateType = stateType;
+        plan.updatedAfter = effectiveUpdatedAfter;
+
+        Log.infof("Planning synchronization - Team: %s, State: %s, UpdatedAfter: %s", teamKey, stateType, effectiveUpdatedAfter);
+        linearService.streamIssues(teamKey, stateType, effectiveUpdatedAfter, null, (issues, _) -> {
+            for (var linearIssue : issues) {
+                var step = issueProcessor.plan(issueProcessor.prepare(linearIssue), state);
+                if (step != null) {
+                    plan.steps.add(step);
+                } else {
+                    plan.unchangedCount++;
+                }
+            }
+        });
+        plan.estimate = estimate(plan.steps);
+
+        write(plan, planFile);
+        Log.infof("Wrote plan with %d creates and %d updates to %s", plan.count(SyncPlan.Action.CREATE), plan.count(SyncPlan.Action.UPDATE), planFile);
+        return plan;
+    }
+
+    /**
+     * Creates are batched, so they count as one call per batch. Their follow-up calls run one issue after the
+     * other, while the updates are spread over the parallel writers.
+     */
+    SyncPlan.Estimate estimate(List<SyncPlan.Step> steps) {
+        var callsByOperation = new LinkedHashMap<String, Integer>();
+        var createFollowUps = 0;
+        var updateCalls = 0;
+        var creates = 0;
+        long payloadBytes = 0;
+
+        for (var step : steps) {
+            var stepCalls = 0;
+            for (var calls : step.calls().entrySet()) {
+                if (!calls.getKey().equals(CREATE_OPERATION)) {
+                    callsByOperation.merge(calls.getKey(), calls.getValue(), Integer::sum);
+                    stepCalls += calls.getValue();
+                }
+            }
+            if (step.action() == SyncPlan.Action.CREATE) {
+                creates++;
+                createFollowUps += stepCalls;
+            } else {
+                updateCalls += stepCalls;
+            }
+            payloadBytes += size(step);
+        }
+
+        var bulkCalls = (creates + batchSize - 1) / batchSize;
+        if (bulkCalls > 0) {
+            callsByOperation.put(CREATE_OPERATION, bulkCalls);
+        }
+        var apiCalls = bulkCalls + createFollowUps + updateCalls;
+        var expectedMillis = (bulkCalls + createFollowUps) * callMillis + updateCalls * callMillis / synchronizer.getParallelism();
+        return new SyncPlan.Estimate(apiCalls, callsByOperation, payloadBytes, expectedMillis);
+    }
+
+    private long size(SyncPlan.Step step) {
+        try {
+            return objectMapper.writeValueAsBytes(step.payload()).length;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize payload of " + step.linearIdentifier(), e);
+        }
+    }
+
+    /**
+     * Executes the plan in the file against the current sync state. Fails in dry-run mode, {@link #plan} already
+     * shows what applying would do.
+     */
+    public SyncResult apply(Path planFile) {
+        var result = synchronizer.startResult();
+        SyncState state = null;
+
+        try {
+            if (syncCoordinator.isDryRun()) {
+                throw new IllegalStateException("A plan cannot be applied in dry-run mode, unset sync.dry-run to apply it");
+            }
+            var plan = read(planFile);
+            Log.infof("Applying plan created %s - Team: %s, Creates: %d, Updates: %d, Parallelism: %d",
+                    plan.createdAt, plan.teamKey, plan.count(SyncPlan.Action.CREATE), plan.count(SyncPlan.Action.UPDATE), synchronizer.getParallelism());
+
+            state = syncCoordinator.prepareSync();
+
+            var creates = new LinkedHashMap<String, PreparedIssue>();
+            var updates = new ArrayList<PreparedIssue>();
+            for (var step : plan.steps) {
+                var preparedIssue = new PreparedIssue(step.linearIssue(), step.payload(), step.fieldHashes());
+                if (step.action() == SyncPlan.Action.CREATE) {
+                    creates.put(step.linearIssue().id(), preparedIssue);
+                } else {
+                    updates.add(preparedIssue);
+                }
+            }
+
+            for (var level : hierarchyScheduler.levels(creates.values().stream().map(PreparedIssue::linearIssue).toList())) {
+                var levelIssues = level.stream().map(linearIssue -> creates.get(linearIssue.id())).toList();
+                for (int from = 0; from < levelIssues.size(); from += batchSize) {
+                    issueProcessor.createIssues(levelIssues.subList(from, Math.min(from + batchSize, levelIssues.size())), state, batchSize)
+                            .forEach(result::addIssueResult);
+                    syncCoordinator.saveProgress(state);
+                }
+            }
+            update(updates, state, result);
+
+            syncCoordinator.completeAppliedPlan(state, plan.teamKey, plan.createdAt, result.errorCount() == 0);
+
+            result.syncedIssues = state.issueCount();
+            result.endTime = Instant.now();
+            result.success = true;
+            Log.infof("Plan applied - Created: %d, Updated: %d, Skipped: %d, Errors: %d",
+                    result.createdCount(), result.updatedCount(), result.skippedCount(), result.errorCount());
+
+        } catch (Exception e) {
+            Log.errorf(e, "Applying the plan failed");
+            if (state != null) {
+                saveProgressAfterFailure(state);
+            }
+            result.endTime = Instant.now();
+            result.success = false;
+            result.addError("Applying the plan failed: " + e.getMessage());
+        }
+
+        result.complete();
+        return result;
+    }
+
+    /**
+     * Keeps the issues written before the failure, so applying the plan again does not create them twice.
+     */
+    private void saveProgressAfterFailure(SyncState state) {
+        try {
+            syncCoordinator.saveProgress(state);
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Failed to save the issues written before the failure");
+        }
+    }
+
+    private void update(List<PreparedIssue> updates, SyncState state, SyncResult result) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        var workers = Math.min(synchronizer.getParallelism(), updates.size());
+        try (var executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("sync-writer-", 0).factory())) {
+            for (int from = 0; from < updates.size(); from += checkpointIntervalIssues) {
+                var futures = updates.subList(from, Math.min(from + checkpointIntervalIssues, updates.size())).stream()
+                        .map(preparedIssue -> executor.submit(() -> result.addIssueResult(issueProcessor.processIssue(preparedIssue, state, false))))
+                        .toList();
+
+                for (var future : futures) {
+                    future.get();
+                }
+                syncCoordinator.saveProgress(state);
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Issue processing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while processing issues", e);
+        }
+    }
+
+    private void write(SyncPlan plan, Path planFile) {
+        try {
+            var parent = planFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            var temporary = Files.createTempFile(parent, planFile.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temporary.toFile(), plan);
+            Files.move(temporary, planFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write plan: " + planFile, e);
+        }
+    }
+
+    SyncPlan read(Path planFile) {
+        try {
+            return objectMapper.readValue(planFile.toFile(), SyncPlan.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read plan: " + planFile, e);
+        }
+    }
+}
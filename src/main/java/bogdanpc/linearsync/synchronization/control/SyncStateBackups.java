@@ -0,0 +1,403 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Incremental backups of the sync state files.
+ * <p>
+ * Files are cut into content-defined chunks that are stored once, gzip-compressed, in {@code .syncstate.backups}.
+ * A backup is a small manifest next to the state files listing the chunks of every file, so it only writes the
+ * chunks that did not exist yet: a snapshot that was not replaced since the previous backup is taken over as is,
+ * an append-only file is only read from its last chunk on once the chunk before it is found unchanged, and anything
+ * else is read but mostly deduplicated.
+ * The backups are kept in a catalog, oldest first, which is all that rotation reads.
+ */
+class SyncStateBackups {
+
+    /**
+     * How a state file changes, which decides how much of it a backup has to read.
+     */
+    enum Layout {
+        /** Only ever replaced by a new file, so unchanged metadata means unchanged content. */
+        REPLACED,
+        /** Only ever appended to while it exists under its name. */
+        APPENDED,
+        /** Rewritten in place, e.g. through a memory mapping whose modification time is not reliable. */
+        IN_PLACE
+    }
+
+    record Manifest(Instant createdAt, List<FileEntry> files) {}
+
+    record FileEntry(String name, long size, long modified, String fileKey, List<Chunk> chunks) {}
+
+    record Chunk(String hash, int length) {}
+
+    record Catalog(List<String> backups) {}
+
+    static final String DIRECTORY_NAME = ".syncstate.backups";
+    private static final String CATALOG_FILE_NAME = "catalog.json";
+    private static final String BACKUP_SUFFIX = ".backup.";
+    private static final String CHUNK_SUFFIX = ".gz";
+    // Not the prefix of any state file, so deleting the current state leaves the extracted files alone
+    private static final String RESTORE_PREFIX = ".syncstate-restore.";
+    private static final int MIN_CHUNK_BYTES = 16 * 1024;
+    private static final int MAX_CHUNK_BYTES = 256 * 1024;
+    // 16 bits of the rolling hash cut chunks of 64KB on average above the minimum
+    private static final long BOUNDARY_MASK = 0xFFFFL << 48;
+    private static final long[] GEAR = new SplittableRandom(0x53594E43L).longs(256).toArray();
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Path chunkDirectory;
+    private final Path catalogPath;
+    private final int maxBackups;
+
+    SyncStateBackups(ObjectMapper objectMapper, Path stateDirectory, int maxBackups) {
+        this.objectMapper = objectMapper;
+        this.directory = stateDirectory;
+        this.chunkDirectory = stateDirectory.resolve(DIRECTORY_NAME);
+        this.catalogPath = chunkDirectory.resolve(CATALOG_FILE_NAME);
+        this.maxBackups = maxBackups;
+    }
+
+    /**
+     * Backs up the existing ones of the given files and drops the backups beyond the configured number.
+     *
+     * @param primaryName name of the main state file, which the backup is named after
+     * @return the name of the new backup
+     */
+    String backup(String primaryName, Map<Path, Layout> files) throws IOException {
+        Files.createDirectories(chunkDirectory);
+        var catalog = new ArrayList<>(readCatalog().backups());
+        var previous = new HashMap<String, FileEntry>();
+        if (!catalog.isEmpty() && Files.exists(directory.resolve(catalog.getLast()))) {
+            for (var file : readManifest(catalog.getLast()).files()) {
+                previous.put(file.name(), file);
+            }
+        }
+
+        var progress = new Progress();
+        var entries = new ArrayList<FileEntry>();
+        for (var file : files.entrySet()) {
+            if (Files.exists(file.getKey())) {
+                entries.add(backupFile(file.getKey(), file.getValue(), previous.get(file.getKey().getFileName().toString()), progress));
+            }
+        }
+
+        var timestamp = System.currentTimeMillis();
+        while (Files.exists(directory.resolve(primaryName + BACKUP_SUFFIX + timestamp))) {
+            timestamp++;
+        }
+        var name = primaryName + BACKUP_SUFFIX + timestamp;
+        writeAtomically(directory.resolve(name), objectMapper.writeValueAsBytes(new Manifest(Instant.ofEpochMilli(timestamp), entries)));
+        catalog.add(name);
+        prune(catalog);
+
+        Log.debugf("Backup %s: %d of %d chunks written (%d bytes compressed)", name, progress.written, progress.chunks, progress.writtenBytes);
+        return name;
+    }
+
+    private FileEntry backupFile(Path path, Layout layout, FileEntry previous, Progress progress) throws IOException {
+        var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        var fileKey = attributes.fileKey() != null ? attributes.fileKey().toString() : null;
+        var modified = attributes.lastModifiedTime().toMillis();
+        var sameFile = previous != null && fileKey != null && fileKey.equals(previous.fileKey());
+
+        if (sameFile && layout == Layout.REPLACED && attributes.size() == previous.size() && modified == previous.modified()) {
+            progress.chunks += previous.chunks().size();
+            return new FileEntry(previous.name(), previous.size(), modified, fileKey, previous.chunks());
+        }
+
+        var chunks = new ArrayList<Chunk>();
+        var offset = 0L;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (sameFile && layout == Layout.APPENDED && attributes.size() >= previous.size() && previous.chunks().size() > 1) {
+                // A boundary only depends on the bytes since the previous one, so everything before the start of
+                // the last chunk is cut exactly as before. A journal recreated after a snapshot may get the file
+                // key of the one it replaces though, so the last chunk taken over is read again to be sure
+                var reused = previous.chunks().subList(0, previous.chunks().size() - 1);
+                var end = reused.stream().mapToLong(Chunk::length).sum();
+                if (holds(channel, end, reused.getLast())) {
+                    chunks.addAll(reused);
+                    offset = end;
+                    progress.chunks += chunks.size();
+                } else {
+                    Log.debugf("%s was replaced since the previous backup, reading it whole", path.getFileName());
+                }
+            }
+            channel.position(offset);
+            offset += cut(new BufferedInputStream(Channels.newInputStream(channel)), chunks, progress);
+        }
+        return new FileEntry(path.getFileName().toString(), offset, modified, fileKey, chunks);
+    }
+
+    /**
+     * Whether the bytes of the file ending at {@code end} are still those of the chunk.
+     */
+    private static boolean holds(FileChannel channel, long end, Chunk chunk) throws IOException {
+        var buffer = ByteBuffer.allocate(chunk.length());
+        var start = end - chunk.length();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return hash(buffer.array(), chunk.length()).equals(chunk.hash());
+    }
+
+    /**
+     * Cuts the stream into chunks where a gear rolling hash matches the boundary mask, within the minimum and
+     * maximum chunk size, and stores the ones not stored yet. Returns the number of bytes read.
+     */
+    private long cut(InputStream in, List<Chunk> chunks, Progress progress) throws IOException {
+        var chunk = new byte[MAX_CHUNK_BYTES];
+        var block = new byte[64 * 1024];
+        var length = 0;
+        var hash = 0L;
+        var total = 0L;
+        for (int read = in.read(block); read > 0; read = in.read(block)) {
+            total += read;
+            for (int i = 0; i < read; i++) {
+                chunk[length++] = block[i];
+                hash = (hash << 1) + GEAR[block[i] & 0xFF];
+                if (length == MAX_CHUNK_BYTES || length >= MIN_CHUNK_BYTES && (hash & BOUNDARY_MASK) == 0) {
+                    chunks.add(store(chunk, length, progress));
+                    length = 0;
+                    hash = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            chunks.add(store(chunk, length, progress));
+        }
+        return total;
+    }
+
+    private Chunk store(byte[] bytes, int length, Progress progress) throws IOException {
+        var hash = hash(bytes, length);
+        var path = chunkPath(hash);
+        progress.chunks++;
+        if (!Files.exists(path)) {
+            var temporary = Files.createTempFile(chunkDirectory, hash, ".tmp");
+            try {
+                try (var out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                    out.write(bytes, 0, length);
+                }
+                force(temporary);
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            progress.written++;
+            progress.writtenBytes += Files.size(path);
+        }
+        return new Chunk(hash, length);
+    }
+
+    /**
+     * Removes the oldest backups beyond the configured number and the chunks only they referenced.
+     * The catalog is written first, so an interruption leaves unreferenced chunks at worst.
+     */
+    private void prune(List<String> catalog) throws IOException {
+        var expired = new ArrayList<String>();
+        while (catalog.size() > maxBackups) {
+            expired.add(catalog.removeFirst());
+        }
+        writeAtomically(catalogPath, objectMapper.writeValueAsBytes(new Catalog(catalog)));
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        var referenced = new HashSet<String>();
+        for (var name : catalog) {
+            if (Files.exists(directory.resolve(name))) {
+                readManifest(name).files().forEach(file -> file.chunks().forEach(chunk -> referenced.add(chunk.hash())));
+            }
+        }
+        for (var name : expired) {
+            var manifestPath = directory.resolve(name);
+            if (!Files.exists(manifestPath)) {
+                continue;
+            }
+            for (var file : readManifest(name).files()) {
+                for (var chunk : file.chunks()) {
+                    if (referenced.add(chunk.hash())) {
+                        Files.deleteIfExists(chunkPath(chunk.hash()));
+                    }
+                }
+            }
+            Files.delete(manifestPath);
+            Log.debugf("Deleted old backup: %s", manifestPath);
+        }
+    }
+
+    /**
+     * The backups that can be restored, newest first.
+     */
+    List<String> list() throws IOException {
+        var names = new ArrayList<String>();
+        for (var name : readCatalog().backups()) {
+            if (Files.exists(directory.resolve(name))) {
+                names.addFirst(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Finds a backup by its name or its timestamp, or the latest one when none is given. A file named like a
+     * backup of a single file from before backups were incremental is accepted by its name.
+     *
+     * @throws IllegalArgumentException when there is no such backup
+     */
+    String resolve(String backup) throws IOException {
+        var backups = list();
+        if (backup == null || backup.isBlank()) {
+            if (backups.isEmpty()) {
+                throw new IllegalArgumentException("No sync state backups found in " + directory);
+            }
+            return backups.getFirst();
+        }
+        for (var name : backups) {
+            if (name.equals(backup) || name.endsWith(BACKUP_SUFFIX + backup)) {
+                return name;
+            }
+        }
+        if (backup.contains(BACKUP_SUFFIX) && Files.isRegularFile(directory.resolve(backup))) {
+            return backup;
+        }
+        throw new IllegalArgumentException("No sync state backup found: " + backup);
+    }
+
+    /**
+     * Writes the files of a backup next to the state files under temporary names, ready to be moved over them.
+     * For a single-file backup, every backup of the {@code legacyNames} with the same timestamp is included.
+     *
+     * @return the temporary files mapped to the state files they restore
+     */
+    Map<Path, Path> extract(String name, List<String> legacyNames) throws IOException {
+        var restored = new LinkedHashMap<Path, Path>();
+        try {
+            if (readCatalog().backups().contains(name)) {
+                for (var file : readManifest(name).files()) {
+                    var temporary = Files.createTempFile(directory, RESTORE_PREFIX, ".tmp");
+                    restored.put(temporary, directory.resolve(file.name()));
+                    try (var out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                        for (var chunk : file.chunks()) {
+                            try (var in = new GZIPInputStream(Files.newInputStream(chunkPath(chunk.hash())))) {
+                                in.transferTo(out);
+                            }
+                        }
+                    }
+                    if (Files.size(temporary) != file.size()) {
+                        throw new IOException("Backup " + name + " holds an incomplete copy of " + file.name());
+                    }
+                    force(temporary);
+                }
+                return restored;
+            }
+
+            var timestamp = name.substring(name.lastIndexOf(BACKUP_SUFFIX) + BACKUP_SUFFIX.length());
+            for (var original : legacyNames) {
+                var backup = directory.resolve(original + BACKUP_SUFFIX + timestamp);
+                if (Files.exists(backup)) {
+                    var temporary = Files.createTempFile(directory, RESTORE_PREFIX, ".tmp");
+                    restored.put(temporary, directory.resolve(original));
+                    Files.copy(backup, temporary, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (restored.isEmpty()) {
+                throw new IOException("Not a sync state backup: " + name);
+            }
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            discard(restored.keySet());
+            throw e;
+        }
+    }
+
+    static void discard(Iterable<Path> temporaryFiles) {
+        for (var temporary : temporaryFiles) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                Log.warnf(e, "Failed to delete temporary file: %s", temporary);
+            }
+        }
+    }
+
+    private Catalog readCatalog() throws IOException {
+        return Files.exists(catalogPath) ? objectMapper.readValue(catalogPath.toFile(), Catalog.class) : new Catalog(List.of());
+    }
+
+    private Manifest readManifest(String name) throws IOException {
+        return objectMapper.readValue(directory.resolve(name).toFile(), Manifest.class);
+    }
+
+    private Path chunkPath(String hash) {
+        return chunkDirectory.resolve(hash + CHUNK_SUFFIX);
+    }
+
+    private void writeAtomically(Path target, byte[] bytes) throws IOException {
+        var temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, bytes);
+            force(temporary);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static void force(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static String hash(byte[] bytes, int length) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes, 0, length);
+            return HEX.formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Progress {
+        int chunks;
+        int written;
+        long writtenBytes;
+    }
+}
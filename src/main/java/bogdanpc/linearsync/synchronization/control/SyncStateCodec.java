@@ -0,0 +1,420 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Versioned binary encoding of the sync state, written and read one issue at a time.
+ * <p>
+ * Numbers are unsigned LEB128 varints and timestamps are epoch milliseconds, so sub-millisecond precision is
+ * dropped. Canonical UUIDs take 16 bytes. A Jira key is stored as a reference to its project prefix plus the
+ * issue number, and field names the same way; each dictionary entry is written inline the first time it is
+ * used, so nothing has to be collected up front. Values that do not fit a compact form, such as a non-UUID
+ * ID, fall back to a plain string. The rarely present checkpoint is embedded as JSON.
+ */
+class SyncStateCodec {
+
+    static final int MAGIC = 0x4C4A5353;
+    static final int FORMAT_VERSION = 3;
+
+    private static final Pattern JIRA_KEY = Pattern.compile("([A-Z][A-Z0-9_]*)-(0|[1-9][0-9]{0,17})");
+    private static final Pattern NUMBER = Pattern.compile("0|[1-9][0-9]{0,17}");
+    private static final Pattern HEX = Pattern.compile("(?:[0-9a-f]{2})+");
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+    private static final SyncState.SyncStatus[] STATUSES = SyncState.SyncStatus.values();
+
+    private final ObjectMapper objectMapper;
+
+    SyncStateCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Tells whether the stream starts like an encoded state. Needs a stream supporting mark and reset.
+     */
+    static boolean isEncoded(InputStream in) throws IOException {
+        in.mark(Integer.BYTES);
+        try {
+            var magic = 0;
+            for (int i = 0; i < Integer.BYTES; i++) {
+                var b = in.read();
+                if (b < 0) {
+                    return false;
+                }
+                magic = magic << 8 | b;
+            }
+            return magic == MAGIC;
+        } finally {
+            in.reset();
+        }
+    }
+
+    void write(SyncState state, OutputStream out) throws IOException {
+        var writer = new Writer(out);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(MAGIC >>> shift);
+        }
+        writer.varLong(FORMAT_VERSION);
+        writer.instant(state.lastSyncTime);
+        writer.string(state.version);
+        writer.string(state.checkpoint != null ? objectMapper.writeValueAsString(state.checkpoint) : null);
+        writer.varLong(state.teamSyncTimes.size());
+        for (var teamSyncTime : state.teamSyncTimes.entrySet()) {
+            writer.string(teamSyncTime.getKey());
+            writer.instant(teamSyncTime.getValue());
+        }
+        writer.instant(state.jiraSyncTime);
+
+        for (var syncedIssue : state.allSyncedIssues()) {
+            out.write(1);
+            writer.issue(syncedIssue);
+        }
+        out.write(0);
+    }
+
+    SyncState read(InputStream in) throws IOException {
+        var reader = new Reader(in);
+        var magic = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            magic = magic << 8 | reader.unsignedByte();
+        }
+        if (magic != MAGIC) {
+            throw new IOException("Not an encoded sync state");
+        }
+        var version = reader.varLong();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported sync state format version: " + version);
+        }
+
+        var state = new SyncState();
+        state.lastSyncTime = reader.instant();
+        state.version = reader.string();
+        var checkpoint = reader.string();
+        state.checkpoint = checkpoint != null ? objectMapper.readValue(checkpoint, SyncCheckpoint.class) : null;
+        // Version 1 had no team sync times
+        for (long teams = version > 1 ? reader.varLong() : 0; teams > 0; teams--) {
+            state.teamSyncTimes.put(reader.string(), reader.instant());
+        }
+        // Versions before 3 had no Jira change feed
+        state.jiraSyncTime = version > 2 ? reader.instant() : null;
+
+        while (reader.unsignedByte() != 0) {
+            var syncedIssue = reader.issue();
+            state.syncedIssues.put(syncedIssue.linearIssueId, syncedIssue);
+        }
+        return state;
+    }
+
+    private static final class Writer {
+        private final OutputStream out;
+        private final Map<String, Integer> jiraProjects = new HashMap<>();
+        private final Map<String, Integer> fieldNames = new HashMap<>();
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void issue(SyncState.SyncedIssue syncedIssue) throws IOException {
+            uuid(syncedIssue.linearIssueId);
+            jiraKey(syncedIssue.jiraIssueKey);
+            number(syncedIssue.jiraIssueId);
+            jiraKey(syncedIssue.jiraParentKey);
+            instant(syncedIssue.lastSyncTime);
+            instant(syncedIssue.linearUpdatedAt);
+            instant(syncedIssue.jiraUpdatedAt);
+            out.write(syncedIssue.status != null ? syncedIssue.status.ordinal() + 1 : 0);
+
+            var attachments = syncedIssue.syncedAttachments != null ? syncedIssue.syncedAttachments : List.<String>of();
+            varLong(attachments.size());
+            for (var attachmentId : attachments) {
+                uuid(attachmentId);
+            }
+
+            var hashes = syncedIssue.fieldHashes != null ? syncedIssue.fieldHashes : Map.<String, String>of();
+            varLong(hashes.size());
+            for (var hash : hashes.entrySet()) {
+                dictionaryEntry(fieldNames, hash.getKey());
+                hex(hash.getValue());
+            }
+        }
+
+        void uuid(String value) throws IOException {
+            if (value == null) {
+                out.write(0);
+                return;
+            }
+            var uuid = parseUuid(value);
+            if (uuid == null) {
+                out.write(2);
+                string(value);
+                return;
+            }
+            out.write(1);
+            fixedLong(uuid.getMostSignificantBits());
+            fixedLong(uuid.getLeastSignificantBits());
+        }
+
+        void jiraKey(String value) throws IOException {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            var matcher = JIRA_KEY.matcher(value);
+            if (!matcher.matches()) {
+                varLong(1);
+                string(value);
+                return;
+            }
+            var project = matcher.group(1);
+            var index = jiraProjects.get(project);
+            if (index == null) {
+                jiraProjects.put(project, jiraProjects.size());
+                varLong(2);
+                string(project);
+            } else {
+                varLong(index + 3L);
+            }
+            varLong(Long.parseLong(matcher.group(2)));
+        }
+
+        void number(String value) throws IOException {
+            if (value == null) {
+                varLong(0);
+            } else if (NUMBER.matcher(value).matches()) {
+                varLong(Long.parseLong(value) + 2);
+            } else {
+                varLong(1);
+                string(value);
+            }
+        }
+
+        void dictionaryEntry(Map<String, Integer> dictionary, String value) throws IOException {
+            var index = dictionary.get(value);
+            if (index == null) {
+                dictionary.put(value, dictionary.size());
+                varLong(0);
+                string(value);
+            } else {
+                varLong(index + 1L);
+            }
+        }
+
+        void hex(String value) throws IOException {
+            if (HEX.matcher(value).matches()) {
+                var bytes = HEX_FORMAT.parseHex(value);
+                varLong((long) bytes.length << 1 | 1);
+                out.write(bytes);
+            } else {
+                var bytes = value.getBytes(StandardCharsets.UTF_8);
+                varLong((long) bytes.length << 1);
+                out.write(bytes);
+            }
+        }
+
+        void instant(Instant value) throws IOException {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            var millis = value.toEpochMilli();
+            varLong(((millis << 1) ^ (millis >> 63)) + 1);
+        }
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            out.write(bytes);
+        }
+
+        void varLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private void fixedLong(long value) throws IOException {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+
+        private static UUID parseUuid(String value) {
+            if (value.length() != 36) {
+                return null;
+            }
+            try {
+                var uuid = UUID.fromString(value);
+                return uuid.toString().equals(value) ? uuid : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final InputStream in;
+        private final List<String> jiraProjects = new ArrayList<>();
+        private final List<String> fieldNames = new ArrayList<>();
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        SyncState.SyncedIssue issue() throws IOException {
+            var syncedIssue = new SyncState.SyncedIssue();
+            syncedIssue.linearIssueId = uuid();
+            syncedIssue.jiraIssueKey = jiraKey();
+            syncedIssue.jiraIssueId = number();
+            syncedIssue.jiraParentKey = jiraKey();
+            syncedIssue.lastSyncTime = instant();
+            syncedIssue.linearUpdatedAt = instant();
+            syncedIssue.jiraUpdatedAt = instant();
+            var status = unsignedByte();
+            syncedIssue.status = status > 0 ? STATUSES[status - 1] : null;
+
+            var attachments = (int) varLong();
+            syncedIssue.syncedAttachments = new HashSet<>(Math.max(16, attachments * 2));
+            for (int i = 0; i < attachments; i++) {
+                syncedIssue.syncedAttachments.add(uuid());
+            }
+
+            var hashes = (int) varLong();
+            syncedIssue.fieldHashes = new HashMap<>(Math.max(16, hashes * 2));
+            for (int i = 0; i < hashes; i++) {
+                var fieldName = dictionaryEntry(fieldNames);
+                syncedIssue.fieldHashes.put(fieldName, hex());
+            }
+            return syncedIssue;
+        }
+
+        String uuid() throws IOException {
+            return switch (unsignedByte()) {
+                case 0 -> null;
+                case 1 -> new UUID(fixedLong(), fixedLong()).toString();
+                case 2 -> string();
+                default -> throw new IOException("Corrupt sync state: invalid ID tag");
+            };
+        }
+
+        String jiraKey() throws IOException {
+            var tag = varLong();
+            if (tag == 0) {
+                return null;
+            }
+            if (tag == 1) {
+                return string();
+            }
+            String project;
+            if (tag == 2) {
+                project = string();
+                jiraProjects.add(project);
+            } else {
+                project = lookup(jiraProjects, tag - 3);
+            }
+            return project + "-" + varLong();
+        }
+
+        String number() throws IOException {
+            var value = varLong();
+            if (value == 0) {
+                return null;
+            }
+            return value == 1 ? string() : Long.toString(value - 2);
+        }
+
+        String dictionaryEntry(List<String> dictionary) throws IOException {
+            var tag = varLong();
+            if (tag == 0) {
+                var value = string();
+                dictionary.add(value);
+                return value;
+            }
+            return lookup(dictionary, tag - 1);
+        }
+
+        String hex() throws IOException {
+            var header = varLong();
+            var bytes = bytes((int) (header >>> 1));
+            return (header & 1) != 0 ? HEX_FORMAT.formatHex(bytes) : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Instant instant() throws IOException {
+            var value = varLong();
+            if (value == 0) {
+                return null;
+            }
+            var zigzag = value - 1;
+            return Instant.ofEpochMilli((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+
+        String string() throws IOException {
+            var length = varLong();
+            return length == 0 ? null : new String(bytes((int) (length - 1)), StandardCharsets.UTF_8);
+        }
+
+        long varLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                var b = unsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt sync state: varint too long");
+        }
+
+        int unsignedByte() throws IOException {
+            var b = in.read();
+            if (b < 0) {
+                throw new EOFException("Sync state ended unexpectedly");
+            }
+            return b;
+        }
+
+        private long fixedLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = value << 8 | unsignedByte();
+            }
+            return value;
+        }
+
+        private byte[] bytes(int length) throws IOException {
+            var bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException("Sync state ended unexpectedly");
+            }
+            return bytes;
+        }
+
+        private static String lookup(List<String> dictionary, long index) throws IOException {
+            if (index < 0 || index >= dictionary.size()) {
+                throw new IOException("Corrupt sync state: unknown dictionary entry " + index);
+            }
+            return dictionary.get((int) index);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of sync state mutations, one JSON object per line. Every entry carries the complete
+ * new value of what it changes, so replaying a journal more than once over the same snapshot is harmless.
+ */
+class SyncStateJournal {
+
+    static final String PUT = "put";
+    static final String REMOVE = "remove";
+    static final String META = "meta";
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(String op, String id, SyncState.SyncedIssue issue, Meta meta) {}
+
+    record Meta(
+            @JsonInclude(JsonInclude.Include.ALWAYS) Instant lastSyncTime,
+            @JsonInclude(JsonInclude.Include.ALWAYS) SyncCheckpoint checkpoint,
+            Map<String, Instant> teamSyncTimes,
+            Instant jiraSyncTime
+    ) {}
+
+    private final ObjectMapper objectMapper;
+
+    SyncStateJournal(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Entries bringing a journal replay up to date with the given changes of the state.
+     */
+    static List<Entry> entriesFor(SyncState state, Iterable<String> changedIssueIds) {
+        var entries = new ArrayList<Entry>();
+        for (var linearIssueId : changedIssueIds) {
+            var syncedIssue = state.getSyncedIssue(linearIssueId);
+            entries.add(syncedIssue != null
+                    ? new Entry(PUT, linearIssueId, syncedIssue, null)
+                    : new Entry(REMOVE, linearIssueId, null, null));
+        }
+        entries.add(new Entry(META, null, null, new Meta(state.lastSyncTime, state.checkpoint, Map.copyOf(state.teamSyncTimes), state.jiraSyncTime)));
+        return entries;
+    }
+
+    /**
+     * Appends the entries and forces them to disk once for the whole batch.
+     */
+    void append(Path journal, List<Entry> entries) throws IOException {
+        var lines = new StringBuilder();
+        for (var entry : entries) {
+            lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+
+        try (var channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Applies the entries of a journal to the state and returns how many were applied. A line that cannot be
+     * parsed, typically the last one of an append cut short by a crash, is skipped.
+     */
+    int replay(Path journal, SyncState state) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+
+        var applied = 0;
+        try (var lines = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            for (var line = lines.readLine(); line != null; line = lines.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (IOException e) {
+                    Log.warnf("Skipping unreadable entry in sync state journal %s: %s", journal, e.getMessage());
+                    continue;
+                }
+                apply(entry, state);
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Entry entry, SyncState state) {
+        switch (entry.op()) {
+            case PUT -> state.syncedIssues.put(entry.id(), entry.issue());
+            case REMOVE -> state.syncedIssues.remove(entry.id());
+            case META -> {
+                state.lastSyncTime = entry.meta().lastSyncTime();
+                state.checkpoint = entry.meta().checkpoint();
+                // Absent from entries written before teams were synced separately
+                if (entry.meta().teamSyncTimes() != null) {
+                    state.teamSyncTimes.clear();
+                    state.teamSyncTimes.putAll(entry.meta().teamSyncTimes());
+                }
+                if (entry.meta().jiraSyncTime() != null) {
+                    state.jiraSyncTime = entry.meta().jiraSyncTime();
+                }
+            }
+            default -> Log.warnf("Skipping unknown sync state journal entry: %s", entry.op());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.Jira;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.synchronization.entity.StateRebuildResult;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Reconstructs a lost or corrupted sync state from Jira instead of re-creating every issue.
+ * <p>
+ * Linear issues are listed with a slim query and resolved to Jira keys in bulk through the
+ * Linear ID custom field. Restored entries carry no {@code linearUpdatedAt} and the state is
+ * saved without a last sync time, so the next sync revisits every restored issue as an update.
+ */
+@ApplicationScoped
+public class SyncStateRebuilder {
+
+    private final IssueOperations linearService;
+    private final Jira jira;
+    private final SyncCoordinator syncCoordinator;
+    private final SyncStateRepository stateRepository;
+
+    public SyncStateRebuilder(IssueOperations linearService, Jira jira, SyncCoordinator syncCoordinator, SyncStateRepository stateRepository) {
+        this.linearService = linearService;
+        this.jira = jira;
+        this.syncCoordinator = syncCoordinator;
+        this.stateRepository = stateRepository;
+    }
+
+    public StateRebuildResult rebuild(String teamKey) {
+        var startTime = System.currentTimeMillis();
+        var dryRun = syncCoordinator.isDryRun();
+        Log.infof("Rebuilding sync state from Jira - Team: %s, DryRun: %s", teamKey != null ? teamKey : "all", dryRun);
+
+        var state = syncCoordinator.prepareSync();
+
+        var linearIssues = linearService.getIssueReferences(teamKey);
+        var untrackedIds = linearIssues.stream()
+                .map(LinearIssue::id)
+                .filter(id -> !state.isIssueAlreadySynced(id))
+                .distinct()
+                .toList();
+        Log.infof("Found %d Linear issues, %d not tracked in sync state", linearIssues.size(), untrackedIds.size());
+
+        var jiraIssues = jira.findIssuesBySourceIds(untrackedIds);
+
+        for (var linearIssue : linearIssues) {
+            var jiraIssue = jiraIssues.get(linearIssue.id());
+            if (jiraIssue != null && !state.isIssueAlreadySynced(linearIssue.id())) {
+                state.addSyncedIssue(linearIssue.id(), jiraIssue.key(), jiraIssue.id());
+                Log.debugf("Restored mapping %s -> %s", linearIssue.identifier(), jiraIssue.key());
+            }
+        }
+
+        var restored = jiraIssues.size();
+        if (dryRun) {
+            Log.infof("[DRY RUN] Would restore %d issue mappings", restored);
+        } else if (restored > 0) {
+            state.lastSyncTime = null;
+            state.teamSyncTimes.clear();
+            stateRepository.saveState(state, false);
+        }
+
+        return new StateRebuildResult(
+                linearIssues.size(),
+                linearIssues.size() - untrackedIds.size(),
+                restored,
+                untrackedIds.size() - restored,
+                System.currentTimeMillis() - startTime);
+    }
+}
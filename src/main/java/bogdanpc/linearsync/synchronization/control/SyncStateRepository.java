@@ -1,40 +1,142 @@
 package bogdanpc.linearsync.synchronization.control;
 
+import bogdanpc.linearsync.monitoring.control.Metrics;
 import bogdanpc.linearsync.synchronization.entity.SyncState;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.time.Instant;
-import java.util.Comparator;
-import java.util.HashMap;
-
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stores the sync state as a snapshot plus an append-only journal.
+ * <p>
+ * Saving the state that was loaded from this repository only appends the entries of the issues changed since
+ * the last save to the journal. Once the journal holds {@code sync.storage.journal.compact-after} entries it is
+ * sealed and folded into a new snapshot in the background, from the files alone, while new saves go to a fresh
+ * journal. Loading reads the snapshot and replays the sealed and the current journal on top of it.
+ * <p>
+ * With {@code sync.storage.format=indexed} the issues are kept in an {@link IndexedStateStore} instead and the
+ * loaded state reads them on demand, so runs touching a few issues do not pay for loading all of them. The
+ * remaining fields go to a small metadata file. An existing snapshot is migrated into the index on first load.
+ * <p>
+ * With {@code sync.storage.format=binary} the snapshot is written with the {@link SyncStateCodec} to
+ * {@code .syncstate.bin}; an existing JSON snapshot is converted on first load. Snapshots of either encoding
+ * are recognized when read.
+ * <p>
+ * Backups are incremental, see {@link SyncStateBackups}, and {@link #restoreBackup} puts one back in place.
+ * <p>
+ * A long-running process loading the state again gets the instance it loaded before, as long as the snapshot
+ * and journals are still the files this repository last read or wrote.
+ */
 @ApplicationScoped
 public class SyncStateRepository {
 
     private static final String STATE_FILE_NAME = ".syncstate.json";
+    private static final String BINARY_STATE_FILE_NAME = ".syncstate.bin";
+    private static final String JOURNAL_FILE_NAME = ".syncstate.journal";
+    private static final String INDEX_FILE_NAME = ".syncstate.idx";
+    private static final String META_FILE_NAME = ".syncstate.meta.json";
     private static final String APP_NAME = "linear-jira-sync";
+    private static final int DEFAULT_COMPACT_AFTER = 5000;
 
     private final ObjectMapper objectMapper;
+    private final SyncStateJournal journal;
+    private final SyncStateCodec codec;
+    private final SyncStateBackups backups;
     private final Path stateFilePath;
+    private final Path journalPath;
+    private final Path sealedJournalPath;
+    private final int compactAfter;
+    private final boolean indexed;
+    private final boolean binary;
+    private final Path jsonStatePath;
+    private final Path indexPath;
+    private final Path metaPath;
     private final int maxBackups;
+    private final String format;
+    private final Metrics metrics;
+    private final Metrics.Timer loadTimer;
+    private final Metrics.Timer saveTimer;
+
+    private final Object files = new Object();
+    private SyncState journaledState;
+    private volatile List<FileStamp> journaledStamp;
+    private int journalEntries;
+    private ExecutorService compactor;
+    private Future<?> compaction;
+    private IndexedStateStore store;
+
+    public SyncStateRepository(String storageLocation, int maxBackups) {
+        this(storageLocation, maxBackups, DEFAULT_COMPACT_AFTER, "json");
+    }
 
-    public SyncStateRepository(@ConfigProperty(name = "sync.storage.location") String storageLocation, @ConfigProperty(name = "sync.storage.max-backups", defaultValue = "5") int maxBackups) {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.maxBackups = maxBackups;
-        this.stateFilePath = resolveStateFilePath(storageLocation);
-        Log.infof("Using state file location: %s", stateFilePath);
+    public SyncStateRepository(String storageLocation, int maxBackups, int compactAfter, String format) {
+        this(storageLocation, maxBackups, compactAfter, format, new Metrics());
     }
 
-    private static boolean isBackupPath(Path p) {
-        return p.getFileName().toString().startsWith(STATE_FILE_NAME + ".backup");
+    @Inject
+    public SyncStateRepository(@ConfigProperty(name = "sync.storage.location") String storageLocation, @ConfigProperty(name = "sync.storage.max-backups", defaultValue = "5") int maxBackups,
+                               @ConfigProperty(name = "sync.storage.journal.compact-after", defaultValue = "5000") int compactAfter,
+                               @ConfigProperty(name = "sync.storage.format", defaultValue = "json") String format,
+                               Metrics metrics) {
+        this.maxBackups = maxBackups;
+        this.format = format;
+        this.metrics = metrics;
+        this.loadTimer = metrics.timer("sync_state_load_duration_seconds", "Time to load the sync state, including journal replay");
+        this.saveTimer = metrics.timer("sync_state_save_duration_seconds", "Time to save the sync state");
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.journal = new SyncStateJournal(objectMapper);
+        this.codec = new SyncStateCodec(objectMapper);
+        this.compactAfter = Math.max(1, compactAfter);
+        switch (format.toLowerCase()) {
+            case "json" -> {
+                this.indexed = false;
+                this.binary = false;
+            }
+            case "binary" -> {
+                this.indexed = false;
+                this.binary = true;
+            }
+            case "indexed" -> {
+                this.indexed = true;
+                this.binary = false;
+            }
+            default -> throw new IllegalArgumentException("Unknown sync state storage format: " + format);
+        }
+        this.jsonStatePath = resolveStateFilePath(storageLocation);
+        this.stateFilePath = binary ? jsonStatePath.resolveSibling(BINARY_STATE_FILE_NAME) : jsonStatePath;
+        this.journalPath = stateFilePath.resolveSibling(JOURNAL_FILE_NAME);
+        this.sealedJournalPath = stateFilePath.resolveSibling(JOURNAL_FILE_NAME + ".sealed");
+        this.indexPath = stateFilePath.resolveSibling(INDEX_FILE_NAME);
+        this.metaPath = stateFilePath.resolveSibling(META_FILE_NAME);
+        this.backups = new SyncStateBackups(objectMapper, stateFilePath.getParent(), maxBackups);
+        Log.infof("Using state file location: %s", indexed ? indexPath : stateFilePath);
     }
 
     private Path resolveStateFilePath(String storageLocation) {
@@ -50,34 +152,169 @@ public class SyncStateRepository {
         return Paths.get(System.getProperty("user.home"), "." + APP_NAME);
     }
 
-    public SyncState loadState() {
+    /**
+     * A repository keeping its state in the given directory, e.g. that of a shard, with the same settings.
+     */
+    SyncStateRepository inDirectory(Path directory) {
+        return new SyncStateRepository(directory.toString(), maxBackups, compactAfter, format, metrics);
+    }
+
+    private record FileStamp(Object fileKey, long size, FileTime modified) {}
+
+    public synchronized SyncState loadState() {
+        return loadTimer.time(() -> load());
+    }
+
+    private SyncState load() {
+        if (indexed) {
+            return loadIndexedState();
+        }
+        if (journaledState != null && stamp().equals(journaledStamp)) {
+            Log.debugf("Reusing the loaded sync state with %d synced issues, last sync: %s", journaledState.issueCount(), journaledState.lastSyncTime);
+            return journaledState;
+        }
         Log.debugf("Loading sync state from: %s", stateFilePath);
 
-        if (!Files.exists(stateFilePath)) {
+        if (binary && !Files.exists(stateFilePath) && Files.exists(jsonStatePath)) {
+            migrateToBinary();
+        }
+
+        if (!Files.exists(stateFilePath) && !Files.exists(journalPath) && !Files.exists(sealedJournalPath)) {
             Log.info("No existing sync state file found, creating new state");
+            journaledState = null;
             return createNewState();
         }
 
         try {
-            var content = Files.readString(stateFilePath);
-            var state = objectMapper.readValue(content, SyncState.class);
-            Log.infof("Loaded sync state with %d synced issues, last sync: %s", state.syncedIssues.size(), state.lastSyncTime);
+            var state = readJournaledState();
+            journaledState = state;
+            journaledStamp = stamp();
+            Log.infof("Loaded sync state with %d synced issues, last sync: %s", state.issueCount(), state.lastSyncTime);
+            if (journalEntries > 0) {
+                Log.debugf("Replayed %d sync state journal entries", journalEntries);
+            }
             return state;
         } catch (IOException e) {
             Log.errorf(e, "Failed to load sync state from: %s", stateFilePath);
             Log.warn("Creating new sync state due to load failure");
+            journaledState = null;
             return createNewState();
         }
     }
 
-    public void saveState(SyncState state) {
-        Log.debugf("Saving sync state to: %s", stateFilePath);
+    private SyncState readJournaledState() throws IOException {
+        SyncState state;
+        // A compaction finishing in between must not swap the snapshot after it was read but before the sealed journal is
+        synchronized (files) {
+            state = Files.exists(stateFilePath) ? readSnapshot() : new SyncState();
+            journal.replay(sealedJournalPath, state);
+        }
+        journalEntries = journal.replay(journalPath, state);
+        return state;
+    }
+
+    private SyncState readSnapshot() throws IOException {
+        try (var in = new BufferedInputStream(Files.newInputStream(stateFilePath))) {
+            return SyncStateCodec.isEncoded(in) ? codec.read(in) : objectMapper.readValue(in, SyncState.class);
+        }
+    }
 
+    /**
+     * Converts the JSON snapshot to the binary encoding and keeps it as a backup. The journals hold the same
+     * entries for both and stay in place.
+     */
+    private void migrateToBinary() {
         try {
-            // Update the last sync time before saving
-            state.updateLastSyncTime();
+            awaitCompaction();
+            SyncState legacy;
+            try (var in = new BufferedInputStream(Files.newInputStream(jsonStatePath))) {
+                legacy = objectMapper.readValue(in, SyncState.class);
+            }
+            writeSnapshot(legacy);
+            Files.move(jsonStatePath, Paths.get(jsonStatePath + ".backup." + System.currentTimeMillis()));
+            Log.infof("Migrated %d synced issues from %s to %s", legacy.syncedIssues.size(), jsonStatePath, stateFilePath);
+        } catch (IOException e) {
+            Log.errorf(e, "Failed to migrate sync state from: %s", jsonStatePath);
+        }
+    }
+
+    private SyncState loadIndexedState() {
+        Log.debugf("Loading sync state from: %s", indexPath);
+
+        try {
+            var migrate = !IndexedStateStore.exists(indexPath)
+                    && (Files.exists(stateFilePath) || Files.exists(journalPath) || Files.exists(sealedJournalPath));
+            var issues = openStore();
+            if (migrate) {
+                migrateToIndex(issues);
+            }
 
-            var json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(state);
+            SyncState state;
+            if (Files.exists(metaPath)) {
+                state = objectMapper.readValue(metaPath.toFile(), SyncState.class);
+                Log.infof("Opened indexed sync state with %d synced issues, last sync: %s", issues.size(), state.lastSyncTime);
+            } else {
+                Log.info("No existing sync state file found, creating new state");
+                state = createNewState();
+            }
+            state.attachIssueSource(issues);
+            journaledState = state;
+            return state;
+        } catch (IOException | RuntimeException e) {
+            Log.errorf(e, "Failed to load sync state from: %s", indexPath);
+            Log.warn("Creating new sync state due to load failure");
+            journaledState = null;
+            return createNewState();
+        }
+    }
+
+    /**
+     * Imports the snapshot and journals into the index and replaces them with a backup.
+     */
+    private void migrateToIndex(IndexedStateStore issues) throws IOException {
+        awaitCompaction();
+        var legacy = readJournaledState();
+        issues.replaceAll(legacy.allSyncedIssues(), legacy.issueCount());
+        writeMeta(legacy);
+
+        backups.backup(stateFilePath.getFileName().toString(), snapshotFiles());
+        Files.deleteIfExists(sealedJournalPath);
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(stateFilePath);
+        journalEntries = 0;
+        Log.infof("Migrated %d synced issues from %s to the indexed state store", legacy.syncedIssues.size(), stateFilePath);
+    }
+
+    private IndexedStateStore openStore() throws IOException {
+        if (store == null) {
+            Files.createDirectories(indexPath.getParent());
+            store = IndexedStateStore.open(indexPath, objectMapper);
+        }
+        return store;
+    }
+
+    public void saveState(SyncState state) {
+        saveState(state, true);
+    }
+
+    /**
+     * Appends the issues changed since the last save to the journal when the state is the one loaded from
+     * this repository, and writes a full snapshot otherwise.
+     *
+     * @param updateLastSyncTime false keeps {@code lastSyncTime} as is, e.g. when the saved state
+     *                           does not reflect a completed sync and the next run must not skip ahead
+     */
+    public synchronized void saveState(SyncState state, boolean updateLastSyncTime) {
+        saveTimer.time(() -> save(state, updateLastSyncTime));
+    }
+
+    private void save(SyncState state, boolean updateLastSyncTime) {
+        Log.debugf("Saving sync state to: %s", indexed ? indexPath : stateFilePath);
+
+        try {
+            if (updateLastSyncTime) {
+                state.updateLastSyncTime();
+            }
 
             // Create parent directories if they don't exist
             var parentDir = stateFilePath.getParent();
@@ -85,8 +322,33 @@ public class SyncStateRepository {
                 Files.createDirectories(parentDir);
             }
 
-            Files.writeString(stateFilePath, json);
-            Log.infof("Saved sync state with %d synced issues", state.syncedIssues.size());
+            if (indexed) {
+                saveIndexedState(state);
+                return;
+            }
+
+            if (state == journaledState && Files.exists(stateFilePath)) {
+                var entries = SyncStateJournal.entriesFor(state, state.drainChangedIssueIds());
+                journal.append(journalPath, entries);
+                journalEntries += entries.size();
+                journaledStamp = stamp();
+                Log.infof("Saved sync state with %d synced issues (%d changed)", state.issueCount(), entries.size() - 1);
+
+                if (journalEntries >= compactAfter) {
+                    startCompaction();
+                }
+                return;
+            }
+
+            awaitCompaction();
+            state.drainChangedIssueIds();
+            writeSnapshot(state);
+            Files.deleteIfExists(sealedJournalPath);
+            Files.deleteIfExists(journalPath);
+            journaledState = state;
+            journaledStamp = stamp();
+            journalEntries = 0;
+            Log.infof("Saved sync state with %d synced issues", state.issueCount());
 
         } catch (IOException e) {
             Log.errorf(e, "Failed to save sync state to: %s", stateFilePath);
@@ -94,70 +356,357 @@ public class SyncStateRepository {
         }
     }
 
-    public void backupState() {
-        if (!Files.exists(stateFilePath)) {
-            Log.debug("No state file to backup");
+    /**
+     * Writes the issues changed since the last save to the index when the state is the one loaded from this
+     * repository, and replaces the whole index otherwise. The metadata file is rewritten last.
+     */
+    private void saveIndexedState(SyncState state) throws IOException {
+        var issues = openStore();
+        var changed = state.drainChangedIssueIds();
+        if (state == journaledState) {
+            var changedIssues = new ArrayList<SyncState.SyncedIssue>(changed.size());
+            for (var linearIssueId : changed) {
+                var syncedIssue = state.syncedIssues.get(linearIssueId);
+                if (syncedIssue != null) {
+                    changedIssues.add(syncedIssue);
+                } else {
+                    issues.remove(linearIssueId);
+                }
+            }
+            issues.putAll(changedIssues);
+            writeMeta(state);
+            Log.infof("Saved sync state with %d synced issues (%d changed)", issues.size(), changed.size());
             return;
         }
 
-        try {
-            var backupPath = Paths.get(stateFilePath + ".backup." + System.currentTimeMillis());
-            Files.copy(stateFilePath, backupPath);
-            Log.infof("Created backup of sync state at: %s", backupPath);
+        issues.replaceAll(state.allSyncedIssues(), state.issueCount());
+        writeMeta(state);
+        journaledState = state;
+        Log.infof("Saved sync state with %d synced issues", issues.size());
+    }
+
+    private void writeMeta(SyncState state) throws IOException {
+        var meta = new SyncState();
+        meta.lastSyncTime = state.lastSyncTime;
+        meta.version = state.version;
+        meta.checkpoint = state.checkpoint;
+        meta.teamSyncTimes = state.teamSyncTimes;
+        meta.jiraSyncTime = state.jiraSyncTime;
+        Files.move(writeTemporaryFile(metaPath, meta, false), metaPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Seals the current journal and folds it into the snapshot on a background thread.
+     * A sealed journal left over by an interrupted compaction is folded first.
+     */
+    private void startCompaction() throws IOException {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
 
-            // Rotate old backups to prevent unlimited growth
-            rotateBackups();
+        if (!Files.exists(sealedJournalPath)) {
+            Files.move(journalPath, sealedJournalPath, StandardCopyOption.ATOMIC_MOVE);
+            journalEntries = 0;
+        }
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("sync-state-compactor").factory());
+        }
+        compaction = compactor.submit(this::compact);
+    }
+
+    private void compact() {
+        try {
+            var snapshot = Files.exists(stateFilePath) ? readSnapshot() : new SyncState();
+            var folded = journal.replay(sealedJournalPath, snapshot);
+            var compacted = writeTemporaryFile(stateFilePath, snapshot, binary);
+
+            synchronized (files) {
+                Files.move(compacted, stateFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                Files.deleteIfExists(sealedJournalPath);
+                // The files changed but still hold the loaded state
+                journaledStamp = stamp();
+            }
+            Log.debugf("Compacted %d sync state journal entries into %s", folded, stateFilePath);
         } catch (IOException e) {
-            Log.errorf(e, "Failed to create backup of sync state");
+            // The sealed journal stays and is replayed on load until a later compaction succeeds
+            Log.warnf(e, "Failed to compact the sync state journal");
         }
     }
 
-    private void rotateBackups() {
-        var backupDir = stateFilePath.getParent();
-        if (backupDir == null || !Files.exists(backupDir)) {
+    /**
+     * Waits for a running compaction, so the snapshot and journals can be rewritten or removed safely.
+     */
+    synchronized void awaitCompaction() {
+        if (compaction == null) {
             return;
         }
+        try {
+            compaction.get();
+        } catch (ExecutionException e) {
+            Log.warnf(e.getCause(), "Sync state compaction failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for sync state compaction", e);
+        } finally {
+            compaction = null;
+        }
+    }
 
-        try (var backups = Files.list(backupDir)) {
-            var sortedBackups = backups.filter(SyncStateRepository::isBackupPath)
-                    .sorted(Comparator.reverseOrder()).toList();
+    @PreDestroy
+    void shutdown() {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = compactor;
+            compactor = null;
+            closeStore();
+        }
+        if (executor != null) {
+            executor.close();
+        }
+    }
 
-            if (sortedBackups.size() <= maxBackups) {
-                return;
+    private void closeStore() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            Log.warnf(e, "Failed to close the indexed sync state store");
+        }
+        store = null;
+    }
+
+    /**
+     * Identity, size and modification time of the snapshot and journals, to tell whether they are still the
+     * files this repository last read or wrote.
+     */
+    private List<FileStamp> stamp() {
+        var stamp = new ArrayList<FileStamp>();
+        for (var path : List.of(stateFilePath, sealedJournalPath, journalPath)) {
+            try {
+                var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                stamp.add(new FileStamp(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime()));
+            } catch (IOException _) {
+                stamp.add(null);
+            }
+        }
+        return stamp;
+    }
+
+    private void writeSnapshot(SyncState state) throws IOException {
+        Files.move(writeTemporaryFile(stateFilePath, state, binary), stateFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the state to a temporary file next to the target and forces it to disk, ready to be moved
+     * over the target atomically. The snapshot file is never modified in place.
+     */
+    private Path writeTemporaryFile(Path target, SyncState state, boolean encoded) throws IOException {
+        var temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                if (encoded) {
+                    codec.write(state, out);
+                } else {
+                    out.write(objectMapper.writeValueAsBytes(state));
+                }
+            }
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            return temporary;
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the state, while there is none, from the issues of the given repositories, so the issues synced
+     * through them are not created again. An issue found in several gets its most recently synced entry. The sync
+     * times are taken from {@code base} only, which covered all issues up to then; without it the first sync goes
+     * over every issue.
+     *
+     * @return whether any issues were seeded
+     */
+    synchronized boolean seed(SyncStateRepository base, List<SyncStateRepository> others) {
+        if (stateFileExists()) {
+            return false;
+        }
+
+        var seeded = new SyncState();
+        var sources = new ArrayList<SyncStateRepository>(others);
+        sources.addFirst(base);
+        for (var source : sources) {
+            if (!source.stateFileExists()) {
+                continue;
+            }
+            var copy = source.copyState();
+            for (var syncedIssue : copy.syncedIssues.values()) {
+                seeded.syncedIssues.merge(syncedIssue.linearIssueId, syncedIssue, SyncStateRepository::laterSynced);
             }
-            for (int i = maxBackups; i < sortedBackups.size(); i++) {
-                try {
-                    Files.delete(sortedBackups.get(i));
-                    Log.debugf("Deleted old backup: %s", sortedBackups.get(i));
-                } catch (IOException e) {
-                    Log.warnf(e, "Failed to delete old backup: %s", sortedBackups.get(i));
+            if (source == base) {
+                seeded.lastSyncTime = copy.lastSyncTime;
+                seeded.teamSyncTimes.putAll(copy.teamSyncTimes);
+            }
+        }
+        if (seeded.syncedIssues.isEmpty()) {
+            return false;
+        }
+
+        saveState(seeded, false);
+        Log.infof("Seeded sync state with %d synced issues from %d existing states", seeded.issueCount(), sources.size());
+        return true;
+    }
+
+    private static SyncState.SyncedIssue laterSynced(SyncState.SyncedIssue first, SyncState.SyncedIssue second) {
+        if (first.lastSyncTime == null) {
+            return second;
+        }
+        return second.lastSyncTime != null && second.lastSyncTime.isAfter(first.lastSyncTime) ? second : first;
+    }
+
+    /**
+     * A copy of the state's issues and sync times, sharing no objects with the loaded state.
+     */
+    synchronized SyncState copyState() {
+        var state = loadState();
+        var copy = new SyncState();
+        copy.lastSyncTime = state.lastSyncTime;
+        copy.teamSyncTimes.putAll(state.teamSyncTimes);
+        Iterable<SyncState.SyncedIssue> issues = indexed && store != null ? store.issues() : state.allSyncedIssues();
+        for (var syncedIssue : issues) {
+            copy.syncedIssues.put(syncedIssue.linearIssueId, objectMapper.convertValue(syncedIssue, SyncState.SyncedIssue.class));
+        }
+        return copy;
+    }
+
+    /**
+     * Takes an incremental backup of the state files. An unchanged snapshot costs no I/O and of the journals and
+     * the index data file only what was appended since the previous backup is read.
+     */
+    public synchronized void backupState() {
+        var backedUp = new LinkedHashMap<Path, SyncStateBackups.Layout>();
+        String primaryName;
+        try {
+            if (indexed) {
+                if (!IndexedStateStore.exists(indexPath)) {
+                    Log.debug("No state file to backup");
+                    return;
                 }
+                backedUp.put(openStore().dataPath(), SyncStateBackups.Layout.APPENDED);
+                backedUp.put(indexPath, SyncStateBackups.Layout.IN_PLACE);
+                backedUp.put(metaPath, SyncStateBackups.Layout.REPLACED);
+                primaryName = INDEX_FILE_NAME;
+            } else {
+                if (!Files.exists(stateFilePath)) {
+                    Log.debug("No state file to backup");
+                    return;
+                }
+                backedUp.putAll(snapshotFiles());
+                primaryName = stateFilePath.getFileName().toString();
             }
+
+            String backup;
+            synchronized (files) {
+                backup = backups.backup(primaryName, backedUp);
+            }
+            Log.infof("Created backup of sync state at: %s", stateFilePath.resolveSibling(backup));
+        } catch (IOException e) {
+            Log.errorf(e, "Failed to create backup of sync state");
+        }
+    }
+
+    private Map<Path, SyncStateBackups.Layout> snapshotFiles() {
+        var snapshotFiles = new LinkedHashMap<Path, SyncStateBackups.Layout>();
+        snapshotFiles.put(stateFilePath, SyncStateBackups.Layout.REPLACED);
+        snapshotFiles.put(sealedJournalPath, SyncStateBackups.Layout.REPLACED);
+        snapshotFiles.put(journalPath, SyncStateBackups.Layout.APPENDED);
+        return snapshotFiles;
+    }
+
+    /**
+     * The backups that can be restored, newest first.
+     */
+    public synchronized List<String> listBackups() {
+        try {
+            return backups.list();
         } catch (IOException e) {
-            Log.warnf(e, "Failed to rotate backups in directory: %s", backupDir);
+            throw new RuntimeException("Failed to list sync state backups", e);
+        }
+    }
+
+    /**
+     * Replaces the state files with those of a backup. The current state is backed up first, so a restore can
+     * be undone the same way.
+     *
+     * @param backup name or timestamp of the backup, null for the latest
+     * @return the name of the restored backup
+     * @throws IllegalArgumentException when there is no such backup
+     */
+    public synchronized String restoreBackup(String backup) {
+        Map<Path, Path> restored = Map.of();
+        try {
+            awaitCompaction();
+            var name = backups.resolve(backup);
+            restored = backups.extract(name, List.of(STATE_FILE_NAME, BINARY_STATE_FILE_NAME, JOURNAL_FILE_NAME));
+            backupState();
+
+            deleteStateFiles();
+            for (var file : restored.entrySet()) {
+                Files.move(file.getKey(), file.getValue(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            journaledState = null;
+            journalEntries = 0;
+            Log.infof("Restored sync state from backup: %s", name);
+            return name;
+        } catch (IOException e) {
+            SyncStateBackups.discard(restored.keySet());
+            Log.errorf(e, "Failed to restore sync state backup");
+            throw new RuntimeException("Failed to restore sync state backup", e);
         }
     }
 
     public boolean stateFileExists() {
-        return Files.exists(stateFilePath);
+        return Files.exists(stateFilePath) || Files.exists(jsonStatePath) || Files.exists(journalPath) || Files.exists(sealedJournalPath)
+                || IndexedStateStore.exists(indexPath) || Files.exists(metaPath);
     }
 
     public Path getStateFilePath() {
         return stateFilePath;
     }
 
-    public void deleteState() {
+    public synchronized void deleteState() {
         try {
-            if (Files.exists(stateFilePath)) {
-                Files.delete(stateFilePath);
+            awaitCompaction();
+            if (deleteStateFiles()) {
                 Log.info("Deleted sync state file");
             }
+            journaledState = null;
         } catch (IOException e) {
             Log.errorf(e, "Failed to delete sync state file");
             throw new RuntimeException("Failed to delete sync state", e);
         }
     }
 
+    /**
+     * Deletes the state files of every format and returns whether the state file existed.
+     */
+    private boolean deleteStateFiles() throws IOException {
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(sealedJournalPath);
+        closeStore();
+        if (IndexedStateStore.exists(indexPath)) {
+            IndexedStateStore.delete(indexPath);
+        }
+        Files.deleteIfExists(metaPath);
+        var deleted = Files.deleteIfExists(stateFilePath);
+        Files.deleteIfExists(jsonStatePath);
+        return deleted;
+    }
+
     private SyncState createNewState() {
         var state = new SyncState();
         state.lastSyncTime = Instant.now();
@@ -171,7 +720,7 @@ public class SyncStateRepository {
 
         if (state.syncedIssues == null) {
             Log.warn("Sync state has null syncedIssues map, initializing empty map");
-            state.syncedIssues = new HashMap<>();
+            state.syncedIssues = new ConcurrentHashMap<>();
         }
 
         if (state.version == null) {
@@ -1,11 +1,20 @@
 package bogdanpc.linearsync.synchronization.control;
 
 import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import bogdanpc.linearsync.synchronization.entity.ResultSink;
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
 import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @ApplicationScoped
 public class Synchronizer {
@@ -13,23 +22,125 @@ public class Synchronizer {
     private final IssueOperations linearService;
     private final SyncCoordinator syncCoordinator;
     private final IssueProcessor issueProcessor;
+    private final SyncPipeline syncPipeline;
+    private final JiraChangeFeed jiraChangeFeed;
+    private final Metrics metrics;
+    private final RunHistory runHistory;
 
-    public Synchronizer(IssueOperations linearService, SyncCoordinator syncCoordinator, IssueProcessor issueProcessor) {
+    @ConfigProperty(name = "sync.parallelism", defaultValue = "1")
+    int configParallelism;
+
+    @ConfigProperty(name = "sync.checkpoint.interval-issues", defaultValue = "100")
+    int checkpointIntervalIssues;
+
+    @ConfigProperty(name = "sync.checkpoint.interval-seconds", defaultValue = "60")
+    int checkpointIntervalSeconds;
+
+    private Integer parallelism;
+    private Duration deadline;
+    private ShardLeases.Shard shard;
+    private boolean bidirectional;
+    private Path reportFile;
+    private Path metricsFile;
+    private final List<ResultSink> resultSinks = new CopyOnWriteArrayList<>();
+
+    public Synchronizer(IssueOperations linearService, SyncCoordinator syncCoordinator, IssueProcessor issueProcessor, SyncPipeline syncPipeline,
+                        JiraChangeFeed jiraChangeFeed, Metrics metrics, RunHistory runHistory) {
         this.linearService = linearService;
         this.syncCoordinator = syncCoordinator;
         this.issueProcessor = issueProcessor;
+        this.syncPipeline = syncPipeline;
+        this.jiraChangeFeed = jiraChangeFeed;
+        this.metrics = metrics;
+        this.runHistory = runHistory;
     }
 
     public void setDryRun(boolean dryRun) {
         syncCoordinator.setDryRun(dryRun);
     }
 
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Limits how long {@link #synchronize} and {@link #resume} take on new work. The most valuable changes are
+     * written first and whatever is left when the time is up waits for the next run.
+     *
+     * @param deadline time from the start of the run, null for no limit
+     */
+    public void setDeadline(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Limits {@link #synchronize} and {@link #resume} to the issues of the leased shard and saves its state only
+     * while the lease is held. Issues missing from the shard's state are looked up in Jira before they are created,
+     * since another shard may have synced them.
+     */
+    public void setShard(ShardLease lease) {
+        this.shard = lease != null ? lease.shard() : null;
+        syncCoordinator.setLease(lease);
+        issueProcessor.setFindExistingIssues(lease != null);
+    }
+
+    /**
+     * Makes {@link #synchronize} first read the status changes and comments made in Jira back into Linear.
+     */
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    /**
+     * Appends every issue result, error and run summary to the file as one JSON line each, while the run goes on.
+     *
+     * @param reportFile null for no report
+     */
+    public void setReportFile(Path reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Writes all metrics to the file in the Prometheus text format at the end of every run.
+     *
+     * @param metricsFile null to only keep the metrics in memory
+     */
+    public void setMetricsFile(Path metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Hands the results of every following run to the sink as they happen.
+     */
+    public void addResultSink(ResultSink sink) {
+        resultSinks.add(sink);
+    }
+
+    /**
+     * A started result streaming to the configured sinks. {@link SyncResult#complete()} closes the report and
+     * records the run in the {@link RunHistory}.
+     */
+    SyncResult startResult() {
+        var result = new SyncResult();
+        result.addSink(new MetricsResultSink(metrics, metricsFile));
+        result.addSink(new RunHistorySink(runHistory, metrics, syncCoordinator.isDryRun()));
+        resultSinks.forEach(result::addSink);
+        if (reportFile != null) {
+            result.addSink(new NdjsonResultSink(reportFile));
+        }
+        result.startTime = Instant.now();
+        return result;
+    }
+
+    int getParallelism() {
+        return Math.max(1, parallelism != null ? parallelism : configParallelism);
+    }
+
     public SyncResult synchronizeSingleIssue(String issueIdentifier) {
         var dryRun = syncCoordinator.isDryRun();
         Log.infof("Starting single issue synchronization - Issue: %s, DryRun: %s", issueIdentifier, dryRun);
 
-        var result = new SyncResult();
-        result.startTime = Instant.now();
+        var result = startResult();
 
         try {
             var state = syncCoordinator.prepareSync();
@@ -41,13 +152,14 @@ public class Synchronizer {
             var issueResult = issueProcessor.processIssue(linearIssue, state, dryRun);
             result.addIssueResult(issueResult);
 
-            syncCoordinator.completeSync(state, result.hasChanges());
+            syncCoordinator.completeSync(state, null, result.startTime, result.hasChanges());
 
+            result.syncedIssues = state.issueCount();
             result.endTime = Instant.now();
-            result.success = result.errors.isEmpty();
+            result.success = result.errorCount() == 0;
 
             Log.infof("Single issue synchronization completed - Created: %d, Updated: %d, Skipped: %d, Errors: %d",
-                    result.createdCount, result.updatedCount, result.skippedCount, result.errors.size());
+                    result.createdCount(), result.updatedCount(), result.skippedCount(), result.errorCount());
 
         } catch (Exception e) {
             Log.errorf(e, "Single issue synchronization failed");
@@ -56,35 +168,65 @@ public class Synchronizer {
             result.addError("Single issue synchronization failed: " + e.getMessage());
         }
 
+        result.complete();
         return result;
     }
 
     public SyncResult synchronize(String teamKey, String stateType, Instant updatedAfter, boolean forceFullSync) {
         var dryRun = syncCoordinator.isDryRun();
-        Log.infof("Starting synchronization - Team: %s, State: %s, UpdatedAfter: %s, ForceFullSync: %s, DryRun: %s",
-                teamKey, stateType, updatedAfter, forceFullSync, dryRun);
+        Log.infof("Starting synchronization - Team: %s, State: %s, UpdatedAfter: %s, ForceFullSync: %s, DryRun: %s, Parallelism: %d, Bidirectional: %s",
+                teamKey, stateType, updatedAfter, forceFullSync, dryRun, getParallelism(), bidirectional);
 
-        var result = new SyncResult();
-        result.startTime = Instant.now();
+        var result = startResult();
 
         try {
             var state = syncCoordinator.prepareSync();
-            var effectiveUpdatedAfter = syncCoordinator.determineUpdatedAfter(state, updatedAfter, forceFullSync);
+            if (state.checkpoint != null) {
+                Log.warnf("Starting over instead of resuming the sync interrupted at %s (use --resume to continue it)", state.checkpoint.savedAt);
+            }
+            var effectiveTeamKey = shard != null && shard.teamKey() != null ? shard.teamKey() : teamKey;
+            var effectiveUpdatedAfter = syncCoordinator.determineUpdatedAfter(state, effectiveTeamKey, updatedAfter, forceFullSync);
 
-            var linearIssues = linearService.getIssues(teamKey, stateType, effectiveUpdatedAfter);
-            Log.infof("Found %d Linear issues to process", linearIssues.size());
+            if (bidirectional) {
+                // Before the Linear → Jira sync, which would otherwise overwrite a Jira change it has not seen
+                jiraChangeFeed.pull(state, dryRun, result);
+            }
+            run(state, new SyncCheckpoint(effectiveTeamKey, stateType, effectiveUpdatedAfter), dryRun, result);
 
-            linearIssues.stream()
-                    .map(linearIssue -> issueProcessor.processIssue(linearIssue, state, dryRun))
-                    .forEach(result::addIssueResult);
+        } catch (Exception e) {
+            Log.errorf(e, "Synchronization failed");
+            result.endTime = Instant.now();
+            result.success = false;
+            result.addError("Synchronization failed: " + e.getMessage());
+        }
 
-            syncCoordinator.completeSync(state, result.hasChanges());
+        result.complete();
+        return result;
+    }
 
-            result.endTime = Instant.now();
-            result.success = true;
+    /**
+     * Continues the interrupted sync run checkpointed in the state, with the filters it was started with.
+     * Pages before the checkpoint cursor are not fetched again and issues already processed after it are skipped.
+     */
+    public SyncResult resume() {
+        var dryRun = syncCoordinator.isDryRun();
+        var result = startResult();
+
+        try {
+            var state = syncCoordinator.prepareSync();
+            var checkpoint = state.checkpoint;
+            if (checkpoint == null) {
+                throw new IllegalStateException("No interrupted sync to resume");
+            }
 
-            Log.infof("Synchronization completed - Created: %d, Updated: %d, Skipped: %d, Errors: %d",
-                    result.createdCount, result.updatedCount, result.skippedCount, result.errors.size());
+            Log.infof("Resuming synchronization started %s - Team: %s, State: %s, UpdatedAfter: %s, Watermark: %s, DryRun: %s, Parallelism: %d",
+                    checkpoint.startedAt, checkpoint.teamKey, checkpoint.stateType, checkpoint.updatedAfter, checkpoint.watermark, dryRun, getParallelism());
+            Log.infof("Already done before the interruption - Created: %d, Updated: %d, Skipped: %d, Errors: %d",
+                    checkpoint.createdCount, checkpoint.updatedCount, checkpoint.skippedCount, checkpoint.errorCount);
+
+            result.restoreCounts(checkpoint.createdCount, checkpoint.updatedCount, checkpoint.skippedCount);
+
+            run(state, checkpoint, dryRun, result);
 
         } catch (Exception e) {
             Log.errorf(e, "Synchronization failed");
@@ -93,6 +235,47 @@ public class Synchronizer {
             result.addError("Synchronization failed: " + e.getMessage());
         }
 
+        result.complete();
         return result;
     }
-}
\ No newline at end of file
+
+    private void run(SyncState state, SyncCheckpoint checkpoint, boolean dryRun, SyncResult result) {
+        var scope = shard;
+        var checkpoints = new CheckpointTracker(checkpoint, result, progress -> syncCoordinator.checkpoint(state, progress),
+                checkpointIntervalIssues, checkpointIntervalSeconds, linearIssue -> scope == null || scope.owns(linearIssue));
+
+        try {
+            syncPipeline.run(checkpoint.teamKey, checkpoint.stateType, checkpoint.updatedAfter, state, dryRun, getParallelism(),
+                    deadline != null ? result.startTime.plus(deadline) : null, result, checkpoints);
+        } catch (RuntimeException e) {
+            // Keep the progress made before the failure for --resume
+            try {
+                checkpoints.save();
+            } catch (RuntimeException saveFailure) {
+                e.addSuppressed(saveFailure);
+            }
+            throw e;
+        }
+
+        if (result.deadlineReached) {
+            // Keeps lastSyncTime, so the next run picks up what is left, and the checkpoint for --resume
+            checkpoints.save();
+            result.syncedIssues = state.issueCount();
+            result.endTime = Instant.now();
+            result.success = true;
+            Log.infof("Synchronization stopped at the deadline - Created: %d, Updated: %d, Skipped: %d, Errors: %d, Left: %d",
+                    result.createdCount(), result.updatedCount(), result.skippedCount(), result.errorCount(), result.leftCount);
+            return;
+        }
+
+        // From when the interrupted run started, as the pages it fetched before the cursor are not fetched again
+        syncCoordinator.completeSync(state, checkpoint.teamKey, checkpoint.startedAt, result.hasChanges());
+
+        result.syncedIssues = state.issueCount();
+        result.endTime = Instant.now();
+        result.success = true;
+
+        Log.infof("Synchronization completed - Created: %d, Updated: %d, Skipped: %d, Errors: %d",
+                result.createdCount(), result.updatedCount(), result.skippedCount(), result.errorCount());
+    }
+}
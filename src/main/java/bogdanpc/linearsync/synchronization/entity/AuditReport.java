@@ -0,0 +1,33 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of comparing the synced fields of the tracked issues in Linear and Jira.
+ *
+ * @param linearIssues      tracked issues found in Linear
+ * @param jiraIssues        tracked issues found in Jira
+ * @param buckets           team and month buckets on either side
+ * @param mismatchedBuckets buckets whose hashes differed, the only ones compared issue by issue
+ * @param requests          search pages read from Linear and Jira together
+ */
+public record AuditReport(int linearIssues, int jiraIssues, int buckets, int mismatchedBuckets, int requests,
+                          List<Drift> drifts, long durationMillis) {
+
+    public boolean isConsistent() {
+        return drifts.isEmpty();
+    }
+
+    public enum DriftKind { MISSING_IN_JIRA, MISSING_IN_LINEAR, FIELDS_DIFFER }
+
+    /**
+     * @param linearIdentifier null when the issue is missing in Linear
+     * @param jiraIssueKey     null when the issue is missing in Jira
+     * @param fields           the fields that differ, empty unless {@code kind} is {@link DriftKind#FIELDS_DIFFER}
+     */
+    public record Drift(String bucket, String linearIssueId, String linearIdentifier, String jiraIssueKey,
+                        DriftKind kind, Set<IssueField> fields) {}
+}
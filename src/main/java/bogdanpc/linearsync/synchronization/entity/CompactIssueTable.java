@@ -0,0 +1,706 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Synced issues held in dense primitive columns, one row per issue, located through an open-addressing index
+ * keyed by Linear ID, instead of one object graph per issue. Canonical UUIDs are stored as long pairs, timestamps as epoch nanoseconds, Jira keys as an
+ * interned project prefix plus the issue number, and 16-digit field hashes as longs under interned field names.
+ * Attachment IDs of all issues share one open-addressing set, chained per issue. A value without a compact form
+ * is kept as is in a per-issue side record, which stays unallocated for typical issues.
+ * <p>
+ * Lookups return a new {@link SyncState.SyncedIssue} each time; changing it does not change the table.
+ */
+final class CompactIssueTable implements SyncState.IssueSource, Iterable<SyncState.SyncedIssue> {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double MAX_LOAD = 0.6;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int NO_KEY = -2;
+    private static final int RAW_KEY = -1;
+
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+
+    private static final byte REMOVED = 0;
+    private static final byte NO_STATUS = 1;
+    private static final SyncState.SyncStatus[] STATUSES = SyncState.SyncStatus.values();
+
+    private static final Pattern JIRA_KEY = Pattern.compile("([A-Z][A-Z0-9_]*)-(0|[1-9][0-9]{0,17})");
+    private static final Pattern NUMBER = Pattern.compile("0|[1-9][0-9]{0,17}");
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{16}");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Dictionary projects = new Dictionary(Integer.MAX_VALUE);
+    private final Dictionary fieldNames = new Dictionary(Long.SIZE);
+    private final AttachmentSet attachments = new AttachmentSet();
+
+    /**
+     * Slots holding row + 1, {@link #FREE} or {@link #DELETED}.
+     */
+    private int[] index = new int[INITIAL_CAPACITY];
+    private int used;
+    private final Rows rows = new Rows(INITIAL_CAPACITY / 2);
+    private int size;
+
+    @Override
+    public synchronized SyncState.SyncedIssue find(String linearIssueId) {
+        var row = locate(linearIssueId);
+        return row >= 0 ? materialize(row) : null;
+    }
+
+    @Override
+    public synchronized boolean contains(String linearIssueId) {
+        return locate(linearIssueId) >= 0;
+    }
+
+    @Override
+    public synchronized SyncState.SyncedIssue findByJiraKey(String jiraIssueKey) {
+        var matcher = JIRA_KEY.matcher(jiraIssueKey);
+        var project = RAW_KEY;
+        var number = NONE;
+        if (matcher.matches()) {
+            project = projects.indexOf(matcher.group(1));
+            number = Long.parseLong(matcher.group(2));
+            if (project < 0) {
+                return null;
+            }
+        }
+        for (int row = 0; row < rows.count; row++) {
+            if (rows.states[row] == REMOVED) {
+                continue;
+            }
+            var matches = project == RAW_KEY
+                    ? rows.extras[row] != null && jiraIssueKey.equals(rows.extras[row].jiraIssueKey)
+                    : rows.jiraProject[row] == project && rows.jiraNumber[row] == number;
+            if (matches) {
+                return materialize(row);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean hasAttachment(String linearIssueId, String attachmentId) {
+        var row = locate(linearIssueId);
+        if (row < 0) {
+            return false;
+        }
+        var uuid = parseUuid(attachmentId);
+        if (uuid == null) {
+            var extras = rows.extras[row];
+            return extras != null && extras.attachments != null && extras.attachments.contains(attachmentId);
+        }
+        return attachments.contains(row, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Bytes held by the index, the columns and the attachment set, counting the full capacity of every array
+     * and a reference as 8 bytes. Side records and the interned names are not included, see {@link #extrasCount()}.
+     */
+    synchronized long footprintBytes() {
+        return (long) index.length * Integer.BYTES + rows.footprintBytes() + attachments.footprintBytes();
+    }
+
+    /**
+     * Rows with a side record, i.e. with a value that has no compact form.
+     */
+    synchronized int extrasCount() {
+        var count = 0;
+        for (int row = 0; row < rows.count; row++) {
+            if (rows.extras[row] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stores the issue, replacing the entry with the same Linear ID.
+     */
+    synchronized void put(SyncState.SyncedIssue issue) {
+        var row = locate(issue.linearIssueId);
+        if (row < 0) {
+            if (used + 1 > index.length * MAX_LOAD) {
+                reindex(size + 1 > index.length * MAX_LOAD / 2 ? index.length * 2 : index.length);
+            }
+            row = rows.add();
+            var slot = freeSlot(index, hash(issue.linearIssueId));
+            if (index[slot] == FREE) {
+                used++;
+            }
+            index[slot] = row + 1;
+            size++;
+        }
+
+        var r = rows;
+        r.states[row] = issue.status != null ? (byte) (NO_STATUS + 1 + issue.status.ordinal()) : NO_STATUS;
+        r.extras[row] = null;
+
+        var uuid = parseUuid(issue.linearIssueId);
+        if (uuid != null) {
+            r.idHigh[row] = uuid.getMostSignificantBits();
+            r.idLow[row] = uuid.getLeastSignificantBits();
+        } else {
+            extras(row).linearIssueId = issue.linearIssueId;
+        }
+
+        r.jiraProject[row] = project(issue.jiraIssueKey);
+        r.jiraNumber[row] = keyNumber(issue.jiraIssueKey);
+        if (r.jiraProject[row] == RAW_KEY) {
+            extras(row).jiraIssueKey = issue.jiraIssueKey;
+        }
+        r.parentProject[row] = project(issue.jiraParentKey);
+        r.parentNumber[row] = keyNumber(issue.jiraParentKey);
+        if (r.parentProject[row] == RAW_KEY) {
+            extras(row).jiraParentKey = issue.jiraParentKey;
+        }
+
+        if (issue.jiraIssueId == null) {
+            r.jiraId[row] = NONE;
+        } else if (NUMBER.matcher(issue.jiraIssueId).matches()) {
+            r.jiraId[row] = Long.parseLong(issue.jiraIssueId);
+        } else {
+            r.jiraId[row] = NONE;
+            extras(row).jiraIssueId = issue.jiraIssueId;
+        }
+
+        r.lastSyncTime[row] = nanos(issue.lastSyncTime);
+        if (r.lastSyncTime[row] == NONE && issue.lastSyncTime != null) {
+            extras(row).lastSyncTime = issue.lastSyncTime;
+        }
+        r.linearUpdatedAt[row] = nanos(issue.linearUpdatedAt);
+        if (r.linearUpdatedAt[row] == NONE && issue.linearUpdatedAt != null) {
+            extras(row).linearUpdatedAt = issue.linearUpdatedAt;
+        }
+        r.jiraUpdatedAt[row] = nanos(issue.jiraUpdatedAt);
+        if (r.jiraUpdatedAt[row] == NONE && issue.jiraUpdatedAt != null) {
+            extras(row).jiraUpdatedAt = issue.jiraUpdatedAt;
+        }
+
+        putFieldHashes(row, issue.fieldHashes != null ? issue.fieldHashes : Map.of());
+        putAttachments(row, issue.syncedAttachments != null ? issue.syncedAttachments : Set.of());
+    }
+
+    /**
+     * Removes the issue. Its row is not reused.
+     */
+    synchronized void remove(String linearIssueId) {
+        var slot = locateSlot(linearIssueId);
+        if (slot >= 0) {
+            var row = index[slot] - 1;
+            attachments.release(rows.attachmentHeads[row]);
+            rows.attachmentHeads[row] = 0;
+            rows.states[row] = REMOVED;
+            rows.extras[row] = null;
+            index[slot] = DELETED;
+            size--;
+        }
+    }
+
+    /**
+     * Iterates over copies of the stored issues, in insertion order.
+     */
+    @Override
+    public Iterator<SyncState.SyncedIssue> iterator() {
+        return new Iterator<>() {
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                synchronized (CompactIssueTable.this) {
+                    return nextRow() < rows.count;
+                }
+            }
+
+            @Override
+            public SyncState.SyncedIssue next() {
+                synchronized (CompactIssueTable.this) {
+                    row = nextRow();
+                    if (row >= rows.count) {
+                        throw new NoSuchElementException();
+                    }
+                    return materialize(row);
+                }
+            }
+
+            private int nextRow() {
+                var next = row + 1;
+                while (next < rows.count && rows.states[next] == REMOVED) {
+                    next++;
+                }
+                return next;
+            }
+        };
+    }
+
+    private SyncState.SyncedIssue materialize(int row) {
+        var r = rows;
+        var extras = r.extras[row];
+        var issue = new SyncState.SyncedIssue();
+        issue.linearIssueId = extras != null && extras.linearIssueId != null
+                ? extras.linearIssueId
+                : new UUID(r.idHigh[row], r.idLow[row]).toString();
+        issue.jiraIssueKey = key(r.jiraProject[row], r.jiraNumber[row], extras != null ? extras.jiraIssueKey : null);
+        issue.jiraParentKey = key(r.parentProject[row], r.parentNumber[row], extras != null ? extras.jiraParentKey : null);
+        issue.jiraIssueId = r.jiraId[row] != NONE ? Long.toString(r.jiraId[row]) : extras != null ? extras.jiraIssueId : null;
+        issue.lastSyncTime = instant(r.lastSyncTime[row], extras != null ? extras.lastSyncTime : null);
+        issue.linearUpdatedAt = instant(r.linearUpdatedAt[row], extras != null ? extras.linearUpdatedAt : null);
+        issue.jiraUpdatedAt = instant(r.jiraUpdatedAt[row], extras != null ? extras.jiraUpdatedAt : null);
+        issue.status = r.states[row] > NO_STATUS ? STATUSES[r.states[row] - NO_STATUS - 1] : null;
+
+        issue.fieldHashes = new HashMap<>();
+        var present = r.hashPresent[row];
+        for (int field = 0; present != 0; field++, present >>>= 1) {
+            if ((present & 1) != 0) {
+                var empty = (r.hashEmpty[row] >>> field & 1) != 0;
+                issue.fieldHashes.put(fieldNames.get(field), empty ? "" : HEX.toHexDigits(r.hashes[field][row]));
+            }
+        }
+        if (extras != null && extras.fieldHashes != null) {
+            issue.fieldHashes.putAll(extras.fieldHashes);
+        }
+
+        issue.syncedAttachments = new HashSet<>();
+        for (var entry = r.attachmentHeads[row]; entry != 0; entry = attachments.next(entry)) {
+            issue.syncedAttachments.add(attachments.uuid(entry).toString());
+        }
+        if (extras != null && extras.attachments != null) {
+            issue.syncedAttachments.addAll(extras.attachments);
+        }
+        return issue;
+    }
+
+    private void putFieldHashes(int row, Map<String, String> fieldHashes) {
+        long present = 0;
+        long empty = 0;
+        for (var entry : fieldHashes.entrySet()) {
+            var value = entry.getValue();
+            var field = value != null && (value.isEmpty() || HASH.matcher(value).matches()) ? fieldNames.intern(entry.getKey()) : -1;
+            if (field < 0) {
+                var extras = extras(row);
+                if (extras.fieldHashes == null) {
+                    extras.fieldHashes = new HashMap<>();
+                }
+                extras.fieldHashes.put(entry.getKey(), value);
+                continue;
+            }
+            present |= 1L << field;
+            if (value.isEmpty()) {
+                empty |= 1L << field;
+            } else {
+                rows.hashColumn(field)[row] = Long.parseUnsignedLong(value, 16);
+            }
+        }
+        rows.hashPresent[row] = present;
+        rows.hashEmpty[row] = empty;
+    }
+
+    /**
+     * Attachments are only ever added in practice, so the stored ones are kept and the new ones chained on;
+     * the chain is rebuilt only when an attachment went away.
+     */
+    private void putAttachments(int row, Set<String> syncedAttachments) {
+        var head = rows.attachmentHeads[row];
+        for (var entry = head; entry != 0; entry = attachments.next(entry)) {
+            if (!syncedAttachments.contains(attachments.uuid(entry).toString())) {
+                attachments.release(head);
+                head = 0;
+                break;
+            }
+        }
+
+        for (var attachmentId : syncedAttachments) {
+            var uuid = parseUuid(attachmentId);
+            if (uuid == null) {
+                var extras = extras(row);
+                if (extras.attachments == null) {
+                    extras.attachments = new HashSet<>();
+                }
+                extras.attachments.add(attachmentId);
+            } else if (head == 0 || !attachments.contains(row, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())) {
+                head = attachments.add(row, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), head);
+            }
+        }
+        rows.attachmentHeads[row] = head;
+    }
+
+    private int locate(String linearIssueId) {
+        var slot = locateSlot(linearIssueId);
+        return slot >= 0 ? index[slot] - 1 : -1;
+    }
+
+    private int locateSlot(String linearIssueId) {
+        var uuid = parseUuid(linearIssueId);
+        var mask = index.length - 1;
+        for (int slot = hash(linearIssueId) & mask, probes = 0; probes < index.length; slot = (slot + 1) & mask, probes++) {
+            var entry = index[slot];
+            if (entry == FREE) {
+                return -1;
+            }
+            if (entry == DELETED) {
+                continue;
+            }
+            var row = entry - 1;
+            var rawId = rows.extras[row] != null ? rows.extras[row].linearIssueId : null;
+            var matches = uuid != null
+                    ? rawId == null && rows.idHigh[row] == uuid.getMostSignificantBits() && rows.idLow[row] == uuid.getLeastSignificantBits()
+                    : linearIssueId.equals(rawId);
+            if (matches) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int freeSlot(int[] index, int hash) {
+        var mask = index.length - 1;
+        var slot = hash & mask;
+        while (index[slot] > FREE) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void reindex(int capacity) {
+        var reindexed = new int[capacity];
+        for (int row = 0; row < rows.count; row++) {
+            if (rows.states[row] != REMOVED) {
+                var rawId = rows.extras[row] != null ? rows.extras[row].linearIssueId : null;
+                var hash = rawId != null ? hash(rawId) : hash(rows.idHigh[row], rows.idLow[row]);
+                reindexed[freeSlot(reindexed, hash)] = row + 1;
+            }
+        }
+        index = reindexed;
+        used = size;
+    }
+
+    private Extras extras(int row) {
+        var extras = rows.extras[row];
+        if (extras == null) {
+            extras = new Extras();
+            rows.extras[row] = extras;
+        }
+        return extras;
+    }
+
+    private int project(String key) {
+        if (key == null) {
+            return NO_KEY;
+        }
+        var matcher = JIRA_KEY.matcher(key);
+        return matcher.matches() ? projects.intern(matcher.group(1)) : RAW_KEY;
+    }
+
+    private static long keyNumber(String key) {
+        if (key == null) {
+            return NONE;
+        }
+        var matcher = JIRA_KEY.matcher(key);
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : NONE;
+    }
+
+    private String key(int project, long number, String raw) {
+        return switch (project) {
+            case NO_KEY -> null;
+            case RAW_KEY -> raw;
+            default -> projects.get(project) + "-" + number;
+        };
+    }
+
+    private static long nanos(Instant instant) {
+        if (instant == null) {
+            return NONE;
+        }
+        try {
+            var nanos = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+            return nanos != NONE ? nanos : NONE;
+        } catch (ArithmeticException e) {
+            return NONE;
+        }
+    }
+
+    private static Instant instant(long nanos, Instant raw) {
+        return nanos != NONE ? Instant.ofEpochSecond(0, nanos) : raw;
+    }
+
+    private static int hash(String linearIssueId) {
+        var uuid = parseUuid(linearIssueId);
+        return uuid != null ? hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) : mix(linearIssueId.hashCode());
+    }
+
+    private static int hash(long high, long low) {
+        var h = high * 0x9E3779B97F4A7C15L ^ low;
+        return mix((int) (h ^ h >>> 32));
+    }
+
+    private static int mix(int h) {
+        h *= 0x85EBCA6B;
+        return h ^ h >>> 16;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            var uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Values of one issue that have no compact form.
+     */
+    private static final class Extras {
+        String linearIssueId;
+        String jiraIssueKey;
+        String jiraParentKey;
+        String jiraIssueId;
+        Instant lastSyncTime;
+        Instant linearUpdatedAt;
+        Instant jiraUpdatedAt;
+        Map<String, String> fieldHashes;
+        Set<String> attachments;
+    }
+
+    /**
+     * Column arrays indexed by row, grown as rows are added.
+     */
+    private static final class Rows {
+        int count;
+        byte[] states;
+        long[] idHigh;
+        long[] idLow;
+        int[] jiraProject;
+        long[] jiraNumber;
+        int[] parentProject;
+        long[] parentNumber;
+        long[] jiraId;
+        long[] lastSyncTime;
+        long[] linearUpdatedAt;
+        long[] jiraUpdatedAt;
+        long[] hashPresent;
+        long[] hashEmpty;
+        int[] attachmentHeads;
+        Extras[] extras;
+        long[][] hashes = new long[0][];
+
+        Rows(int capacity) {
+            states = new byte[capacity];
+            idHigh = new long[capacity];
+            idLow = new long[capacity];
+            jiraProject = new int[capacity];
+            jiraNumber = new long[capacity];
+            parentProject = new int[capacity];
+            parentNumber = new long[capacity];
+            jiraId = new long[capacity];
+            lastSyncTime = new long[capacity];
+            linearUpdatedAt = new long[capacity];
+            jiraUpdatedAt = new long[capacity];
+            hashPresent = new long[capacity];
+            hashEmpty = new long[capacity];
+            attachmentHeads = new int[capacity];
+            extras = new Extras[capacity];
+        }
+
+        int add() {
+            if (count == states.length) {
+                grow(states.length + (states.length >> 1));
+            }
+            return count++;
+        }
+
+        long[] hashColumn(int field) {
+            if (field >= hashes.length) {
+                hashes = Arrays.copyOf(hashes, field + 1);
+            }
+            if (hashes[field] == null) {
+                hashes[field] = new long[states.length];
+            }
+            return hashes[field];
+        }
+
+        long footprintBytes() {
+            long capacity = states.length;
+            var hashColumns = Arrays.stream(hashes).filter(column -> column != null).count();
+            // states, ten long columns, three int columns, extras and the hash columns
+            return capacity * (Byte.BYTES + 10L * Long.BYTES + 3L * Integer.BYTES + Long.BYTES + hashColumns * Long.BYTES)
+                    + (long) hashes.length * Long.BYTES;
+        }
+
+        private void grow(int capacity) {
+            states = Arrays.copyOf(states, capacity);
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            jiraProject = Arrays.copyOf(jiraProject, capacity);
+            jiraNumber = Arrays.copyOf(jiraNumber, capacity);
+            parentProject = Arrays.copyOf(parentProject, capacity);
+            parentNumber = Arrays.copyOf(parentNumber, capacity);
+            jiraId = Arrays.copyOf(jiraId, capacity);
+            lastSyncTime = Arrays.copyOf(lastSyncTime, capacity);
+            linearUpdatedAt = Arrays.copyOf(linearUpdatedAt, capacity);
+            jiraUpdatedAt = Arrays.copyOf(jiraUpdatedAt, capacity);
+            hashPresent = Arrays.copyOf(hashPresent, capacity);
+            hashEmpty = Arrays.copyOf(hashEmpty, capacity);
+            attachmentHeads = Arrays.copyOf(attachmentHeads, capacity);
+            extras = Arrays.copyOf(extras, capacity);
+            for (int field = 0; field < hashes.length; field++) {
+                if (hashes[field] != null) {
+                    hashes[field] = Arrays.copyOf(hashes[field], capacity);
+                }
+            }
+        }
+    }
+
+    private static final class Dictionary {
+        private final int limit;
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        Dictionary(int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * @return the index of the value, or -1 if the dictionary is full
+         */
+        int intern(String value) {
+            var index = indexes.get(value);
+            if (index != null) {
+                return index;
+            }
+            if (values.size() >= limit) {
+                return -1;
+            }
+            values.add(value);
+            indexes.put(value, values.size() - 1);
+            return values.size() - 1;
+        }
+
+        int indexOf(String value) {
+            return indexes.getOrDefault(value, -1);
+        }
+
+        String get(int index) {
+            return values.get(index);
+        }
+    }
+
+    /**
+     * Attachment UUIDs of all issues, keyed by the issue row, in parallel arrays addressed by entry number
+     * (starting at 1, 0 meaning none). Each entry also links to the next attachment of the same issue. Released
+     * entries stay in the arrays with no owner and are dropped when the buckets are rehashed.
+     */
+    private static final class AttachmentSet {
+        private int[] owners = new int[16];
+        private long[] high = new long[16];
+        private long[] low = new long[16];
+        private int[] next = new int[16];
+        private int[] buckets = new int[32];
+        private int entries;
+        private int live;
+        private int occupied;
+
+        boolean contains(int row, long uuidHigh, long uuidLow) {
+            var mask = buckets.length - 1;
+            for (int bucket = hash(row, uuidHigh, uuidLow) & mask; buckets[bucket] != 0; bucket = (bucket + 1) & mask) {
+                var entry = buckets[bucket];
+                if (owners[entry] == row && high[entry] == uuidHigh && low[entry] == uuidLow) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the new head of the issue's chain
+         */
+        int add(int row, long uuidHigh, long uuidLow, int head) {
+            if (entries + 2 > owners.length) {
+                var length = owners.length * 2;
+                owners = Arrays.copyOf(owners, length);
+                high = Arrays.copyOf(high, length);
+                low = Arrays.copyOf(low, length);
+                next = Arrays.copyOf(next, length);
+            }
+            var entry = ++entries;
+            owners[entry] = row;
+            high[entry] = uuidHigh;
+            low[entry] = uuidLow;
+            next[entry] = head;
+            live++;
+            if (occupied + 1 > buckets.length * MAX_LOAD) {
+                var length = 32;
+                while (live > length * MAX_LOAD / 2) {
+                    length <<= 1;
+                }
+                rehash(length);
+            } else {
+                insert(entry);
+            }
+            return entry;
+        }
+
+        void release(int head) {
+            for (var entry = head; entry != 0; entry = next[entry]) {
+                owners[entry] = -1;
+                live--;
+            }
+        }
+
+        int next(int entry) {
+            return next[entry];
+        }
+
+        long footprintBytes() {
+            return (long) owners.length * (Integer.BYTES + 2L * Long.BYTES + Integer.BYTES) + (long) buckets.length * Integer.BYTES;
+        }
+
+        UUID uuid(int entry) {
+            return new UUID(high[entry], low[entry]);
+        }
+
+        private void rehash(int length) {
+            buckets = new int[length];
+            occupied = 0;
+            for (int entry = 1; entry <= entries; entry++) {
+                if (owners[entry] >= 0) {
+                    insert(entry);
+                }
+            }
+        }
+
+        private void insert(int entry) {
+            var mask = buckets.length - 1;
+            var bucket = hash(owners[entry], high[entry], low[entry]) & mask;
+            while (buckets[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            buckets[bucket] = entry;
+            occupied++;
+        }
+
+        private static int hash(int row, long uuidHigh, long uuidLow) {
+            return CompactIssueTable.hash(uuidHigh ^ row, uuidLow);
+        }
+    }
+}
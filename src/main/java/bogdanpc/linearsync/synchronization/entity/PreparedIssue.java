@@ -0,0 +1,17 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+
+import java.util.Map;
+
+/**
+ * A Linear issue with everything computed up front that does not need Jira or the sync state:
+ * the mapped Jira input and its field hashes.
+ */
+public record PreparedIssue(
+        LinearIssue linearIssue,
+        JiraIssueInput jiraIssueInput,
+        Map<IssueField, String> fieldHashes
+) {}
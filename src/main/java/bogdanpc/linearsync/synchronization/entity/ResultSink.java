@@ -0,0 +1,21 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+/**
+ * Receives the outcome of a sync run while it happens. Called from the worker threads processing issues, so
+ * implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    void issueResult(SyncResult.IssueResult result);
+
+    /**
+     * An error not tied to a single issue result, e.g. a failed page fetch.
+     */
+    default void error(String message) {}
+
+    /**
+     * The run is over and {@code result} holds its final counts. Nothing is added after this.
+     */
+    default void completed(SyncResult result) {}
+}
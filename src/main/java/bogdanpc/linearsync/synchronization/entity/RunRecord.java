@@ -0,0 +1,41 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact account of one sync run, kept in the run history to follow the throughput of the sync over time.
+ *
+ * @param issues        issue results by outcome: created, updated, skipped, pulled, conflicts and failed
+ * @param errors        the first error messages of the run, {@code errorCount} counts all
+ * @param apiCalls      calls made during the run by client and endpoint, e.g. {@code jira createIssue}
+ * @param slowestIssues the issues that took longest, slowest first
+ * @param syncedIssues  issues in the sync state after the run, -1 when the run failed before knowing
+ */
+public record RunRecord(Instant start, long durationMillis, boolean success, boolean dryRun, boolean deadlineReached,
+                        Map<String, Integer> issues, int errorCount, List<String> errors,
+                        Map<String, ApiCalls> apiCalls, List<SlowIssue> slowestIssues, int syncedIssues) {
+
+    /**
+     * Issues the run handled, whatever their outcome.
+     */
+    public int processedIssues() {
+        return issues.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public double issuesPerSecond() {
+        return durationMillis > 0 ? processedIssues() * 1000.0 / durationMillis : 0;
+    }
+
+    public long totalApiCalls() {
+        return apiCalls.values().stream().mapToLong(ApiCalls::calls).sum();
+    }
+
+    /**
+     * @param failed calls answered with a status of 400 or above
+     */
+    public record ApiCalls(long calls, long failed, long requestBytes, long responseBytes) {}
+
+    public record SlowIssue(String linearIdentifier, String action, long durationMillis) {}
+}
@@ -0,0 +1,11 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+/**
+ * Outcome of reconstructing the sync state from the Linear ID custom field in Jira.
+ *
+ * @param linearIssues   number of Linear issues considered
+ * @param alreadyTracked issues that were already present in the sync state
+ * @param restored       issues whose Jira mapping was recovered
+ * @param notInJira      issues without a Jira counterpart (will be created by the next sync)
+ */
+public record StateRebuildResult(int linearIssues, int alreadyTracked, int restored, int notInJira, long durationMillis) {}
@@ -0,0 +1,64 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Progress of an interrupted sync run, saved with the state so the run can be resumed.
+ * <p>
+ * Issues are fetched in {@code updatedAt} order. {@link #cursor} is the Linear end cursor of the last page
+ * whose issues were all processed, {@link #completedIssueIds} the processed issues on the pages after it.
+ */
+public class SyncCheckpoint {
+
+    @JsonProperty("teamKey")
+    public String teamKey;
+
+    @JsonProperty("stateType")
+    public String stateType;
+
+    @JsonProperty("updatedAfter")
+    public Instant updatedAfter;
+
+    @JsonProperty("startedAt")
+    public Instant startedAt;
+
+    @JsonProperty("savedAt")
+    public Instant savedAt;
+
+    @JsonProperty("cursor")
+    public String cursor;
+
+    /**
+     * Newest {@code updatedAt} among the issues up to {@link #cursor}.
+     */
+    @JsonProperty("watermark")
+    public Instant watermark;
+
+    @JsonProperty("completedIssueIds")
+    public Set<String> completedIssueIds = new HashSet<>();
+
+    @JsonProperty("createdCount")
+    public int createdCount;
+
+    @JsonProperty("updatedCount")
+    public int updatedCount;
+
+    @JsonProperty("skippedCount")
+    public int skippedCount;
+
+    @JsonProperty("errorCount")
+    public int errorCount;
+
+    public SyncCheckpoint() {}
+
+    public SyncCheckpoint(String teamKey, String stateType, Instant updatedAfter) {
+        this.teamKey = teamKey;
+        this.stateType = stateType;
+        this.updatedAfter = updatedAfter;
+        this.startedAt = Instant.now();
+    }
+}
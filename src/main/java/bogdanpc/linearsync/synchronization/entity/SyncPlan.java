@@ -0,0 +1,81 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Jira operations a sync would perform, written by {@code sync --plan} and executed later by
+ * {@code sync --apply}.
+ * <p>
+ * Each step carries the fetched Linear issue and the Jira payload mapped from it, so applying the plan does not
+ * call Linear again. Issues whose synced content did not change get no step and are only counted.
+ */
+public class SyncPlan {
+
+    public enum Action {CREATE, UPDATE}
+
+    /**
+     * @param calls         Jira calls of the step by operation, a create counting as one element of a bulk request
+     * @param changedFields fields that differ from the synced issue, empty for creates
+     */
+    public record Step(
+            @JsonProperty("action") Action action,
+            @JsonProperty("linearIdentifier") String linearIdentifier,
+            @JsonProperty("jiraIssueKey") String jiraIssueKey,
+            @JsonProperty("changedFields") Set<IssueField> changedFields,
+            @JsonProperty("calls") Map<String, Integer> calls,
+            @JsonProperty("payload") JiraIssueInput payload,
+            @JsonProperty("fieldHashes") Map<IssueField, String> fieldHashes,
+            @JsonProperty("linearIssue") LinearIssue linearIssue
+    ) {}
+
+    /**
+     * @param apiCalls         Jira calls of all steps with the creates batched
+     * @param callsByOperation the same calls split by operation
+     * @param payloadBytes     size of the serialized payloads sent to Jira
+     * @param expectedMillis   expected duration at the configured time per call and parallelism
+     */
+    public record Estimate(
+            @JsonProperty("apiCalls") int apiCalls,
+            @JsonProperty("callsByOperation") Map<String, Integer> callsByOperation,
+            @JsonProperty("payloadBytes") long payloadBytes,
+            @JsonProperty("expectedMillis") long expectedMillis
+    ) {}
+
+    /**
+     * When the issues were fetched. Applying the plan moves the sync time to this point, so changes made in Linear
+     * after it are picked up by the next run.
+     */
+    @JsonProperty("createdAt")
+    public Instant createdAt;
+
+    @JsonProperty("teamKey")
+    public String teamKey;
+
+    @JsonProperty("stateType")
+    public String stateType;
+
+    @JsonProperty("updatedAfter")
+    public Instant updatedAfter;
+
+    @JsonProperty("unchangedCount")
+    public int unchangedCount;
+
+    @JsonProperty("estimate")
+    public Estimate estimate;
+
+    @JsonProperty("steps")
+    public List<Step> steps = new ArrayList<>();
+
+    public long count(Action action) {
+        return steps.stream().filter(step -> step.action() == action).count();
+    }
+}
@@ -2,40 +2,135 @@ package bogdanpc.linearsync.synchronization.entity;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Outcome of a sync run, of the same size however many issues the run processes: issue results are handed to the
+ * {@link ResultSink}s as they are added and only counted here. Results may be added from several worker threads;
+ * the counters are {@link LongAdder}s and the sinks are thread-safe.
+ * <p>
+ * Only the first {@value #MAX_KEPT_ERRORS} error messages are kept for the summary, {@link #errorCount()} counts all.
+ */
 public class SyncResult {
 
+    public static final int MAX_KEPT_ERRORS = 100;
+
     public Instant startTime;
     public Instant endTime;
     public boolean success;
-    public int createdCount = 0;
-    public int updatedCount = 0;
-    public int skippedCount = 0;
-    public List<String> errors = new ArrayList<>();
-    public List<IssueResult> issueResults = new ArrayList<>();
+    public boolean deadlineReached;
+    public int leftCount; // fetched issues not processed before the deadline
+    public int syncedIssues = -1; // issues in the sync state after the run, -1 until known
 
-    public void addIssueResult(IssueResult result) {
-        issueResults.add(result);
+    private final LongAdder created = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder pulled = new LongAdder(); // Linear issues changed from Jira by --bidirectional
+    private final LongAdder conflicts = new LongAdder(); // issues whose status changed on both sides
+    private final LongAdder errorCounter = new LongAdder();
+    private volatile boolean stateChanged; // a skipped issue still wrote to the sync state
+    private final List<String> keptErrors = Collections.synchronizedList(new ArrayList<>());
+    private final List<ResultSink> sinks = new CopyOnWriteArrayList<>();
 
+    public void addSink(ResultSink sink) {
+        sinks.add(sink);
+    }
+
+    public void addIssueResult(IssueResult result) {
         switch (result.action) {
-            case String s when s.equals("create") && result.success -> createdCount++;
-            case String s when s.equals("update") && result.success -> updatedCount++;
-            case String s when s.equals("skip") -> skippedCount++;
+            case String s when s.equals("create") && result.success -> created.increment();
+            case String s when s.equals("update") && result.success -> updated.increment();
+            case String s when s.equals("skip") -> skipped.increment();
+            case String s when s.equals("pull") && result.success -> pulled.increment();
+            case String s when s.equals("conflict") -> conflicts.increment();
             default -> {}
         }
 
+        if (result.stateChanged) {
+            stateChanged = true;
+        }
         if (!result.success && result.message != null) {
-            errors.add(result.message);
+            countError(result.message);
+        }
+
+        for (var sink : sinks) {
+            sink.issueResult(result);
         }
     }
 
     public void addError(String error) {
-        errors.add(error);
+        countError(error);
+        for (var sink : sinks) {
+            sink.error(error);
+        }
     }
 
+    private void countError(String error) {
+        errorCounter.increment();
+        if (keptErrors.size() < MAX_KEPT_ERRORS) {
+            keptErrors.add(error);
+        }
+    }
+
+    /**
+     * Counts carried over from the interrupted run that a resumed run continues.
+     */
+    public void restoreCounts(int createdCount, int updatedCount, int skippedCount) {
+        created.add(createdCount);
+        updated.add(updatedCount);
+        skipped.add(skippedCount);
+    }
+
+    /**
+     * Tells the sinks that the run is over.
+     */
+    public void complete() {
+        for (var sink : sinks) {
+            sink.completed(this);
+        }
+    }
+
+    public int createdCount() {
+        return created.intValue();
+    }
+
+    public int updatedCount() {
+        return updated.intValue();
+    }
+
+    public int skippedCount() {
+        return skipped.intValue();
+    }
+
+    public int pulledCount() {
+        return pulled.intValue();
+    }
+
+    public int conflictCount() {
+        return conflicts.intValue();
+    }
+
+    public int errorCount() {
+        return errorCounter.intValue();
+    }
+
+    /**
+     * The first {@value #MAX_KEPT_ERRORS} error messages.
+     */
+    public List<String> errors() {
+        synchronized (keptErrors) {
+            return List.copyOf(keptErrors);
+        }
+    }
+
+    /**
+     * Whether the run changed the sync state, so it has to be saved.
+     */
     public boolean hasChanges() {
-        return createdCount > 0 || updatedCount > 0;
+        return createdCount() > 0 || updatedCount() > 0 || stateChanged;
     }
 
     public long getDurationMillis() {
@@ -50,16 +145,27 @@ public class SyncResult {
         summary.append("Sync Result Summary:\n");
         summary.append("- Success: ").append(success).append("\n");
         summary.append("- Duration: ").append(getDurationMillis()).append("ms\n");
-        summary.append("- Created: ").append(createdCount).append("\n");
-        summary.append("- Updated: ").append(updatedCount).append("\n");
-        summary.append("- Skipped: ").append(skippedCount).append("\n");
-        summary.append("- Errors: ").append(errors.size()).append("\n");
+        summary.append("- Created: ").append(createdCount()).append("\n");
+        summary.append("- Updated: ").append(updatedCount()).append("\n");
+        summary.append("- Skipped: ").append(skippedCount()).append("\n");
+        if (pulledCount() > 0 || conflictCount() > 0) {
+            summary.append("- Pulled from Jira: ").append(pulledCount()).append("\n");
+            summary.append("- Conflicts: ").append(conflictCount()).append("\n");
+        }
+        summary.append("- Errors: ").append(errorCount()).append("\n");
+        if (deadlineReached) {
+            summary.append("- Left for the next run: ").append(leftCount).append(" fetched issues and any unfetched pages\n");
+        }
 
+        var errors = errors();
         if (!errors.isEmpty()) {
             summary.append("\nErrors:\n");
             for (String error : errors) {
                 summary.append("- ").append(error).append("\n");
             }
+            if (errorCount() > errors.size()) {
+                summary.append("- ... and ").append(errorCount() - errors.size()).append(" more\n");
+            }
         }
 
         return summary.toString();
@@ -69,13 +175,15 @@ public class SyncResult {
         public String linearIssueId;
         public String linearIdentifier;
         public String jiraIssueKey;
-        public String action; // "create", "update", "skip"
+        public String action; // "create", "update", "skip", "pull", "conflict"
         public boolean success;
         public String message;
+        public long durationMillis; // time spent writing the issue, including its share of a bulk request
+        public boolean stateChanged; // a skip that still updated the issue's entry, e.g. with uploaded attachments
 
         @Override
         public String toString() {
             return String.format("IssueResult{linear=%s, jira=%s, action=%s, success=%s, message='%s'}", linearIdentifier, jiraIssueKey, action, success, message);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,90 @@
 package bogdanpc.linearsync.synchronization.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Persistent sync state. Safe for concurrent issue processing: the issue map is concurrent, and the
+ * mutable parts of a {@link SyncedIssue} are only touched while holding {@link #lockIssue(String)} for it.
+ * <p>
+ * {@link #syncedIssues} holds the issues as objects; {@link #compactIssues()} moves them into a
+ * {@link CompactIssueTable}, from which {@link #getSyncedIssue(String)} brings an issue back on first use.
+ * Serialization covers both.
+ */
 public class SyncState {
 
     @JsonProperty("lastSyncTime")
     public Instant lastSyncTime;
 
-    @JsonProperty("syncedIssues")
-    public Map<String, SyncedIssue> syncedIssues = new HashMap<>();
+    @JsonIgnore
+    public Map<String, SyncedIssue> syncedIssues = new ConcurrentHashMap<>();
 
     @JsonProperty("version")
     public String version = "1.0";
 
+    /**
+     * Progress of the last sync run if it did not complete, null otherwise.
+     */
+    @JsonProperty("checkpoint")
+    public SyncCheckpoint checkpoint;
+
+    /**
+     * When each team was last synced on its own, see {@link #lastSyncTime(String)}.
+     */
+    @JsonProperty("teamSyncTimes")
+    public Map<String, Instant> teamSyncTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Watermark of the Jira change feed: Jira issues updated since then have not been read back yet.
+     * Null until {@code --bidirectional} first ran.
+     */
+    @JsonProperty("jiraSyncTime")
+    public Instant jiraSyncTime;
+
+    @JsonIgnore
+    private final Map<String, IssueLock> issueLocks = new ConcurrentHashMap<>();
+
+    // Held shared by every issue in processing and exclusively by runExclusively
+    @JsonIgnore
+    private final ReadWriteLock processingLock = new ReentrantReadWriteLock();
+
+    @JsonIgnore
+    private final Set<String> changedIssueIds = ConcurrentHashMap.newKeySet();
+
+    @JsonIgnore
+    private volatile IssueSource issueSource;
+
+    /**
+     * Issues stored outside of {@link #syncedIssues}, read on demand. An issue found there is kept in
+     * {@link #syncedIssues} from then on, so changes made to it are saved.
+     */
+    public interface IssueSource {
+        SyncedIssue find(String linearIssueId);
+
+        default boolean contains(String linearIssueId) {
+            return find(linearIssueId) != null;
+        }
+
+        SyncedIssue findByJiraKey(String jiraIssueKey);
+
+        int size();
+    }
+
     public static class SyncedIssue {
         @JsonProperty("linearIssueId")
         public String linearIssueId;
@@ -29,6 +95,12 @@ public class SyncState {
         @JsonProperty("jiraIssueId")
         public String jiraIssueId;
 
+        /**
+         * Key of the Jira parent when the issue was created as a subtask.
+         */
+        @JsonProperty("jiraParentKey")
+        public String jiraParentKey;
+
         @JsonProperty("lastSyncTime")
         public Instant lastSyncTime;
 
@@ -44,6 +116,13 @@ public class SyncState {
         @JsonProperty("syncedAttachments")
         public Set<String> syncedAttachments = new HashSet<>();
 
+        /**
+         * Content hashes of the values last pushed to Jira, keyed by field name.
+         * Empty for issues synced before hashes were tracked.
+         */
+        @JsonProperty("fieldHashes")
+        public Map<String, String> fieldHashes = new HashMap<>();
+
         public SyncedIssue() {}
 
         public SyncedIssue(String linearIssueId, String jiraIssueKey, String jiraIssueId) {
@@ -59,30 +138,233 @@ public class SyncState {
         ERROR
     }
 
+    /**
+     * Locks the processing of one Linear issue, which may take several API calls, until {@link #unlockIssue}.
+     * Each issue has a lock of its own, so only work on the same issue waits; the lock is reentrant.
+     */
+    public void lockIssue(String linearIssueId) {
+        processingLock.readLock().lock();
+        var lock = issueLocks.compute(linearIssueId, (_, existing) -> {
+            var issueLock = existing != null ? existing : new IssueLock();
+            issueLock.holders++;
+            return issueLock;
+        });
+        lock.lock();
+    }
+
+    /**
+     * Releases {@link #lockIssue}, dropping the issue's lock once nobody holds or waits for it.
+     */
+    public void unlockIssue(String linearIssueId) {
+        issueLocks.get(linearIssueId).unlock();
+        issueLocks.computeIfPresent(linearIssueId, (_, issueLock) -> --issueLock.holders > 0 ? issueLock : null);
+        processingLock.readLock().unlock();
+    }
+
+    /**
+     * Runs the action once no issue is in processing, holding off new ones until it is done, so no issue is
+     * half-processed while it runs.
+     */
+    public void runExclusively(Runnable action) {
+        processingLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            processingLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the threads holding or waiting for the lock; only changed within {@link ConcurrentHashMap#compute}.
+     */
+    private static final class IssueLock extends ReentrantLock {
+        int holders;
+    }
+
     public void addSyncedIssue(String linearIssueId, String jiraIssueKey, String jiraIssueId) {
         syncedIssues.put(linearIssueId, new SyncedIssue(linearIssueId, jiraIssueKey, jiraIssueId));
+        markChanged(linearIssueId);
+    }
+
+    /**
+     * Records that the entry of an issue was added, modified or removed since the state was last saved.
+     */
+    public void markChanged(String linearIssueId) {
+        changedIssueIds.add(linearIssueId);
+    }
+
+    /**
+     * Returns the issues marked as changed and forgets them.
+     */
+    public Set<String> drainChangedIssueIds() {
+        var drained = new HashSet<String>();
+        for (var iterator = changedIssueIds.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * Looks up issues missing from {@link #syncedIssues} in the given source.
+     */
+    public void attachIssueSource(IssueSource issueSource) {
+        this.issueSource = issueSource;
     }
 
     public SyncedIssue getSyncedIssue(String linearIssueId) {
-        return syncedIssues.get(linearIssueId);
+        var syncedIssue = syncedIssues.get(linearIssueId);
+        var source = issueSource;
+        if (syncedIssue != null || source == null) {
+            return syncedIssue;
+        }
+        var stored = source.find(linearIssueId);
+        if (stored == null) {
+            return null;
+        }
+        var existing = syncedIssues.putIfAbsent(linearIssueId, stored);
+        return existing != null ? existing : stored;
+    }
+
+    public SyncedIssue findByJiraKey(String jiraIssueKey) {
+        for (var syncedIssue : syncedIssues.values()) {
+            if (jiraIssueKey.equals(syncedIssue.jiraIssueKey)) {
+                return syncedIssue;
+            }
+        }
+        var source = issueSource;
+        var stored = source != null ? source.findByJiraKey(jiraIssueKey) : null;
+        return stored != null ? getSyncedIssue(stored.linearIssueId) : null;
     }
 
     public boolean isIssueAlreadySynced(String linearIssueId) {
-        return syncedIssues.containsKey(linearIssueId);
+        if (syncedIssues.containsKey(linearIssueId)) {
+            return true;
+        }
+        var source = issueSource;
+        return source != null && source.contains(linearIssueId);
+    }
+
+    /**
+     * Moves the issues held as objects into the compact table, unless the issue source is another store.
+     * Only call it while no issue is being processed, e.g. under {@link #runExclusively(Runnable)}, since
+     * changes made through references to the moved objects are lost.
+     */
+    public void compactIssues() {
+        var source = issueSource;
+        if (source != null && !(source instanceof CompactIssueTable)) {
+            return;
+        }
+        var table = (CompactIssueTable) source;
+        if (table == null) {
+            table = new CompactIssueTable();
+            issueSource = table;
+        }
+        for (var entry : syncedIssues.entrySet()) {
+            var syncedIssue = entry.getValue();
+            if (entry.getKey().equals(syncedIssue.linearIssueId)) {
+                table.put(syncedIssue);
+                syncedIssues.remove(entry.getKey(), syncedIssue);
+            }
+        }
+    }
+
+    public void removeSyncedIssue(String linearIssueId) {
+        syncedIssues.remove(linearIssueId);
+        if (issueSource instanceof CompactIssueTable table) {
+            table.remove(linearIssueId);
+        }
+        markChanged(linearIssueId);
+    }
+
+    /**
+     * All synced issues: those held as objects, then copies of the compacted ones not held as objects.
+     */
+    public Iterable<SyncedIssue> allSyncedIssues() {
+        if (!(issueSource instanceof CompactIssueTable table)) {
+            return syncedIssues.values();
+        }
+        return () -> Stream.concat(
+                syncedIssues.values().stream(),
+                StreamSupport.stream(table.spliterator(), false)
+                        .filter(syncedIssue -> !syncedIssues.containsKey(syncedIssue.linearIssueId))
+        ).iterator();
+    }
+
+    @JsonProperty("syncedIssues")
+    private Map<String, SyncedIssue> serializedIssues() {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, SyncedIssue>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, SyncedIssue>> iterator() {
+                        return StreamSupport.stream(allSyncedIssues().spliterator(), false)
+                                .map(syncedIssue -> Map.entry(syncedIssue.linearIssueId, syncedIssue))
+                                .iterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return issueCount();
+                    }
+                };
+            }
+        };
+    }
+
+    @JsonProperty("syncedIssues")
+    private void readSyncedIssues(Map<String, SyncedIssue> issues) {
+        if (issues != null) {
+            syncedIssues.putAll(issues);
+        }
+    }
+
+    /**
+     * Number of synced issues, including those of the issue source not read yet.
+     */
+    public int issueCount() {
+        var source = issueSource;
+        if (source == null) {
+            return syncedIssues.size();
+        }
+        var count = source.size();
+        for (var linearIssueId : syncedIssues.keySet()) {
+            if (!source.contains(linearIssueId)) {
+                count++;
+            }
+        }
+        return count;
     }
 
     public void updateLastSyncTime() {
         this.lastSyncTime = Instant.now();
     }
 
+    /**
+     * When the issues of a team were last synced: the later of the team's own sync and the last sync of
+     * all teams. Null selects the last sync of all teams.
+     */
+    public Instant lastSyncTime(String teamKey) {
+        var teamSyncTime = teamKey != null ? teamSyncTimes.get(teamKey) : null;
+        if (teamSyncTime == null || lastSyncTime != null && lastSyncTime.isAfter(teamSyncTime)) {
+            return lastSyncTime;
+        }
+        return teamSyncTime;
+    }
+
     public void markAttachmentSynced(String linearIssueId, String attachmentId) {
         var syncedIssue = getSyncedIssue(linearIssueId);
         if (syncedIssue != null) {
             syncedIssue.syncedAttachments.add(attachmentId);
+            markChanged(linearIssueId);
         }
     }
 
     public boolean isAttachmentAlreadySynced(String linearIssueId, String attachmentId) {
+        if (!syncedIssues.containsKey(linearIssueId) && issueSource instanceof CompactIssueTable table) {
+            return table.hasAttachment(linearIssueId, attachmentId);
+        }
         var syncedIssue = getSyncedIssue(linearIssueId);
         return syncedIssue != null && syncedIssue.syncedAttachments.contains(attachmentId);
     }
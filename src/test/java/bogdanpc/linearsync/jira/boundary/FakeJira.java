@@ -0,0 +1,131 @@
+package bogdanpc.linearsync.jira.boundary;
+
+import bogdanpc.linearsync.jira.control.IssueFieldHasher;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueChange;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import bogdanpc.linearsync.jira.entity.JiraIssueReference;
+import bogdanpc.linearsync.jira.entity.JiraIssueSnapshot;
+import bogdanpc.linearsync.jira.entity.JiraIssueUpdate;
+import jakarta.enterprise.inject.Vetoed;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Jira for the tests that run without one. Issues are found in {@link #existing}, writes are recorded, the change
+ * feed and the audit read what the test put into {@link #updatedIssues}, {@link #changes} and {@link #snapshots},
+ * and the failure switches make the matching calls fail. Vetoed, so the Quarkus tests keep injecting the real one.
+ */
+@Vetoed
+public class FakeJira extends Jira {
+
+    // Jira statuses of the Linear state types
+    public static final Map<String, String> STATUSES = Map.of("unstarted", "To Do", "started", "In Progress", "completed", "Done");
+
+    public final Map<String, JiraIssueReference> existing = new HashMap<>();
+    public final List<List<String>> lookups = new ArrayList<>();
+    public final List<String> updates = new ArrayList<>();
+    public final List<String> transitions = new ArrayList<>();
+    public final List<String> commentSyncs = new ArrayList<>();
+    public final List<List<String>> uploads = new ArrayList<>();
+    public final List<JiraIssueUpdate> updatedIssues = new ArrayList<>();
+    public final Map<String, JiraIssueChange> changes = new HashMap<>();
+    public final List<JiraIssueSnapshot> snapshots = new ArrayList<>();
+    public boolean lookupFails;
+    public boolean transitionFails;
+    public boolean commentsFail;
+    public boolean attachmentsFail;
+    public int scans;
+    public int reads;
+
+    private final IssueFieldHasher hasher = new IssueFieldHasher();
+
+    public FakeJira() {
+        super(null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Makes the change feed report the issue as updated, with the given change.
+     */
+    public void update(String key, String linearIssueId, Instant updated, JiraIssueChange change) {
+        updatedIssues.add(new JiraIssueUpdate("1" + linearIssueId, key, linearIssueId, updated));
+        changes.put(key, change);
+    }
+
+    @Override
+    public Map<String, JiraIssueReference> findIssuesBySourceIds(Collection<String> sourceIssueIds) {
+        lookups.add(List.copyOf(sourceIssueIds));
+        if (lookupFails) {
+            throw new RuntimeException("Jira is unavailable");
+        }
+        var found = new HashMap<String, JiraIssueReference>();
+        sourceIssueIds.stream().filter(existing::containsKey).forEach(id -> found.put(id, existing.get(id)));
+        return found;
+    }
+
+    @Override
+    public void updateIssue(String jiraIssueKey, JiraIssueInput issueInput, Set<IssueField> changedFields) {
+        updates.add(jiraIssueKey);
+    }
+
+    @Override
+    public boolean transitionIssueStatus(String jiraIssueKey, String linearStateType) {
+        transitions.add(jiraIssueKey);
+        return !transitionFails;
+    }
+
+    @Override
+    public boolean syncComments(String jiraIssueKey, JiraIssueInput issueInput) {
+        commentSyncs.add(jiraIssueKey);
+        return !commentsFail;
+    }
+
+    @Override
+    public void syncAttachments(String jiraIssueKey, JiraIssueInput issueInput) {
+        if (attachmentsFail) {
+            throw new RuntimeException("Jira is unavailable");
+        }
+        uploads.add(issueInput.attachments().stream().map(JiraIssueInput.AttachmentInput::id).toList());
+    }
+
+    @Override
+    public void scanUpdatedIssues(Instant since, Consumer<List<JiraIssueUpdate>> pageConsumer) {
+        scans++;
+        pageConsumer.accept(List.copyOf(updatedIssues));
+    }
+
+    @Override
+    public JiraIssueChange readChanges(String jiraIssueKey, Instant since) {
+        reads++;
+        return changes.get(jiraIssueKey);
+    }
+
+    @Override
+    public String statusHash(String status) {
+        return hasher.statusHash(status);
+    }
+
+    @Override
+    public String jiraStatusFor(String linearStateType) {
+        return linearStateType != null ? STATUSES.get(linearStateType) : null;
+    }
+
+    @Override
+    public void scanIssueSnapshots(Consumer<List<JiraIssueSnapshot>> pageConsumer) {
+        pageConsumer.accept(List.copyOf(snapshots));
+    }
+
+    @Override
+    public Map<IssueField, String> auditHashes(JiraIssueInput issueInput) {
+        var labels = issueInput.labels().stream().map(JiraIssueInput.LabelInput::name).toList();
+        return hasher.hashStored("[" + issueInput.sourceIdentifier() + "] " + issueInput.title(),
+                STATUSES.get(issueInput.stateType()), labels);
+    }
+}
@@ -0,0 +1,70 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueFieldHasherTest {
+
+    private final IssueFieldHasher hasher = new IssueFieldHasher();
+
+    @Test
+    void testSameContentProducesSameHashes() {
+        var first = hasher.hash(createInput("Title", "Description", "started", List.of("bug", "backend")));
+        var second = hasher.hash(createInput("Title", "Description", "started", List.of("bug", "backend")));
+
+        assertEquals(first, second);
+        assertEquals(IssueField.values().length, first.size());
+        assertEquals(16, first.get(IssueField.SUMMARY).length());
+    }
+
+    @Test
+    void testLabelOrderDoesNotChangeHash() {
+        var first = hasher.hash(createInput("Title", "Description", "started", List.of("bug", "backend")));
+        var second = hasher.hash(createInput("Title", "Description", "started", List.of("backend", "bug")));
+
+        assertEquals(first.get(IssueField.LABELS), second.get(IssueField.LABELS));
+    }
+
+    @Test
+    void testOnlyChangedFieldDiffers() {
+        var before = hasher.hash(createInput("Title", "Description", "started", List.of("bug")));
+        var after = hasher.hash(createInput("Title", "Updated description", "completed", List.of("bug")));
+
+        assertEquals(before.get(IssueField.SUMMARY), after.get(IssueField.SUMMARY));
+        assertEquals(before.get(IssueField.LABELS), after.get(IssueField.LABELS));
+        assertEquals(before.get(IssueField.PRIORITY), after.get(IssueField.PRIORITY));
+        assertNotEquals(before.get(IssueField.DESCRIPTION), after.get(IssueField.DESCRIPTION));
+        assertNotEquals(before.get(IssueField.STATUS), after.get(IssueField.STATUS));
+    }
+
+    private JiraIssueInput createInput(String title, String description, String stateType, List<String> labels) {
+        return new JiraIssueInput(
+                "issue-123",
+                "ENG-123",
+                title,
+                description,
+                2,
+                "In Progress",
+                stateType,
+                null,
+                null,
+                null,
+                null,
+                "Engineering",
+                "ENG",
+                labels.stream().map(name -> new JiraIssueInput.LabelInput(name, "#ff0000")).toList(),
+                List.of(),
+                List.of(),
+                Instant.parse("2024-01-01T10:00:00Z"),
+                Instant.parse("2024-01-02T10:00:00Z"),
+                "https://linear.app/test/issue/ENG-123",
+                null
+        );
+    }
+}
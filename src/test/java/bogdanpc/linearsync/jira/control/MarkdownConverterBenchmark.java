@@ -0,0 +1,77 @@
+package bogdanpc.linearsync.jira.control;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Markdown to ADF conversion of large descriptions.
+ * Run with: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=bogdanpc.linearsync.jira.control.MarkdownConverterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkdownConverterBenchmark {
+
+    private static final String SECTION = """
+            ## Context
+
+            The **sync** job fails for issues with _large_ descriptions, see https://linear.app/team/issue/ENG-42
+            and the [runbook](https://example.com/runbook). Reported by @jane.doe, using `--force-full-sync`.
+
+            - first item with `inline code`
+            - second item
+              - nested with ~~old~~ new value
+            1. ordered
+            2. steps
+
+            > Quoted note
+            > spanning lines
+
+            ```java
+            var converter = new MarkdownConverter();
+            converter.toDocument(markdown);
+            ```
+
+            ---
+            """;
+
+    @Param({"1", "16", "256"})
+    int sections;
+
+    private String markdown;
+    private MarkdownConverter converter;
+
+    @Setup
+    public void setUp() {
+        markdown = SECTION.repeat(sections);
+        converter = new MarkdownConverter();
+    }
+
+    @Benchmark
+    public Object convert() {
+        return converter.toDocument(markdown);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MarkdownConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.jira.entity.AdfNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownConverterTest {
+
+    private final MarkdownConverter converter = new MarkdownConverter();
+
+    @Test
+    void testEmptyMarkdownProducesEmptyDocument() {
+        var document = converter.toDocument(null);
+
+        assertEquals("doc", document.type());
+        assertEquals(1, document.version());
+        assertTrue(document.content().isEmpty());
+    }
+
+    @Test
+    void testHeadingAndParagraph() {
+        var document = converter.toDocument("## Summary\n\nFirst line\nsecond line");
+
+        var heading = document.content().get(0);
+        assertEquals("heading", heading.type());
+        assertEquals(2, heading.attrs().get("level"));
+        assertEquals("Summary", heading.content().getFirst().text());
+
+        var paragraph = document.content().get(1);
+        assertEquals("paragraph", paragraph.type());
+        assertEquals(List.of("text", "hardBreak", "text"), paragraph.content().stream().map(AdfNode::type).toList());
+    }
+
+    @Test
+    void testInlineMarks() {
+        var paragraph = converter.toDocument("Use **bold**, `code` and [docs](https://example.com) in snake_case_name")
+                .content().getFirst();
+
+        var bold = paragraph.content().get(1);
+        assertEquals("bold", bold.text());
+        assertEquals("strong", bold.marks().getFirst().type());
+
+        var code = paragraph.content().get(3);
+        assertEquals("code", code.text());
+        assertEquals("code", code.marks().getFirst().type());
+
+        var link = paragraph.content().get(5);
+        assertEquals("docs", link.text());
+        assertEquals("https://example.com", link.marks().getFirst().attrs().get("href"));
+
+        assertEquals(" in snake_case_name", paragraph.content().get(6).text());
+    }
+
+    @Test
+    void testNestedLists() {
+        var list = converter.toDocument("- one\n  - nested\n- two").content().getFirst();
+
+        assertEquals("bulletList", list.type());
+        assertEquals(2, list.content().size());
+
+        var firstItem = list.content().getFirst();
+        assertEquals("paragraph", firstItem.content().get(0).type());
+        assertEquals("bulletList", firstItem.content().get(1).type());
+        assertEquals("nested", firstItem.content().get(1).plainText());
+    }
+
+    @Test
+    void testOrderedListKeepsStartNumber() {
+        var list = converter.toDocument("3. three\n4. four").content().getFirst();
+
+        assertEquals("orderedList", list.type());
+        assertEquals(3, list.attrs().get("order"));
+        assertEquals(2, list.content().size());
+    }
+
+    @Test
+    void testFencedCodeBlockKeepsContentVerbatim() {
+        var block = converter.toDocument("```java\nvar a = **b**;\n\n# not a heading\n```").content().getFirst();
+
+        assertEquals("codeBlock", block.type());
+        assertEquals("java", block.attrs().get("language"));
+        assertEquals("var a = **b**;\n\n# not a heading", block.content().getFirst().text());
+    }
+
+    @Test
+    void testBlockquoteAndRule() {
+        var document = converter.toDocument("> quoted *text*\n\n---");
+
+        assertEquals("blockquote", document.content().get(0).type());
+        assertEquals("paragraph", document.content().get(0).content().getFirst().type());
+        assertEquals("rule", document.content().get(1).type());
+    }
+
+    @Test
+    void testMentionsAndBareUrls() {
+        var paragraph = converter.toDocument("Ping @john.doe about https://example.com/path.").content().getFirst();
+
+        var mention = paragraph.content().get(1);
+        assertEquals("@john.doe", mention.text());
+        assertEquals("strong", mention.marks().getFirst().type());
+
+        var url = paragraph.content().get(3);
+        assertEquals("https://example.com/path", url.text());
+        assertEquals("link", url.marks().getFirst().type());
+        assertEquals(".", paragraph.content().get(4).text());
+    }
+}
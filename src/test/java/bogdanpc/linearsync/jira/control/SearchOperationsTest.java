@@ -0,0 +1,101 @@
+package bogdanpc.linearsync.jira.control;
+
+import bogdanpc.linearsync.monitoring.control.ApiCallFilter;
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.quarkiverse.wiremock.devservice.ConnectWireMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@ConnectWireMock
+class SearchOperationsTest {
+
+    @Inject
+    SearchOperations searchOperations;
+
+    @Inject
+    Metrics metrics;
+
+    WireMock wiremock;
+
+    @Test
+    void testIssuesAreResolvedThroughTheLinearIdField() {
+        var stub = wiremock.register(get(urlPathEqualTo("/jira/rest/api/3/search/jql"))
+                .withQueryParam("fields", equalTo("customfield_10000"))
+                .atPriority(1)
+                .willReturn(okJson("""
+                        {
+                          "issues": [
+                            {"id": "10001", "key": "TEST-1", "fields": {"customfield_10000": "lin-1"}},
+                            {"id": "10002", "key": "TEST-2", "fields": {"customfield_10000": null}},
+                            {"id": "10003", "key": "TEST-3", "fields": {}},
+                            {"id": "10004", "key": "TEST-4", "fields": {"customfield_10000": "lin-1"}},
+                            {"id": "10005", "key": "TEST-5", "fields": {"customfield_10000": "lin-2"}}
+                          ],
+                          "isLast": true
+                        }
+                        """)));
+
+        try {
+            var found = searchOperations.findIssuesBySourceIds(List.of("lin-1", "lin-2", "lin-3"));
+
+            assertEquals(2, found.size(), "Issues without the Linear ID are skipped");
+            assertEquals("TEST-1", found.get("lin-1").key(), "The first issue linked to a Linear ID is kept");
+            assertEquals("10005", found.get("lin-2").id());
+            assertFalse(found.containsKey("lin-3"));
+            wiremock.verifyThat(getRequestedFor(urlPathEqualTo("/jira/rest/api/3/search/jql"))
+                    .withQueryParam("jql", equalTo("cf[10000] in (\"lin-1\", \"lin-2\", \"lin-3\")")));
+        } finally {
+            wiremock.removeStubMapping(stub);
+        }
+    }
+
+    @Test
+    void testFailedSearchFailsTheLookup() {
+        var stub = wiremock.register(get(urlPathEqualTo("/jira/rest/api/3/search/jql"))
+                .withQueryParam("fields", equalTo("customfield_10000"))
+                .atPriority(1)
+                .willReturn(serverError()));
+
+        try {
+            assertThrows(RuntimeException.class, () -> searchOperations.findIssuesBySourceIds(List.of("lin-1")),
+                    "A missing mapping would turn into a duplicate issue");
+        } finally {
+            wiremock.removeStubMapping(stub);
+        }
+    }
+
+    @Test
+    void testSearchWithoutResponseIsCountedAsError() {
+        var stub = wiremock.register(get(urlPathEqualTo("/jira/rest/api/3/search/jql"))
+                .withQueryParam("fields", equalTo("customfield_10000"))
+                .atPriority(1)
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        try {
+            var before = errors();
+            assertThrows(RuntimeException.class, () -> searchOperations.findIssuesBySourceIds(List.of("lin-1")));
+
+            assertTrue(errors() > before, "The reset connection is counted although no response filter ran");
+        } finally {
+            wiremock.removeStubMapping(stub);
+        }
+    }
+
+    private double errors() {
+        return metrics.samples(ApiCallFilter.REQUESTS).stream()
+                .filter(sample -> sample.tags().equals(Map.of("client", "jira", "endpoint", "searchIssueReferences",
+                        "status", ApiCallFilter.ERROR_STATUS)))
+                .mapToDouble(Metrics.Sample::value)
+                .sum();
+    }
+}
@@ -0,0 +1,151 @@
+package bogdanpc.linearsync.linear.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueMirrorTest {
+
+    private static final Duration FIVE_MINUTES = Duration.ofMinutes(5);
+
+    @TempDir
+    Path directory;
+
+    private FakeLinear linear;
+
+    @BeforeEach
+    void setUp() {
+        linear = new FakeLinear();
+    }
+
+    @Test
+    void testFreshMirrorIsServedWithoutCallingLinear() {
+        linear.issues.add(issue("1", "ENG-1", "ENG", "started", "me@example.com", "2024-01-01T00:00:00Z"));
+        linear.issues.add(issue("2", "ENG-2", "ENG", "completed", "other@example.com", "2024-01-02T00:00:00Z"));
+
+        var first = new IssueMirror(linear, directory, FIVE_MINUTES).issues("ENG", null, null, false, FIVE_MINUTES);
+        var again = new IssueMirror(linear, directory, FIVE_MINUTES);
+
+        assertEquals(2, first.size());
+        assertEquals(List.of("ENG-1"), again.issues("ENG", "started", null, false, FIVE_MINUTES).stream().map(LinearIssue::identifier).toList());
+        assertEquals(List.of("ENG-1"), again.issues("ENG", null, null, true, FIVE_MINUTES).stream().map(LinearIssue::identifier).toList());
+        assertEquals("ENG-2", again.issue("ENG-2", FIVE_MINUTES).orElseThrow().identifier());
+        assertEquals(1, linear.streams);
+        assertEquals(1, linear.viewerCalls);
+        assertEquals(0, linear.singleReads);
+    }
+
+    @Test
+    void testStaleMirrorFetchesOnlyIssuesUpdatedSinceTheLastRefresh() {
+        linear.issues.add(issue("1", "ENG-1", "ENG", "started", null, "2024-01-01T00:00:00Z"));
+        var mirror = new IssueMirror(linear, directory, Duration.ZERO);
+        mirror.issues("ENG", null, null, false, Duration.ZERO);
+
+        linear.issues.set(0, issue("1", "ENG-1", "ENG", "completed", null, Instant.now().toString()));
+        var issues = mirror.issues("ENG", "completed", null, false, Duration.ZERO);
+
+        assertEquals(2, linear.streams);
+        assertNull(linear.updatedAfters.getFirst());
+        assertNotNull(linear.updatedAfters.get(1));
+        assertEquals(1, issues.size());
+        assertEquals("completed", issues.getFirst().state().type());
+    }
+
+    @Test
+    void testUnchangedContentIsNotRewritten() throws Exception {
+        var issue = issue("1", "ENG-1", "ENG", "started", null, "2024-01-01T00:00:00Z");
+        var mirror = new IssueMirror(linear, directory, FIVE_MINUTES);
+        mirror.record(List.of(issue));
+        mirror.save();
+        var written = Files.getLastModifiedTime(directory.resolve(IssueMirror.ISSUES_FILE));
+        Thread.sleep(20);
+
+        mirror.record(List.of(issue));
+        mirror.save();
+
+        assertEquals(written, Files.getLastModifiedTime(directory.resolve(IssueMirror.ISSUES_FILE)));
+        var touched = issue("1", "ENG-1", "ENG", "started", null, "2024-01-05T00:00:00Z");
+        assertEquals(mirror.contentHash(issue), mirror.contentHash(touched));
+        assertNotEquals(mirror.contentHash(issue), mirror.contentHash(issue("1", "ENG-1 ", "ENG", "started", null, "2024-01-01T00:00:00Z")));
+    }
+
+    @Test
+    void testStaleIssueIsReadFromLinear() {
+        var mirror = new IssueMirror(linear, directory, FIVE_MINUTES);
+        mirror.record(List.of(issue("1", "ENG-1", "ENG", "started", null, "2024-01-01T00:00:00Z")));
+        linear.issues.add(issue("1", "ENG-1", "ENG", "completed", null, "2024-01-02T00:00:00Z"));
+
+        var read = mirror.issue("ENG-1", FIVE_MINUTES).orElseThrow();
+        var again = mirror.issue("ENG-1", FIVE_MINUTES).orElseThrow();
+
+        assertEquals("completed", read.state().type());
+        assertEquals(read, again);
+        assertEquals(1, linear.singleReads);
+    }
+
+    @Test
+    void testCompleteSyncFetchCountsAsRefresh() {
+        var mirror = new IssueMirror(linear, directory, FIVE_MINUTES);
+        mirror.fetched("ENG", Instant.parse("2024-01-01T00:00:00Z"), Instant.now());
+        mirror.issues("ENG", null, null, false, FIVE_MINUTES);
+        assertEquals(1, linear.streams, "A partial fetch does not count as a refresh");
+
+        mirror.fetched("OPS", null, Instant.now());
+        mirror.issues("OPS", null, null, false, FIVE_MINUTES);
+        assertEquals(1, linear.streams);
+    }
+
+    private static LinearIssue issue(String id, String identifier, String team, String stateType, String assigneeEmail, String updatedAt) {
+        return LinearIssues.issue(id).identifier(identifier).priority(0).stateType(stateType).assigneeEmail(assigneeEmail)
+                .team(team).updatedAt(Instant.parse(updatedAt)).build();
+    }
+
+    private static class FakeLinear extends IssueOperations {
+
+        final List<LinearIssue> issues = new ArrayList<>();
+        final List<Instant> updatedAfters = new ArrayList<>();
+        int streams;
+        int singleReads;
+        int viewerCalls;
+
+        FakeLinear() {
+            super(null);
+        }
+
+        @Override
+        public void streamIssues(String teamKey, String stateType, Instant updatedAfter, String afterCursor,
+                                 BiConsumer<List<LinearIssue>, String> pageConsumer) {
+            streams++;
+            updatedAfters.add(updatedAfter);
+            pageConsumer.accept(issues.stream()
+                    .filter(issue -> teamKey == null || teamKey.equals(issue.team().key()))
+                    .filter(issue -> updatedAfter == null || issue.updatedAt().isAfter(updatedAfter))
+                    .toList(), null);
+        }
+
+        @Override
+        public Optional<LinearIssue> getIssueByIdentifier(String identifier) {
+            singleReads++;
+            return issues.stream().filter(issue -> issue.identifier().equals(identifier)).findFirst();
+        }
+
+        @Override
+        public String getCurrentUserEmail() {
+            viewerCalls++;
+            return "me@example.com";
+        }
+    }
+}
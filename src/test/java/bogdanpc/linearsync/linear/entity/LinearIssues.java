@@ -0,0 +1,113 @@
+package bogdanpc.linearsync.linear.entity;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Builds the Linear issues of the tests: {@code ENG-<id>} titled {@code Issue <id>}, created on 2024-01-01 and updated
+ * a day later, with every other field empty unless set.
+ */
+public final class LinearIssues {
+
+    public static final Instant CREATED_AT = Instant.parse("2024-01-01T00:00:00Z");
+    public static final Instant UPDATED_AT = Instant.parse("2024-01-02T00:00:00Z");
+
+    private LinearIssues() {
+    }
+
+    public static Builder issue(String id) {
+        return new Builder(id);
+    }
+
+    public static final class Builder {
+
+        private final String id;
+        private String identifier;
+        private String title;
+        private Integer priority;
+        private LinearIssue.LinearState state;
+        private LinearIssue.LinearUser assignee;
+        private LinearIssue.LinearTeam team;
+        private LinearIssue.LinearLabels labels;
+        private LinearIssue.LinearComments comments;
+        private LinearIssue.LinearIssueRef parent;
+        private Instant createdAt = CREATED_AT;
+        private Instant updatedAt = UPDATED_AT;
+
+        private Builder(String id) {
+            this.id = id;
+            this.identifier = "ENG-" + id;
+            this.title = "Issue " + id;
+        }
+
+        public Builder identifier(String identifier) {
+            this.identifier = identifier;
+            return this;
+        }
+
+        public Builder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public Builder priority(Integer priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * A workflow state named after its type, e.g. {@code started}.
+         */
+        public Builder stateType(String stateType) {
+            this.state = new LinearIssue.LinearState("state-" + stateType, stateType, stateType);
+            return this;
+        }
+
+        public Builder assigneeEmail(String email) {
+            this.assignee = email != null ? new LinearIssue.LinearUser("user", "User", email, "User") : null;
+            return this;
+        }
+
+        public Builder team(String key) {
+            this.team = new LinearIssue.LinearTeam("team-" + key.toLowerCase(), key, key);
+            return this;
+        }
+
+        public Builder labels(List<String> names) {
+            this.labels = new LinearIssue.LinearLabels(names.stream().map(name -> new LinearIssue.LinearLabel("l-" + name, name, null)).toList());
+            return this;
+        }
+
+        public Builder comments(List<LinearIssue.LinearComment> comments) {
+            this.comments = new LinearIssue.LinearComments(comments, null);
+            return this;
+        }
+
+        /**
+         * Makes it a sub-issue, the parent identified as {@code ENG-<parentId>}; null keeps it a top-level issue.
+         */
+        public Builder parent(String parentId) {
+            this.parent = parentId != null ? new LinearIssue.LinearIssueRef(parentId, "ENG-" + parentId, null) : null;
+            return this;
+        }
+
+        public Builder createdAt(Instant createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+        public Builder updatedAt(Instant updatedAt) {
+            this.updatedAt = updatedAt;
+            return this;
+        }
+
+        public LinearIssue build() {
+            return new LinearIssue(
+                    id, identifier, title, null, priority,
+                    state, assignee, null, team, labels,
+                    comments, null, parent, null,
+                    createdAt, updatedAt, null
+            );
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package bogdanpc.linearsync.monitoring.boundary;
+
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsServerTest {
+
+    @Test
+    void testServesCurrentMetrics() throws Exception {
+        var metrics = new Metrics();
+        var server = new MetricsServer(metrics);
+        var port = server.start(0);
+        try (var client = HttpClient.newHttpClient()) {
+            var uri = URI.create("http://localhost:" + port + MetricsServer.PATH);
+            metrics.counter("sync_runs_total", "Runs", "outcome", "success").increment();
+
+            var response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+            var post = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain; version=0.0.4"));
+            assertTrue(response.body().contains("sync_runs_total{outcome=\"success\"} 1\n"));
+            assertEquals(405, post.statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+}
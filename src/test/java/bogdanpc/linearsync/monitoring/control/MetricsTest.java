@@ -0,0 +1,139 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import jakarta.ws.rs.ProcessingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    private final Metrics metrics = new Metrics();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCountersAreExportedByTags() {
+        metrics.counter("api_requests_total", "Calls", "endpoint", "createIssue", "client", "jira").increment();
+        metrics.counter("api_requests_total", "Calls", "client", "jira", "endpoint", "createIssue").add(2);
+        metrics.counter("api_requests_total", "Calls", "client", "linear", "endpoint", "getIssues").increment();
+
+        assertEquals("""
+                # HELP api_requests_total Calls
+                # TYPE api_requests_total counter
+                api_requests_total{client="jira",endpoint="createIssue"} 3
+                api_requests_total{client="linear",endpoint="getIssues"} 1
+                """, metrics.scrape());
+    }
+
+    @Test
+    void testTimerIsExportedAsCumulativeHistogramInSeconds() {
+        var timer = metrics.timer("api_request_duration_seconds", "Latency", "endpoint", "search");
+        timer.record(Duration.ofMillis(3).toNanos());
+        timer.record(Duration.ofMillis(200).toNanos());
+        timer.record(Duration.ofSeconds(90).toNanos());
+
+        var scrape = metrics.scrape();
+
+        assertTrue(scrape.contains("# TYPE api_request_duration_seconds histogram\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_bucket{endpoint=\"search\",le=\"0.005\"} 1\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_bucket{endpoint=\"search\",le=\"0.1\"} 1\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_bucket{endpoint=\"search\",le=\"0.25\"} 2\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_bucket{endpoint=\"search\",le=\"60.0\"} 2\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_bucket{endpoint=\"search\",le=\"+Inf\"} 3\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_sum{endpoint=\"search\"} 90.203\n"));
+        assertTrue(scrape.contains("api_request_duration_seconds_count{endpoint=\"search\"} 3\n"));
+        assertEquals(90203, timer.totalMillis());
+    }
+
+    @Test
+    void testGaugeReadsItsValueWhenExportedAndIsReplacedByTheNextRun() {
+        var depth = new AtomicLong(4);
+        metrics.gauge("sync_stage_queue_depth", "Depth", depth::get, "stage", "fetch");
+        assertTrue(metrics.scrape().contains("sync_stage_queue_depth{stage=\"fetch\"} 4\n"));
+
+        depth.set(7);
+        assertTrue(metrics.scrape().contains("sync_stage_queue_depth{stage=\"fetch\"} 7\n"));
+
+        metrics.gauge("sync_stage_queue_depth", "Depth", () -> 0, "stage", "fetch");
+        assertTrue(metrics.scrape().contains("sync_stage_queue_depth{stage=\"fetch\"} 0\n"));
+    }
+
+    @Test
+    void testLabelValuesAreEscapedAndTypesCannotChange() {
+        metrics.counter("sync_issues_total", "Issues", "message", "a \"quoted\"\nvalue\\").increment();
+
+        assertTrue(metrics.scrape().contains("sync_issues_total{message=\"a \\\"quoted\\\"\\nvalue\\\\\"} 1\n"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.timer("sync_issues_total", "Issues"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("sync_issues_total", "Issues", "action"));
+    }
+
+    @Test
+    void testCounterSamplesCarryTheirTags() {
+        assertTrue(metrics.samples("api_requests_total").isEmpty());
+        metrics.counter("api_requests_total", "Calls", "endpoint", "createIssue", "client", "jira").add(2);
+
+        assertEquals(List.of(new Metrics.Sample(Map.of("client", "jira", "endpoint", "createIssue"), 2)), metrics.samples("api_requests_total"));
+        metrics.gauge("sync_stage_queue_depth", "Depth", () -> 1);
+        assertThrows(IllegalArgumentException.class, () -> metrics.samples("sync_stage_queue_depth"));
+    }
+
+    @Test
+    void testMetricsFileIsReplacedWhole() throws Exception {
+        var file = directory.resolve("metrics/linear-jira-sync.prom");
+        metrics.counter("sync_runs_total", "Runs").increment();
+        metrics.writeTo(file);
+        metrics.counter("sync_runs_total", "Runs").increment();
+        metrics.writeTo(file);
+
+        assertEquals(metrics.scrape(), Files.readString(file));
+        assertTrue(Files.readString(file).contains("sync_runs_total 2\n"));
+        try (var files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testApiCallsAreTaggedWithClientAndMethod() throws Exception {
+        interface JiraClient {
+            void createIssue();
+        }
+        interface LinearClient {
+            void getIssues();
+        }
+
+        assertArrayEquals(new String[]{"client", "jira", "endpoint", "createIssue"},
+                ApiCallFilter.tags(JiraClient.class.getMethod("createIssue")));
+        assertArrayEquals(new String[]{"client", "linear", "endpoint", "getIssues"},
+                ApiCallFilter.tags(LinearClient.class.getMethod("getIssues")));
+        assertArrayEquals(new String[]{"client", "unknown", "endpoint", "unknown"}, ApiCallFilter.tags(null));
+    }
+
+    @Test
+    void testApiCallsFailingWithoutResponseAreCountedAsErrors() {
+        var unsent = ApiCallFilter.open();
+        ApiCallFilter.failed(metrics, unsent, new ProcessingException("Unknown host"));
+        ApiCallFilter.close(unsent);
+        assertTrue(metrics.samples(ApiCallFilter.REQUESTS).isEmpty(), "A call that was never sent is not counted");
+
+        var call = ApiCallFilter.open();
+        call.tags = new String[]{"client", "jira", "endpoint", "updateIssue"};
+        call.started = System.nanoTime();
+        ApiCallFilter.failed(metrics, call, new ProcessingException("Connection reset"));
+        ApiCallFilter.failed(metrics, call, new ProcessingException("Connection reset"));
+        ApiCallFilter.close(call);
+
+        assertEquals(List.of(new Metrics.Sample(Map.of("client", "jira", "endpoint", "updateIssue", "status", "error"), 1)),
+                metrics.samples(ApiCallFilter.REQUESTS));
+        assertTrue(metrics.scrape().contains("api_request_duration_seconds_count{client=\"jira\",endpoint=\"updateIssue\"} 1\n"),
+                "The time until the failure is recorded as its latency");
+    }
+}
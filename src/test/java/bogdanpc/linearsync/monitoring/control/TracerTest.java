@@ -0,0 +1,141 @@
+package bogdanpc.linearsync.monitoring.control;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.ProcessingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private final Tracer tracer = new Tracer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSpansAreNotRecordedWhileTracingIsOff() {
+        var traceFile = directory.resolve("trace.jsonl");
+        try (var span = tracer.span("processIssue")) {
+            span.attribute("linear.issue.identifier", "ENG-1");
+            assertSame(Span.NOOP, span);
+            assertFalse(span.isRecording());
+        }
+        tracer.clientSpan("jira createIssue").close();
+        tracer.flush();
+
+        assertFalse(tracer.isEnabled());
+        assertFalse(Files.exists(traceFile));
+        assertTrue(Span.NOOP.attributes.isEmpty());
+    }
+
+    @Test
+    void testCallsAreChildrenOfTheIssueSpanAndEachIssueIsOneTrace() throws Exception {
+        var traceFile = directory.resolve("trace.jsonl");
+        tracer.start(traceFile);
+
+        try (var issue = tracer.span("processIssue")) {
+            issue.attribute("linear.issue.identifier", "ENG-1");
+            tracer.clientSpan("jira createIssue").close();
+            try (var _ = tracer.span("syncAttachments")) {
+                tracer.clientSpan("jira addAttachment").close();
+            }
+        }
+        tracer.span("processIssue").close();
+        tracer.stop();
+
+        var spans = spansByName(traceFile);
+        var issue = spans.get("processIssue ENG-1");
+        assertFalse(issue.has("parentSpanId"));
+        assertEquals(issue.get("spanId").asText(), spans.get("jira createIssue").get("parentSpanId").asText());
+        assertEquals(issue.get("spanId").asText(), spans.get("syncAttachments").get("parentSpanId").asText());
+        assertEquals(spans.get("syncAttachments").get("spanId").asText(), spans.get("jira addAttachment").get("parentSpanId").asText());
+        for (var name : new String[]{"jira createIssue", "syncAttachments", "jira addAttachment"}) {
+            assertEquals(issue.get("traceId").asText(), spans.get(name).get("traceId").asText());
+        }
+        var next = spans.get("processIssue");
+        assertFalse(next.has("parentSpanId"), "The thread's span is restored once the issue span is closed");
+        assertNotEquals(issue.get("traceId").asText(), next.get("traceId").asText());
+        assertEquals(32, issue.get("traceId").asText().length());
+        assertEquals(16, issue.get("spanId").asText().length());
+    }
+
+    @Test
+    void testSpansAreWrittenAsOtlpJson() throws Exception {
+        var traceFile = directory.resolve("traces/trace.jsonl");
+        tracer.start(traceFile);
+
+        try (var span = tracer.clientSpan("jira updateIssue")) {
+            span.attribute("url.full", "https://example.atlassian.net/rest/api/3/issue/ENG-1")
+                    .attribute("http.response.status_code", 404)
+                    .attribute("sync.success", false)
+                    .error("HTTP 404");
+        }
+        tracer.stop();
+
+        var lines = Files.readAllLines(traceFile);
+        assertEquals(1, lines.size());
+        var resourceSpans = objectMapper.readTree(lines.getFirst()).get("resourceSpans").get(0);
+        var resource = resourceSpans.get("resource").get("attributes").get(0);
+        assertEquals("service.name", resource.get("key").asText());
+        assertEquals("linear-jira-sync", resource.get("value").get("stringValue").asText());
+        var scopeSpans = resourceSpans.get("scopeSpans").get(0);
+        assertEquals("bogdanpc.linearsync", scopeSpans.get("scope").get("name").asText());
+
+        var span = scopeSpans.get("spans").get(0);
+        assertEquals("jira updateIssue", span.get("name").asText());
+        assertEquals(3, span.get("kind").asInt());
+        assertTrue(span.get("startTimeUnixNano").isTextual());
+        assertTrue(Long.parseLong(span.get("endTimeUnixNano").asText()) >= Long.parseLong(span.get("startTimeUnixNano").asText()));
+        var attributes = span.get("attributes");
+        assertEquals("url.full", attributes.get(0).get("key").asText());
+        assertEquals("https://example.atlassian.net/rest/api/3/issue/ENG-1", attributes.get(0).get("value").get("stringValue").asText());
+        assertEquals("404", attributes.get(1).get("value").get("intValue").asText());
+        assertTrue(attributes.get(1).get("value").get("intValue").isTextual());
+        assertFalse(attributes.get(2).get("value").get("boolValue").asBoolean());
+        assertEquals(2, span.get("status").get("code").asInt());
+        assertEquals("HTTP 404", span.get("status").get("message").asText());
+    }
+
+    @Test
+    void testCallFailingWithoutResponseEndsItsSpanAsFailed() throws Exception {
+        var traceFile = directory.resolve("trace.jsonl");
+        tracer.start(traceFile);
+
+        var call = ApiCallFilter.open();
+        call.tags = ApiCallFilter.tags(null);
+        call.span = tracer.clientSpan("jira updateIssue");
+        ApiCallFilter.failed(new Metrics(), call, new ProcessingException("Connection reset"));
+        ApiCallFilter.close(call);
+        tracer.stop();
+
+        var lines = Files.readAllLines(traceFile);
+        assertEquals(1, lines.size(), "The span is exported although no response arrived");
+        var span = objectMapper.readTree(lines.getFirst()).get("resourceSpans").get(0).get("scopeSpans").get(0).get("spans").get(0);
+        assertEquals("jira updateIssue", span.get("name").asText());
+        assertEquals("error.type", span.get("attributes").get(0).get("key").asText());
+        assertEquals(ProcessingException.class.getName(), span.get("attributes").get(0).get("value").get("stringValue").asText());
+        assertEquals(2, span.get("status").get("code").asInt());
+        assertEquals("Connection reset", span.get("status").get("message").asText());
+    }
+
+    private Map<String, JsonNode> spansByName(Path traceFile) throws Exception {
+        var spans = new HashMap<String, JsonNode>();
+        for (var line : Files.readAllLines(traceFile)) {
+            for (var span : objectMapper.readTree(line).get("resourceSpans").get(0).get("scopeSpans").get(0).get("spans")) {
+                var name = span.get("name").asText();
+                var identifier = span.get("attributes").findValue("stringValue");
+                spans.put(identifier != null ? name + " " + identifier.asText() : name, span);
+            }
+        }
+        return spans;
+    }
+}
@@ -0,0 +1,100 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTrackerTest {
+
+    private final List<SyncCheckpoint> saved = new ArrayList<>();
+
+    @Test
+    void testCursorAdvancesOnlyPastFullyProcessedPages() {
+        var tracker = tracker(new SyncCheckpoint("ENG", null, null), 100);
+        tracker.pageFetched(List.of(issue("a", 1), issue("b", 2)), "page-1");
+        tracker.pageFetched(List.of(issue("c", 3)), "page-2");
+
+        tracker.issueCompleted("c");
+        tracker.issueCompleted("a");
+        tracker.save();
+
+        var checkpoint = saved.getLast();
+        assertNull(checkpoint.cursor);
+        assertEquals(Set.of("a", "c"), checkpoint.completedIssueIds);
+
+        tracker.issueCompleted("b");
+        tracker.save();
+
+        checkpoint = saved.getLast();
+        assertEquals("page-2", checkpoint.cursor);
+        assertEquals(instant(3), checkpoint.watermark);
+        assertTrue(checkpoint.completedIssueIds.isEmpty());
+    }
+
+    @Test
+    void testResumeSkipsIssuesCompletedAfterCursor() {
+        var origin = new SyncCheckpoint("ENG", null, null);
+        origin.cursor = "page-1";
+        origin.completedIssueIds = Set.of("c");
+        var tracker = tracker(origin, 100);
+
+        assertEquals("page-1", tracker.cursor());
+        var remaining = tracker.pageFetched(List.of(issue("c", 3), issue("d", 4)), "page-2");
+
+        assertEquals(List.of("d"), remaining.stream().map(LinearIssue::id).toList());
+
+        tracker.issueCompleted("d");
+        tracker.save();
+        assertEquals("page-2", saved.getLast().cursor);
+    }
+
+    @Test
+    void testSavesEveryIntervalIssues() {
+        var tracker = tracker(new SyncCheckpoint("ENG", null, null), 2);
+        tracker.pageFetched(List.of(issue("a", 1), issue("b", 2), issue("c", 3)), "page-1");
+
+        tracker.issueCompleted("a");
+        assertTrue(saved.isEmpty());
+
+        tracker.issueCompleted("b");
+        assertEquals(1, saved.size());
+        assertEquals(Set.of("a", "b"), saved.getFirst().completedIssueIds);
+        assertTrue(tracker.hasSaved());
+    }
+
+    @Test
+    void testCountsIncludeResumedProgress() {
+        var origin = new SyncCheckpoint("ENG", null, null);
+        origin.errorCount = 2;
+        var result = new SyncResult();
+        result.restoreCounts(5, 0, 0);
+        result.addError("failed");
+        var tracker = new CheckpointTracker(origin, result, saved::add, 100, 60);
+
+        tracker.save();
+
+        assertEquals(5, saved.getLast().createdCount);
+        assertEquals(3, saved.getLast().errorCount);
+    }
+
+    private CheckpointTracker tracker(SyncCheckpoint origin, int intervalIssues) {
+        return new CheckpointTracker(origin, new SyncResult(), saved::add, intervalIssues, 3600);
+    }
+
+    private static Instant instant(int hour) {
+        return Instant.parse("2024-01-01T00:00:00Z").plusSeconds(hour * 3600L);
+    }
+
+    private static LinearIssue issue(String id, int updatedHour) {
+        return LinearIssues.issue(id).createdAt(instant(0)).updatedAt(instant(updatedHour)).build();
+    }
+}
@@ -0,0 +1,163 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.FakeJira;
+import bogdanpc.linearsync.jira.control.IssueFieldHasher;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueSnapshot;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import bogdanpc.linearsync.synchronization.entity.AuditReport;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriftAuditorTest {
+
+    private static final IssueFieldHasher HASHER = new IssueFieldHasher();
+
+    private FakeLinear linear;
+    private FakeJira jira;
+    private FakeCoordinator coordinator;
+    private DriftAuditor auditor;
+
+    @BeforeEach
+    void setUp() {
+        linear = new FakeLinear();
+        jira = new FakeJira();
+        coordinator = new FakeCoordinator();
+        auditor = new DriftAuditor(linear, jira, new IssueDataTransfer(), coordinator);
+    }
+
+    @Test
+    void testMatchingSidesAreConsistent() {
+        track("1", "ENG-1", "PROJ-1", "2024-01-10T00:00:00Z", "Login fails", "started", List.of("bug"));
+        track("2", "ENG-2", "PROJ-2", "2024-02-10T00:00:00Z", "Add export", "completed", List.of());
+        jira.snapshots.add(snapshot("PROJ-9", null, "Jira-only issue", "To Do", List.of()));
+
+        var report = auditor.audit();
+
+        assertTrue(report.isConsistent());
+        assertEquals(2, report.linearIssues());
+        assertEquals(2, report.jiraIssues());
+        assertEquals(2, report.buckets());
+        assertEquals(0, report.mismatchedBuckets());
+        assertEquals(2, report.requests());
+        assertFalse(coordinator.saved);
+    }
+
+    @Test
+    void testOnlyDriftedFieldsAreReportedAndForgotten() {
+        track("1", "ENG-1", "PROJ-1", "2024-01-10T00:00:00Z", "Login fails", "started", List.of("bug"));
+        track("2", "ENG-2", "PROJ-2", "2024-02-10T00:00:00Z", "Add export", "completed", List.of());
+        jira.snapshots.set(1, snapshot("PROJ-2", "2", "[ENG-2] Add export", "In Progress", List.of("edited")));
+
+        var report = auditor.audit();
+
+        assertEquals(1, report.mismatchedBuckets());
+        assertEquals(List.of(new AuditReport.Drift("ENG/2024-02", "2", "ENG-2", "PROJ-2",
+                AuditReport.DriftKind.FIELDS_DIFFER, Set.of(IssueField.STATUS, IssueField.LABELS))), report.drifts());
+        var syncedIssue = coordinator.state.getSyncedIssue("2");
+        assertNull(syncedIssue.fieldHashes.get(IssueField.STATUS.name()));
+        assertNull(syncedIssue.fieldHashes.get(IssueField.LABELS.name()));
+        assertNotNull(syncedIssue.fieldHashes.get(IssueField.SUMMARY.name()));
+        assertNull(syncedIssue.linearUpdatedAt);
+        assertNotNull(coordinator.state.getSyncedIssue("1").linearUpdatedAt);
+        assertTrue(coordinator.saved);
+    }
+
+    @Test
+    void testIssuesMissingOnOneSideAreReported() {
+        track("1", "ENG-1", "PROJ-1", "2024-01-10T00:00:00Z", "Login fails", "started", List.of());
+        track("2", "ENG-2", "PROJ-2", "2024-01-12T00:00:00Z", "Add export", "started", List.of());
+        jira.snapshots.removeFirst();
+        linear.issues.removeLast();
+
+        var report = auditor.audit();
+
+        assertEquals(List.of(
+                new AuditReport.Drift("ENG/2024-01", "1", "ENG-1", "PROJ-1", AuditReport.DriftKind.MISSING_IN_JIRA, Set.of()),
+                new AuditReport.Drift("unknown/unknown", "2", null, "PROJ-2", AuditReport.DriftKind.MISSING_IN_LINEAR, Set.of())
+        ), report.drifts());
+        assertFalse(coordinator.saved, "Missing issues are only reported");
+    }
+
+    @Test
+    void testMovedJiraIssueIsFoundThroughTheLinearIdField() {
+        track("1", "ENG-1", "PROJ-1", "2024-01-10T00:00:00Z", "Login fails", "started", List.of());
+        jira.snapshots.set(0, snapshot("OTHER-7", "1", "[ENG-1] Login fails", "In Progress", List.of()));
+
+        assertTrue(auditor.audit().isConsistent());
+    }
+
+    @Test
+    void testDryRunKeepsTheState() {
+        track("1", "ENG-1", "PROJ-1", "2024-01-10T00:00:00Z", "Login fails", "started", List.of());
+        jira.snapshots.set(0, snapshot("PROJ-1", "1", "[ENG-1] Renamed in Jira", "In Progress", List.of()));
+        coordinator.setDryRun(true);
+
+        var report = auditor.audit();
+
+        assertEquals(Set.of(IssueField.SUMMARY), report.drifts().getFirst().fields());
+        assertNotNull(coordinator.state.getSyncedIssue("1").fieldHashes.get(IssueField.SUMMARY.name()));
+        assertFalse(coordinator.saved);
+    }
+
+    private void track(String id, String identifier, String jiraKey, String createdAt, String title, String stateType, List<String> labels) {
+        coordinator.state.addSyncedIssue(id, jiraKey, "10" + id);
+        var syncedIssue = coordinator.state.getSyncedIssue(id);
+        syncedIssue.linearUpdatedAt = Instant.parse(createdAt);
+        HASHER.hashStored("[" + identifier + "] " + title, null, labels)
+                .forEach((field, hash) -> syncedIssue.fieldHashes.put(field.name(), hash));
+
+        linear.issues.add(LinearIssues.issue(id).identifier(identifier).title(title).priority(0).stateType(stateType)
+                .team("ENG").labels(labels).createdAt(Instant.parse(createdAt)).updatedAt(Instant.parse(createdAt)).build());
+        jira.snapshots.add(snapshot(jiraKey, id, "[" + identifier + "] " + title, FakeJira.STATUSES.get(stateType), labels));
+    }
+
+    private static JiraIssueSnapshot snapshot(String key, String linearIssueId, String summary, String status, List<String> labels) {
+        return new JiraIssueSnapshot(key, linearIssueId, HASHER.hashStored(summary, status, labels));
+    }
+
+    private static class FakeLinear extends IssueOperations {
+
+        final List<LinearIssue> issues = new ArrayList<>();
+
+        FakeLinear() {
+            super(null);
+        }
+
+        @Override
+        public void streamAuditIssues(Consumer<List<LinearIssue>> pageConsumer) {
+            pageConsumer.accept(List.copyOf(issues));
+        }
+    }
+
+    private static class FakeCoordinator extends SyncCoordinator {
+
+        final SyncState state = new SyncState();
+        boolean saved;
+
+        FakeCoordinator() {
+            super(null);
+        }
+
+        @Override
+        public SyncState readState() {
+            return state;
+        }
+
+        @Override
+        public void completeAudit(SyncState state) {
+            saved = true;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashTreeTest {
+
+    @Test
+    void testInsertionOrderDoesNotChangeTheRoot() {
+        var first = new HashTree();
+        first.add("ENG", "2024-01", "a", "1");
+        first.add("ENG", "2024-02", "b", "2");
+        first.add("OPS", "2024-01", "c", "3");
+        var second = new HashTree();
+        second.add("OPS", "2024-01", "c", "3");
+        second.add("ENG", "2024-02", "b", "2");
+        second.add("ENG", "2024-01", "a", "1");
+
+        assertEquals(first.root(), second.root());
+        assertTrue(HashTree.mismatchedBuckets(first, second).isEmpty());
+    }
+
+    @Test
+    void testOnlyBucketsWithDifferentLeavesMismatch() {
+        var linear = new HashTree();
+        linear.add("ENG", "2024-01", "a", "1");
+        linear.add("ENG", "2024-02", "b", "2");
+        linear.add("OPS", "2024-01", "c", "3");
+        var jira = new HashTree();
+        jira.add("ENG", "2024-01", "a", "1");
+        jira.add("ENG", "2024-02", "b", "changed");
+        jira.add("OPS", "2024-01", "c", "3");
+        jira.add("unknown", "unknown", "d", "4");
+
+        assertNotEquals(linear.root(), jira.root());
+        assertEquals(linear.teamHash("OPS"), jira.teamHash("OPS"));
+        assertEquals(List.of(new HashTree.Bucket("ENG", "2024-02"), new HashTree.Bucket("unknown", "unknown")),
+                HashTree.mismatchedBuckets(linear, jira));
+        assertEquals(4, jira.buckets().size());
+    }
+
+    @Test
+    void testLeafHashDependsOnFieldOrder() {
+        assertEquals(HashTree.leafHash(List.of("x", "y")), HashTree.leafHash(List.of("x", "y")));
+        assertNotEquals(HashTree.leafHash(List.of("x", "y")), HashTree.leafHash(List.of("y", "x")));
+        assertNotEquals(HashTree.leafHash(List.of("xy")), HashTree.leafHash(List.of("x", "y")));
+    }
+}
@@ -0,0 +1,60 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchySchedulerTest {
+
+    private final HierarchyScheduler scheduler = new HierarchyScheduler();
+
+    @Test
+    void testIssuesWithoutParentsFormSingleLevel() {
+        var levels = scheduler.levels(List.of(issue("a", null), issue("b", null)));
+
+        assertEquals(1, levels.size());
+        assertEquals(List.of("a", "b"), ids(levels.getFirst()));
+    }
+
+    @Test
+    void testChildrenFetchedBeforeParentsAreScheduledAfterThem() {
+        var levels = scheduler.levels(List.of(
+                issue("grandchild", "child"),
+                issue("child", "root"),
+                issue("other", null),
+                issue("root", null),
+                issue("sibling", "root")));
+
+        assertEquals(3, levels.size());
+        assertEquals(List.of("other", "root"), ids(levels.get(0)));
+        assertEquals(List.of("child", "sibling"), ids(levels.get(1)));
+        assertEquals(List.of("grandchild"), ids(levels.get(2)));
+    }
+
+    @Test
+    void testParentOutsideBatchIsTreatedAsRoot() {
+        var levels = scheduler.levels(List.of(issue("child", "not-fetched")));
+
+        assertEquals(1, levels.size());
+        assertEquals(List.of("child"), ids(levels.getFirst()));
+    }
+
+    @Test
+    void testDuplicatesAreScheduledOnce() {
+        var levels = scheduler.levels(List.of(issue("a", null), issue("a", null)));
+
+        assertEquals(1, levels.getFirst().size());
+    }
+
+    private static List<String> ids(List<LinearIssue> issues) {
+        return issues.stream().map(LinearIssue::id).toList();
+    }
+
+    private static LinearIssue issue(String id, String parentId) {
+        return LinearIssues.issue(id).parent(parentId).build();
+    }
+}
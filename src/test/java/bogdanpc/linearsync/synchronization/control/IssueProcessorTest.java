@@ -0,0 +1,209 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.FakeJira;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueInput;
+import bogdanpc.linearsync.jira.entity.JiraIssueReference;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import bogdanpc.linearsync.monitoring.control.Tracer;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueProcessorTest {
+
+    private static final Map<IssueField, String> HASHES = Map.of(IssueField.SUMMARY, "summary-hash");
+
+    @TempDir
+    Path tempDir;
+
+    private FakeJira jira;
+    private SyncStateRepository repository;
+    private SyncCoordinator coordinator;
+    private IssueProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        jira = new FakeJira();
+        repository = new SyncStateRepository(tempDir.toString(), 5);
+        coordinator = new SyncCoordinator(repository);
+        processor = new IssueProcessor(jira, null, new AttachmentSyncCoordinator(jira), new Tracer());
+
+        var state = repository.loadState();
+        state.addSyncedIssue("lin-1", "PROJ-1", "10001");
+        var syncedIssue = state.getSyncedIssue("lin-1");
+        syncedIssue.linearUpdatedAt = Instant.parse("2024-03-01T09:00:00Z");
+        syncedIssue.fieldHashes.put(IssueField.SUMMARY.name(), "summary-hash");
+        repository.saveState(state, false);
+    }
+
+    @Test
+    void testAttachmentsOfAnUnchangedIssueAreUploadedOnce() {
+        var issue = prepared(Instant.parse("2024-03-01T10:00:00Z"), "attachment-1");
+
+        var first = run(issue);
+
+        assertEquals(1, first.skippedCount());
+        assertTrue(first.hasChanges(), "Skipped, but the uploaded attachment must be saved");
+        assertEquals(List.of(List.of("attachment-1")), jira.uploads);
+
+        var second = run(issue);
+
+        assertEquals(1, second.skippedCount());
+        assertFalse(second.hasChanges());
+        assertEquals(1, jira.uploads.size(), "The second run uploads nothing");
+
+        var saved = repository.loadState().getSyncedIssue("lin-1");
+        assertEquals(Instant.parse("2024-03-01T10:00:00Z"), saved.linearUpdatedAt);
+        assertTrue(saved.syncedAttachments.contains("attachment-1"));
+    }
+
+    @Test
+    void testOnlyNewAttachmentsAreUploadedOnTheNextRun() {
+        run(prepared(Instant.parse("2024-03-01T10:00:00Z"), "attachment-1"));
+        run(prepared(Instant.parse("2024-03-01T11:00:00Z"), "attachment-1", "attachment-2"));
+
+        assertEquals(List.of(List.of("attachment-1"), List.of("attachment-2")), jira.uploads);
+    }
+
+    @Test
+    void testDryRunUploadsAndSavesNothing() {
+        coordinator.setDryRun(true);
+
+        var result = run(prepared(Instant.parse("2024-03-01T10:00:00Z"), "attachment-1"));
+
+        assertFalse(result.hasChanges());
+        assertTrue(jira.uploads.isEmpty());
+        assertEquals(Instant.parse("2024-03-01T09:00:00Z"), repository.loadState().getSyncedIssue("lin-1").linearUpdatedAt);
+    }
+
+    @Test
+    void testIssueAlreadyInJiraIsUpdatedInsteadOfCreatedAgain() {
+        processor.setFindExistingIssues(true);
+        jira.existing.put("lin-2", new JiraIssueReference("10002", "PROJ-2", Map.of("customfield_10000", "lin-2")));
+
+        var result = run(prepared("lin-2", Instant.parse("2024-03-01T10:00:00Z")));
+
+        assertEquals(1, result.updatedCount());
+        assertEquals(0, result.createdCount());
+        assertEquals(List.of("PROJ-2"), jira.updates);
+        var saved = repository.loadState().getSyncedIssue("lin-2");
+        assertEquals("10002", saved.jiraIssueId);
+        assertEquals("summary-hash", saved.fieldHashes.get(IssueField.SUMMARY.name()));
+    }
+
+    @Test
+    void testIssueIsNotCreatedWhenTheLookupFails() {
+        processor.setFindExistingIssues(true);
+        jira.lookupFails = true;
+
+        var result = run(prepared("lin-2", Instant.parse("2024-03-01T10:00:00Z")));
+
+        assertEquals(1, result.errorCount());
+        assertEquals(0, result.createdCount());
+        assertNull(repository.loadState().getSyncedIssue("lin-2"));
+    }
+
+    @Test
+    void testKnownIssuesAreNotLookedUp() {
+        processor.setFindExistingIssues(true);
+
+        run(prepared(Instant.parse("2024-03-01T10:00:00Z")));
+
+        assertTrue(jira.lookups.isEmpty());
+    }
+
+    @Test
+    void testFailedTransitionIsRetriedByTheNextRun() {
+        var hashes = Map.of(IssueField.SUMMARY, "summary-hash", IssueField.STATUS, "done-hash");
+        jira.transitionFails = true;
+
+        var first = run(prepared("lin-1", Instant.parse("2024-03-01T10:00:00Z"), hashes));
+
+        assertEquals(1, first.updatedCount());
+        var saved = repository.loadState().getSyncedIssue("lin-1");
+        assertNull(saved.fieldHashes.get(IssueField.STATUS.name()), "The status still counts as changed");
+        assertEquals(Instant.parse("2024-03-01T09:00:00Z"), saved.linearUpdatedAt, "The issue is revisited");
+
+        jira.transitionFails = false;
+        run(prepared("lin-1", Instant.parse("2024-03-01T10:00:00Z"), hashes));
+
+        assertEquals(2, jira.transitions.size());
+        saved = repository.loadState().getSyncedIssue("lin-1");
+        assertEquals("done-hash", saved.fieldHashes.get(IssueField.STATUS.name()));
+        assertEquals(Instant.parse("2024-03-01T10:00:00Z"), saved.linearUpdatedAt);
+    }
+
+    @Test
+    void testFailedCommentsKeepTheirPreviousHash() {
+        var hashes = Map.of(IssueField.SUMMARY, "summary-hash", IssueField.COMMENTS, "new-comments-hash");
+        var state = repository.loadState();
+        state.getSyncedIssue("lin-1").fieldHashes.put(IssueField.COMMENTS.name(), "old-comments-hash");
+        repository.saveState(state, false);
+        jira.commentsFail = true;
+
+        run(prepared("lin-1", Instant.parse("2024-03-01T10:00:00Z"), hashes));
+
+        var saved = repository.loadState().getSyncedIssue("lin-1");
+        assertEquals("old-comments-hash", saved.fieldHashes.get(IssueField.COMMENTS.name()));
+        assertEquals(List.of("PROJ-1"), jira.commentSyncs);
+    }
+
+    @Test
+    void testFailedAttachmentsOfAnUnchangedIssueAreRetried() {
+        jira.attachmentsFail = true;
+
+        run(prepared(Instant.parse("2024-03-01T10:00:00Z"), "attachment-1"));
+
+        var saved = repository.loadState().getSyncedIssue("lin-1");
+        assertEquals(Instant.parse("2024-03-01T09:00:00Z"), saved.linearUpdatedAt);
+        assertFalse(saved.syncedAttachments.contains("attachment-1"));
+
+        jira.attachmentsFail = false;
+        run(prepared(Instant.parse("2024-03-01T10:00:00Z"), "attachment-1"));
+
+        assertEquals(List.of(List.of("attachment-1")), jira.uploads);
+        assertEquals(Instant.parse("2024-03-01T10:00:00Z"), repository.loadState().getSyncedIssue("lin-1").linearUpdatedAt);
+    }
+
+    /**
+     * One sync run over the issue, from loading the state to saving it.
+     */
+    private SyncResult run(PreparedIssue issue) {
+        var state = coordinator.prepareSync();
+        var result = new SyncResult();
+        result.addIssueResult(processor.processIssue(issue, state, coordinator.isDryRun()));
+        coordinator.completeSync(state, "ENG", Instant.now(), result.hasChanges());
+        return result;
+    }
+
+    private static PreparedIssue prepared(Instant updatedAt, String... attachmentIds) {
+        return prepared("lin-1", updatedAt, attachmentIds);
+    }
+
+    private static PreparedIssue prepared(String id, Instant updatedAt, String... attachmentIds) {
+        return prepared(id, updatedAt, HASHES, attachmentIds);
+    }
+
+    private static PreparedIssue prepared(String id, Instant updatedAt, Map<IssueField, String> hashes, String... attachmentIds) {
+        var linearIssue = LinearIssues.issue(id).identifier("ENG-1").title("Issue").createdAt(null).updatedAt(updatedAt).build();
+        var attachments = new ArrayList<JiraIssueInput.AttachmentInput>();
+        for (var attachmentId : attachmentIds) {
+            attachments.add(new JiraIssueInput.AttachmentInput(attachmentId, attachmentId, "https://example.com/" + attachmentId,
+                    null, null, null, null, null));
+        }
+        var input = new JiraIssueInput(id, "ENG-1", "Issue", null, null, null, null, null, null, null, null,
+                null, "ENG", null, null, attachments, null, updatedAt, null, null);
+        return new PreparedIssue(linearIssue, input, hashes);
+    }
+}
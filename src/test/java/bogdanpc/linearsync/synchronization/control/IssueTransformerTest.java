@@ -74,6 +74,8 @@ class IssueTransformerTest {
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
         );
 
@@ -138,6 +140,8 @@ class IssueTransformerTest {
                 null,
                 null,
                 null,
+                null,
+                null,
                 null, // updatedAt is null
                 "https://linear.app/test/issue/ENG-123"
         );
@@ -187,7 +191,7 @@ class IssueTransformerTest {
         var linearIssue = new LinearIssue(
                 "linear-123", "ENG-123", "Test Issue", "Description", 2,
                 state, null, null, team, labels,
-                null, null,
+                null, null, null, null,
                 Instant.now(), Instant.now(), "https://linear.app/test/issue/ENG-123"
         );
 
@@ -214,7 +218,7 @@ class IssueTransformerTest {
         var linearIssue = new LinearIssue(
                 "linear-123", "ENG-123", "Test Issue", "Description", 2,
                 state, null, null, team, labels,
-                null, null,
+                null, null, null, null,
                 Instant.now(), Instant.now(), "https://linear.app/test/issue/ENG-123"
         );
 
@@ -239,7 +243,7 @@ class IssueTransformerTest {
         var linearIssue = new LinearIssue(
                 "linear-123", "ENG-123", "Test Issue", "Description", 2,
                 state, null, null, team, labels,
-                null, null,
+                null, null, null, null,
                 Instant.now(), Instant.now(), "https://linear.app/test/issue/ENG-123"
         );
 
@@ -313,6 +317,8 @@ class IssueTransformerTest {
                 labels,
                 null,
                 null,
+                null,
+                null,
                 Instant.parse("2024-01-01T10:00:00Z"),
                 Instant.parse("2024-01-02T10:00:00Z"),
                 "https://linear.app/test/issue/ENG-123"
@@ -0,0 +1,254 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.FakeJira;
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.jira.entity.JiraIssueChange;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import bogdanpc.linearsync.linear.entity.LinearWorkflowState;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JiraChangeFeedTest {
+
+    private static final Instant WATERMARK = Instant.parse("2024-03-01T10:00:00Z");
+    private static final Instant READ_AT = Instant.parse("2024-03-01T09:00:00Z");
+    private static final Instant UPDATED = Instant.parse("2024-03-01T10:05:00Z");
+
+    private FakeJira jira;
+    private FakeLinear linear;
+    private FakeCoordinator coordinator;
+    private JiraChangeFeed feed;
+    private SyncState state;
+    private SyncResult result;
+    private List<SyncResult.IssueResult> issueResults;
+
+    @BeforeEach
+    void setUp() {
+        jira = new FakeJira();
+        linear = new FakeLinear();
+        coordinator = new FakeCoordinator();
+        feed = new JiraChangeFeed(jira, linear, coordinator);
+        state = new SyncState();
+        state.jiraSyncTime = WATERMARK;
+        result = new SyncResult();
+        issueResults = new ArrayList<>();
+        result.addSink(issueResults::add);
+    }
+
+    @Test
+    void testFirstRunOnlyStartsTheFeed() {
+        state.jiraSyncTime = null;
+
+        feed.pull(state, false, result);
+
+        assertEquals(0, jira.scans);
+        assertNotNull(coordinator.watermark);
+        assertTrue(issueResults.isEmpty());
+    }
+
+    @Test
+    void testStatusChangedInJiraIsPushedToLinear() {
+        var syncedIssue = synced("lin-1", "PROJ-1", "started", "In Progress");
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", false, List.of()));
+        linear.issues.add(issue("lin-1", "ENG-1", "started", List.of()));
+
+        feed.pull(state, false, result);
+
+        assertEquals(List.of("lin-1 -> state-completed"), linear.stateUpdates);
+        assertEquals(1, result.pulledCount());
+        assertEquals(jira.statusHash("completed"), syncedIssue.fieldHashes.get(IssueField.STATUS.name()));
+        assertEquals(jira.statusHash("Done"), syncedIssue.fieldHashes.get(JiraChangeFeed.JIRA_STATUS));
+        assertEquals(UPDATED, syncedIssue.jiraUpdatedAt);
+        assertTrue(coordinator.watermark.isAfter(WATERMARK));
+    }
+
+    @Test
+    void testStatusChangedOnBothSidesIsAConflict() {
+        var syncedIssue = synced("lin-1", "PROJ-1", "started", "In Progress");
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", false, List.of()));
+        linear.issues.add(issue("lin-1", "ENG-1", "canceled", List.of()));
+
+        feed.pull(state, false, result);
+
+        assertTrue(linear.stateUpdates.isEmpty());
+        assertEquals(1, result.conflictCount());
+        assertEquals(0, result.pulledCount());
+        assertEquals(jira.statusHash("In Progress"), syncedIssue.fieldHashes.get(JiraChangeFeed.JIRA_STATUS));
+        assertEquals(UPDATED, syncedIssue.jiraUpdatedAt);
+    }
+
+    @Test
+    void testOwnStatusChangeIsAdoptedWithoutCallingLinear() {
+        var syncedIssue = synced("lin-1", "PROJ-1", "started", "In Progress");
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", true, List.of()));
+
+        feed.pull(state, false, result);
+
+        assertEquals(0, linear.fetches);
+        assertTrue(issueResults.isEmpty());
+        assertEquals(jira.statusHash("Done"), syncedIssue.fieldHashes.get(JiraChangeFeed.JIRA_STATUS));
+    }
+
+    @Test
+    void testIssuesNotUpdatedSinceTheyWereReadAreSkipped() {
+        var syncedIssue = synced("lin-1", "PROJ-1", "started", "In Progress");
+        syncedIssue.jiraUpdatedAt = UPDATED;
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", false, List.of()));
+
+        feed.pull(state, false, result);
+
+        assertEquals(0, jira.reads);
+        assertEquals(0, linear.fetches);
+    }
+
+    @Test
+    void testCommentsArePostedOnceAndNotSyncedBack() {
+        synced("lin-1", "PROJ-1", "started", "In Progress");
+        var comment = new JiraIssueChange.Comment("10001", "Jane", UPDATED, "Looks good");
+        var posted = JiraChangeFeed.formatComment("PROJ-1", new JiraIssueChange.Comment("10000", "Jane", READ_AT, "Earlier"));
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "In Progress", "started", false,
+                List.of(new JiraIssueChange.Comment("10000", "Jane", READ_AT, "Earlier"), comment)));
+        linear.issues.add(issue("lin-1", "ENG-1", "started", List.of(posted)));
+
+        feed.pull(state, false, result);
+
+        assertEquals(List.of("lin-1: " + JiraChangeFeed.formatComment("PROJ-1", comment)), linear.comments);
+        assertTrue(linear.comments.getFirst().contains("by Jane\n\nLooks good"));
+        assertTrue(JiraChangeFeed.isFromJira(posted));
+        assertFalse(JiraChangeFeed.isFromJira("A comment mentioning **From Jira** "));
+    }
+
+    @Test
+    void testDryRunChangesNothing() {
+        var syncedIssue = synced("lin-1", "PROJ-1", "started", "In Progress");
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", false, List.of()));
+        linear.issues.add(issue("lin-1", "ENG-1", "started", List.of()));
+
+        feed.pull(state, true, result);
+
+        assertTrue(linear.stateUpdates.isEmpty());
+        assertNull(syncedIssue.jiraUpdatedAt);
+        assertTrue(issueResults.getFirst().message.startsWith("Would pull from Jira"));
+    }
+
+    @Test
+    void testFailedIssueIsReadAgainByTheNextRun() {
+        synced("lin-1", "PROJ-1", "started", "In Progress");
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", false, List.of()));
+        linear.issues.add(issue("lin-1", "ENG-1", "started", List.of()));
+        linear.failUpdates = true;
+
+        feed.pull(state, false, result);
+
+        assertEquals(UPDATED, coordinator.watermark);
+        assertFalse(issueResults.getFirst().success);
+    }
+
+    @Test
+    void testConflictWithACommentThatFailedIsReadAgainByTheNextRun() {
+        var syncedIssue = synced("lin-1", "PROJ-1", "started", "In Progress");
+        var comment = new JiraIssueChange.Comment("10001", "Jane", UPDATED, "Looks good");
+        jira.update("PROJ-1", "lin-1", UPDATED, change("PROJ-1", "Done", "completed", false, List.of(comment)));
+        linear.issues.add(issue("lin-1", "ENG-1", "canceled", List.of()));
+        linear.failComments = true;
+
+        feed.pull(state, false, result);
+
+        assertEquals(1, result.conflictCount());
+        assertFalse(issueResults.getFirst().success);
+        assertNull(syncedIssue.jiraUpdatedAt);
+        assertEquals(UPDATED, coordinator.watermark);
+    }
+
+    private SyncState.SyncedIssue synced(String linearId, String jiraKey, String linearStateType, String jiraStatus) {
+        state.addSyncedIssue(linearId, jiraKey, "1" + linearId);
+        var syncedIssue = state.getSyncedIssue(linearId);
+        syncedIssue.lastSyncTime = READ_AT;
+        syncedIssue.fieldHashes.put(IssueField.STATUS.name(), jira.statusHash(linearStateType));
+        syncedIssue.fieldHashes.put(JiraChangeFeed.JIRA_STATUS, jira.statusHash(jiraStatus));
+        return syncedIssue;
+    }
+
+    private static JiraIssueChange change(String key, String status, String linearStateType, boolean bySync, List<JiraIssueChange.Comment> comments) {
+        return new JiraIssueChange(key, UPDATED, status, linearStateType, UPDATED, bySync, comments);
+    }
+
+    private static LinearIssue issue(String id, String identifier, String stateType, List<String> commentBodies) {
+        var comments = commentBodies.stream()
+                .map(body -> new LinearIssue.LinearComment("c-" + body.hashCode(), body, null, READ_AT, READ_AT, null))
+                .toList();
+        return LinearIssues.issue(id).identifier(identifier).priority(0).stateType(stateType).team("ENG")
+                .comments(comments).createdAt(READ_AT).updatedAt(UPDATED).build();
+    }
+
+    private static class FakeLinear extends IssueOperations {
+
+        final List<LinearIssue> issues = new ArrayList<>();
+        final List<String> stateUpdates = new ArrayList<>();
+        final List<String> comments = new ArrayList<>();
+        boolean failUpdates;
+        boolean failComments;
+        int fetches;
+
+        FakeLinear() {
+            super(null);
+        }
+
+        @Override
+        public List<LinearIssue> getIssuesByIds(Collection<String> ids) {
+            fetches++;
+            return issues.stream().filter(issue -> ids.contains(issue.id())).toList();
+        }
+
+        @Override
+        public List<LinearWorkflowState> getWorkflowStates(String teamId) {
+            return List.of(
+                    new LinearWorkflowState("state-completed", "Done", "completed", 2.0),
+                    new LinearWorkflowState("state-released", "Released", "completed", 3.0),
+                    new LinearWorkflowState("state-started", "In Progress", "started", 1.0));
+        }
+
+        @Override
+        public LinearIssue updateIssueState(String issueId, String stateId) {
+            if (failUpdates) {
+                throw new RuntimeException("Linear issueUpdate failed: rate limited");
+            }
+            stateUpdates.add(issueId + " -> " + stateId);
+            return null;
+        }
+
+        @Override
+        public void createComment(String issueId, String body) {
+            if (failComments) {
+                throw new RuntimeException("Linear commentCreate failed: rate limited");
+            }
+            comments.add(issueId + ": " + body);
+        }
+    }
+
+    private static class FakeCoordinator extends SyncCoordinator {
+
+        Instant watermark;
+
+        FakeCoordinator() {
+            super(null);
+        }
+
+        @Override
+        public void completePull(SyncState state, Instant scannedFrom) {
+            watermark = scannedFrom;
+            state.jiraSyncTime = scannedFrom;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonResultSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testResultsAreWrittenAsTheyHappen() throws Exception {
+        var file = directory.resolve("reports/sync.ndjson");
+        var result = new SyncResult();
+        result.addSink(new NdjsonResultSink(file));
+
+        result.addIssueResult(issueResult("ENG-1", "create", true, null));
+        assertEquals(1, Files.readAllLines(file).size(), "Lines are flushed when written");
+
+        result.addIssueResult(issueResult("ENG-2", "update", false, "Jira returned 400"));
+        result.addError("Page fetch failed");
+        result.startTime = Instant.parse("2024-01-01T00:00:00Z");
+        result.endTime = Instant.parse("2024-01-01T00:00:02Z");
+        result.complete();
+
+        var lines = Files.readAllLines(file).stream().map(this::parse).toList();
+        assertEquals(4, lines.size());
+        assertEquals("issue", lines.get(0).get("type").asText());
+        assertEquals("ENG-1", lines.get(0).get("linearIdentifier").asText());
+        assertEquals("Jira returned 400", lines.get(1).get("message").asText());
+        assertEquals("error", lines.get(2).get("type").asText());
+        var summary = lines.get(3);
+        assertEquals("summary", summary.get("type").asText());
+        assertEquals(1, summary.get("created").asInt());
+        assertEquals(2, summary.get("errors").asInt());
+        assertEquals(2000, summary.get("durationMillis").asLong());
+        assertEquals("2024-01-01T00:00:00Z", summary.get("startTime").asText());
+    }
+
+    @Test
+    void testRunsAppendToTheReport() throws Exception {
+        var file = directory.resolve("sync.ndjson");
+
+        for (var run = 0; run < 2; run++) {
+            var result = new SyncResult();
+            result.addSink(new NdjsonResultSink(file));
+            result.addIssueResult(issueResult("ENG-1", "skip", true, "No changes"));
+            result.complete();
+        }
+
+        assertEquals(4, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void testOnlyCountersAndSomeErrorsStayInMemory() {
+        var result = new SyncResult();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> result.addIssueResult(
+                issueResult("ENG-" + i, i % 2 == 0 ? "create" : "update", i % 100 != 0, "Failed " + i)));
+
+        assertEquals(4900, result.createdCount());
+        assertEquals(5000, result.updatedCount());
+        assertEquals(100, result.errorCount());
+        assertEquals(SyncResult.MAX_KEPT_ERRORS, result.errors().size());
+
+        result.addError("One more");
+        assertEquals(101, result.errorCount());
+        assertEquals(SyncResult.MAX_KEPT_ERRORS, result.errors().size());
+        assertTrue(result.getSummary().contains("... and 1 more"));
+    }
+
+    private JsonNode parse(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new AssertionError("Not a JSON line: " + line, e);
+        }
+    }
+
+    private static SyncResult.IssueResult issueResult(String identifier, String action, boolean success, String message) {
+        var issueResult = new SyncResult.IssueResult();
+        issueResult.linearIssueId = "id-" + identifier;
+        issueResult.linearIdentifier = identifier;
+        issueResult.action = action;
+        issueResult.success = success;
+        issueResult.message = message;
+        return issueResult;
+    }
+}
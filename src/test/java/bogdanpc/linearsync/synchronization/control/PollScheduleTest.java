@@ -0,0 +1,71 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollScheduleTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T10:00:00Z");
+    private static final Duration MIN = Duration.ofSeconds(30);
+    private static final Duration MAX = Duration.ofMinutes(15);
+
+    private final PollSchedule schedule = new PollSchedule(List.of("ENG", "OPS"), Duration.ofMinutes(2), MIN, MAX, START);
+
+    @Test
+    void testAllTeamsAreDueAtStart() {
+        assertEquals(new PollSchedule.Due("ENG", START), schedule.next());
+
+        schedule.completed("ENG", 0, START);
+
+        assertEquals(new PollSchedule.Due("OPS", START), schedule.next());
+    }
+
+    @Test
+    void testIdleTeamBacksOffUpToTheMaximum() {
+        var now = START;
+        schedule.completed("OPS", 0, now);
+        var previous = schedule.interval("OPS");
+        for (int i = 0; i < 10; i++) {
+            now = now.plus(schedule.interval("OPS"));
+            var interval = schedule.completed("OPS", 0, now);
+            assertTrue(interval.compareTo(previous) >= 0);
+            previous = interval;
+        }
+
+        assertEquals(MAX, schedule.interval("OPS"));
+    }
+
+    @Test
+    void testActiveTeamIsPolledMoreOftenDownToTheMinimum() {
+        var now = START;
+        schedule.completed("ENG", 0, now);
+        for (int i = 0; i < 3; i++) {
+            now = now.plus(schedule.interval("ENG"));
+            schedule.completed("ENG", 20, now);
+        }
+
+        assertEquals(MIN, schedule.interval("ENG"));
+        schedule.completed("OPS", 0, now);
+        assertEquals(new PollSchedule.Due("ENG", now.plus(MIN)), schedule.next());
+    }
+
+    @Test
+    void testQuietTeamDoesNotSlowDownABusyOne() {
+        var now = START;
+        schedule.completed("ENG", 0, now);
+        schedule.completed("OPS", 0, now);
+        for (int i = 0; i < 5; i++) {
+            now = now.plus(Duration.ofMinutes(2));
+            schedule.completed("ENG", 10, now);
+            schedule.completed("OPS", 0, now);
+        }
+
+        assertTrue(schedule.interval("ENG").compareTo(schedule.interval("OPS")) < 0);
+        assertEquals("ENG", schedule.next().teamKey());
+    }
+}
@@ -0,0 +1,75 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.entity.IssueField;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedIssueTest {
+
+    private final SyncState state = new SyncState();
+
+    @Test
+    void testChangesAreRankedByKind() {
+        synced("status", "todo", "summary");
+        synced("edited", "todo", "old summary");
+        synced("unchanged", "todo", "summary");
+
+        assertEquals(RankedIssue.Change.CREATE, rank(issue("new", 3, 5), "todo", "summary").change());
+        assertEquals(RankedIssue.Change.STATUS, rank(issue("status", 3, 5), "done", "summary").change());
+        assertEquals(RankedIssue.Change.UPDATE, rank(issue("edited", 3, 5), "todo", "summary").change());
+        assertEquals(RankedIssue.Change.UNCHANGED, rank(issue("unchanged", 3, 5), "todo", "summary").change());
+    }
+
+    @Test
+    void testIssueNotUpdatedSinceItsSyncIsUnchanged() {
+        synced("stale", "todo", "summary");
+
+        assertEquals(RankedIssue.Change.UNCHANGED, rank(issue("stale", 3, 1), "done", "other").change());
+    }
+
+    @Test
+    void testOrderPutsCreatesThenUrgentThenRecentFirst() {
+        synced("update", "todo", "old summary");
+
+        var update = rank(issue("update", 1, 9), "todo", "summary");
+        var low = rank(issue("low", 4, 9), "todo", "summary");
+        var none = rank(issue("none", 0, 9), "todo", "summary");
+        var urgentOld = rank(issue("urgent-old", 1, 3), "todo", "summary");
+        var urgentRecent = rank(issue("urgent-recent", 1, 8), "todo", "summary");
+
+        var order = Stream.of(update, none, low, urgentOld, urgentRecent).sorted()
+                .map(ranked -> ranked.preparedIssue().linearIssue().id())
+                .toList();
+
+        assertEquals(List.of("urgent-recent", "urgent-old", "low", "none", "update"), order);
+    }
+
+    private void synced(String id, String status, String summary) {
+        state.addSyncedIssue(id, "JIRA-" + id, "jira-" + id);
+        var syncedIssue = state.getSyncedIssue(id);
+        syncedIssue.linearUpdatedAt = instant(2);
+        syncedIssue.fieldHashes = Map.of(IssueField.STATUS.name(), status, IssueField.SUMMARY.name(), summary);
+    }
+
+    private RankedIssue rank(LinearIssue linearIssue, String status, String summary) {
+        return RankedIssue.of(new PreparedIssue(linearIssue, null, Map.of(IssueField.STATUS, status, IssueField.SUMMARY, summary)), state);
+    }
+
+    private static LinearIssue issue(String id, int priority, int updatedHour) {
+        return LinearIssues.issue(id).priority(priority).createdAt(instant(0)).updatedAt(instant(updatedHour)).build();
+    }
+
+    private static Instant instant(int hour) {
+        return Instant.parse("2024-03-01T00:00:00Z").plusSeconds(hour * 3600L);
+    }
+}
@@ -0,0 +1,139 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.monitoring.control.ApiCallFilter;
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import bogdanpc.linearsync.synchronization.entity.RunRecord;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecentRunsAreReadFromTheEndOfTheHistory() throws Exception {
+        var history = new RunHistory(tempDir.resolve(RunHistory.FILE_NAME));
+        assertTrue(history.recent(5).isEmpty());
+
+        for (int i = 0; i < 200; i++) {
+            history.append(run(i, 1000, i * 10));
+        }
+        Files.writeString(history.getFile(), "{not json\n", StandardOpenOption.APPEND);
+        history.append(run(200, 1000, 2000));
+
+        var recent = history.recent(3);
+        assertEquals(List.of(198, 199, 200), recent.stream().map(RunRecord::syncedIssues).toList(),
+                "The unreadable line is skipped and the latest runs come oldest first");
+        assertEquals(Map.of("updated", 2000), recent.getLast().issues());
+        assertEquals(new RunRecord.ApiCalls(2000, 1, 512, 4096), recent.getLast().apiCalls().get("jira updateIssue"));
+        assertEquals(Instant.parse("2025-01-01T00:00:00Z").plusSeconds(200), recent.getLast().start());
+        assertEquals(201, history.recent(1000).size());
+    }
+
+    @Test
+    void testHistoryKeepsItsNewerHalfOnceTooLarge() throws Exception {
+        var history = new RunHistory(tempDir.resolve(RunHistory.FILE_NAME));
+        var index = 0;
+        long size = 0;
+        do {
+            history.append(run(index, 1000, 10));
+            var grown = Files.size(history.getFile());
+            if (grown < size) {
+                break;
+            }
+            size = grown;
+            index++;
+        } while (size <= RunHistory.MAX_FILE_BYTES);
+
+        assertTrue(Files.size(history.getFile()) <= RunHistory.MAX_FILE_BYTES / 2);
+        var lines = Files.readAllLines(history.getFile());
+        assertTrue(lines.getFirst().startsWith("{"), "Only whole runs are kept");
+        assertEquals(index, history.recent(1).getFirst().syncedIssues());
+    }
+
+    @Test
+    void testThroughputTrendComparesTheLatestRunWithTheMedianOfTheRunsBefore() {
+        assertTrue(RunHistory.throughputTrend(List.of(run(0, 1000, 10), run(1, 1000, 10), run(2, 1000, 10))).isEmpty(),
+                "Too few runs to compare against");
+
+        var runs = List.of(run(0, 1000, 10), run(1, 1000, 30), run(2, 1000, 20), run(3, 1000, 0), run(4, 2000, 10));
+        assertEquals(0.25, RunHistory.throughputTrend(runs).orElseThrow(), 1e-9,
+                "5 issues per second against a median of 20, ignoring the run without issues");
+    }
+
+    @Test
+    void testSinkRecordsOutcomesSlowestIssuesAndTheApiCallsOfTheRun() {
+        var history = new RunHistory(tempDir.resolve(RunHistory.FILE_NAME));
+        var metrics = new Metrics();
+        metrics.counter(ApiCallFilter.REQUESTS, "Calls", "client", "jira", "endpoint", "updateIssue", "status", "200").add(7);
+
+        var result = new SyncResult();
+        result.addSink(new RunHistorySink(history, metrics, false));
+        result.startTime = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 8; i++) {
+            result.addIssueResult(issueResult("ENG-" + i, "update", i != 3, i * 100L));
+        }
+        result.addError("Failed to fetch page 2");
+        metrics.counter(ApiCallFilter.REQUESTS, "Calls", "client", "jira", "endpoint", "updateIssue", "status", "200").add(7);
+        metrics.counter(ApiCallFilter.REQUESTS, "Calls", "client", "jira", "endpoint", "updateIssue", "status", "429").increment();
+        metrics.counter(ApiCallFilter.REQUESTS, "Calls", "client", "jira", "endpoint", "updateIssue", "status", ApiCallFilter.ERROR_STATUS).increment();
+        metrics.counter(ApiCallFilter.RESPONSE_BYTES, "Bytes", "client", "linear", "endpoint", "getIssues").add(2048);
+        result.endTime = result.startTime.plusSeconds(4);
+        result.success = true;
+        result.syncedIssues = 42;
+        result.complete();
+
+        var run = history.recent(1).getFirst();
+        assertEquals(4000, run.durationMillis());
+        assertEquals(7, run.issues().get("updated"));
+        assertEquals(1, run.issues().get("failed"));
+        assertEquals(8, run.processedIssues());
+        assertEquals(2, run.errorCount());
+        assertEquals(List.of("ENG-3: Jira returned 400", "Failed to fetch page 2"), run.errors());
+        assertEquals(List.of("ENG-7", "ENG-6", "ENG-5", "ENG-4", "ENG-3"),
+                run.slowestIssues().stream().map(RunRecord.SlowIssue::linearIdentifier).toList());
+        assertEquals(new RunRecord.ApiCalls(9, 2, 0, 0), run.apiCalls().get("jira updateIssue"));
+        assertEquals(new RunRecord.ApiCalls(0, 0, 0, 2048), run.apiCalls().get("linear getIssues"));
+        assertEquals(42, run.syncedIssues());
+    }
+
+    @Test
+    void testSinkSkipsRunsWithoutIssues() {
+        var history = new RunHistory(tempDir.resolve(RunHistory.FILE_NAME));
+        var result = new SyncResult();
+        result.addSink(new RunHistorySink(history, new Metrics(), false));
+        result.startTime = Instant.now();
+        result.endTime = result.startTime;
+        result.success = true;
+        result.complete();
+
+        assertFalse(Files.exists(history.getFile()));
+    }
+
+    private static RunRecord run(int index, long durationMillis, int updated) {
+        return new RunRecord(Instant.parse("2025-01-01T00:00:00Z").plusSeconds(index), durationMillis, true, false, false,
+                Map.of("updated", updated), 0, List.of(), Map.of("jira updateIssue", new RunRecord.ApiCalls(updated, 1, 512, 4096)),
+                List.of(new RunRecord.SlowIssue("ENG-" + index, "update", 250)), index);
+    }
+
+    private static SyncResult.IssueResult issueResult(String identifier, String action, boolean success, long durationMillis) {
+        var result = new SyncResult.IssueResult();
+        result.linearIdentifier = identifier;
+        result.action = action;
+        result.success = success;
+        result.message = success ? null : "Jira returned 400";
+        result.durationMillis = durationMillis;
+        return result;
+    }
+}
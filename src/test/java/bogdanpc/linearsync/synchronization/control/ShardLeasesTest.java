@@ -0,0 +1,166 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardLeasesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEachShardIsClaimedByOneWorker() {
+        var first = leases("worker-a", Duration.ofMinutes(5)).claim().orElseThrow();
+        var second = leases("worker-b", Duration.ofMinutes(5)).claim().orElseThrow();
+
+        assertNotEquals(first.shard(), second.shard());
+        assertTrue(leases("worker-c", Duration.ofMinutes(5)).claim().isEmpty());
+        assertEquals(directory.resolve(ShardLeases.DIRECTORY_NAME).resolve(first.shard().name()), first.stateDirectory());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void testReleasedShardCanBeClaimedAgain() {
+        var lease = leases("worker-a", Duration.ofMinutes(5)).claim().orElseThrow();
+        var other = leases("worker-b", Duration.ofMinutes(5)).claim().orElseThrow();
+        lease.close();
+
+        var next = leases("worker-c", Duration.ofMinutes(5)).claim().orElseThrow();
+
+        assertEquals(lease.shard(), next.shard());
+        assertThrows(IllegalStateException.class, lease::ensureHeld);
+        other.close();
+        next.close();
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() throws InterruptedException {
+        var hung = leases("worker-a", Duration.ofMillis(300)).claim().orElseThrow();
+        var other = leases("worker-b", Duration.ofMinutes(5)).claim().orElseThrow();
+        hung.stopRenewing();
+        Thread.sleep(400);
+
+        var takeover = leases("worker-c", Duration.ofMinutes(5)).claim().orElseThrow();
+
+        assertEquals(hung.shard(), takeover.shard());
+        assertThrows(IllegalStateException.class, hung::ensureHeld);
+        assertDoesNotThrow(takeover::ensureHeld);
+
+        // The stale worker does not release the lease it no longer holds
+        hung.close();
+        assertTrue(leases("worker-d", Duration.ofMinutes(5)).claim().isEmpty());
+        other.close();
+        takeover.close();
+    }
+
+    @Test
+    void testRenewedLeaseOutlivesItsInitialExpiry() throws InterruptedException {
+        var lease = leases("worker-a", Duration.ofMillis(300)).claim().orElseThrow();
+        Thread.sleep(600);
+
+        assertDoesNotThrow(lease::ensureHeld);
+        assertFalse(lease.isLost());
+        lease.close();
+    }
+
+    @Test
+    void testHashShardsSplitIssuesAndKeepSubIssuesWithTheirParent() {
+        var shards = new ShardLeases(sharedState(), directory, "4", Duration.ofMinutes(5), "worker-a").shards();
+        var owned = new HashSet<String>();
+
+        IntStream.range(0, 100).forEach(i -> {
+            var issue = issue("issue-" + i, null);
+            var owners = shards.stream().filter(shard -> shard.owns(issue)).toList();
+            assertEquals(1, owners.size());
+            owned.add(owners.getFirst().name());
+            assertTrue(owners.getFirst().owns(issue("child-" + i, "issue-" + i)));
+        });
+        assertEquals(4, owned.size());
+    }
+
+    @Test
+    void testTeamShards() {
+        var shards = new ShardLeases(sharedState(), directory, "ENG, OPS", Duration.ofMinutes(5), "worker-a").shards();
+
+        assertEquals(2, shards.size());
+        assertEquals("ENG", shards.getFirst().teamKey());
+        assertEquals("team-OPS", shards.get(1).name());
+    }
+
+    @Test
+    void testNewShardIsSeededFromTheSharedStateAndThoseOfOtherShards() {
+        var shared = sharedState();
+        var state = shared.loadState();
+        state.addSyncedIssue("lin-1", "PROJ-1", "10001");
+        state.addSyncedIssue("lin-2", "PROJ-2", "10002");
+        state.getSyncedIssue("lin-2").lastSyncTime = Instant.parse("2024-03-01T09:00:00Z");
+        state.lastSyncTime = Instant.parse("2024-03-01T10:00:00Z");
+        state.teamSyncTimes.put("ENG", Instant.parse("2024-03-01T11:00:00Z"));
+        shared.saveState(state, false);
+
+        // Left by shards configured differently before, synced after the shared state
+        var previousShard = shared.inDirectory(directory.resolve(ShardLeases.DIRECTORY_NAME).resolve("hash-0-of-2"));
+        var previous = previousShard.loadState();
+        previous.addSyncedIssue("lin-2", "PROJ-2", "10002");
+        previous.getSyncedIssue("lin-2").lastSyncTime = Instant.parse("2024-03-02T09:00:00Z");
+        previous.getSyncedIssue("lin-2").jiraParentKey = "PROJ-9";
+        previous.addSyncedIssue("lin-3", "PROJ-3", "10003");
+        previousShard.saveState(previous, false);
+
+        var lease = leases("worker-a", Duration.ofMinutes(5)).claim().orElseThrow();
+        var seeded = lease.stateRepository().loadState();
+
+        assertEquals(3, seeded.issueCount());
+        assertEquals("PROJ-1", seeded.getSyncedIssue("lin-1").jiraIssueKey);
+        assertEquals("PROJ-9", seeded.getSyncedIssue("lin-2").jiraParentKey, "The most recently synced entry is kept");
+        assertEquals("PROJ-3", seeded.getSyncedIssue("lin-3").jiraIssueKey);
+        assertEquals(Instant.parse("2024-03-01T10:00:00Z"), seeded.lastSyncTime);
+        assertEquals(Instant.parse("2024-03-01T11:00:00Z"), seeded.teamSyncTimes.get("ENG"));
+        assertNull(shared.loadState().getSyncedIssue("lin-3"), "The shared state is left as it is");
+        lease.close();
+    }
+
+    @Test
+    void testShardWithAStateOfItsOwnIsNotSeededAgain() {
+        var lease = leases("worker-a", Duration.ofMinutes(5)).claim().orElseThrow();
+        var own = lease.stateRepository().loadState();
+        own.addSyncedIssue("lin-1", "PROJ-1", "10001");
+        lease.stateRepository().saveState(own, false);
+        lease.close();
+
+        var shared = sharedState();
+        var state = shared.loadState();
+        state.addSyncedIssue("lin-2", "PROJ-2", "10002");
+        shared.saveState(state, false);
+
+        var next = leases("worker-a", Duration.ofMinutes(5)).claim().orElseThrow();
+
+        assertEquals(lease.shard(), next.shard());
+        assertEquals(1, next.stateRepository().loadState().issueCount());
+        next.close();
+    }
+
+    private ShardLeases leases(String workerId, Duration leaseTime) {
+        return new ShardLeases(sharedState(), directory.resolve(ShardLeases.DIRECTORY_NAME), "ENG,OPS", leaseTime, workerId);
+    }
+
+    private SyncStateRepository sharedState() {
+        return new SyncStateRepository(directory.toString(), 5);
+    }
+
+    private static LinearIssue issue(String id, String parentId) {
+        return LinearIssues.issue(id).parent(parentId).createdAt(null).updatedAt(null).build();
+    }
+}
@@ -0,0 +1,110 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncDaemonTest {
+
+    private final SyncDaemon daemon = new SyncDaemon(null);
+
+    @Test
+    void testRunsCyclesUntilStopped() {
+        var cycles = new AtomicInteger();
+
+        daemon.run(_ -> {
+            if (cycles.incrementAndGet() == 3) {
+                daemon.stop();
+            }
+            return new SyncResult();
+        }, schedule(List.of("ENG"), Duration.ofMillis(10)));
+
+        assertEquals(3, cycles.get());
+    }
+
+    @Test
+    void testFailedCycleDoesNotStopTheDaemon() {
+        var cycles = new AtomicInteger();
+
+        daemon.run(_ -> {
+            if (cycles.incrementAndGet() == 1) {
+                throw new IllegalStateException("Linear unavailable");
+            }
+            daemon.stop();
+            return new SyncResult();
+        }, schedule(List.of("ENG"), Duration.ofMillis(10)));
+
+        assertEquals(2, cycles.get());
+    }
+
+    @Test
+    void testEachTeamIsPolled() {
+        var polled = new ArrayList<String>();
+
+        daemon.run(teamKey -> {
+            polled.add(teamKey);
+            if (polled.size() == 2) {
+                daemon.stop();
+            }
+            return new SyncResult();
+        }, schedule(List.of("ENG", "OPS"), Duration.ofHours(1)));
+
+        assertEquals(List.of("ENG", "OPS"), polled);
+    }
+
+    @Test
+    void testStopEndsTheWaitForTheNextCycle() {
+        var started = System.nanoTime();
+
+        daemon.run(_ -> {
+            Thread.ofVirtual().start(daemon::stop);
+            return new SyncResult();
+        }, schedule(List.of("ENG"), Duration.ofHours(1)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toSeconds() < 10);
+    }
+
+    @Test
+    void testPollsThatOnlySkipIssuesBackOff() {
+        var schedule = new PollSchedule(List.of("ENG"), Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofMillis(50), Instant.now());
+        var intervals = new ArrayList<Duration>();
+
+        daemon.run(_ -> {
+            intervals.add(schedule.interval("ENG"));
+            if (intervals.size() == 6) {
+                daemon.stop();
+            }
+            var result = new SyncResult();
+            for (int i = 0; i < 20; i++) {
+                result.addIssueResult(issueResult("skip", true));
+            }
+            result.addIssueResult(issueResult("update", false));
+            return result;
+        }, schedule);
+
+        // Unchanged and failing issues are no activity: every poll doubles the interval, from the second on
+        intervals.add(schedule.interval("ENG"));
+        for (int i = 2; i < intervals.size(); i++) {
+            assertTrue(intervals.get(i).compareTo(intervals.get(i - 1).multipliedBy(2)) >= 0, "Intervals " + intervals);
+        }
+    }
+
+    private static SyncResult.IssueResult issueResult(String action, boolean success) {
+        var result = new SyncResult.IssueResult();
+        result.action = action;
+        result.success = success;
+        result.message = success ? null : "Jira returned 500";
+        return result;
+    }
+
+    private static PollSchedule schedule(List<String> teamKeys, Duration interval) {
+        return new PollSchedule(teamKeys, interval, interval, interval, Instant.now());
+    }
+}
@@ -0,0 +1,205 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.linear.control.IssueMirror;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import bogdanpc.linearsync.monitoring.control.Metrics;
+import bogdanpc.linearsync.monitoring.control.Tracer;
+import bogdanpc.linearsync.synchronization.entity.PreparedIssue;
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
+import bogdanpc.linearsync.synchronization.entity.SyncResult;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final SyncState state = new SyncState();
+    private final SyncResult result = new SyncResult();
+    private final FakeProcessor processor = new FakeProcessor();
+
+    @Test
+    void testSubIssueIsHeldBackUntilItsParentIsWritten() {
+        var linear = new FakeLinear(List.of(issue("child", "parent")), List.of(issue("parent", null)));
+
+        // One transformer and one writer, so the child reaches the writer before its parent
+        run(linear, 1, 1, 1, null);
+
+        assertEquals(List.of("parent", "child"), processor.written);
+        assertEquals(2, result.createdCount());
+    }
+
+    @Test
+    void testSubIssuesWhoseParentsAreNotInTheRunAreWrittenParentsFirstAfterTheRun() {
+        var linear = new FakeLinear(List.of(issue("grandchild", "child"), issue("child", "missing")), List.of(issue("other", null)));
+
+        run(linear, 10, 2, 2, null);
+
+        assertEquals(List.of("other", "child", "grandchild"), processor.written);
+        assertEquals(3, result.createdCount());
+    }
+
+    @Test
+    void testEveryTransformerAndWriterReceivesTheEndOfTheStream() {
+        var pages = IntStream.range(0, 10)
+                .mapToObj(page -> IntStream.range(0, 5).mapToObj(i -> issue("issue-" + (page * 5 + i), null)).toList())
+                .toList();
+
+        run(new FakeLinear(pages), 3, 4, 6, null);
+
+        assertEquals(50, processor.written.size());
+        assertEquals(50, new HashSet<>(processor.written).size(), "No issue is written twice");
+        assertEquals(50, result.createdCount());
+    }
+
+    @Test
+    void testEndOfTheStreamComesLastInTheRankedQueueOfARunWithDeadline() {
+        var pages = IntStream.range(0, 10)
+                .mapToObj(page -> IntStream.range(0, 5).mapToObj(i -> issue("issue-" + (page * 5 + i), null)).toList())
+                .toList();
+
+        run(new FakeLinear(pages), 3, 4, 6, Instant.now().plus(Duration.ofHours(1)));
+
+        assertEquals(50, processor.written.size());
+        assertFalse(result.deadlineReached);
+    }
+
+    @Test
+    void testFailingWriterStopsTheFetchBlockedOnAFullQueue() {
+        var pages = IntStream.range(0, 100).mapToObj(i -> List.of(issue("issue-" + i, null))).toList();
+        processor.failingId = "issue-0";
+
+        var failure = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(RuntimeException.class, () -> run(new FakeLinear(pages), 1, 1, 1, null)));
+
+        assertEquals("Jira unavailable", failure.getCause().getMessage());
+        assertTrue(processor.written.isEmpty());
+    }
+
+    @Test
+    void testFailingFetchReleasesTheTransformersAndWritersWaitingForIssues() {
+        var linear = new FakeLinear(List.of(issue("issue-1", null)));
+        linear.failAfterPages = true;
+
+        var failure = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(RuntimeException.class, () -> run(linear, 10, 3, 3, null)));
+
+        assertEquals("Linear unavailable", failure.getCause().getMessage());
+    }
+
+    @Test
+    void testFetchedPagesAreRecordedInTheMirror(@TempDir Path mirrorDirectory) throws IOException {
+        var linear = new FakeLinear(List.of(issue("issue-1", null)), List.of(issue("issue-2", null)));
+
+        run(linear, new IssueMirror(linear, mirrorDirectory.toString(), 300), 10, 2, 2, null);
+
+        var mirrored = Files.readString(mirrorDirectory.resolve("linear-mirror.json"));
+        assertTrue(mirrored.contains("\"ENG-issue-1\"") && mirrored.contains("\"ENG-issue-2\""));
+        assertTrue(Files.exists(mirrorDirectory.resolve("linear-mirror.meta.json")), "A complete run counts as a refresh");
+    }
+
+    @Test
+    void testPagesFetchedBeforeAFailureAreStillMirrored(@TempDir Path mirrorDirectory) throws IOException {
+        var linear = new FakeLinear(List.of(issue("issue-1", null)));
+        linear.failAfterPages = true;
+
+        assertThrows(RuntimeException.class, () -> run(linear, new IssueMirror(linear, mirrorDirectory.toString(), 300), 10, 2, 2, null));
+
+        assertTrue(Files.readString(mirrorDirectory.resolve("linear-mirror.json")).contains("\"ENG-issue-1\""));
+        assertFalse(Files.exists(mirrorDirectory.resolve("linear-mirror.meta.json")), "An incomplete run is no refresh");
+    }
+
+    private void run(FakeLinear linear, int queueCapacity, int transformThreads, int writers, Instant deadline) {
+        run(linear, null, queueCapacity, transformThreads, writers, deadline);
+    }
+
+    private void run(FakeLinear linear, IssueMirror mirror, int queueCapacity, int transformThreads, int writers, Instant deadline) {
+        var pipeline = new SyncPipeline(linear, mirror, processor, new HierarchyScheduler(), new Metrics(),
+                queueCapacity, transformThreads, 0, mirror != null);
+        var checkpoints = new CheckpointTracker(new SyncCheckpoint("ENG", null, null), result, _ -> {}, 1000, 3600);
+        pipeline.run("ENG", null, null, state, false, writers, deadline, result, checkpoints);
+    }
+
+    private static LinearIssue issue(String id, String parentId) {
+        return LinearIssues.issue(id).parent(parentId).build();
+    }
+
+    private static final class FakeLinear extends IssueOperations {
+
+        private final List<List<LinearIssue>> pages;
+        boolean failAfterPages;
+
+        @SafeVarargs
+        FakeLinear(List<LinearIssue>... pages) {
+            this(List.of(pages));
+        }
+
+        FakeLinear(List<List<LinearIssue>> pages) {
+            super(null);
+            this.pages = pages;
+        }
+
+        @Override
+        public void streamIssues(String teamKey, String stateType, Instant updatedAfter, String afterCursor,
+                                 BiConsumer<List<LinearIssue>, String> pageConsumer) {
+            for (int i = 0; i < pages.size(); i++) {
+                pageConsumer.accept(pages.get(i), "cursor-" + i);
+            }
+            if (failAfterPages) {
+                throw new RuntimeException("Linear unavailable");
+            }
+        }
+    }
+
+    /**
+     * Creates every issue it is given, in the order the writers hand them over.
+     */
+    private static final class FakeProcessor extends IssueProcessor {
+
+        final List<String> written = Collections.synchronizedList(new ArrayList<>());
+        volatile String failingId;
+
+        FakeProcessor() {
+            super(null, null, null, new Tracer());
+        }
+
+        @Override
+        public PreparedIssue prepare(LinearIssue linearIssue) {
+            return new PreparedIssue(linearIssue, null, Map.of());
+        }
+
+        @Override
+        public SyncResult.IssueResult processIssue(PreparedIssue preparedIssue, SyncState state, boolean dryRun) {
+            var linearIssue = preparedIssue.linearIssue();
+            if (linearIssue.id().equals(failingId)) {
+                throw new IllegalStateException("Jira unavailable");
+            }
+            state.addSyncedIssue(linearIssue.id(), "TEST-" + linearIssue.id(), linearIssue.id());
+            written.add(linearIssue.id());
+            var issueResult = new SyncResult.IssueResult();
+            issueResult.linearIssueId = linearIssue.id();
+            issueResult.linearIdentifier = linearIssue.identifier();
+            issueResult.action = "create";
+            issueResult.success = true;
+            return issueResult;
+        }
+    }
+}
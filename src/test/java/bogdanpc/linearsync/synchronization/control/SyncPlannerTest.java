@@ -0,0 +1,177 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncPlan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.quarkiverse.wiremock.devservice.ConnectWireMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@ConnectWireMock
+class SyncPlannerTest {
+
+    @Inject
+    SyncPlanner syncPlanner;
+
+    @Inject
+    SyncStateRepository stateRepository;
+
+    @Inject
+    SyncCoordinator syncCoordinator;
+
+    @TempDir
+    Path directory;
+
+    WireMock wiremock;
+
+    @BeforeEach
+    void setUp() {
+        if (stateRepository.stateFileExists()) {
+            stateRepository.deleteState();
+        }
+        WireMock.resetAllRequests();
+    }
+
+    @Test
+    void testPlanWritesStepsWithoutCallingJira() {
+        var planFile = directory.resolve("eng.plan");
+
+        var plan = syncPlanner.plan("ENG", null, null, false, planFile);
+
+        assertEquals(1, plan.count(SyncPlan.Action.CREATE));
+        assertEquals("ENG-123", plan.steps.getFirst().linearIdentifier());
+        assertEquals("Test Issue", plan.steps.getFirst().payload().title());
+        assertEquals(1, plan.estimate.callsByOperation().get("create"));
+        assertTrue(plan.estimate.apiCalls() > 1);
+        assertTrue(plan.estimate.payloadBytes() > 0);
+        assertEquals(plan.steps.size(), syncPlanner.read(planFile).steps.size());
+
+        verify(postRequestedFor(urlEqualTo("/linear/")));
+        verify(0, postRequestedFor(urlMatching("/jira/.*")));
+        assertFalse(stateRepository.stateFileExists());
+    }
+
+    @Test
+    void testApplyCreatesIssuesInBulk() {
+        var planFile = directory.resolve("eng.plan");
+        var plan = syncPlanner.plan("ENG", null, null, false, planFile);
+        WireMock.resetAllRequests();
+
+        var result = syncPlanner.apply(planFile);
+
+        assertTrue(result.success);
+        assertEquals(1, result.createdCount());
+        verify(postRequestedFor(urlEqualTo("/jira/rest/api/3/issue/bulk")));
+        verify(0, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue")));
+        verify(0, postRequestedFor(urlEqualTo("/linear/")));
+
+        var state = stateRepository.loadState();
+        assertEquals("TEST-123", state.getSyncedIssue(plan.steps.getFirst().linearIssue().id()).jiraIssueKey);
+        assertEquals(plan.createdAt, state.lastSyncTime);
+    }
+
+    @Test
+    void testApplyAgainCreatesNothing() {
+        var planFile = directory.resolve("eng.plan");
+        syncPlanner.plan("ENG", null, null, false, planFile);
+        syncPlanner.apply(planFile);
+        WireMock.resetAllRequests();
+
+        var result = syncPlanner.apply(planFile);
+
+        assertTrue(result.success);
+        assertEquals(0, result.createdCount());
+        verify(0, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue/bulk")));
+    }
+
+    @Test
+    void testApplyKeepsTheIssuesCreatedBeforeItFailed() throws IOException {
+        var planFile = directory.resolve("eng.plan");
+        var plan = syncPlanner.plan("ENG", null, null, false, planFile);
+        // An update step without its Linear issue fails the apply after the creates
+        plan.steps.add(new SyncPlan.Step(SyncPlan.Action.UPDATE, "ENG-999", "TEST-999", Set.of(), Map.of(), null, Map.of(), null));
+        var objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.writeValue(planFile.toFile(), plan);
+
+        var result = syncPlanner.apply(planFile);
+
+        assertFalse(result.success);
+        assertEquals(1, result.createdCount());
+        var state = stateRepository.loadState();
+        assertEquals("TEST-123", state.getSyncedIssue(plan.steps.getFirst().linearIssue().id()).jiraIssueKey);
+        assertNotEquals(plan.createdAt, state.lastSyncTime);
+    }
+
+    @Test
+    void testApplyFailsInDryRunMode() {
+        var planFile = directory.resolve("eng.plan");
+        syncPlanner.plan("ENG", null, null, false, planFile);
+        WireMock.resetAllRequests();
+
+        syncCoordinator.setDryRun(true);
+        try {
+            var result = syncPlanner.apply(planFile);
+
+            assertFalse(result.success);
+            assertEquals(0, result.createdCount());
+            verify(0, postRequestedFor(urlMatching("/jira/.*")));
+            assertFalse(stateRepository.stateFileExists());
+        } finally {
+            syncCoordinator.setDryRun(false);
+        }
+    }
+
+    @Test
+    void testFailedApplyKeepsTheLastSyncTime() {
+        var planFile = directory.resolve("eng.plan");
+        var plan = syncPlanner.plan("ENG", null, null, false, planFile);
+        var state = stateRepository.loadState();
+        state.lastSyncTime = Instant.parse("2024-03-01T10:00:00Z");
+        stateRepository.saveState(state, false);
+        var failingBulk = wiremock.register(post(urlEqualTo("/jira/rest/api/3/issue/bulk"))
+                .atPriority(1)
+                .willReturn(serverError()));
+
+        try {
+            var result = syncPlanner.apply(planFile);
+
+            assertEquals(1, result.errorCount());
+            assertEquals(0, result.createdCount());
+            assertNotEquals(plan.createdAt, stateRepository.loadState().lastSyncTime);
+            assertEquals(Instant.parse("2024-03-01T10:00:00Z"), stateRepository.loadState().lastSyncTime);
+        } finally {
+            wiremock.removeStubMapping(failingBulk);
+        }
+    }
+
+    @Test
+    void testApplyDoesNotMoveTheSyncTimeBackwards() {
+        var planFile = directory.resolve("eng.plan");
+        var plan = syncPlanner.plan("ENG", null, null, false, planFile);
+        var later = plan.createdAt.plusSeconds(60);
+        var state = stateRepository.loadState();
+        state.lastSyncTime = later;
+        stateRepository.saveState(state, false);
+
+        var result = syncPlanner.apply(planFile);
+
+        assertTrue(result.success);
+        assertEquals(1, result.createdCount());
+        assertEquals(later, stateRepository.loadState().lastSyncTime);
+    }
+}
@@ -0,0 +1,110 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares saving and loading the sync state snapshot as JSON and with {@link SyncStateCodec}.
+ * File sizes are printed during setup.
+ * Run with: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=bogdanpc.linearsync.synchronization.control.SyncStateCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SyncStateCodecBenchmark {
+
+    private static final String[] FIELDS = {"SUMMARY", "DESCRIPTION", "LABELS", "PRIORITY", "STATUS", "COMMENTS"};
+
+    @Param({"10000", "100000", "1000000"})
+    int issues;
+
+    @Param({"json", "binary"})
+    String format;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SyncStateCodec codec = new SyncStateCodec(objectMapper);
+    private SyncState state;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var random = new Random(42);
+        state = new SyncState();
+        state.lastSyncTime = Instant.now();
+        for (int i = 0; i < issues; i++) {
+            var linearId = UUID.randomUUID().toString();
+            var issue = new SyncState.SyncedIssue(linearId, "PROJ" + (i % 4) + "-" + (i + 1), Integer.toString(10000 + i));
+            issue.linearUpdatedAt = issue.lastSyncTime.minusSeconds(random.nextInt(86400));
+            for (int a = random.nextInt(3); a > 0; a--) {
+                issue.syncedAttachments.add(UUID.randomUUID().toString());
+            }
+            for (var field : FIELDS) {
+                issue.fieldHashes.put(field, "%016x".formatted(random.nextLong()));
+            }
+            state.syncedIssues.put(linearId, issue);
+        }
+
+        file = Files.createTempFile("syncstate-benchmark", "." + format);
+        save();
+        System.out.printf("%n%s with %d issues: %d bytes%n", format, issues, Files.size(file));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        try (var out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            if ("binary".equals(format)) {
+                codec.write(state, out);
+            } else {
+                objectMapper.writeValue(out, state);
+            }
+        }
+    }
+
+    @Benchmark
+    public SyncState load() throws IOException {
+        try (var in = new BufferedInputStream(Files.newInputStream(file))) {
+            return "binary".equals(format) ? codec.read(in) : objectMapper.readValue(in, SyncState.class);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SyncStateCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.synchronization.entity.SyncCheckpoint;
+import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncStateCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SyncStateCodec codec = new SyncStateCodec(objectMapper);
+
+    @Test
+    void testRoundTripKeepsAllFields() throws IOException {
+        var state = new SyncState();
+        state.lastSyncTime = Instant.parse("2024-03-01T10:15:30.123Z");
+        state.teamSyncTimes.put("ENG", Instant.parse("2024-03-01T10:20:00Z"));
+        state.jiraSyncTime = Instant.parse("2024-03-01T10:25:00Z");
+        state.checkpoint = new SyncCheckpoint("ENG", "started", null);
+        state.checkpoint.cursor = "page-3";
+
+        var linearId = UUID.randomUUID().toString();
+        var attachmentId = UUID.randomUUID().toString();
+        var issue = new SyncState.SyncedIssue(linearId, "PROJ-123", "10042");
+        issue.jiraParentKey = "PROJ-7";
+        issue.lastSyncTime = Instant.parse("2024-03-01T10:00:00Z");
+        issue.linearUpdatedAt = Instant.parse("2024-02-28T08:30:00.500Z");
+        issue.status = SyncState.SyncStatus.ERROR;
+        issue.syncedAttachments = Set.of(attachmentId, "not-a-uuid");
+        issue.fieldHashes = Map.of("SUMMARY", "0123456789abcdef", "LABELS", "");
+        state.syncedIssues.put(linearId, issue);
+
+        var decoded = roundTrip(state);
+
+        assertEquals(state.lastSyncTime, decoded.lastSyncTime);
+        assertEquals(state.teamSyncTimes, decoded.teamSyncTimes);
+        assertEquals(state.jiraSyncTime, decoded.jiraSyncTime);
+        assertEquals("page-3", decoded.checkpoint.cursor);
+        var decodedIssue = decoded.getSyncedIssue(linearId);
+        assertEquals("PROJ-123", decodedIssue.jiraIssueKey);
+        assertEquals("10042", decodedIssue.jiraIssueId);
+        assertEquals("PROJ-7", decodedIssue.jiraParentKey);
+        assertEquals(issue.linearUpdatedAt, decodedIssue.linearUpdatedAt);
+        assertNull(decodedIssue.jiraUpdatedAt);
+        assertEquals(SyncState.SyncStatus.ERROR, decodedIssue.status);
+        assertEquals(issue.syncedAttachments, decodedIssue.syncedAttachments);
+        assertEquals(issue.fieldHashes, decodedIssue.fieldHashes);
+    }
+
+    @Test
+    void testValuesWithoutCompactFormRoundTrip() throws IOException {
+        var state = new SyncState();
+        var issue = new SyncState.SyncedIssue("linear-1", "weird key-01", "abc");
+        issue.fieldHashes = Map.of("DESCRIPTION", "ABC");
+        state.syncedIssues.put("linear-1", issue);
+
+        var decodedIssue = roundTrip(state).getSyncedIssue("linear-1");
+
+        assertEquals("weird key-01", decodedIssue.jiraIssueKey);
+        assertEquals("abc", decodedIssue.jiraIssueId);
+        assertEquals("ABC", decodedIssue.fieldHashes.get("DESCRIPTION"));
+    }
+
+    @Test
+    void testEncodingIsSmallerThanJson() throws IOException {
+        var state = new SyncState();
+        for (int i = 0; i < 100; i++) {
+            var linearId = UUID.randomUUID().toString();
+            var issue = new SyncState.SyncedIssue(linearId, "PROJ-" + i, Integer.toString(10000 + i));
+            issue.syncedAttachments.add(UUID.randomUUID().toString());
+            issue.fieldHashes.put("SUMMARY", "0123456789abcdef");
+            state.syncedIssues.put(linearId, issue);
+        }
+
+        var encoded = new ByteArrayOutputStream();
+        codec.write(state, encoded);
+
+        assertTrue(encoded.size() * 3 < objectMapper.writeValueAsBytes(state).length);
+        assertTrue(SyncStateCodec.isEncoded(new BufferedInputStream(new ByteArrayInputStream(encoded.toByteArray()))));
+        assertFalse(SyncStateCodec.isEncoded(new BufferedInputStream(new ByteArrayInputStream(objectMapper.writeValueAsBytes(state)))));
+    }
+
+    private SyncState roundTrip(SyncState state) throws IOException {
+        var encoded = new ByteArrayOutputStream();
+        codec.write(state, encoded);
+        return codec.read(new ByteArrayInputStream(encoded.toByteArray()));
+    }
+}
@@ -0,0 +1,126 @@
+package bogdanpc.linearsync.synchronization.control;
+
+import bogdanpc.linearsync.jira.boundary.FakeJira;
+import bogdanpc.linearsync.jira.entity.JiraIssueReference;
+import bogdanpc.linearsync.linear.control.IssueOperations;
+import bogdanpc.linearsync.linear.entity.LinearIssue;
+import bogdanpc.linearsync.linear.entity.LinearIssues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncStateRebuilderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeLinear linear;
+    private FakeJira jira;
+    private SyncStateRepository repository;
+    private SyncCoordinator coordinator;
+    private SyncStateRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        linear = new FakeLinear();
+        jira = new FakeJira();
+        repository = new SyncStateRepository(tempDir.toString(), 5);
+        coordinator = new SyncCoordinator(repository);
+        rebuilder = new SyncStateRebuilder(linear, jira, coordinator, repository);
+    }
+
+    @Test
+    void testMappingsAreRestoredFromTheLinearIdField() {
+        var state = repository.loadState();
+        state.addSyncedIssue("lin-1", "PROJ-1", "10001");
+        state.lastSyncTime = Instant.parse("2024-03-01T10:00:00Z");
+        state.teamSyncTimes.put("ENG", Instant.parse("2024-03-01T10:00:00Z"));
+        repository.saveState(state, false);
+
+        linear.issues.addAll(List.of(issue("lin-1", "ENG-1"), issue("lin-2", "ENG-2"), issue("lin-3", "ENG-3"), issue("lin-4", "ENG-4")));
+        jira.existing.put("lin-2", new JiraIssueReference("10002", "PROJ-2", Map.of("customfield_10000", "lin-2")));
+        jira.existing.put("lin-3", new JiraIssueReference("10003", "PROJ-3", Map.of("customfield_10000", "lin-3")));
+
+        var result = rebuilder.rebuild(null);
+
+        assertEquals(List.of(List.of("lin-2", "lin-3", "lin-4")), jira.lookups, "Only untracked issues are looked up");
+        assertEquals(4, result.linearIssues());
+        assertEquals(1, result.alreadyTracked());
+        assertEquals(2, result.restored());
+        assertEquals(1, result.notInJira());
+
+        var rebuilt = new SyncStateRepository(tempDir.toString(), 5).loadState();
+        assertEquals("PROJ-1", rebuilt.getSyncedIssue("lin-1").jiraIssueKey);
+        assertEquals("PROJ-2", rebuilt.getSyncedIssue("lin-2").jiraIssueKey);
+        assertEquals("10003", rebuilt.getSyncedIssue("lin-3").jiraIssueId);
+        assertNull(rebuilt.getSyncedIssue("lin-4"), "Left for the next sync to create");
+        assertNull(rebuilt.getSyncedIssue("lin-2").linearUpdatedAt, "Restored issues are revisited as updates");
+        assertNull(rebuilt.lastSyncTime);
+        assertTrue(rebuilt.teamSyncTimes.isEmpty());
+    }
+
+    @Test
+    void testIssueListedTwiceIsLookedUpAndRestoredOnce() {
+        linear.issues.addAll(List.of(issue("lin-1", "ENG-1"), issue("lin-1", "ENG-1")));
+        jira.existing.put("lin-1", new JiraIssueReference("10001", "PROJ-1", Map.of("customfield_10000", "lin-1")));
+
+        var result = rebuilder.rebuild(null);
+
+        assertEquals(List.of(List.of("lin-1")), jira.lookups);
+        assertEquals(1, result.restored());
+        assertEquals(0, result.notInJira());
+        assertEquals(1, new SyncStateRepository(tempDir.toString(), 5).loadState().issueCount());
+    }
+
+    @Test
+    void testDryRunRestoresNothing() {
+        coordinator.setDryRun(true);
+        linear.issues.add(issue("lin-1", "ENG-1"));
+        jira.existing.put("lin-1", new JiraIssueReference("10001", "PROJ-1", Map.of("customfield_10000", "lin-1")));
+
+        var result = rebuilder.rebuild(null);
+
+        assertEquals(1, result.restored());
+        assertFalse(repository.stateFileExists());
+    }
+
+    @Test
+    void testNothingIsSavedWhenJiraHasNoneOfTheIssues() {
+        linear.issues.add(issue("lin-1", "ENG-1"));
+
+        var result = rebuilder.rebuild("ENG");
+
+        assertEquals("ENG", linear.teamKey);
+        assertEquals(0, result.restored());
+        assertEquals(1, result.notInJira());
+        assertFalse(repository.stateFileExists());
+    }
+
+    private static LinearIssue issue(String id, String identifier) {
+        return LinearIssues.issue(id).identifier(identifier).updatedAt(Instant.parse("2024-03-01T09:00:00Z")).build();
+    }
+
+    private static class FakeLinear extends IssueOperations {
+
+        final List<LinearIssue> issues = new ArrayList<>();
+        String teamKey;
+
+        FakeLinear() {
+            super(null);
+        }
+
+        @Override
+        public List<LinearIssue> getIssueReferences(String teamKey) {
+            this.teamKey = teamKey;
+            return List.copyOf(issues);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package bogdanpc.linearsync.synchronization.control;
 
 import bogdanpc.linearsync.synchronization.entity.SyncState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.AfterEach;
@@ -11,6 +13,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -52,10 +63,10 @@ class SyncStateRepositoryTest {
             Files.delete(testStateFile);
         }
 
-        // Clean up backup files in temp directory
+        // Clean up backup files and directories in temp directory
         if (Files.exists(tempDir)) {
             try (var walk = Files.walk(tempDir)) {
-                walk.filter(Files::isRegularFile)
+                walk.sorted(Comparator.reverseOrder())
                         .forEach(path -> {
                             try {
                                 Files.delete(path);
@@ -63,7 +74,6 @@ class SyncStateRepositoryTest {
                                 // ignore
                             }
                         });
-                Files.delete(tempDir);
             }
         }
     }
@@ -108,6 +118,195 @@ class SyncStateRepositoryTest {
         assertEquals(SyncState.SyncStatus.SYNCED, syncedIssue.status);
     }
 
+    @Test
+    void testLoadedStateSupportsConcurrentWriters() throws Exception {
+        var testStateManager = new SyncStateRepository("current", 5);
+        testStateManager.saveState(new SyncState());
+
+        var loadedState = testStateManager.loadState();
+        assertInstanceOf(ConcurrentHashMap.class, loadedState.syncedIssues);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                var id = "linear-" + i;
+                executor.submit(() -> loadedState.addSyncedIssue(id, "JIRA-" + id, "jira-id-" + id));
+            }
+        }
+
+        assertEquals(500, loadedState.syncedIssues.size());
+    }
+
+    @Test
+    void testIssueLocksOnlyHoldBackTheSameIssue() throws Exception {
+        var state = new SyncState();
+        var held = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var holder = executor.submit(() -> {
+                state.lockIssue("linear-1");
+                try {
+                    held.countDown();
+                    release.await();
+                } finally {
+                    state.unlockIssue("linear-1");
+                }
+                return null;
+            });
+            held.await();
+
+            var otherIssue = executor.submit(() -> {
+                state.lockIssue("linear-2");
+                state.unlockIssue("linear-2");
+            });
+            otherIssue.get(5, TimeUnit.SECONDS);
+
+            var sameIssue = executor.submit(() -> {
+                state.lockIssue("linear-1");
+                state.unlockIssue("linear-1");
+            });
+            var exclusive = executor.submit(() -> state.runExclusively(() -> {}));
+            assertThrows(TimeoutException.class, () -> sameIssue.get(200, TimeUnit.MILLISECONDS));
+            assertFalse(exclusive.isDone(), "Waits for the issue in processing");
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            sameIssue.get(5, TimeUnit.SECONDS);
+            exclusive.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testSavingLoadedStateAppendsChangesToJournal() throws IOException {
+        var repository = new SyncStateRepository(tempDir.toString(), 5, 1000, "json");
+        var initial = new SyncState();
+        initial.addSyncedIssue("linear-1", "JIRA-1", "jira-id-1");
+        repository.saveState(initial);
+        var snapshot = Files.readString(repository.getStateFilePath());
+
+        var loaded = repository.loadState();
+        loaded.addSyncedIssue("linear-2", "JIRA-2", "jira-id-2");
+        loaded.getSyncedIssue("linear-1").jiraParentKey = "JIRA-0";
+        loaded.markChanged("linear-1");
+        repository.saveState(loaded);
+
+        assertEquals(snapshot, Files.readString(repository.getStateFilePath()), "Snapshot is not rewritten");
+        assertEquals(3, Files.readAllLines(tempDir.resolve(".syncstate.journal")).size());
+
+        var reloaded = new SyncStateRepository(tempDir.toString(), 5, 1000, "json").loadState();
+        assertEquals(2, reloaded.syncedIssues.size());
+        assertEquals("JIRA-0", reloaded.getSyncedIssue("linear-1").jiraParentKey);
+        assertEquals(loaded.lastSyncTime, reloaded.lastSyncTime);
+    }
+
+    @Test
+    void testJournalIsCompactedIntoSnapshot() {
+        var repository = new SyncStateRepository(tempDir.toString(), 5, 4, "json");
+        repository.saveState(new SyncState());
+
+        var loaded = repository.loadState();
+        for (int i = 0; i < 5; i++) {
+            loaded.addSyncedIssue("linear-" + i, "JIRA-" + i, "jira-id-" + i);
+            repository.saveState(loaded);
+        }
+        repository.awaitCompaction();
+
+        assertFalse(Files.exists(tempDir.resolve(".syncstate.journal.sealed")));
+
+        var reloaded = new SyncStateRepository(tempDir.toString(), 5, 4, "json").loadState();
+        assertEquals(5, reloaded.syncedIssues.size());
+    }
+
+    @Test
+    void testLoadingAgainReusesTheLoadedStateUntilFilesChange() {
+        var repository = new SyncStateRepository(tempDir.toString(), 5, 1000, "json");
+        var state = repository.loadState();
+        state.addSyncedIssue("linear-1", "JIRA-1", "1");
+        repository.saveState(state);
+        state.addSyncedIssue("linear-2", "JIRA-2", "2");
+        repository.saveState(state);
+
+        assertSame(state, repository.loadState());
+
+        var other = new SyncStateRepository(tempDir.toString(), 5, 1000, "json");
+        var otherState = other.loadState();
+        otherState.addSyncedIssue("linear-3", "JIRA-3", "3");
+        other.saveState(otherState);
+
+        var reloaded = repository.loadState();
+        assertNotSame(state, reloaded);
+        assertEquals(3, reloaded.issueCount());
+    }
+
+    @Test
+    void testIndexedStateReadsIssuesOnDemand() {
+        var repository = new SyncStateRepository(tempDir.toString(), 5, 1000, "indexed");
+        var initial = new SyncState();
+        for (int i = 0; i < 2000; i++) {
+            initial.addSyncedIssue("linear-" + i, "JIRA-" + i, "jira-id-" + i);
+        }
+        repository.saveState(initial);
+        repository.shutdown();
+
+        var reopened = new SyncStateRepository(tempDir.toString(), 5, 1000, "indexed");
+        var loaded = reopened.loadState();
+        assertTrue(loaded.syncedIssues.isEmpty(), "Issues are not read up front");
+        assertEquals(2000, loaded.issueCount());
+        assertEquals("JIRA-1234", loaded.getSyncedIssue("linear-1234").jiraIssueKey);
+        assertEquals("linear-77", loaded.findByJiraKey("JIRA-77").linearIssueId);
+        assertNull(loaded.getSyncedIssue("linear-missing"));
+
+        loaded.getSyncedIssue("linear-5").jiraParentKey = "JIRA-0";
+        loaded.markChanged("linear-5");
+        loaded.addSyncedIssue("linear-new", "JIRA-NEW", "jira-id-new");
+        reopened.saveState(loaded);
+        reopened.shutdown();
+
+        var reloaded = new SyncStateRepository(tempDir.toString(), 5, 1000, "indexed").loadState();
+        assertEquals(2001, reloaded.issueCount());
+        assertEquals("JIRA-0", reloaded.getSyncedIssue("linear-5").jiraParentKey);
+        assertEquals("linear-new", reloaded.findByJiraKey("JIRA-NEW").linearIssueId);
+        assertEquals(loaded.lastSyncTime, reloaded.lastSyncTime);
+    }
+
+    @Test
+    void testIndexedStateMigratesJsonState() {
+        var json = new SyncStateRepository(tempDir.toString(), 5, 1000, "json");
+        var initial = new SyncState();
+        initial.addSyncedIssue("linear-1", "JIRA-1", "jira-id-1");
+        json.saveState(initial);
+        var loaded = json.loadState();
+        loaded.addSyncedIssue("linear-2", "JIRA-2", "jira-id-2");
+        json.saveState(loaded);
+
+        var migrated = new SyncStateRepository(tempDir.toString(), 5, 1000, "indexed").loadState();
+
+        assertEquals(2, migrated.issueCount());
+        assertEquals("JIRA-2", migrated.getSyncedIssue("linear-2").jiraIssueKey);
+        assertFalse(Files.exists(tempDir.resolve(".syncstate.json")));
+        assertFalse(Files.exists(tempDir.resolve(".syncstate.journal")));
+    }
+
+    @Test
+    void testBinaryFormatMigratesJsonSnapshot() {
+        var json = new SyncStateRepository(tempDir.toString(), 5, 1000, "json");
+        var initial = new SyncState();
+        initial.addSyncedIssue("linear-1", "JIRA-1", "jira-id-1");
+        json.saveState(initial);
+
+        var repository = new SyncStateRepository(tempDir.toString(), 5, 1000, "binary");
+        var loaded = repository.loadState();
+        assertEquals("JIRA-1", loaded.getSyncedIssue("linear-1").jiraIssueKey);
+        assertFalse(Files.exists(tempDir.resolve(".syncstate.json")));
+        assertTrue(Files.exists(tempDir.resolve(".syncstate.bin")));
+
+        loaded.addSyncedIssue("linear-2", "JIRA-2", "jira-id-2");
+        repository.saveState(loaded);
+
+        var reloaded = new SyncStateRepository(tempDir.toString(), 5, 1000, "binary").loadState();
+        assertEquals(2, reloaded.syncedIssues.size());
+    }
+
     @Test
     void testSaveState_UpdatesLastSyncTime() throws InterruptedException {
         var testStateManager = new SyncStateRepository("current", 5);
@@ -151,6 +350,66 @@ class SyncStateRepositoryTest {
         assertDoesNotThrow(testStateManager::backupState);
     }
 
+    @Test
+    void testBackupsAreIncrementalAndRestorable() throws IOException {
+        var repository = new SyncStateRepository(tempDir.toString(), 5, 1000, "json");
+        var state = repository.loadState();
+        for (int i = 0; i < 2000; i++) {
+            state.addSyncedIssue("linear-" + i, "JIRA-" + i, Integer.toString(i));
+        }
+        repository.saveState(state);
+        repository.backupState();
+        var chunkDirectory = tempDir.resolve(SyncStateBackups.DIRECTORY_NAME);
+        var chunksAfterFirstBackup = countFiles(chunkDirectory);
+
+        state.addSyncedIssue("linear-new", "JIRA-NEW", "9999");
+        repository.saveState(state);
+        repository.backupState();
+
+        // Only the journal tail is new, the unchanged snapshot is not stored again
+        assertEquals(chunksAfterFirstBackup + 1, countFiles(chunkDirectory));
+        var backups = repository.listBackups();
+        assertEquals(2, backups.size());
+
+        repository.restoreBackup(backups.get(1));
+
+        var restored = new SyncStateRepository(tempDir.toString(), 5, 1000, "json").loadState();
+        assertEquals(2000, restored.issueCount());
+        assertNull(restored.getSyncedIssue("linear-new"));
+        assertThrows(IllegalArgumentException.class, () -> repository.restoreBackup("0"));
+    }
+
+    @Test
+    void testAppendedFileReplacedUnderTheSameFileKeyIsBackedUpWhole() throws IOException {
+        var objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        var backups = new SyncStateBackups(objectMapper, tempDir, 5);
+        var journal = tempDir.resolve(".syncstate.journal");
+        var random = new Random(1);
+        var original = new byte[512 * 1024];
+        random.nextBytes(original);
+        Files.write(journal, original);
+        backups.backup(".syncstate.json", Map.of(journal, SyncStateBackups.Layout.APPENDED));
+
+        // Written over in place, so it keeps its file key like a recreated journal that gets a reused inode
+        var replaced = new byte[768 * 1024];
+        random.nextBytes(replaced);
+        Files.write(journal, replaced);
+        var name = backups.backup(".syncstate.json", Map.of(journal, SyncStateBackups.Layout.APPENDED));
+
+        var restored = backups.extract(name, List.of());
+        try {
+            assertArrayEquals(replaced, Files.readAllBytes(restored.keySet().iterator().next()));
+        } finally {
+            SyncStateBackups.discard(restored.keySet());
+        }
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
     @Test
     void testDeleteState() {
         var testStateManager = new SyncStateRepository("current", 5);
@@ -6,6 +6,10 @@ import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +24,8 @@ class SynchronizerTest {
     @Inject
     SyncStateRepository stateRepository;
 
+    WireMock wiremock;
+
     @BeforeEach
     void setUp() {
 
@@ -29,6 +35,7 @@ class SynchronizerTest {
         WireMock.resetAllRequests();
 
         synchronizer.setDryRun(false);
+        synchronizer.setDeadline(null);
     }
 
     @Test
@@ -37,9 +44,9 @@ class SynchronizerTest {
         var result = synchronizer.synchronize("ENG", null, null, false);
 
         assertTrue(result.success, "Result success should be true");
-        assertEquals(1, result.createdCount);
-        assertEquals(0, result.updatedCount);
-        assertEquals(0, result.skippedCount);
+        assertEquals(1, result.createdCount());
+        assertEquals(0, result.updatedCount());
+        assertEquals(0, result.skippedCount());
 
         verify(postRequestedFor(urlEqualTo("/linear/")));
 
@@ -52,7 +59,7 @@ class SynchronizerTest {
         var result = synchronizer.synchronizeSingleIssue("ENG-123");
 
         assertTrue(result.success);
-        assertEquals(1, result.createdCount);
+        assertEquals(1, result.createdCount());
 
         verify(postRequestedFor(urlEqualTo("/linear/"))
                 .withRequestBody(containing("GetIssue"))
@@ -67,8 +74,8 @@ class SynchronizerTest {
         var result = synchronizer.synchronizeSingleIssue("ENG-999");
 
         assertFalse(result.success);
-        assertEquals(0, result.createdCount);
-        assertEquals(1, result.errors.size());
+        assertEquals(0, result.createdCount());
+        assertEquals(1, result.errorCount());
 
         verify(postRequestedFor(urlEqualTo("/linear/"))
                 .withRequestBody(containing("GetIssue")));
@@ -83,8 +90,8 @@ class SynchronizerTest {
 
         assertTrue(result.success);
         // In dry run, counts reflect what would be created/updated
-        assertEquals(1, result.createdCount);
-        assertEquals(0, result.updatedCount);
+        assertEquals(1, result.createdCount());
+        assertEquals(0, result.updatedCount());
 
         // Verify Linear API was called
         verify(postRequestedFor(urlEqualTo("/linear/")));
@@ -93,6 +100,117 @@ class SynchronizerTest {
         verify(0, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue")));
     }
 
+    @Test
+    void testSynchronize_StopsAtDeadline() {
+        synchronizer.setDeadline(Duration.ofNanos(1));
+
+        var result = synchronizer.synchronize("ENG", null, null, false);
+
+        assertTrue(result.success);
+        assertTrue(result.deadlineReached);
+        assertEquals(0, result.createdCount());
+        verify(0, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue")));
+
+        // The issue left over is picked up by the next run
+        var state = stateRepository.loadState();
+        assertNull(state.lastSyncTime);
+        assertNotNull(state.checkpoint);
+
+        synchronizer.setDeadline(null);
+        var next = synchronizer.synchronize("ENG", null, null, false);
+
+        assertTrue(next.success);
+        assertFalse(next.deadlineReached);
+        assertEquals(1, next.createdCount);
+    }
+
+    @Test
+    void testResume_SyncTimeIsWhenTheInterruptedRunStarted() {
+        synchronizer.setDeadline(Duration.ofNanos(1));
+        synchronizer.synchronize("ENG", null, null, false);
+        var startedAt = stateRepository.loadState().checkpoint.startedAt;
+
+        synchronizer.setDeadline(null);
+        var resumed = synchronizer.resume();
+
+        assertTrue(resumed.success);
+        assertEquals(1, resumed.createdCount());
+        var state = stateRepository.loadState();
+        assertNull(state.checkpoint);
+        assertEquals(startedAt, state.teamSyncTimes.get("ENG"), "Issues updated since the interrupted run started are fetched again");
+    }
+
+    @Test
+    void testSynchronize_KeepsIssuesWrittenBeforeAFetchFailure() {
+        var firstPage = wiremock.register(post(urlEqualTo("/linear/"))
+                .withRequestBody(containing("GetIssues"))
+                .withRequestBody(notContaining("\"after\""))
+                .atPriority(1)
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("linear-pagination-page1.json")));
+        // Late enough for the issue of the first page to be written before the fetch fails
+        var failingPage = wiremock.register(post(urlEqualTo("/linear/"))
+                .withRequestBody(containing("\"after\":\"cursor-1\""))
+                .atPriority(1)
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withFixedDelay(1000)));
+
+        try {
+            var result = synchronizer.synchronize("ENG", null, null, false);
+
+            assertFalse(result.success);
+            assertEquals(1, result.createdCount());
+            verify(1, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue")));
+
+            var state = stateRepository.loadState();
+            assertEquals("TEST-123", state.getSyncedIssue("issue-1").jiraIssueKey, "The created issue survives the failure");
+            assertNotNull(state.checkpoint);
+
+            wiremock.removeStubMapping(failingPage);
+            failingPage = wiremock.register(post(urlEqualTo("/linear/"))
+                    .withRequestBody(containing("\"after\":\"cursor-1\""))
+                    .atPriority(1)
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBodyFile("linear-empty.json")));
+
+            var next = synchronizer.synchronize("ENG", null, null, false);
+
+            assertTrue(next.success);
+            assertEquals(0, next.createdCount());
+            verify(1, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue")));
+        } finally {
+            wiremock.removeStubMapping(firstPage);
+            wiremock.removeStubMapping(failingPage);
+        }
+    }
+
+    @Test
+    void testPartitionedSync_DoesNotCreateTheIssuesOfTheSharedStateAgain(@TempDir Path shards) {
+        var first = synchronizer.synchronize("ENG", null, null, false);
+        assertEquals(1, first.createdCount());
+        WireMock.resetAllRequests();
+
+        var lease = new ShardLeases(stateRepository, shards, "ENG", Duration.ofMinutes(5), "worker-a").claim().orElseThrow();
+        try {
+            synchronizer.setShard(lease);
+            var result = synchronizer.synchronize(null, null, null, true);
+
+            assertTrue(result.success);
+            assertEquals(0, result.createdCount());
+            verify(0, postRequestedFor(urlEqualTo("/jira/rest/api/3/issue")));
+            verify(0, getRequestedFor(urlPathEqualTo("/jira/rest/api/3/search/jql")));
+            assertEquals("TEST-123", lease.stateRepository().loadState().getSyncedIssue("issue-1").jiraIssueKey);
+        } finally {
+            synchronizer.setShard(null);
+            lease.close();
+        }
+    }
+
     @Test
     void testSetDryRun() {
         synchronizer.setDryRun(true);
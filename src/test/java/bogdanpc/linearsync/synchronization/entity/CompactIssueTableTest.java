@@ -0,0 +1,94 @@
+package bogdanpc.linearsync.synchronization.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactIssueTableTest {
+
+    @Test
+    void testCompactedIssuesReadBackUnchanged() {
+        var state = new SyncState();
+        var linearId = UUID.randomUUID().toString();
+        var attachmentId = UUID.randomUUID().toString();
+        var issue = new SyncState.SyncedIssue(linearId, "PROJ-42", "10042");
+        issue.jiraParentKey = "PROJ-7";
+        issue.linearUpdatedAt = Instant.parse("2024-02-28T08:30:00.123456789Z");
+        issue.status = SyncState.SyncStatus.ERROR;
+        issue.syncedAttachments.addAll(Set.of(attachmentId, "legacy-attachment"));
+        issue.fieldHashes.putAll(Map.of("SUMMARY", "0123456789abcdef", "LABELS", "", "CUSTOM", "not a hash"));
+        state.syncedIssues.put(linearId, issue);
+        state.addSyncedIssue("legacy-id", "weird key", "abc");
+
+        state.compactIssues();
+
+        assertTrue(state.syncedIssues.isEmpty());
+        assertEquals(2, state.issueCount());
+        assertTrue(state.isIssueAlreadySynced(linearId));
+        assertTrue(state.isAttachmentAlreadySynced(linearId, attachmentId));
+        assertTrue(state.isAttachmentAlreadySynced(linearId, "legacy-attachment"));
+        assertFalse(state.isAttachmentAlreadySynced(linearId, UUID.randomUUID().toString()));
+
+        var restored = state.getSyncedIssue(linearId);
+        assertEquals("PROJ-42", restored.jiraIssueKey);
+        assertEquals("10042", restored.jiraIssueId);
+        assertEquals("PROJ-7", restored.jiraParentKey);
+        assertEquals(issue.lastSyncTime, restored.lastSyncTime);
+        assertEquals(issue.linearUpdatedAt, restored.linearUpdatedAt);
+        assertNull(restored.jiraUpdatedAt);
+        assertEquals(SyncState.SyncStatus.ERROR, restored.status);
+        assertEquals(issue.syncedAttachments, restored.syncedAttachments);
+        assertEquals(issue.fieldHashes, restored.fieldHashes);
+        assertEquals("weird key", state.getSyncedIssue("legacy-id").jiraIssueKey);
+        assertEquals(linearId, state.findByJiraKey("PROJ-42").linearIssueId);
+    }
+
+    @Test
+    void testChangesToRestoredIssueAreKeptOnNextCompaction() {
+        var state = new SyncState();
+        var linearId = UUID.randomUUID().toString();
+        state.addSyncedIssue(linearId, "PROJ-1", "1");
+        state.compactIssues();
+
+        var first = UUID.randomUUID().toString();
+        state.markAttachmentSynced(linearId, first);
+        state.compactIssues();
+        var restored = state.getSyncedIssue(linearId);
+        assertEquals(Set.of(first), restored.syncedAttachments);
+
+        restored.syncedAttachments = new HashSet<>(Set.of(UUID.randomUUID().toString()));
+        state.compactIssues();
+
+        assertFalse(state.isAttachmentAlreadySynced(linearId, first));
+        assertEquals(1, state.getSyncedIssue(linearId).syncedAttachments.size());
+    }
+
+    @Test
+    void testCompactedIssuesTakeAFewHundredBytesEach() {
+        var issues = 100_000;
+        var table = new CompactIssueTable();
+        for (int i = 0; i < issues; i++) {
+            var issue = new SyncState.SyncedIssue(UUID.randomUUID().toString(), "PROJ-" + (i + 1), Integer.toString(10000 + i));
+            issue.linearUpdatedAt = Instant.now();
+            issue.jiraUpdatedAt = Instant.now();
+            issue.syncedAttachments.add(UUID.randomUUID().toString());
+            for (var field : new String[]{"SUMMARY", "DESCRIPTION", "LABELS", "PRIORITY", "STATUS", "COMMENTS"}) {
+                issue.fieldHashes.put(field, "%016x".formatted(i * 31L + field.hashCode()));
+            }
+            table.put(issue);
+        }
+
+        assertEquals(issues, table.size());
+        assertEquals(0, table.extrasCount(), "Typical issues need no side record");
+        // As objects, the three strings, three instants, the attachment set and six hash entries of one issue
+        // alone take over a kilobyte
+        var bytesPerIssue = table.footprintBytes() / issues;
+        assertTrue(bytesPerIssue <= 320, "%d bytes per issue".formatted(bytesPerIssue));
+    }
+}